@@ -0,0 +1,32 @@
+package org.broadinstitute.hellbender.engine;
+
+/**
+ * Per-thread worker used by {@link AssemblyRegionWalker} when assembly regions are processed on more than one thread.
+ *
+ * Each worker thread gets its own processor (see {@link AssemblyRegionWalker#makeAssemblyRegionProcessor}), so
+ * implementations may keep non-thread-safe state such as a calling engine. {@link #process} does the expensive work
+ * on the worker thread and returns a task that publishes the results; these tasks are run on the traversal thread,
+ * one at a time and in the same order in which the regions were produced, so output can be written without any
+ * additional synchronization.
+ *
+ * Each region is given its own copies of its reads before it's handed to a processor, so implementations may modify
+ * the reads in a region (as finalizing a region does) without affecting the regions being processed on other threads.
+ */
+public interface AssemblyRegionProcessor extends AutoCloseable {
+
+    /**
+     * Process an individual AssemblyRegion on a worker thread.
+     *
+     * @param region region to process (pre-marked as either active or inactive)
+     * @param referenceContext reference data overlapping the full extended span of the assembly region
+     * @param featureContext features overlapping the full extended span of the assembly region
+     * @return a task that publishes the results for this region, to be run on the traversal thread in region order
+     */
+    Runnable process( final AssemblyRegion region, final ReferenceContext referenceContext, final FeatureContext featureContext );
+
+    /**
+     * Release any resources held by this processor. Called on the traversal thread once traversal is complete.
+     */
+    @Override
+    default void close() {}
+}
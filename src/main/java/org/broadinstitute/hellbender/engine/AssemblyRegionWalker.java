@@ -1,5 +1,6 @@
 package org.broadinstitute.hellbender.engine;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import htsjdk.samtools.util.Locatable;
 import org.broadinstitute.barclay.argparser.Advanced;
 import org.broadinstitute.barclay.argparser.Argument;
@@ -8,6 +9,7 @@ import org.broadinstitute.hellbender.engine.filters.CountingReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadFilterLibrary;
 import org.broadinstitute.hellbender.engine.filters.WellformedReadFilter;
+import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.IGVUtils;
 import org.broadinstitute.hellbender.utils.IntervalUtils;
@@ -17,13 +19,22 @@ import org.broadinstitute.hellbender.utils.activityprofile.ActivityProfileState;
 import org.broadinstitute.hellbender.utils.downsampling.PositionalDownsampler;
 import org.broadinstitute.hellbender.utils.downsampling.ReadsDownsampler;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.reference.ReferenceBases;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * An AssemblyRegionWalker is a tool that processes an entire region of reads at a time, each marked as either "active"
@@ -42,6 +53,12 @@ import java.util.List;
  *
  * Internally, the reads are loaded in chunks called read shards, which are then subdivided into active/inactive regions
  * for processing by the tool implementation. One read shard is created per contig.
+ *
+ * Tools that override {@link #supportsMultiThreadedTraversal} and {@link #makeAssemblyRegionProcessor} can also be run
+ * with more than one {@link #ASSEMBLY_REGION_THREADS_LONG_NAME}. In that mode regions are still produced sequentially
+ * on the traversal thread, but each region is handed to a pool of worker threads, each with its own
+ * {@link AssemblyRegionProcessor}, and the results are published on the traversal thread in region order, so the
+ * output is identical to that of a single-threaded run. {@link #apply} is not called in this mode.
  */
 public abstract class AssemblyRegionWalker extends GATKTool {
 
@@ -54,6 +71,7 @@ public abstract class AssemblyRegionWalker extends GATKTool {
     public static final String PROPAGATION_LONG_NAME = "max-prob-propagation-distance";
     public static final String PROFILE_OUT_LONG_NAME = "activity-profile-out";
     public static final String ASSEMBLY_REGION_OUT_LONG_NAME = "assembly-region-out";
+    public static final String ASSEMBLY_REGION_THREADS_LONG_NAME = "assembly-region-threads";
 
     @Advanced
     @Argument(fullName = MIN_ASSEMBLY_LONG_NAME, doc = "Minimum size of an assembly region", optional = true)
@@ -104,6 +122,17 @@ public abstract class AssemblyRegionWalker extends GATKTool {
 
     private PrintStream assemblyRegionOutStream;
 
+    @Advanced
+    @Argument(fullName = ASSEMBLY_REGION_THREADS_LONG_NAME, doc = "Number of threads used to process assembly regions. Values greater than 1 are only supported by some tools.", optional = true, minValue = 1)
+    protected int assemblyRegionThreads = 1;
+
+    // Maximum number of regions per worker thread that may be queued or in flight before the traversal thread
+    // waits for the oldest one to finish. Bounds the number of regions (and their reads) held in memory.
+    private static final int PENDING_REGIONS_PER_THREAD = 2;
+
+    // How long to wait for interrupted workers to finish their current region when traversal ends
+    private static final long WORKER_SHUTDOWN_TIMEOUT_SECONDS = 60;
+
     /**
      * @return Default value for the {@link #minAssemblyRegionSize} parameter, if none is provided on the command line
      */
@@ -175,6 +204,11 @@ public abstract class AssemblyRegionWalker extends GATKTool {
             throw new CommandLineException.BadArgumentValue("maxReadsPerAlignmentStart must be >= 0");
         }
 
+        if ( assemblyRegionThreads > 1 && ! supportsMultiThreadedTraversal() ) {
+            throw new CommandLineException.BadArgumentValue(ASSEMBLY_REGION_THREADS_LONG_NAME, String.valueOf(assemblyRegionThreads),
+                    getClass().getSimpleName() + " does not support processing assembly regions on more than one thread");
+        }
+
         final List<SimpleInterval> intervals = hasIntervals() ? intervalsForTraversal : IntervalUtils.getAllIntervalsForReference(getHeaderForReads().getSequenceDictionary());
         readShards = makeReadShards(intervals);
 
@@ -260,15 +294,26 @@ public abstract class AssemblyRegionWalker extends GATKTool {
         // meter to check the time more frequently (every 10 regions instead of every 1000 regions).
         progressMeter.setRecordsBetweenTimeChecks(10L);
 
-        for ( final MultiIntervalLocalReadShard readShard : readShards ) {
-            // Since reads in each shard are lazily fetched, we need to pass the filter and transformers to the window
-            // instead of filtering the reads directly here
-            readShard.setPreReadFilterTransformer(makePreReadFilterTransformer());
-            readShard.setReadFilter(countedFilter);
-            readShard.setDownsampler(createDownsampler());
-            readShard.setPostReadFilterTransformer(makePostReadFilterTransformer());
-
-            processReadShard(readShard, reference, features);
+        final RegionProcessingPool pool = assemblyRegionThreads > 1 ? new RegionProcessingPool(assemblyRegionThreads) : null;
+        try {
+            for ( final MultiIntervalLocalReadShard readShard : readShards ) {
+                // Since reads in each shard are lazily fetched, we need to pass the filter and transformers to the window
+                // instead of filtering the reads directly here
+                readShard.setPreReadFilterTransformer(makePreReadFilterTransformer());
+                readShard.setReadFilter(countedFilter);
+                readShard.setDownsampler(createDownsampler());
+                readShard.setPostReadFilterTransformer(makePostReadFilterTransformer());
+
+                if ( pool == null ) {
+                    processReadShard(readShard, reference, features);
+                } else {
+                    processReadShardInParallel(readShard, reference, features, pool);
+                }
+            }
+        } finally {
+            if ( pool != null ) {
+                pool.close();
+            }
         }
 
         logger.info(countedFilter.getSummaryLine());
@@ -283,7 +328,7 @@ public abstract class AssemblyRegionWalker extends GATKTool {
      * @param features FeatureManager
      */
     private void processReadShard(MultiIntervalLocalReadShard shard, ReferenceDataSource reference, FeatureManager features ) {
-        final Iterator<AssemblyRegion> assemblyRegionIter = new AssemblyRegionIterator(shard, getHeaderForReads(), reference, features, assemblyRegionEvaluator(), minAssemblyRegionSize, maxAssemblyRegionSize, assemblyRegionPadding, activeProbThreshold, maxProbPropagationDistance, includeReadsWithDeletionsInIsActivePileups());
+        final Iterator<AssemblyRegion> assemblyRegionIter = makeAssemblyRegionIterator(shard, reference, features);
 
         // Call into the tool implementation to process each assembly region from this shard.
         while ( assemblyRegionIter.hasNext() ) {
@@ -301,6 +346,141 @@ public abstract class AssemblyRegionWalker extends GATKTool {
         }
     }
 
+    /**
+     * Like {@link #processReadShard}, but hands each region to the worker threads of the given pool. Regions are
+     * produced and their results published on the calling thread, in order; all regions from the shard have been
+     * published when this method returns.
+     *
+     * The reference bases for each region are fetched on the calling thread, so the workers never touch the
+     * (non-thread-safe) reference data source.
+     */
+    private void processReadShardInParallel(final MultiIntervalLocalReadShard shard, final ReferenceDataSource reference, final FeatureManager features, final RegionProcessingPool pool) {
+        final Iterator<AssemblyRegion> assemblyRegionIter = makeAssemblyRegionIterator(shard, reference, features);
+
+        while ( assemblyRegionIter.hasNext() ) {
+            final AssemblyRegion assemblyRegion = assemblyRegionIter.next();
+
+            logger.debug("Processing assembly region at " + assemblyRegion.getSpan() + " isActive: " + assemblyRegion.isActive() + " numReads: " + assemblyRegion.getReads().size());
+            writeAssemblyRegion(assemblyRegion);
+
+            final SimpleInterval extendedSpan = assemblyRegion.getExtendedSpan();
+            final ReferenceBases referenceBases = new ReferenceBases(reference.queryAndPrefetch(extendedSpan).getBases(), extendedSpan);
+            final ReferenceContext referenceContext = new ReferenceContext(new ReferenceMemorySource(referenceBases, getReferenceDictionary()), extendedSpan);
+            final FeatureContext featureContext = new FeatureContext(features, extendedSpan);
+
+            // Neighbouring regions share the reads in their padding, and tools may modify the reads of a region
+            // (e.g. when finalizing it), so each region is given its own copies before it's handed to a worker
+            final List<GATKRead> sharedReads = new ArrayList<>(assemblyRegion.getReads());
+            assemblyRegion.clearReads();
+            sharedReads.forEach(read -> assemblyRegion.add(read.copy()));
+
+            pool.submit(assemblyRegion, referenceContext, featureContext);
+        }
+
+        pool.finishAll();
+    }
+
+    private Iterator<AssemblyRegion> makeAssemblyRegionIterator(final MultiIntervalLocalReadShard shard, final ReferenceDataSource reference, final FeatureManager features) {
+        return new AssemblyRegionIterator(shard, getHeaderForReads(), reference, features, assemblyRegionEvaluator(), minAssemblyRegionSize, maxAssemblyRegionSize, assemblyRegionPadding, activeProbThreshold, maxProbPropagationDistance, includeReadsWithDeletionsInIsActivePileups());
+    }
+
+    /**
+     * Worker threads (each with its own {@link AssemblyRegionProcessor}) plus the queue of regions submitted to
+     * them, oldest first. All methods other than those run by the workers must be called from the traversal thread.
+     */
+    private final class RegionProcessingPool implements AutoCloseable {
+        private final ExecutorService executor;
+        private final List<AssemblyRegionProcessor> processors = Collections.synchronizedList(new ArrayList<>());
+        private final ThreadLocal<AssemblyRegionProcessor> processorForThread = ThreadLocal.withInitial(this::newProcessor);
+        private final Deque<PendingRegion> pendingRegions = new ArrayDeque<>();
+        private final int maxPendingRegions;
+
+        private RegionProcessingPool(final int numThreads) {
+            executor = Executors.newFixedThreadPool(numThreads, new ThreadFactoryBuilder()
+                    .setNameFormat("assembly-region-worker-%d")
+                    .setDaemon(true)
+                    .build());
+            maxPendingRegions = numThreads * PENDING_REGIONS_PER_THREAD;
+            logger.info("Processing assembly regions on " + numThreads + " threads");
+        }
+
+        private AssemblyRegionProcessor newProcessor() {
+            // processors are created one at a time, since tool engines may update shared argument collections on creation
+            synchronized ( processors ) {
+                final AssemblyRegionProcessor processor = Utils.nonNull(makeAssemblyRegionProcessor(), "makeAssemblyRegionProcessor returned null");
+                processors.add(processor);
+                return processor;
+            }
+        }
+
+        /**
+         * Queue the region for processing, first publishing the results of the oldest regions if too many are pending.
+         */
+        private void submit(final AssemblyRegion region, final ReferenceContext referenceContext, final FeatureContext featureContext) {
+            while ( pendingRegions.size() >= maxPendingRegions ) {
+                finishOldest();
+            }
+            pendingRegions.add(new PendingRegion(region.getSpan(),
+                    executor.submit(() -> processorForThread.get().process(region, referenceContext, featureContext))));
+        }
+
+        private void finishAll() {
+            while ( ! pendingRegions.isEmpty() ) {
+                finishOldest();
+            }
+        }
+
+        private void finishOldest() {
+            final PendingRegion oldest = pendingRegions.remove();
+            final Runnable publishResults;
+            try {
+                publishResults = oldest.result.get();
+            } catch ( final InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                throw new GATKException("Interrupted while processing assembly region at " + oldest.span, e);
+            } catch ( final ExecutionException e ) {
+                if ( e.getCause() instanceof RuntimeException ) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new GATKException("Error processing assembly region at " + oldest.span, e.getCause());
+            }
+            if ( publishResults != null ) {
+                publishResults.run();
+            }
+
+            // For this traversal, the progress meter unit is the assembly region rather than the read shard
+            progressMeter.update(oldest.span);
+        }
+
+        @Override
+        public void close() {
+            executor.shutdownNow();
+            try {
+                // the processors can't be closed while a worker may still be using one
+                if ( ! executor.awaitTermination(WORKER_SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS) ) {
+                    logger.warn("Assembly region workers did not stop within " + WORKER_SHUTDOWN_TIMEOUT_SECONDS + " seconds; not closing their processors");
+                    return;
+                }
+            } catch ( final InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                throw new GATKException("Interrupted while waiting for assembly region workers to stop", e);
+            }
+            synchronized ( processors ) {
+                processors.forEach(AssemblyRegionProcessor::close);
+            }
+        }
+    }
+
+    private static final class PendingRegion {
+        private final SimpleInterval span;
+        private final Future<Runnable> result;
+
+        private PendingRegion(final SimpleInterval span, final Future<Runnable> result) {
+            this.span = span;
+            this.result = result;
+        }
+    }
+
     private void writeAssemblyRegion(final AssemblyRegion region) {
         writeActivityProfile(region.getSupportingStates());
 
@@ -357,4 +537,27 @@ public abstract class AssemblyRegionWalker extends GATKTool {
      * @param featureContext features overlapping the full extended span of the assembly region
      */
     public abstract void apply( final AssemblyRegion region, final ReferenceContext referenceContext, final FeatureContext featureContext );
+
+    /**
+     * Tools that can process assembly regions on more than one thread must override this to return true, and must
+     * also override {@link #makeAssemblyRegionProcessor}.
+     *
+     * @return true if this tool supports a value greater than 1 for {@link #ASSEMBLY_REGION_THREADS_LONG_NAME}
+     */
+    protected boolean supportsMultiThreadedTraversal() {
+        return false;
+    }
+
+    /**
+     * Create a processor to be used by a single worker thread when assembly regions are processed on more than one
+     * thread. Called once per worker thread, on that thread, but never concurrently. Must be overridden by tools for which
+     * {@link #supportsMultiThreadedTraversal} returns true.
+     *
+     * Processors are closed at the end of traversal, before {@link #onTraversalSuccess} and {@link #closeTool}.
+     *
+     * @return a new processor, not shared with any other thread
+     */
+    protected AssemblyRegionProcessor makeAssemblyRegionProcessor() {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support multi-threaded assembly region traversal");
+    }
 }
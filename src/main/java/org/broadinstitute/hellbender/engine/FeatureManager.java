@@ -293,13 +293,16 @@ public final class FeatureManager implements AutoCloseable {
      * FeatureManager was initialized with, or was not an @Argument-annotated field in the tool
      * (or parent classes).
      *
+     * Synchronized so that {@link FeatureContext}s handed to the worker threads of a multi-threaded
+     * {@link AssemblyRegionWalker} can share this manager.
+     *
      * @param featureDescriptor FeatureInput argument from our tool representing the Feature source to query
      * @param interval interval to query over (returned Features will overlap this interval)
      * @param <T> type of Feature in the source represented by featureDescriptor
      * @return A List of all Features in the backing data source for the provided FeatureInput that overlap
      *         the provided interval (may be empty if there are none, but never null)
      */
-    public <T extends Feature> List<T> getFeatures( final FeatureInput<T> featureDescriptor, final SimpleInterval interval ) {
+    public synchronized <T extends Feature> List<T> getFeatures( final FeatureInput<T> featureDescriptor, final SimpleInterval interval ) {
         final FeatureDataSource<T> dataSource = lookupDataSource(featureDescriptor);
 
         // No danger of a ClassCastException here, since we verified that the FeatureDataSource for this
@@ -338,7 +341,7 @@ public final class FeatureManager implements AutoCloseable {
      * @param <T> type of Feature in our FeatureInput
      * @return header for the provided FeatureInput
      */
-    public <T extends Feature> Object getHeader( final FeatureInput<T> featureDescriptor ) {
+    public synchronized <T extends Feature> Object getHeader( final FeatureInput<T> featureDescriptor ) {
         final FeatureDataSource<T> dataSource = lookupDataSource(featureDescriptor);
         return dataSource.getHeader();
     }
@@ -60,12 +60,37 @@ public class AddContextDataToReadSpark {
             final JavaRDD<GATKVariant> variants, final List<String> variantsPaths, final JoinStrategy joinStrategy,
             final SAMSequenceDictionary sequenceDictionary,
             final int shardSize, final int shardPadding) {
+        return add(ctx, reads, referenceSource, variants, variantsPaths, null, joinStrategy, sequenceDictionary, shardSize, shardPadding);
+    }
+
+    /**
+     * Add context data ({@link ReadContextData}) to reads, only loading the known variants from the variants files that
+     * overlap the given intervals.
+     * @param ctx the Spark context
+     * @param reads the coordinate-sorted reads
+     * @param referenceSource the reference source
+     * @param variants the coordinate-sorted variants
+     * @param variantsPaths the paths to variants files
+     * @param variantsIntervals if not null, only the variants from the variants files that overlap these intervals are
+     *                          loaded (reads outside these intervals will not be paired with any variant from the files)
+     * @param joinStrategy the strategy to use to join context data to reads
+     * @param sequenceDictionary the sequence dictionary for the reads (only used for OVERLAPS_PARTITIONER join strategy, use null otherwise)
+     * @param shardSize the maximum size of each shard, in bases (only used for OVERLAPS_PARTITIONER join strategy, use 0 otherwise)
+     * @param shardPadding amount of extra context around each shard, in bases (only used for OVERLAPS_PARTITIONER join strategy, use 0 otherwise)
+     * @return a RDD of read-context pairs, in coordinate-sorted order
+     */
+    public static JavaPairRDD<GATKRead, ReadContextData> add(
+            final JavaSparkContext ctx,
+            final JavaRDD<GATKRead> reads, final ReferenceMultiSource referenceSource,
+            final JavaRDD<GATKVariant> variants, final List<String> variantsPaths, final List<SimpleInterval> variantsIntervals,
+            final JoinStrategy joinStrategy, final SAMSequenceDictionary sequenceDictionary,
+            final int shardSize, final int shardPadding) {
         // TODO: this static method should not be filtering the unmapped reads.  To be addressed in another issue.
         JavaRDD<GATKRead> mappedReads = reads.filter(read -> ReadFilterLibrary.MAPPED.test(read));
         JavaPairRDD<GATKRead, Tuple2<Iterable<GATKVariant>, ReferenceBases>> withVariantsWithRef;
         if (joinStrategy.equals(JoinStrategy.BROADCAST)) {
             // Join Reads and Variants
-            JavaPairRDD<GATKRead, Iterable<GATKVariant>> withVariants = variantsPaths == null ? BroadcastJoinReadsWithVariants.join(mappedReads, variants) : BroadcastJoinReadsWithVariants.join(mappedReads, variantsPaths);
+            JavaPairRDD<GATKRead, Iterable<GATKVariant>> withVariants = variantsPaths == null ? BroadcastJoinReadsWithVariants.join(mappedReads, variants) : BroadcastJoinReadsWithVariants.join(mappedReads, variantsPaths, variantsIntervals);
             // Join Reads with ReferenceBases
             withVariantsWithRef = BroadcastJoinReadsWithRefBases.addBases(referenceSource, withVariants);
         } else if (joinStrategy.equals(JoinStrategy.SHUFFLE)) {
@@ -74,7 +99,7 @@ public class AddContextDataToReadSpark {
             // Join Reads with ReferenceBases
             withVariantsWithRef = ShuffleJoinReadsWithRefBases.addBases(referenceSource, withVariants);
         } else if (joinStrategy.equals(JoinStrategy.OVERLAPS_PARTITIONER)) {
-            return addUsingOverlapsPartitioning(ctx, reads, referenceSource, variants, variantsPaths, sequenceDictionary, shardSize, shardPadding);
+            return addUsingOverlapsPartitioning(ctx, reads, referenceSource, variants, variantsPaths, variantsIntervals, sequenceDictionary, shardSize, shardPadding);
         } else {
             throw new UserException("Unknown JoinStrategy");
         }
@@ -88,6 +113,7 @@ public class AddContextDataToReadSpark {
      * @param referenceSource the reference source
      * @param variants the coordinate-sorted variants
      * @param variantsPaths the paths to variants files, if null then the variants RDD is used
+     * @param variantsIntervals if not null, only the variants from the variants files that overlap these intervals are loaded
      * @param sequenceDictionary the sequence dictionary for the reads
      * @param shardSize the maximum size of each shard, in bases
      * @param shardPadding amount of extra context around each shard, in bases
@@ -96,8 +122,8 @@ public class AddContextDataToReadSpark {
     private static JavaPairRDD<GATKRead, ReadContextData> addUsingOverlapsPartitioning(
             final JavaSparkContext ctx,
             final JavaRDD<GATKRead> mappedReads, final ReferenceMultiSource referenceSource,
-            final JavaRDD<GATKVariant> variants, final List<String> variantsPaths, final SAMSequenceDictionary sequenceDictionary,
-            final int shardSize, final int shardPadding) {
+            final JavaRDD<GATKVariant> variants, final List<String> variantsPaths, final List<SimpleInterval> variantsIntervals,
+            final SAMSequenceDictionary sequenceDictionary, final int shardSize, final int shardPadding) {
 
         final List<SimpleInterval> intervals = IntervalUtils.getAllIntervalsForReference(sequenceDictionary);
         // use unpadded shards (padding is only needed for reference bases)
@@ -119,15 +145,16 @@ public class AddContextDataToReadSpark {
                 // get reference bases for this shard (padded)
                 SimpleInterval paddedInterval = shard.getInterval().expandWithinContig(shardPadding, sequenceDictionary);
                 ReferenceBases referenceBases = bReferenceSource.getValue().getReferenceBases(paddedInterval);
-                final IntervalsSkipList<GATKVariant> intervalsSkipList = variantsPaths == null ? variantsBroadcast.getValue() :
-                        KnownSitesCache.getVariants(variantsPaths);
+                final IntervalsSkipList<GATKVariant> intervalsSkipList = variantsPaths == null ? variantsBroadcast.getValue() : null;
+                final PackedKnownSites knownSites = variantsPaths == null ? null : KnownSitesCache.getVariants(variantsPaths, variantsIntervals);
                 Iterator<Tuple2<GATKRead, ReadContextData>> transform = Iterators.transform(shard.iterator(), new Function<GATKRead, Tuple2<GATKRead, ReadContextData>>() {
                     @Nullable
                     @Override
                     public Tuple2<GATKRead, ReadContextData> apply(@Nullable GATKRead r) {
                         List<GATKVariant> overlappingVariants;
                         if (SimpleInterval.isValid(r.getContig(), r.getStart(), r.getEnd())) {
-                            overlappingVariants = intervalsSkipList.getOverlapping(new SimpleInterval(r));
+                            final SimpleInterval readInterval = new SimpleInterval(r);
+                            overlappingVariants = knownSites == null ? intervalsSkipList.getOverlapping(readInterval) : knownSites.getOverlapping(readInterval);
                         } else {
                             //Sometimes we have reads that do not form valid intervals (reads that do not consume any ref bases, eg CIGAR 61S90I
                             //In those cases, we'll just say that nothing overlaps the read
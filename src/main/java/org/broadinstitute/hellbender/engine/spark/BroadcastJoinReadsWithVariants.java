@@ -1,5 +1,6 @@
 package org.broadinstitute.hellbender.engine.spark;
 
+import com.google.common.collect.Iterators;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
@@ -12,6 +13,7 @@ import scala.Tuple2;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Function;
 
 /**
  * Joins an RDD of GATKReads to variant data using a broadcast strategy.
@@ -45,12 +47,35 @@ public final class BroadcastJoinReadsWithVariants {
      * @return an RDD that contains each read along with the overlapping variants
      */
     public static JavaPairRDD<GATKRead, Iterable<GATKVariant>> join(final JavaRDD<GATKRead> reads, final List<String> variantsPaths) {
-        return reads.mapToPair(r -> getOverlapping(r, KnownSitesCache.getVariants(variantsPaths)));
+        return join(reads, variantsPaths, null);
+    }
+
+    /**
+     * Joins each read of an RDD<GATKRead> with overlapping variants from the given variants files, only loading the
+     * variants that overlap the given intervals. The variants are held in a compact form ({@link PackedKnownSites}),
+     * loaded once per executor, and not broadcast.
+     *
+     * @param reads the RDD of reads, in coordinate-sorted order
+     * @param variantsPaths the path to the variants file
+     * @param variantsIntervals if not null, only the variants overlapping these intervals are loaded
+     * @return an RDD that contains each read along with the overlapping variants
+     */
+    public static JavaPairRDD<GATKRead, Iterable<GATKVariant>> join(final JavaRDD<GATKRead> reads, final List<String> variantsPaths, final List<SimpleInterval> variantsIntervals) {
+        // look the known sites up once per partition rather than once per read, since the cache is synchronized and
+        // keyed by the whole list of intervals
+        return reads.mapPartitionsToPair(readIterator -> {
+            final PackedKnownSites knownSites = KnownSitesCache.getVariants(variantsPaths, variantsIntervals);
+            return Iterators.transform(readIterator, r -> getOverlapping(r, knownSites::getOverlapping));
+        });
     }
 
     private static Tuple2<GATKRead, Iterable<GATKVariant>> getOverlapping(final GATKRead read, final IntervalsSkipList<GATKVariant> intervalsSkipList) {
+        return getOverlapping(read, intervalsSkipList::getOverlapping);
+    }
+
+    private static Tuple2<GATKRead, Iterable<GATKVariant>> getOverlapping(final GATKRead read, final Function<SimpleInterval, List<GATKVariant>> overlapQuery) {
         if (SimpleInterval.isValid(read.getContig(), read.getStart(), read.getEnd())) {
-            return new Tuple2<>(read, intervalsSkipList.getOverlapping(new SimpleInterval(read)));
+            return new Tuple2<>(read, overlapQuery.apply(new SimpleInterval(read)));
         } else {
             //Sometimes we have reads that do not form valid intervals (reads that do not consume any ref bases, eg CIGAR 61S90I
             //In those cases, we'll just say that nothing overlaps the read
@@ -13,6 +13,7 @@ import htsjdk.variant.variantcontext.VariantContext;
 import org.apache.spark.serializer.KryoRegistrator;
 import org.bdgenomics.adam.serialization.ADAMKryoRegistrator;
 import org.broadinstitute.hellbender.utils.read.SAMRecordToGATKReadAdapter;
+import org.broadinstitute.hellbender.utils.read.markduplicates.BinaryReadsKey;
 import org.broadinstitute.hellbender.utils.read.markduplicates.PairedEnds;
 
 import java.util.Collections;
@@ -56,6 +57,9 @@ public class GATKRegistrator implements KryoRegistrator {
         //register to avoid writing the full name of this class over and over
         kryo.register(PairedEnds.class, new FieldSerializer<>(kryo, PairedEnds.class));
 
+        //duplicate-marking shuffle keys, written as fixed-width primitives
+        kryo.register(BinaryReadsKey.class, new BinaryReadsKey.Serializer());
+
         // register the ADAM data types using Avro serialization, including:
         //     AlignmentRecord
         //     Genotype
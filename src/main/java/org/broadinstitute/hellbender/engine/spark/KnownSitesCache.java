@@ -1,59 +1,35 @@
 package org.broadinstitute.hellbender.engine.spark;
 
-import htsjdk.variant.variantcontext.VariantContext;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
-import org.broadinstitute.hellbender.engine.FeatureDataSource;
-import org.broadinstitute.hellbender.utils.collections.IntervalsSkipList;
-import org.broadinstitute.hellbender.utils.variant.GATKVariant;
-import org.broadinstitute.hellbender.utils.variant.VariantContextVariantAdapter;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * A cache of known sites by file path, with the property that there is only one copy of each collection of known sites per JVM.
  * This class is an alternative for cases that can't use a Spark broadcast due to its 2GB limitation.
+ *
+ * The known sites are held as {@link PackedKnownSites}, and may be restricted to the variants overlapping some intervals
+ * (typically the intervals being traversed), so that each executor only holds the known sites it can actually use.
  */
 class KnownSitesCache {
 
-    private static final Logger log = LogManager.getLogger(KnownSitesCache.class);
+    private static final Map<List<Object>, PackedKnownSites> PATHS_TO_VARIANTS = new HashMap<>();
 
-    private static final Map<List<String>, IntervalsSkipList<GATKVariant>> PATHS_TO_VARIANTS = new HashMap<>();
-
-    public static synchronized IntervalsSkipList<GATKVariant> getVariants(List<String> paths) {
-        if (PATHS_TO_VARIANTS.containsKey(paths)) {
-            return PATHS_TO_VARIANTS.get(paths);
-        }
-        IntervalsSkipList<GATKVariant> variants = retrieveVariants(paths);
-        PATHS_TO_VARIANTS.put(paths, variants);
-        return variants;
-    }
-
-    private static IntervalsSkipList<GATKVariant> retrieveVariants(List<String> paths) {
-        return new IntervalsSkipList<>(paths
-                .stream()
-                .map(KnownSitesCache::loadFromFeatureDataSource)
-                .flatMap(Collection::stream)
-                .collect(Collectors.toList()));
+    public static PackedKnownSites getVariants(List<String> paths) {
+        return getVariants(paths, null);
     }
 
-    private static List<GATKVariant> loadFromFeatureDataSource(String path) {
-        int cloudPrefetchBuffer = 40; // only used for GCS
-        try ( final FeatureDataSource<VariantContext> dataSource = new FeatureDataSource<>(path, null, 0, null, cloudPrefetchBuffer, cloudPrefetchBuffer) ) {
-            return wrapQueryResults(dataSource.iterator());
+    /**
+     * @param paths the paths of the variant files
+     * @param intervals if not {@code null}, only the variants overlapping these intervals are loaded
+     */
+    public static synchronized PackedKnownSites getVariants(List<String> paths, List<SimpleInterval> intervals) {
+        final List<Object> key = Arrays.asList(paths, intervals);
+        if (PATHS_TO_VARIANTS.containsKey(key)) {
+            return PATHS_TO_VARIANTS.get(key);
         }
-    }
-
-    private static List<GATKVariant> wrapQueryResults(final Iterator<VariantContext> queryResults ) {
-        final List<GATKVariant> wrappedResults = new ArrayList<>();
-        long count = 0;
-        while ( queryResults.hasNext() ) {
-            if (count++ % 100000 == 0) {
-                log.info("Number of variants read: " + count);
-            }
-            wrappedResults.add(VariantContextVariantAdapter.sparkVariantAdapter(queryResults.next()));
-        }
-        return wrappedResults;
+        PackedKnownSites variants = PackedKnownSites.load(paths, intervals);
+        PATHS_TO_VARIANTS.put(key, variants);
+        return variants;
     }
 }
@@ -0,0 +1,218 @@
+package org.broadinstitute.hellbender.engine.spark;
+
+import htsjdk.samtools.util.OverlapDetector;
+import htsjdk.variant.variantcontext.VariantContext;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.engine.FeatureDataSource;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.variant.GATKVariant;
+import org.broadinstitute.hellbender.utils.variant.MinimalVariant;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Holds the positions and types of many variants (typically known sites) in a compact form, with an efficient operation
+ * to get the variants that overlap a given query interval.
+ *
+ * Rather than one {@link GATKVariant} object per variant, the variants of each contig are kept in primitive arrays of
+ * start positions, end positions and types (9 bytes per variant), sorted by start. {@link MinimalVariant}s are only
+ * created for the variants returned by {@link #getOverlapping}. This makes it practical to hold large collections of
+ * known sites (such as dbSNP) in the memory of each executor, or to broadcast smaller ones.
+ */
+public final class PackedKnownSites implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger log = LogManager.getLogger(PackedKnownSites.class);
+
+    private static final byte SNP = 1;
+    private static final byte INDEL = 2;
+
+    private final Map<String, ContigSites> contigs;
+    private final long size;
+
+    private PackedKnownSites(final Map<String, ContigSites> contigs) {
+        this.contigs = contigs;
+        this.size = contigs.values().stream().mapToLong(c -> c.starts.length).sum();
+    }
+
+    /**
+     * Creates a PackedKnownSites that holds the positions and types of the given variants.
+     *
+     * @param variants variants, not necessarily sorted. Will be iterated over exactly once.
+     */
+    public static PackedKnownSites fromVariants(final Iterable<? extends GATKVariant> variants) {
+        Utils.nonNull(variants);
+        final Builder builder = new Builder();
+        for (final GATKVariant variant : variants) {
+            builder.add(variant.getContig(), variant.getStart(), variant.getEnd(), variant.isSnp(), variant.isIndel());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Loads the variants of the given VCF files, optionally only those that overlap the given intervals.
+     * The files do not need to be indexed.
+     *
+     * @param paths the paths of the variant files
+     * @param intervals if not {@code null}, only the variants overlapping these intervals are kept
+     */
+    public static PackedKnownSites load(final List<String> paths, final List<SimpleInterval> intervals) {
+        Utils.nonNull(paths);
+        final OverlapDetector<SimpleInterval> overlapDetector = intervals == null ? null : OverlapDetector.create(intervals);
+        final Builder builder = new Builder();
+        final int cloudPrefetchBuffer = 40; // only used for GCS
+        for (final String path : paths) {
+            try ( final FeatureDataSource<VariantContext> dataSource = new FeatureDataSource<>(path, null, 0, null, cloudPrefetchBuffer, cloudPrefetchBuffer) ) {
+                long count = 0;
+                for (final VariantContext vc : dataSource) {
+                    if (count++ % 1000000 == 0) {
+                        log.info("Number of variants read: " + count);
+                    }
+                    if (overlapDetector == null || overlapDetector.overlapsAny(vc)) {
+                        builder.add(vc.getContig(), vc.getStart(), vc.getEnd(), vc.isSNP(), vc.isIndel());
+                    }
+                }
+            }
+        }
+        final PackedKnownSites result = builder.build();
+        log.info("Loaded " + result.size() + " known sites");
+        return result;
+    }
+
+    /**
+     * @return the number of variants held
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns all the variants that overlap with the query, sorted by start and end position.
+     * The query doesn't *have* to be in the same contig as any variant we hold, but of course if it isn't you'll get
+     * an empty result. You may modify the returned list.
+     */
+    public List<GATKVariant> getOverlapping(final SimpleInterval query) {
+        Utils.nonNull(query);
+        final ContigSites sites = contigs.get(query.getContig());
+        return sites == null ? new ArrayList<>() : sites.getOverlapping(query);
+    }
+
+    /**
+     * The variants of a single contig.
+     */
+    private static final class ContigSites implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        // approx number of buckets we're aiming for, and the minimum number of variants per bucket,
+        // as in IntervalsSkipListOneContig
+        private static final int NUMBUCKETS = 1000;
+        private static final int MIN_BUCKET_SIZE = 32;
+
+        private final String contig;
+        // sorted by start, then end
+        private final int[] starts;
+        private final int[] ends;
+        private final byte[] types;
+
+        // each bucket contains 2**shift variants.
+        private final int shift;
+        // reach[x] is the max end over the variants of bucket x and all the ones before it
+        private final int[] reach;
+
+        ContigSites(final String contig, final int[] starts, final int[] ends, final byte[] types) {
+            this.contig = contig;
+            this.starts = starts;
+            this.ends = ends;
+            this.types = types;
+            shift = 31 - Integer.numberOfLeadingZeros(Math.max(MIN_BUCKET_SIZE, starts.length / NUMBUCKETS));
+            reach = new int[(starts.length >> shift) + 1];
+            int max = 0;
+            for (int i = 0; i < starts.length; i++) {
+                max = Math.max(max, ends[i]);
+                reach[i >> shift] = max;
+            }
+        }
+
+        List<GATKVariant> getOverlapping(final SimpleInterval query) {
+            final List<GATKVariant> result = new ArrayList<>();
+            for (int i = firstPotentiallyReaching(query.getStart()); i < starts.length && starts[i] <= query.getEnd(); i++) {
+                if (ends[i] >= query.getStart()) {
+                    result.add(new MinimalVariant(new SimpleInterval(contig, starts[i], ends[i]), (types[i] & SNP) != 0, (types[i] & INDEL) != 0));
+                }
+            }
+            return result;
+        }
+
+        // returns an index such that no variant before that index reaches the given position
+        private int firstPotentiallyReaching(final int position) {
+            // the reach is non-decreasing, so find the first bucket that reaches the position by binary search
+            int low = 0;
+            int high = starts.length == 0 ? 0 : (starts.length - 1 >> shift) + 1;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (reach[mid] >= position) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low << shift;
+        }
+    }
+
+    /**
+     * Accumulates variants contig by contig, each packed in a single long, and sorts them when built.
+     */
+    private static final class Builder {
+        private final Map<String, long[]> packedByContig = new LinkedHashMap<>();
+        private final Map<String, Integer> sizeByContig = new HashMap<>();
+
+        void add(final String contig, final int start, final int end, final boolean isSnp, final boolean isIndel) {
+            Utils.validateArg(start > 0 && end >= start - 1, () -> "invalid variant position " + contig + ":" + start + "-" + end);
+            long[] packed = packedByContig.get(contig);
+            final int size = sizeByContig.getOrDefault(contig, 0);
+            if (packed == null || size == packed.length) {
+                packed = Arrays.copyOf(packed == null ? new long[0] : packed, Math.max(16, (int) Math.min(Integer.MAX_VALUE - 8, 2L * size)));
+                packedByContig.put(contig, packed);
+            }
+            packed[size] = pack(start, end, (byte) ((isSnp ? SNP : 0) | (isIndel ? INDEL : 0)));
+            sizeByContig.put(contig, size + 1);
+        }
+
+        PackedKnownSites build() {
+            final Map<String, ContigSites> contigs = new LinkedHashMap<>();
+            for (final Map.Entry<String, long[]> entry : packedByContig.entrySet()) {
+                final int size = sizeByContig.get(entry.getKey());
+                final long[] packed = entry.getValue();
+                // the packed values sort by start, then end
+                Arrays.sort(packed, 0, size);
+                final int[] starts = new int[size];
+                final int[] ends = new int[size];
+                final byte[] types = new byte[size];
+                for (int i = 0; i < size; i++) {
+                    final long value = packed[i] ^ Long.MIN_VALUE;
+                    starts[i] = (int) (value >>> 33);
+                    ends[i] = (int) (value >>> 2) & Integer.MAX_VALUE;
+                    types[i] = (byte) (value & 3);
+                }
+                entry.setValue(null); // let the packed values be collected as soon as they are unpacked
+                contigs.put(entry.getKey(), new ContigSites(entry.getKey(), starts, ends, types));
+            }
+            return new PackedKnownSites(contigs);
+        }
+
+        // start in the 31 high bits, then end in the next 31 bits, then type. Starts of 2^30 or more set the sign
+        // bit, so it's flipped to make the signed order of the packed values the same as their unsigned order.
+        private static long pack(final int start, final int end, final byte type) {
+            return (((long) start << 33) | ((long) end << 2) | type) ^ Long.MIN_VALUE;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PackedKnownSites{" + size + " variants on " + contigs.size() + " contigs}";
+    }
+}
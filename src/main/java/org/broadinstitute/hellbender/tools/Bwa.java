@@ -0,0 +1,289 @@
+package org.broadinstitute.hellbender.tools;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import htsjdk.samtools.SAMFileHeader;
+import org.broadinstitute.barclay.argparser.Argument;
+import org.broadinstitute.barclay.argparser.BetaFeature;
+import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
+import org.broadinstitute.barclay.help.DocumentedFeature;
+import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
+import org.broadinstitute.hellbender.engine.GATKTool;
+import org.broadinstitute.hellbender.engine.filters.CountingReadFilter;
+import org.broadinstitute.hellbender.engine.filters.ReadFilter;
+import org.broadinstitute.hellbender.engine.filters.ReadFilterLibrary;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.tools.spark.bwa.BwaArgumentCollection;
+import org.broadinstitute.hellbender.utils.bwa.*;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.SAMFileGATKReadWriter;
+import picard.cmdline.programgroups.ReadDataManipulationProgramGroup;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Align reads with BWA-MEM on a single machine, without Spark
+ *
+ * <p>This is the non-Spark counterpart of BwaSpark: it aligns unaligned reads (typically an unaligned BAM) with the
+ * BWA-MEM bindings, using an index image created by BwaMemIndexImageCreator. The reads are processed in a pipeline:
+ * the input reads are read in batches on the main thread, each batch is aligned on one of a pool of aligner threads
+ * sharing the same index, and the aligned reads are written in the input order by a writer thread.</p>
+ *
+ * <p>For paired-end alignment (the default), the two reads of each pair must be next to each other in the input.
+ * BWA estimates the insert size distribution of each batch separately, so the batches should not be too small.</p>
+ *
+ * <h3>Input</h3>
+ *
+ * <ul>
+ *     <li>Unaligned reads</li>
+ *     <li>Reference FASTA file, with a BWA-MEM index image file</li>
+ * </ul>
+ *
+ * <h3>Output</h3>
+ *
+ * <ul>
+ *     <li>Aligned reads, in the same order as the input reads</li>
+ * </ul>
+ *
+ * <h3>Usage example</h3>
+ *
+ * <pre>
+ * gatk Bwa \
+ *     -I unaligned.bam \
+ *     -R reference.fasta \
+ *     -O aligned.bam \
+ *     --aligner-threads 8
+ * </pre>
+ */
+@DocumentedFeature
+@CommandLineProgramProperties(
+        summary = "Aligns reads with BWA-MEM on a single machine, with reading, aligning and writing in a pipeline",
+        oneLineSummary = "BWA-MEM without Spark",
+        programGroup = ReadDataManipulationProgramGroup.class
+)
+@BetaFeature
+public final class Bwa extends GATKTool {
+
+    public static final String BATCH_SIZE_FULL_NAME = "batch-size";
+    public static final String ALIGNER_THREADS_FULL_NAME = "aligner-threads";
+
+    @Argument(doc = "the output bam",
+            shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME,
+            fullName = StandardArgumentDefinitions.OUTPUT_LONG_NAME)
+    private File output;
+
+    /**
+     * If this argument is not specified, the default behavior is to look for a file whose name is the FASTA reference
+     * file with a <i>.img</i> suffix.
+     */
+    @Argument(doc = "The BWA-MEM index image file",
+            fullName = BwaArgumentCollection.BWA_MEM_INDEX_IMAGE_FULL_NAME,
+            shortName = BwaArgumentCollection.BWA_MEM_INDEX_IMAGE_SHORT_NAME,
+            optional = true)
+    private String indexImageFile;
+
+    @Argument(doc = "Run single-end instead of paired-end alignment",
+            fullName = BwaArgumentCollection.SINGLE_END_ALIGNMENT_FULL_NAME,
+            shortName = BwaArgumentCollection.SINGLE_END_ALIGNMENT_SHORT_NAME,
+            optional = true)
+    private boolean singleEndAlignment = false;
+
+    @Argument(doc = "Number of reads aligned at once by each aligner thread (rounded up to an even number for paired-end alignment)",
+            fullName = BATCH_SIZE_FULL_NAME,
+            minValue = 1,
+            optional = true)
+    private int batchSize = 100000;
+
+    @Argument(doc = "Number of threads aligning batches of reads",
+            fullName = ALIGNER_THREADS_FULL_NAME,
+            minValue = 1,
+            optional = true)
+    private int alignerThreads = 4;
+
+    private BwaMemIndex bwaMemIndex;
+    // the header the reads are aligned with
+    private SAMFileHeader alignmentHeader;
+    private SAMFileGATKReadWriter writer;
+    private ExecutorService alignerPool;
+    private ExecutorService writerExecutor;
+    // the aligners of the threads of the pool, which are closed at the end
+    private final List<BwaMemAligner> aligners = Collections.synchronizedList(new ArrayList<>());
+    private ThreadLocal<BwaMemAligner> alignerForThread;
+    private final AlignmentStageTimes stageTimes = new AlignmentStageTimes();
+
+    @Override
+    public boolean requiresReads() {
+        return true;
+    }
+
+    @Override
+    public boolean requiresReference() {
+        return true;
+    }
+
+    @Override
+    public String getProgressMeterRecordLabel() { return "reads"; }
+
+    @Override
+    protected SAMFileHeader getHeaderForSAMWriter() {
+        final SAMFileHeader header = super.getHeaderForSAMWriter();
+        header.setSequenceDictionary(alignmentHeader.getSequenceDictionary());
+        return header;
+    }
+
+    @Override
+    public void onTraversalStart() {
+        if ( indexImageFile == null ) {
+            indexImageFile = referenceArguments.getReferenceFileName() + BwaMemIndex.IMAGE_FILE_EXTENSION;
+        }
+        bwaMemIndex = BwaMemIndexCache.getInstance(indexImageFile);
+        alignmentHeader = getHeaderForReads().clone();
+        // unaligned reads usually have no sequence dictionary
+        if ( alignmentHeader.getSequenceDictionary().isEmpty() ) {
+            alignmentHeader.setSequenceDictionary(getReferenceDictionary());
+        }
+        writer = createSAMWriter(output, true);
+        alignerPool = Executors.newFixedThreadPool(alignerThreads, new ThreadFactoryBuilder()
+                .setNameFormat("bwa-aligner-%d")
+                .setDaemon(true)
+                .build());
+        writerExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("bwa-writer")
+                .setDaemon(true)
+                .build());
+        alignerForThread = ThreadLocal.withInitial(this::newAligner);
+        if ( !singleEndAlignment ) {
+            // the two reads of a pair must be in the same batch
+            batchSize += batchSize & 1;
+        }
+    }
+
+    private BwaMemAligner newAligner() {
+        final BwaMemAligner aligner = new BwaMemAligner(bwaMemIndex);
+        // we are dealing with interleaved, paired reads.  tell BWA that they're paired.
+        if ( !singleEndAlignment ) {
+            aligner.alignPairs();
+        }
+        aligners.add(aligner);
+        return aligner;
+    }
+
+    @Override
+    public void traverse() {
+        final CountingReadFilter countedFilter = makeReadFilter();
+        // filter paired reads after alignment, since filtering does not know about pairs
+        final ReadFilter inputFilter = singleEndAlignment ? countedFilter : ReadFilterLibrary.ALLOW_ALL_READS;
+        final ReadFilter outputFilter = singleEndAlignment ? ReadFilterLibrary.ALLOW_ALL_READS : countedFilter;
+
+        // the writes of the batches, in input order; bounded so that the reads don't get too far ahead of the writer
+        final Deque<Future<?>> pendingWrites = new ArrayDeque<>();
+        final int maxPendingWrites = 2 * alignerThreads;
+        final List<GATKRead> batch = new ArrayList<>(batchSize);
+        final Iterator<GATKRead> readItr = getTransformedReadStream(inputFilter).iterator();
+        while ( readItr.hasNext() ) {
+            batch.add(readItr.next());
+            progressMeter.update(null);
+            if ( batch.size() == batchSize || !readItr.hasNext() ) {
+                final List<GATKRead> reads = new ArrayList<>(batch);
+                batch.clear();
+                final Future<List<GATKRead>> alignedReads = alignerPool.submit(() -> align(reads));
+                pendingWrites.add(writerExecutor.submit(() -> write(getResult(alignedReads), outputFilter)));
+                while ( pendingWrites.size() > maxPendingWrites ) {
+                    getResult(pendingWrites.poll());
+                }
+            }
+        }
+        while ( !pendingWrites.isEmpty() ) {
+            getResult(pendingWrites.poll());
+        }
+
+        logger.info(countedFilter.getSummaryLine());
+        logger.info("Aligned " + stageTimes);
+    }
+
+    private List<GATKRead> align(final List<GATKRead> reads) {
+        if ( !singleEndAlignment && (reads.size() & 1) != 0 ) {
+            throw new UserException.BadInput("We're supposed to be aligning paired reads, but there are an odd number of them.");
+        }
+        final long start = System.nanoTime();
+        final List<byte[]> seqs = new ArrayList<>(reads.size());
+        for ( final GATKRead read : reads ) {
+            seqs.add(read.getBases());
+        }
+        final long extracted = System.nanoTime();
+        final List<List<BwaMemAlignment>> alignments = alignerForThread.get().alignSeqs(seqs);
+        final long aligned = System.nanoTime();
+        final List<GATKRead> alignedReads = BwaMemAlignmentUtils.toAlignedReads(reads, alignments, bwaMemIndex.getReferenceContigNames(), alignmentHeader);
+        stageTimes.addBatch(reads.size());
+        stageTimes.addSequenceExtraction(extracted - start);
+        stageTimes.addAlignment(aligned - extracted);
+        stageTimes.addConversion(System.nanoTime() - aligned);
+        return alignedReads;
+    }
+
+    private Void write(final List<GATKRead> alignedReads, final ReadFilter outputFilter) {
+        for ( final GATKRead read : alignedReads ) {
+            if ( outputFilter.test(read) ) {
+                writer.addRead(read);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Waits for the result of a task, rethrowing the exception of the task if it failed.
+     */
+    private static <T> T getResult(final Future<T> future) {
+        try {
+            return future.get();
+        } catch ( final ExecutionException e ) {
+            if ( e.getCause() instanceof RuntimeException ) {
+                throw (RuntimeException)e.getCause();
+            }
+            throw new GATKException("Alignment failed", e.getCause());
+        } catch ( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while aligning reads", e);
+        }
+    }
+
+    @Override
+    public void closeTool() {
+        // after a failure, batches may still be being aligned or written
+        final boolean alignersTerminated = shutdown(alignerPool);
+        final boolean writerTerminated = shutdown(writerExecutor);
+        // the writer can't be closed while a batch may still be being written to it
+        if ( writer != null ) {
+            if ( writerTerminated ) {
+                writer.close();
+            } else {
+                logger.warn("Not closing the output, as the writer thread did not stop in time");
+            }
+        }
+        // the native aligners and index can't be released while they may be in use
+        if ( alignersTerminated ) {
+            aligners.forEach(BwaMemAligner::close);
+            if ( bwaMemIndex != null ) {
+                BwaMemIndexCache.releaseInstance(bwaMemIndex);
+                BwaMemIndexCache.trimInstances();
+            }
+        } else {
+            logger.warn("Not releasing the BWA index, as the aligner threads did not stop in time");
+        }
+    }
+
+    private static boolean shutdown(final ExecutorService executor) {
+        if ( executor == null ) {
+            return true;
+        }
+        executor.shutdownNow();
+        try {
+            return executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch ( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
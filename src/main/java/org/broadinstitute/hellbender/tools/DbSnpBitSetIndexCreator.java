@@ -0,0 +1,91 @@
+package org.broadinstitute.hellbender.tools;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.variant.utils.SAMSequenceDictionaryExtractor;
+import org.broadinstitute.barclay.argparser.Argument;
+import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
+import org.broadinstitute.barclay.help.DocumentedFeature;
+import org.broadinstitute.hellbender.cmdline.CommandLineProgram;
+import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
+import org.broadinstitute.hellbender.utils.variant.DbSnpBitSetUtil;
+import org.broadinstitute.hellbender.utils.variant.DbSnpVariantType;
+import picard.cmdline.programgroups.OtherProgramGroup;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Create a bitset index of the sites of a dbSNP VCF file
+ *
+ * <p>Loading the dbSNP sites requires parsing the whole dbSNP VCF file, which takes minutes. This tool does it once and
+ * saves the sites to a bitset index file, which can then be memory-mapped instead of the VCF by tools that use
+ * {@link DbSnpBitSetUtil}. The index records the sequence lengths of the given sequence dictionary (which is checked
+ * when the index is loaded) and the variant types it was built for.</p>
+ *
+ * <h3>Input</h3>
+ *
+ * <ul>
+ *     <li>dbSNP VCF file</li>
+ *     <li>Optionally, the sequence dictionary of the reference</li>
+ * </ul>
+ *
+ * <h4>Output</h4>
+ *
+ * <ul>
+ *     <li>dbSNP bitset index file</li>
+ * </ul>
+ *
+ * <h3>Usage example</h3>
+ *
+ * <pre>
+ * gatk DbSnpBitSetIndexCreator \
+ *     -V dbsnp.vcf \
+ *     --sequence-dictionary reference.dict \
+ *     -O dbsnp.vcf.bitset
+ * </pre>
+ *
+ */
+@DocumentedFeature
+@CommandLineProgramProperties(
+        summary = "Create a bitset index of the sites of a dbSNP VCF file, which can be loaded much faster than the VCF",
+        oneLineSummary = "Create a bitset index of the sites of a dbSNP VCF file",
+        programGroup = OtherProgramGroup.class
+)
+public final class DbSnpBitSetIndexCreator extends CommandLineProgram {
+
+    @Argument(fullName = StandardArgumentDefinitions.VARIANT_LONG_NAME,
+            shortName = StandardArgumentDefinitions.VARIANT_SHORT_NAME,
+            doc = "Input dbSNP VCF file.")
+    private File dbSnpFile = null;
+
+    /**
+     * If not provided, the default index file path will be the same as the dbSNP VCF with the extension ".bitset".
+     */
+    @Argument(fullName = StandardArgumentDefinitions.OUTPUT_LONG_NAME,
+            shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME,
+            doc = "Output bitset index file (ending in \"" + DbSnpBitSetUtil.INDEX_EXTENSION + "\").",
+            optional = true)
+    private File outputIndexFile = null;
+
+    @Argument(fullName = StandardArgumentDefinitions.SEQUENCE_DICTIONARY_NAME,
+            doc = "Sequence dictionary (or reference with a dictionary) to check the index against when it is loaded.",
+            optional = true)
+    private File sequenceDictionaryFile = null;
+
+    @Argument(fullName = "variant-type",
+            doc = "Types of variants to include in the index. If not given, all variants are included.",
+            optional = true)
+    private List<DbSnpVariantType> variantTypes = new ArrayList<>();
+
+    @Override
+    protected Object doWork() {
+        if (outputIndexFile == null) {
+            outputIndexFile = new File(dbSnpFile.getPath() + DbSnpBitSetUtil.INDEX_EXTENSION);
+        }
+        final SAMSequenceDictionary sequenceDictionary = sequenceDictionaryFile == null ? null :
+                SAMSequenceDictionaryExtractor.extractDictionary(sequenceDictionaryFile);
+        new DbSnpBitSetUtil(dbSnpFile, sequenceDictionary, variantTypes).writeIndex(outputIndexFile);
+        return null;
+    }
+}
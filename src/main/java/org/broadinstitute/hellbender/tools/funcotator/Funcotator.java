@@ -1,13 +1,16 @@
 package org.broadinstitute.hellbender.tools.funcotator;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import htsjdk.tribble.Feature;
 import htsjdk.tribble.util.ParsingUtils;
 import htsjdk.variant.variantcontext.VariantContext;
 import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
+import org.broadinstitute.barclay.argparser.Advanced;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.BetaFeature;
 import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
+import org.broadinstitute.barclay.argparser.Hidden;
 import org.broadinstitute.barclay.help.DocumentedFeature;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import picard.cmdline.programgroups.VariantEvaluationProgramGroup;
@@ -22,6 +25,7 @@ import org.broadinstitute.hellbender.tools.funcotator.dataSources.xsv.SimpleKeyX
 import org.broadinstitute.hellbender.tools.funcotator.vcfOutput.VcfOutputRenderer;
 import org.broadinstitute.hellbender.utils.codecs.gencode.GencodeGtfFeature;
 import org.broadinstitute.hellbender.utils.codecs.xsvLocatableTable.XsvTableFeature;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.io.IOUtils;
 
 import java.io.File;
@@ -29,6 +33,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 /**
@@ -264,6 +272,52 @@ public class Funcotator extends VariantWalker {
     )
     protected List<String> annotationOverrides = FuncotatorArgumentDefinitions.ANNOTATION_OVERRIDES_DEFAULT_VALUE;
 
+    @Advanced
+    @Argument(
+            fullName  = FuncotatorArgumentDefinitions.COSMIC_GENE_CACHE_SIZE_LONG_NAME,
+            optional = true,
+            minValue = 0,
+            doc = "Maximum number of genes whose COSMIC records are kept in memory once queried, so that variants in the same gene do not query the COSMIC database again (0 to disable)."
+    )
+    protected int cosmicGeneCacheSize = FuncotatorArgumentDefinitions.COSMIC_GENE_CACHE_SIZE_DEFAULT_VALUE;
+
+    @Advanced
+    @Argument(
+            fullName  = FuncotatorArgumentDefinitions.PRELOAD_COSMIC_LONG_NAME,
+            optional = true,
+            doc = "Read all of the records of the COSMIC data sources into memory at startup rather than querying them gene by gene.  Faster for large inputs, at the cost of memory."
+    )
+    protected boolean preloadCosmic = FuncotatorArgumentDefinitions.PRELOAD_COSMIC_DEFAULT_VALUE;
+
+    @Advanced
+    @Argument(
+            fullName  = FuncotatorArgumentDefinitions.INDEX_SIMPLE_XSV_LONG_NAME,
+            optional = true,
+            doc = "Look up the rows of simple XSV data sources in an index built next to each data source file (on first use, or when the file changes) rather than reading the whole file into memory at startup.  Read-only data sources can be indexed ahead of time with IndexSimpleKeyXsvDataSource."
+    )
+    protected boolean indexSimpleXsv = FuncotatorArgumentDefinitions.INDEX_SIMPLE_XSV_DEFAULT_VALUE;
+
+    @Advanced
+    @Argument(
+            fullName  = FuncotatorArgumentDefinitions.ANNOTATION_THREADS_LONG_NAME,
+            optional = true,
+            minValue = 1,
+            doc = "Number of threads on which to annotate variants.  Variants are annotated in batches and written out in their input order."
+    )
+    protected int annotationThreads = FuncotatorArgumentDefinitions.ANNOTATION_THREADS_DEFAULT_VALUE;
+
+    /**
+     * Number of variants handed to an annotation thread at a time when more than one thread is used.
+     */
+    @Hidden
+    @Argument(
+            fullName  = FuncotatorArgumentDefinitions.ANNOTATION_BATCH_SIZE_LONG_NAME,
+            optional = true,
+            minValue = 1,
+            doc = "Number of variants handed to an annotation thread at a time."
+    )
+    protected int annotationBatchSize = FuncotatorArgumentDefinitions.ANNOTATION_BATCH_SIZE_DEFAULT_VALUE;
+
     //==================================================================================================================
 
     private OutputRenderer outputRenderer;
@@ -272,6 +326,12 @@ public class Funcotator extends VariantWalker {
 
     private List<FeatureInput<? extends Feature>> manualFeatureInputs = new ArrayList<>();
 
+    private AnnotationWorkers annotationWorkers; // null unless more than one thread is used
+
+    // Maximum number of batches per annotation thread that may be queued or in flight before the traversal thread
+    // waits for the oldest one to finish. Bounds the number of variants held in memory.
+    private static final int PENDING_BATCHES_PER_THREAD = 2;
+
     //==================================================================================================================
 
     @Override
@@ -303,6 +363,10 @@ public class Funcotator extends VariantWalker {
                                                unaccountedForOverrideAnnotations);
 
         outputRenderer.open();
+
+        if ( annotationThreads > 1 ) {
+            annotationWorkers = new AnnotationWorkers(annotationThreads);
+        }
     }
 
     @Override
@@ -318,16 +382,27 @@ public class Funcotator extends VariantWalker {
 
     @Override
     public Object onTraversalSuccess() {
+        if ( annotationWorkers != null ) {
+            annotationWorkers.finish();
+        }
         return true;
     }
 
     @Override
     public void closeTool() {
 
+        if ( annotationWorkers != null ) {
+            annotationWorkers.close();
+        }
+
         for(final DataSourceFuncotationFactory factory : dataSourceFactories) {
             factory.close();
         }
-        outputRenderer.close();
+
+        // The output renderer is not created if initialization fails:
+        if ( outputRenderer != null ) {
+            outputRenderer.close();
+        }
 
     }
 
@@ -369,12 +444,31 @@ public class Funcotator extends VariantWalker {
      */
     private void enqueueAndHandleVariant(final VariantContext variant, final ReferenceContext referenceContext, final FeatureContext featureContext) {
 
-        // Get our feature inputs:
+        // Get our feature inputs.
+        // NOTE: This must happen on the traversal thread, as the feature data sources are not thread-safe.
         final List<Feature> featureList = new ArrayList<>();
         for ( final FeatureInput<? extends Feature> featureInput : manualFeatureInputs ) {
             featureList.addAll( featureContext.getValues(featureInput) );
         }
 
+        if ( annotationWorkers == null ) {
+            outputRenderer.write(variant, createFuncotations(variant, referenceContext, featureList));
+        }
+        else {
+            annotationWorkers.add(new VariantToAnnotate(variant, referenceContext, featureList));
+        }
+    }
+
+    /**
+     * Creates the funcotations for the given {@code variant} from all of our data sources.
+     * Must be thread-safe, as it is called by the annotation threads when more than one thread is used.
+     * @param variant {@link VariantContext} to annotate.
+     * @param referenceContext {@link ReferenceContext} corresponding to the given {@code variant}.
+     * @param featureList {@link List} of {@link Feature} corresponding to the given {@code variant}.
+     * @return The {@link List} of {@link Funcotation} for the given {@code variant}, in the order in which they are to be written.
+     */
+    private List<Funcotation> createFuncotations(final VariantContext variant, final ReferenceContext referenceContext, final List<Feature> featureList) {
+
         // Create a place to keep our funcotations:
         final List<Funcotation> funcotations = new ArrayList<>();
 
@@ -403,7 +497,7 @@ public class Funcotator extends VariantWalker {
 
             funcotations.addAll( funcotationFactory.createFuncotations(variant, referenceContext, featureList, gencodeFuncotations) );
         }
-        outputRenderer.write(variant, funcotations);
+        return funcotations;
     }
 
     /**
@@ -596,24 +690,35 @@ public class Funcotator extends VariantWalker {
                                            final LinkedHashMap<String, String> annotationOverridesMap) {
         // Create our SimpleKeyXsvFuncotationFactory:
         final SimpleKeyXsvFuncotationFactory factory =
-                //final String name, final Path filePath, final String delim, final int keyColumn, final XsvDataKeyType keyType
-                new SimpleKeyXsvFuncotationFactory(
-                    dataSourceProperties.getProperty("name"),
-                    dataSourceFile.resolveSibling(IOUtils.getPath(dataSourceProperties.getProperty("src_file"))),
-                    dataSourceProperties.getProperty("version"),
-                    dataSourceProperties.getProperty("xsv_delimiter"),
-                    Integer.valueOf(dataSourceProperties.getProperty("xsv_key_column")),
-                    SimpleKeyXsvFuncotationFactory.XsvDataKeyType.valueOf(dataSourceProperties.getProperty("xsv_key")),
-                    annotationOverridesMap,
-                    0,
-                    Boolean.valueOf(dataSourceProperties.getProperty("xsv_permissive_cols"))
-                );
+                createSimpleXsvFuncotationFactory(dataSourceFile, dataSourceProperties, annotationOverridesMap, indexSimpleXsv);
 
         // Add it to our sources:
         dataSourceFactories.add( factory );
 
     }
 
+    /**
+     * Creates the {@link SimpleKeyXsvFuncotationFactory} of a simple XSV data source from its (valid) config file properties.
+     */
+    static SimpleKeyXsvFuncotationFactory createSimpleXsvFuncotationFactory(final Path dataSourceFile,
+                                                                            final Properties dataSourceProperties,
+                                                                            final LinkedHashMap<String, String> annotationOverridesMap,
+                                                                            final boolean useKeyIndex) {
+        //final String name, final Path filePath, final String delim, final int keyColumn, final XsvDataKeyType keyType
+        return new SimpleKeyXsvFuncotationFactory(
+                dataSourceProperties.getProperty("name"),
+                dataSourceFile.resolveSibling(IOUtils.getPath(dataSourceProperties.getProperty("src_file"))),
+                dataSourceProperties.getProperty("version"),
+                dataSourceProperties.getProperty("xsv_delimiter"),
+                Integer.valueOf(dataSourceProperties.getProperty("xsv_key_column")),
+                SimpleKeyXsvFuncotationFactory.XsvDataKeyType.valueOf(dataSourceProperties.getProperty("xsv_key")),
+                annotationOverridesMap,
+                0,
+                Boolean.valueOf(dataSourceProperties.getProperty("xsv_permissive_cols")),
+                useKeyIndex
+        );
+    }
+
     private void createCosmicDataSource(final Path dataSourceFile,
                                         final Properties dataSourceProperties,
                                         final LinkedHashMap<String, String> annotationOverridesMap) {
@@ -621,7 +726,9 @@ public class Funcotator extends VariantWalker {
         final CosmicFuncotationFactory cosmicFuncotationFactory =
                 new CosmicFuncotationFactory(
                   dataSourceFile.resolveSibling(IOUtils.getPath(dataSourceProperties.getProperty("src_file"))),
-                  annotationOverridesMap
+                  annotationOverridesMap,
+                  cosmicGeneCacheSize,
+                  preloadCosmic
                 );
 
         // Add our factory to our factory list:
@@ -667,7 +774,7 @@ public class Funcotator extends VariantWalker {
     // Config file static helper methods:
     // ------------------------------------------------
 
-    private static Properties readConfigFileProperties(final Path configFilePath) {
+    static Properties readConfigFileProperties(final Path configFilePath) {
         final Properties configProperties = new Properties();
         try ( final InputStream inputStream = Files.newInputStream(configFilePath, StandardOpenOption.READ) ) {
             configProperties.load(inputStream);
@@ -679,7 +786,7 @@ public class Funcotator extends VariantWalker {
         return configProperties;
     }
 
-    private static void assertConfigFilePropertiesAreValid(final Properties configFileProperties, final Path configFilePath) {
+    static void assertConfigFilePropertiesAreValid(final Properties configFileProperties, final Path configFilePath) {
 
         // Universally required config properties:
         assertConfigPropertiesContainsKey("name", configFileProperties, configFilePath);
@@ -797,4 +904,137 @@ public class Funcotator extends VariantWalker {
                     " - " + field + " is not readable: " + sourceFilePath);
         }
     }
+
+    //==================================================================================================================
+
+    /**
+     * Threads that annotate batches of variants, plus the batches submitted to them, oldest first.
+     * The funcotations of each batch are written out by the traversal thread in the order in which the batches were
+     * submitted, so that the output has the same order as the input.  All methods must be called from the traversal thread.
+     */
+    private final class AnnotationWorkers implements AutoCloseable {
+        private final List<AnnotationWorker> workers = new ArrayList<>();
+        private final Deque<Future<List<List<Funcotation>>>> pendingBatches = new ArrayDeque<>();
+        private final Deque<List<VariantToAnnotate>> pendingBatchVariants = new ArrayDeque<>();
+        private final int maxPendingBatches;
+        private List<VariantToAnnotate> batch = new ArrayList<>(annotationBatchSize);
+        private int nextWorker = 0;
+
+        private AnnotationWorkers(final int numThreads) {
+            for ( int i = 0; i < numThreads; ++i ) {
+                workers.add(new AnnotationWorker(i));
+            }
+            maxPendingBatches = numThreads * PENDING_BATCHES_PER_THREAD;
+            logger.info("Annotating variants on " + numThreads + " threads");
+        }
+
+        private void add(final VariantToAnnotate variant) {
+            batch.add(variant);
+            if ( batch.size() >= annotationBatchSize ) {
+                submitBatch();
+            }
+        }
+
+        private void submitBatch() {
+            if ( batch.isEmpty() ) {
+                return;
+            }
+            while ( pendingBatches.size() >= maxPendingBatches ) {
+                writeOldest();
+            }
+            final AnnotationWorker worker = workers.get(nextWorker);
+            nextWorker = (nextWorker + 1) % workers.size();
+            final List<VariantToAnnotate> variants = batch;
+            pendingBatches.add(worker.executor.submit(() -> worker.annotate(variants)));
+            pendingBatchVariants.add(variants);
+            batch = new ArrayList<>(annotationBatchSize);
+        }
+
+        /**
+         * Waits for the oldest batch to be annotated and writes out its variants.
+         */
+        private void writeOldest() {
+            final List<List<Funcotation>> funcotations;
+            try {
+                funcotations = pendingBatches.remove().get();
+            }
+            catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new GATKException("Interrupted while annotating variants", ex);
+            }
+            catch (final ExecutionException ex) {
+                if ( ex.getCause() instanceof RuntimeException ) {
+                    throw (RuntimeException) ex.getCause();
+                }
+                throw new GATKException("Error annotating variants", ex.getCause());
+            }
+
+            final List<VariantToAnnotate> variants = pendingBatchVariants.remove();
+            for ( int i = 0; i < variants.size(); ++i ) {
+                outputRenderer.write(variants.get(i).variant, funcotations.get(i));
+            }
+        }
+
+        /**
+         * Annotates and writes out all remaining variants.
+         */
+        private void finish() {
+            submitBatch();
+            while ( !pendingBatches.isEmpty() ) {
+                writeOldest();
+            }
+        }
+
+        @Override
+        public void close() {
+            workers.forEach(AnnotationWorker::close);
+        }
+    }
+
+    /**
+     * A single annotation thread with its own reference data source, as reference data sources are not thread-safe.
+     */
+    private final class AnnotationWorker {
+        private final ExecutorService executor;
+        private final ReferenceDataSource reference;
+
+        private AnnotationWorker(final int index) {
+            reference = ReferenceDataSource.of(referenceArguments.getReferencePath());
+            executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                    .setNameFormat("funcotator-worker-" + index)
+                    .setDaemon(true)
+                    .build());
+        }
+
+        private List<List<Funcotation>> annotate(final List<VariantToAnnotate> variants) {
+            final List<List<Funcotation>> funcotations = new ArrayList<>(variants.size());
+            for ( final VariantToAnnotate variant : variants ) {
+                final ReferenceContext referenceContext = new ReferenceContext(reference, variant.referenceInterval, variant.referenceWindow);
+                funcotations.add(createFuncotations(variant.variant, referenceContext, variant.featureList));
+            }
+            return funcotations;
+        }
+
+        private void close() {
+            executor.shutdownNow();
+            reference.close();
+        }
+    }
+
+    /**
+     * A variant waiting to be annotated, with the features that overlap it and the extents of its reference context.
+     */
+    private static final class VariantToAnnotate {
+        private final VariantContext variant;
+        private final SimpleInterval referenceInterval;
+        private final SimpleInterval referenceWindow;
+        private final List<Feature> featureList;
+
+        private VariantToAnnotate(final VariantContext variant, final ReferenceContext referenceContext, final List<Feature> featureList) {
+            this.variant = variant;
+            this.referenceInterval = referenceContext.getInterval();
+            this.referenceWindow = referenceContext.getWindow();
+            this.featureList = featureList;
+        }
+    }
 }
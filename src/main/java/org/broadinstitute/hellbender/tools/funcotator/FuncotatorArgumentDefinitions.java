@@ -35,6 +35,21 @@ public class FuncotatorArgumentDefinitions {
     public static final String ANNOTATION_OVERRIDES_LONG_NAME = "annotation-override";
     public static final List<String> ANNOTATION_OVERRIDES_DEFAULT_VALUE = new ArrayList<>();
 
+    public static final String COSMIC_GENE_CACHE_SIZE_LONG_NAME = "cosmic-gene-cache-size";
+    public static final int COSMIC_GENE_CACHE_SIZE_DEFAULT_VALUE = 1000;
+
+    public static final String PRELOAD_COSMIC_LONG_NAME = "preload-cosmic";
+    public static final boolean PRELOAD_COSMIC_DEFAULT_VALUE = false;
+
+    public static final String INDEX_SIMPLE_XSV_LONG_NAME = "index-simple-xsv";
+    public static final boolean INDEX_SIMPLE_XSV_DEFAULT_VALUE = false;
+
+    public static final String ANNOTATION_THREADS_LONG_NAME = "annotation-threads";
+    public static final int ANNOTATION_THREADS_DEFAULT_VALUE = 1;
+
+    public static final String ANNOTATION_BATCH_SIZE_LONG_NAME = "annotation-batch-size";
+    public static final int ANNOTATION_BATCH_SIZE_DEFAULT_VALUE = 100;
+
     // ------------------------------------------------------------
     // Helper Types:
 
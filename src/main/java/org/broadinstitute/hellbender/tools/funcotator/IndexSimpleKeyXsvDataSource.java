@@ -0,0 +1,87 @@
+package org.broadinstitute.hellbender.tools.funcotator;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.broadinstitute.barclay.argparser.Argument;
+import org.broadinstitute.barclay.argparser.BetaFeature;
+import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
+import org.broadinstitute.barclay.help.DocumentedFeature;
+import org.broadinstitute.hellbender.cmdline.CommandLineProgram;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.tools.funcotator.dataSources.xsv.SimpleKeyXsvFuncotationFactory;
+import org.broadinstitute.hellbender.tools.funcotator.dataSources.xsv.SimpleKeyXsvIndex;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
+import picard.cmdline.programgroups.VariantEvaluationProgramGroup;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Builds the key index of simple XSV data sources for {@link Funcotator}.
+ *
+ * <p>
+ *     With {@code --index-simple-xsv}, Funcotator reads the rows of simple XSV data sources through an index of the
+ *     data file rather than reading the whole file into memory.  Funcotator builds a missing or out-of-date index next
+ *     to the data file itself, but cannot do so when the data sources are read-only (e.g. when they are shared between
+ *     users), in which case it reads the file into memory instead.  This tool builds the index ahead of time, and should
+ *     be run by a user who can write to the data source directory whenever a data source is installed or updated.
+ * </p>
+ *
+ * <h3>Usage example</h3>
+ * <pre>
+ *   ./gatk IndexSimpleKeyXsvDataSource \
+ *   --data-source-config dataSourcesFolder/simple_uniprot/hg19/simple_uniprot.config
+ * </pre>
+ */
+@CommandLineProgramProperties(
+        summary = "Builds the key index of simple XSV data sources, so that Funcotator can read their rows on demand (see --index-simple-xsv).",
+        oneLineSummary = "Builds the key index of simple XSV data sources for Funcotator",
+        programGroup = VariantEvaluationProgramGroup.class
+)
+@DocumentedFeature
+@BetaFeature
+public final class IndexSimpleKeyXsvDataSource extends CommandLineProgram {
+    private static final Logger logger = LogManager.getLogger(IndexSimpleKeyXsvDataSource.class);
+
+    public static final String DATA_SOURCE_CONFIG_LONG_NAME = "data-source-config";
+
+    @Argument(
+            fullName = DATA_SOURCE_CONFIG_LONG_NAME,
+            doc = "Config file of a simple XSV data source to index.  May be specified more than once."
+    )
+    protected List<String> dataSourceConfigFiles;
+
+    @Override
+    protected Object doWork() {
+        for ( final String configFile : dataSourceConfigFiles ) {
+            final Path configFilePath = IOUtils.getPath(configFile);
+            final Properties properties = Funcotator.readConfigFileProperties(configFilePath);
+            Funcotator.assertConfigFilePropertiesAreValid(properties, configFilePath);
+
+            final String type = properties.getProperty("type");
+            if ( FuncotatorArgumentDefinitions.DataSourceType.getEnum(type) != FuncotatorArgumentDefinitions.DataSourceType.SIMPLE_XSV ) {
+                throw new UserException.BadInput("Data source " + configFilePath.toUri().toString() + " is of type " + type +
+                        ", but only " + FuncotatorArgumentDefinitions.DataSourceType.SIMPLE_XSV + " data sources can be indexed.");
+            }
+
+            // Creating the factory with an index builds the index if it is missing or out of date:
+            final SimpleKeyXsvFuncotationFactory factory =
+                    Funcotator.createSimpleXsvFuncotationFactory(configFilePath, properties, new LinkedHashMap<>(), true);
+            try {
+                final Path dataFilePath = configFilePath.resolveSibling(IOUtils.getPath(properties.getProperty("src_file")));
+                final Path indexPath = SimpleKeyXsvIndex.getIndexPath(dataFilePath);
+                if ( !factory.isIndexed() ) {
+                    throw new UserException.CouldNotCreateOutputFile(indexPath.toUri().toString(), "the index of the data source could not be written",
+                            factory.getKeyIndexWriteFailure());
+                }
+                logger.info("Index of " + dataFilePath.toUri().toString() + " is up to date: " + indexPath.toUri().toString());
+            }
+            finally {
+                factory.close();
+            }
+        }
+        return null;
+    }
+}
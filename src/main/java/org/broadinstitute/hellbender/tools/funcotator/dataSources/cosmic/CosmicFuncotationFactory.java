@@ -13,6 +13,7 @@ import org.broadinstitute.hellbender.tools.funcotator.Funcotation;
 import org.broadinstitute.hellbender.tools.funcotator.FuncotatorArgumentDefinitions;
 import org.broadinstitute.hellbender.tools.funcotator.dataSources.TableFuncotation;
 import org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode.GencodeFuncotation;
+import org.broadinstitute.hellbender.utils.LRUCache;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
 
@@ -29,14 +30,16 @@ import java.util.regex.Pattern;
  * must be unzipped and preprocessed with the script `createSqliteCosmicDb.sh`.
  *
  *
+ * The COSMIC records of a gene are queried with a single prepared statement and the positions parsed out of them are
+ * kept in a bounded cache of the most recently used genes, so that variants in the same gene do not query and parse
+ * the same records again.  Alternatively, all of the records in the database can be preloaded into memory when the
+ * factory is created, so that the database is never queried afterwards.
+ *
  * This is a high-level object that interfaces with the internals of {@link org.broadinstitute.hellbender.tools.funcotator.Funcotator}.
  * Created by jonn on 12/16/17.
  */
 public class CosmicFuncotationFactory extends DataSourceFuncotationFactory {
 
-    //==================================================================================================================
-    // Public Static Members:
-
     //==================================================================================================================
     // Private Static Members:
 
@@ -88,10 +91,16 @@ public class CosmicFuncotationFactory extends DataSourceFuncotationFactory {
     private static final String FIELD_NAME_QUERY = "SELECT * FROM " + TABLE_NAME + " LIMIT 1;";
 
     /**
-     * Template for results query for matching genes in the database.
+     * Query for the positions of the records of a gene in the database, to be used as a prepared statement.
+     */
+    private static final String RESULT_QUERY = "SELECT \"" + GENOME_POSITION_COLUMN_NAME + "\", \""
+            + PROTEIN_POSITION_COLUMN_NAME + "\" FROM " + TABLE_NAME + " WHERE \"" + GENE_NAME_COLUMN + "\" = ?;";
+
+    /**
+     * Query for the gene names and positions of all of the records in the database, used to preload them.
      */
-    private static final String RESULT_QUERY_TEMPLATE = "SELECT * FROM " + TABLE_NAME + " WHERE \""
-            + GENE_NAME_COLUMN + "\" == ";
+    private static final String PRELOAD_QUERY = "SELECT \"" + GENE_NAME_COLUMN + "\", \"" + GENOME_POSITION_COLUMN_NAME
+            + "\", \"" + PROTEIN_POSITION_COLUMN_NAME + "\" FROM " + TABLE_NAME + ";";
 
     //==================================================================================================================
     // Private Members:
@@ -116,6 +125,27 @@ public class CosmicFuncotationFactory extends DataSourceFuncotationFactory {
      */
     private final LinkedHashSet<String> supportedFields;
 
+    /**
+     * The statement used to query the records of a gene, or {@code null} if all records were preloaded.
+     */
+    private final PreparedStatement geneQueryStatement;
+
+    /**
+     * The parsed records of each gene, either the most recently used genes or all of them if the records were preloaded.
+     * {@code null} if records are not cached.
+     */
+    private final Map<String, List<CosmicRecord>> recordsByGene;
+
+    /**
+     * The number of gene lookups whose records were found in {@link #recordsByGene}.
+     */
+    private long cacheHits = 0;
+
+    /**
+     * The number of gene lookups that had to query the database.
+     */
+    private long cacheMisses = 0;
+
     //==================================================================================================================
     // Constructors:
 
@@ -125,6 +155,20 @@ public class CosmicFuncotationFactory extends DataSourceFuncotationFactory {
 
     public CosmicFuncotationFactory(final Path pathToCosmicDb,
                                     final LinkedHashMap<String, String> annotationOverridesMap) {
+        this(pathToCosmicDb, annotationOverridesMap, FuncotatorArgumentDefinitions.COSMIC_GENE_CACHE_SIZE_DEFAULT_VALUE, false);
+    }
+
+    /**
+     * @param pathToCosmicDb The path to the COSMIC SQLite database.
+     * @param annotationOverridesMap Annotation names and the values to override them with.
+     * @param geneCacheSize The maximum number of genes whose records are cached (0 disables the cache).  Ignored if {@code preloadRecords} is {@code true}.
+     * @param preloadRecords Whether to read all of the records of the database into memory now, rather than querying them gene by gene.
+     */
+    public CosmicFuncotationFactory(final Path pathToCosmicDb,
+                                    final LinkedHashMap<String, String> annotationOverridesMap,
+                                    final int geneCacheSize,
+                                    final boolean preloadRecords) {
+        Utils.validateArg(geneCacheSize >= 0, () -> "The gene cache size must be >= 0 but was: " + geneCacheSize);
         this.pathToCosmicDb = pathToCosmicDb;
 
         // Connect to the DB:
@@ -141,6 +185,22 @@ public class CosmicFuncotationFactory extends DataSourceFuncotationFactory {
             throw new UserException("Cannot load SQLite Java Package!", ex);
         }
 
+        // Set up our lookup of the records by gene:
+        try {
+            if ( preloadRecords ) {
+                recordsByGene = preloadRecordsByGene();
+                geneQueryStatement = null;
+                logger.info("Preloaded the COSMIC records of " + recordsByGene.size() + " genes from: " + pathToCosmicDb.toUri().toString());
+            }
+            else {
+                recordsByGene = geneCacheSize > 0 ? new LRUCache<>(geneCacheSize) : null;
+                geneQueryStatement = dbConnection.prepareStatement(RESULT_QUERY);
+            }
+        }
+        catch (final SQLException ex) {
+            throw new UserException("Unable to read COSMIC records from SQLite DB at: " + pathToCosmicDb.toUri().toString(), ex);
+        }
+
         // Get the supported fields:
         supportedFields = new LinkedHashSet<>(1);
         supportedFields.add(name + "_overlapping_mutations");
@@ -154,8 +214,15 @@ public class CosmicFuncotationFactory extends DataSourceFuncotationFactory {
 
     @Override
     public void close() {
+        if ( cacheHits + cacheMisses > 0 ) {
+            logger.info(String.format("COSMIC gene lookups: %d, found in memory: %d, queried from the database: %d",
+                    cacheHits + cacheMisses, cacheHits, cacheMisses));
+        }
         if (dbConnection != null) {
             try {
+                if ( geneQueryStatement != null ) {
+                    geneQueryStatement.close();
+                }
                 dbConnection.close();
             }
             catch (final SQLException ex) {
@@ -210,38 +277,26 @@ public class CosmicFuncotationFactory extends DataSourceFuncotationFactory {
                 proteinPosition = null;
             }
 
-            try {
-                try ( final Statement statement = dbConnection.createStatement() ) {
-                    try ( final ResultSet resultSet = statement.executeQuery(RESULT_QUERY_TEMPLATE + "\"" + geneName + "\";") ) {
-                        // iterate through our results:
-                        while ( resultSet.next() ) {
-                            // Get the genome position and protein position:
-                            final SimpleInterval cosmicGenomePosition = getGenomePositionFromResults(resultSet);
-                            final SimpleInterval cosmicProteinPosition = getProteinPositionFromResults(resultSet);
-
-                            // Try to match on genome position first:
-                            if ( cosmicGenomePosition != null ) {
-                                // If we overlap the records, we update the counter:
-                                if ( genomePosition.overlaps(cosmicGenomePosition) ) {
-                                    ++numOverlappingMutations;
-                                    continue;
-                                }
-                            }
-
-                            // Now try to match on protein position:
-                            if ( proteinPosition != null ) {
-                                // If we overlap the records, we update the counter:
-                                if ( proteinPosition.overlaps(cosmicProteinPosition) ) {
-                                    ++numOverlappingMutations;
-                                }
-                            }
-                            // NOTE: We can't annotate if the protein position and the genome position are null.
-                        }
+            // iterate through the records of the gene:
+            for ( final CosmicRecord cosmicRecord : getRecordsForGene(geneName) ) {
+
+                // Try to match on genome position first:
+                if ( cosmicRecord.genomePosition != null ) {
+                    // If we overlap the records, we update the counter:
+                    if ( genomePosition.overlaps(cosmicRecord.genomePosition) ) {
+                        ++numOverlappingMutations;
+                        continue;
                     }
                 }
-            }
-            catch (final SQLException ex) {
-                throw new GATKException("Unable to query the database for geneName: " + geneName, ex);
+
+                // Now try to match on protein position:
+                if ( proteinPosition != null ) {
+                    // If we overlap the records, we update the counter:
+                    if ( proteinPosition.overlaps(cosmicRecord.proteinPosition) ) {
+                        ++numOverlappingMutations;
+                    }
+                }
+                // NOTE: We can't annotate if the protein position and the genome position are null.
             }
         }
 
@@ -269,6 +324,81 @@ public class CosmicFuncotationFactory extends DataSourceFuncotationFactory {
     //==================================================================================================================
     // Instance Methods:
 
+    /**
+     * @return The number of gene lookups whose records were already in memory.
+     */
+    @VisibleForTesting
+    synchronized long getCacheHits() {
+        return cacheHits;
+    }
+
+    /**
+     * @return The number of gene lookups that had to query the database.
+     */
+    @VisibleForTesting
+    synchronized long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    /**
+     * Get the parsed records of the given gene, either from memory or from the database.
+     * @param geneName The name of the gene whose records to get.
+     * @return An unmodifiable {@link List} of the {@link CosmicRecord}s of the given gene, which may be empty.
+     */
+    private synchronized List<CosmicRecord> getRecordsForGene(final String geneName) {
+        if ( geneQueryStatement == null ) {
+            // All records were preloaded:
+            ++cacheHits;
+            return recordsByGene.getOrDefault(geneName, Collections.emptyList());
+        }
+
+        if ( recordsByGene != null ) {
+            final List<CosmicRecord> cachedRecords = recordsByGene.get(geneName);
+            if ( cachedRecords != null ) {
+                ++cacheHits;
+                return cachedRecords;
+            }
+        }
+
+        ++cacheMisses;
+        final List<CosmicRecord> records = new ArrayList<>();
+        try {
+            geneQueryStatement.setString(1, geneName);
+            try ( final ResultSet resultSet = geneQueryStatement.executeQuery() ) {
+                while ( resultSet.next() ) {
+                    records.add(new CosmicRecord(getGenomePositionFromResults(resultSet), getProteinPositionFromResults(resultSet)));
+                }
+            }
+        }
+        catch (final SQLException ex) {
+            throw new GATKException("Unable to query the database for geneName: " + geneName, ex);
+        }
+
+        final List<CosmicRecord> result = records.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(records);
+        if ( recordsByGene != null ) {
+            recordsByGene.put(geneName, result);
+        }
+        return result;
+    }
+
+    /**
+     * Reads and parses all of the records in the database.
+     * @return A {@link Map} from gene name to the {@link CosmicRecord}s of that gene, in unmodifiable {@link List}s.
+     */
+    private Map<String, List<CosmicRecord>> preloadRecordsByGene() throws SQLException {
+        final Map<String, List<CosmicRecord>> records = new HashMap<>();
+        try ( final Statement statement = dbConnection.createStatement();
+              final ResultSet resultSet = statement.executeQuery(PRELOAD_QUERY) ) {
+            while ( resultSet.next() ) {
+                records.computeIfAbsent(resultSet.getString(GENE_NAME_COLUMN), k -> new ArrayList<>())
+                        .add(new CosmicRecord(getGenomePositionFromResults(resultSet), getProteinPositionFromResults(resultSet)));
+            }
+        }
+        // The records are shared by all of the queries, so as with the records that are read gene by gene they must not be modified:
+        records.replaceAll((geneName, geneRecords) -> Collections.unmodifiableList(geneRecords));
+        return records;
+    }
+
     /**
      * Get the genome position of the current record in the given {@link ResultSet}.
      * @param resultSet The results of a query on the database with a current row (must not be {@code null}).
@@ -345,4 +475,19 @@ public class CosmicFuncotationFactory extends DataSourceFuncotationFactory {
     //==================================================================================================================
     // Helper Data Types:
 
+    /**
+     * The positions parsed out of a single COSMIC record.
+     */
+    private static final class CosmicRecord {
+        /** The genome position of the record, or {@code null}. */
+        private final SimpleInterval genomePosition;
+
+        /** The protein position of the record, or {@code null}. */
+        private final SimpleInterval proteinPosition;
+
+        private CosmicRecord(final SimpleInterval genomePosition, final SimpleInterval proteinPosition) {
+            this.genomePosition = genomePosition;
+            this.proteinPosition = proteinPosition;
+        }
+    }
 }
@@ -113,6 +113,12 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
      */
     private final Map<String, MappedTranscriptIdInfo> transcriptIdMap;
 
+    /**
+     * Index of the coding regions and coding sequences of the transcripts that have been annotated, so that they are
+     * not recomputed for every variant in a transcript.
+     */
+    private final GencodeTranscriptIndex transcriptIndex;
+
     /**
      * The mode to select the "best" transcript (i.e. the transcript with detailed information) from the list of
      * possible transcripts.
@@ -166,6 +172,10 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
 
         transcriptFastaReferenceDataSource = ReferenceDataSource.of(gencodeTranscriptFastaFile);
         transcriptIdMap = createTranscriptIdMap(transcriptFastaReferenceDataSource);
+        transcriptIndex = new GencodeTranscriptIndex(
+                GencodeTranscriptIndex.DEFAULT_MAX_TRANSCRIPTS,
+                transcriptId -> getCodingSequenceFromTranscriptFasta(transcriptId, transcriptIdMap, transcriptFastaReferenceDataSource)
+        );
 
         this.transcriptSelectionMode = transcriptSelectionMode;
 
@@ -421,7 +431,10 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
                 transcriptMapIdAndMetadata.codingSequenceEnd
         );
 
-        return transcriptFastaReferenceDataSource.queryAndPrefetch( transcriptInterval ).getBaseString();
+        // The transcript FASTA file may not be read by more than one thread at a time:
+        synchronized ( transcriptFastaReferenceDataSource ) {
+            return transcriptFastaReferenceDataSource.queryAndPrefetch( transcriptInterval ).getBaseString();
+        }
     }
 
     /**
@@ -611,12 +624,12 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
         final GencodeFuncotationBuilder gencodeFuncotationBuilder = createGencodeFuncotationBuilderWithTrivialFieldsPopulated(variant, altAllele, gtfFeature, transcript);
 
         // Get the list of exons by their locations so we can use them to determine our location in the transcript and get
-        // the transcript code itself:
-        final List<? extends Locatable> exonPositionList = getSortedExonAndStartStopPositions(transcript);
+        // the transcript code itself (both are indexed the first time we see the transcript):
+        final GencodeTranscriptIndex.IndexedTranscript indexedTranscript = transcriptIndex.get(transcript);
 
         // Set up our SequenceComparison object so we can calculate some useful fields more easily
         // These fields can all be set without knowing the alternate allele:
-        final SequenceComparison sequenceComparison = createSequenceComparison(variant, altAllele, reference, transcript, exonPositionList, transcriptIdMap, transcriptFastaReferenceDataSource);
+        final SequenceComparison sequenceComparison = createSequenceComparison(variant, altAllele, reference, transcript, indexedTranscript);
 
         final GencodeFuncotation.VariantType variantType = getVariantType(variant.getReference(), altAllele);
 
@@ -665,11 +678,13 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
     @VisibleForTesting
     static List<? extends Locatable> getSortedExonAndStartStopPositions(final GencodeGtfTranscriptFeature transcript) {
 
-        // Sort by exon number first:
-        transcript.getExons().sort((lhs, rhs) -> lhs.getExonNumber() < rhs.getExonNumber() ? -1 : (lhs.getExonNumber() > rhs.getExonNumber() ) ? 1 : 0 );
+        // Sort by exon number first.
+        // NOTE: We sort a copy, as the transcript may be annotating other variants on other threads:
+        final List<GencodeGtfExonFeature> sortedExons = new ArrayList<>(transcript.getExons());
+        sortedExons.sort((lhs, rhs) -> lhs.getExonNumber() < rhs.getExonNumber() ? -1 : (lhs.getExonNumber() > rhs.getExonNumber() ) ? 1 : 0 );
 
-        final List<Locatable> exonList = new ArrayList<>(transcript.getExons().size());
-        for ( final GencodeGtfExonFeature exon : transcript.getExons() ) {
+        final List<Locatable> exonList = new ArrayList<>(sortedExons.size());
+        for ( final GencodeGtfExonFeature exon : sortedExons ) {
 
             // Add in a CDS region:
             if ( exon.getCds() != null ) {
@@ -927,8 +942,7 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
             // Get our coding sequence for this region:
             final List<Locatable> activeRegions = Collections.singletonList(utr);
 
-            final String referenceCodingSequence =
-                    getCodingSequenceFromTranscriptFasta( transcript.getTranscriptId(), transcriptIdMap, transcriptFastaReferenceDataSource);
+            final String referenceCodingSequence = transcriptIndex.get(transcript).getCodingSequence();
 
             final int codingStartPos = FuncotatorUtils.getStartPositionInTranscript(variant, activeRegions, strand);
 
@@ -1121,6 +1135,30 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
                                                        final List<? extends htsjdk.samtools.util.Locatable> exonPositionList,
                                                        final Map<String, MappedTranscriptIdInfo> transcriptIdMap,
                                                        final ReferenceDataSource transcriptFastaReferenceDataSource) {
+        return createSequenceComparison(variant, alternateAllele, reference, transcript,
+                new GencodeTranscriptIndex.IndexedTranscript(
+                        exonPositionList,
+                        getCodingSequenceFromTranscriptFasta( transcript.getTranscriptId(), transcriptIdMap, transcriptFastaReferenceDataSource )
+                )
+        );
+    }
+
+    /**
+     * Creates a {@link org.broadinstitute.hellbender.tools.funcotator.SequenceComparison} object with the fields populated.
+     * @param variant The {@link VariantContext} for the current variant.
+     * @param alternateAllele The current alternate {@link Allele} for the variant.
+     * @param reference The {@link ReferenceContext} for the current sample set.
+     * @param transcript The {@link GencodeGtfTranscriptFeature} for the current gene feature / alt allele.
+     * @param indexedTranscript The coding regions and coding sequence of the given {@code transcript}.
+     * @return A populated {@link org.broadinstitute.hellbender.tools.funcotator.SequenceComparison} object.
+     */
+    private static SequenceComparison createSequenceComparison(final VariantContext variant,
+                                                               final Allele alternateAllele,
+                                                               final ReferenceContext reference,
+                                                               final GencodeGtfTranscriptFeature transcript,
+                                                               final GencodeTranscriptIndex.IndexedTranscript indexedTranscript) {
+
+        final List<? extends htsjdk.samtools.util.Locatable> exonPositionList = indexedTranscript.getCodingRegions();
 
         final SequenceComparison sequenceComparison = new SequenceComparison();
 
@@ -1171,13 +1209,8 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
         // Set our GC content:
         sequenceComparison.setGcContent( calculateGcContent( reference, gcContentWindowSizeBases ) );
 
-        // Get the coding sequence for the transcript:
-        final String transcriptSequence;
-        // NOTE: This can't be null because of the Funcotator input args.
-        transcriptSequence = getCodingSequenceFromTranscriptFasta( transcript.getTranscriptId(), transcriptIdMap, transcriptFastaReferenceDataSource );
-
         // Get the transcript sequence as described by the given exonPositionList:
-        sequenceComparison.setTranscriptCodingSequence(new ReferenceSequence(transcript.getTranscriptId(),transcript.getStart(),transcriptSequence.getBytes()));
+        sequenceComparison.setTranscriptCodingSequence(new ReferenceSequence(transcript.getTranscriptId(),transcript.getStart(),indexedTranscript.getCodingSequenceBases()));
 
         // Get the ref allele:
         sequenceComparison.setReferenceAllele(refAllele.getBaseString());
@@ -1192,7 +1225,7 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
 
         // Get the coding region start position (in the above computed transcript coding region):
         sequenceComparison.setCodingSequenceAlleleStart(
-                FuncotatorUtils.getStartPositionInTranscript( variant, exonPositionList, strand )
+                indexedTranscript.getStartPositionInTranscript( variant, strand )
         );
 
         // Get the overlapping exon start / stop as an interval from the given variant:
@@ -1226,7 +1259,7 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
         // NOTE: We are calling this with Strand.POSITIVE because we have already reverse complemented the reference sequence.
         sequenceComparison.setAlignedCodingSequenceReferenceAllele(
                 FuncotatorUtils.getAlignedCodingSequenceAllele(
-                        sequenceComparison.getTranscriptCodingSequence().getBaseString(),
+                        indexedTranscript.getCodingSequence(),
                         sequenceComparison.getAlignedCodingSequenceAlleleStart(),
                         sequenceComparison.getAlignedReferenceAlleleStop(),
                         refAllele,
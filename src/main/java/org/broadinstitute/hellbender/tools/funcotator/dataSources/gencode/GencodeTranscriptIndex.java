@@ -0,0 +1,217 @@
+package org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode;
+
+import com.google.common.annotations.VisibleForTesting;
+import htsjdk.samtools.util.Locatable;
+import htsjdk.tribble.annotation.Strand;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.tools.funcotator.FuncotatorUtils;
+import org.broadinstitute.hellbender.utils.LRUCache;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.codecs.gencode.GencodeGtfTranscriptFeature;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Index of the coding information of the GENCODE transcripts used by a {@link GencodeFuncotationFactory}.
+ *
+ * For each transcript, the index holds its coding regions (CDS, start and stop codons) in exon-number order, the
+ * position in the coding sequence at which each region starts, and the spliced coding sequence of the transcript
+ * as read from the GENCODE transcript FASTA file.  These are computed the first time a transcript is needed, so that
+ * annotating the other variants in the transcript does not have to walk its features or read its coding sequence
+ * from the FASTA file again.
+ *
+ * The index holds the most recently used transcripts, up to a maximum number, in memory only: it is rebuilt on each run
+ * rather than persisted, as the GENCODE data source itself is already indexed on disk.
+ * This class is thread-safe.  Transcripts are indexed outside of the lock, so that threads needing different transcripts
+ * don't wait for each other to read the transcript FASTA file.
+ */
+final class GencodeTranscriptIndex {
+
+    //==================================================================================================================
+    // Public Static Members:
+
+    /**
+     * Default maximum number of transcripts kept in the index.
+     */
+    static final int DEFAULT_MAX_TRANSCRIPTS = 1000;
+
+    //==================================================================================================================
+    // Private Members:
+
+    /**
+     * The indexed transcripts, keyed by transcript ID.
+     */
+    private final Map<String, IndexedTranscript> indexedTranscripts;
+
+    /**
+     * Gets the coding sequence of a transcript given its ID.
+     */
+    private final Function<String, String> codingSequenceLoader;
+
+    //==================================================================================================================
+    // Constructors:
+
+    /**
+     * @param maxTranscripts The maximum number of transcripts to keep in the index.  Must be > 0.
+     * @param codingSequenceLoader Gets the coding sequence of a transcript (including its start and stop codons) given its ID.  May be called by several threads at once.  Must not be {@code null}.
+     */
+    GencodeTranscriptIndex(final int maxTranscripts, final Function<String, String> codingSequenceLoader) {
+        Utils.validateArg(maxTranscripts > 0, () -> "maxTranscripts must be > 0 but was: " + maxTranscripts);
+        this.indexedTranscripts = new LRUCache<>(maxTranscripts);
+        this.codingSequenceLoader = Utils.nonNull(codingSequenceLoader);
+    }
+
+    //==================================================================================================================
+    // Instance Methods:
+
+    /**
+     * Get the {@link IndexedTranscript} for the given {@code transcript}, indexing it if it is not in the index already.
+     * @param transcript The {@link GencodeGtfTranscriptFeature} to get.  Must not be {@code null}.
+     * @return The {@link IndexedTranscript} for the given {@code transcript}.
+     */
+    IndexedTranscript get(final GencodeGtfTranscriptFeature transcript) {
+        Utils.nonNull(transcript);
+
+        final String transcriptId = transcript.getTranscriptId();
+        synchronized ( this ) {
+            final IndexedTranscript indexedTranscript = indexedTranscripts.get(transcriptId);
+            if ( indexedTranscript != null ) {
+                return indexedTranscript;
+            }
+        }
+
+        // Two threads may index the same transcript at once, in which case the first one to finish is kept:
+        final IndexedTranscript indexedTranscript = new IndexedTranscript(
+                GencodeFuncotationFactory.getSortedExonAndStartStopPositions(transcript),
+                codingSequenceLoader.apply(transcriptId)
+        );
+        synchronized ( this ) {
+            final IndexedTranscript previouslyIndexedTranscript = indexedTranscripts.putIfAbsent(transcriptId, indexedTranscript);
+            return previouslyIndexedTranscript == null ? indexedTranscript : previouslyIndexedTranscript;
+        }
+    }
+
+    /**
+     * @return The number of transcripts currently in the index.
+     */
+    synchronized int size() {
+        return indexedTranscripts.size();
+    }
+
+    //==================================================================================================================
+    // Helper Data Types:
+
+    /**
+     * The coding information of a single transcript.
+     */
+    static final class IndexedTranscript {
+
+        /** The coding regions of the transcript, in exon-number order. */
+        private final List<Locatable> codingRegions;
+
+        /** The contig of all of the coding regions, or {@code null} if the regions are on more than one contig. */
+        private final String contig;
+
+        /** The start of each coding region. */
+        private final int[] regionStarts;
+
+        /** The end of each coding region. */
+        private final int[] regionEnds;
+
+        /** The (1-based) position in the coding sequence of the first base of each coding region, were all bases counted. */
+        private final int[] regionCodingOffsets;
+
+        /** The coding sequence of the transcript. */
+        private final String codingSequence;
+
+        /** The bases of {@link #codingSequence}. */
+        private final byte[] codingSequenceBases;
+
+        /**
+         * @param codingRegions The coding regions of the transcript, in exon-number order.  Must not be {@code null}.
+         * @param codingSequence The coding sequence of the transcript.  Must not be {@code null}.
+         */
+        @VisibleForTesting
+        IndexedTranscript(final List<? extends Locatable> codingRegions, final String codingSequence) {
+            Utils.nonNull(codingRegions);
+            Utils.nonNull(codingSequence);
+
+            this.codingRegions = Collections.unmodifiableList(new ArrayList<>(codingRegions));
+            this.codingSequence = codingSequence;
+            this.codingSequenceBases = codingSequence.getBytes(StandardCharsets.US_ASCII);
+
+            regionStarts = new int[codingRegions.size()];
+            regionEnds = new int[codingRegions.size()];
+            regionCodingOffsets = new int[codingRegions.size()];
+
+            String commonContig = codingRegions.isEmpty() ? null : codingRegions.get(0).getContig();
+            int codingOffset = 1;
+            for ( int i = 0; i < codingRegions.size(); ++i ) {
+                final Locatable region = codingRegions.get(i);
+                if ( commonContig != null && !commonContig.equals(region.getContig()) ) {
+                    commonContig = null;
+                }
+                regionStarts[i] = region.getStart();
+                regionEnds[i] = region.getEnd();
+                regionCodingOffsets[i] = codingOffset;
+
+                // Add 1 because of inclusive positions / indexing starting at 1
+                codingOffset += region.getEnd() - region.getStart() + 1;
+            }
+            contig = commonContig;
+        }
+
+        /**
+         * @return The coding regions of the transcript (CDS, start and stop codons) in exon-number order, as given by
+         * {@link GencodeFuncotationFactory#getSortedExonAndStartStopPositions}.
+         */
+        List<Locatable> getCodingRegions() {
+            return codingRegions;
+        }
+
+        /**
+         * @return The coding sequence of the transcript, as read from the GENCODE transcript FASTA file.
+         */
+        String getCodingSequence() {
+            return codingSequence;
+        }
+
+        /**
+         * @return The bases of the coding sequence of the transcript.  Must not be modified.
+         */
+        byte[] getCodingSequenceBases() {
+            return codingSequenceBases;
+        }
+
+        /**
+         * Gets the position of the given variant in the coding sequence of this transcript.
+         * Equivalent to {@link FuncotatorUtils#getStartPositionInTranscript} given the coding regions of this transcript.
+         * @param variant A {@link Locatable} to locate inside this transcript.  Must be on the same contig as the transcript.  Must not be {@code null}.
+         * @param strand The strand on which the transcript is read.  Must not be {@code null}.  Must not be {@link Strand#NONE}.
+         * @return The position (1-based, inclusive) of the given {@code variant} in the coding sequence of this transcript, or -1 if it is not in a coding region.
+         */
+        int getStartPositionInTranscript(final Locatable variant, final Strand strand) {
+            Utils.nonNull(variant);
+            FuncotatorUtils.assertValidStrand(strand);
+
+            if ( regionStarts.length > 0 && !variant.getContig().equals(contig) ) {
+                throw new GATKException("Variant and transcript contigs are not equal.");
+            }
+
+            final int variantStartLocus = strand == Strand.POSITIVE ? variant.getStart() : variant.getEnd();
+            for ( int i = 0; i < regionStarts.length; ++i ) {
+                if ( regionStarts[i] <= variantStartLocus && variantStartLocus <= regionEnds[i] ) {
+                    return strand == Strand.POSITIVE ?
+                            regionCodingOffsets[i] + variantStartLocus - regionStarts[i] :
+                            regionCodingOffsets[i] + regionEnds[i] - variantStartLocus;
+                }
+            }
+            return -1;
+        }
+    }
+}
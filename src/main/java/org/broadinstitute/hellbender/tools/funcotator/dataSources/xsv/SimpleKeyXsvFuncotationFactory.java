@@ -2,6 +2,7 @@ package org.broadinstitute.hellbender.tools.funcotator.dataSources.xsv;
 
 import htsjdk.tribble.Feature;
 import htsjdk.variant.variantcontext.VariantContext;
+import org.apache.commons.lang3.tuple.Pair;
 import org.broadinstitute.hellbender.engine.ReferenceContext;
 import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.exceptions.UserException;
@@ -12,6 +13,7 @@ import org.broadinstitute.hellbender.tools.funcotator.dataSources.TableFuncotati
 import org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode.GencodeFuncotation;
 import org.broadinstitute.hellbender.utils.nio.PathLineIterator;
 
+import java.nio.file.FileSystems;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -20,6 +22,12 @@ import java.util.stream.Collectors;
  * Factory for creating {@link TableFuncotation}s by handling `Separated Value` files with arbitrary delimiters
  * (e.g. CSV/TSV files) which contain data that use a simple key (i.e. {@link XsvDataKeyType}).
  *
+ * By default the whole file is read into memory when the factory is created.  Alternatively, the rows can be read
+ * on demand through a {@link SimpleKeyXsvIndex} of the file, which is built next to the file the first time it is
+ * needed (or when the file changes).  If the index can't be built there (e.g. the data sources are read-only), the
+ * whole file is read into memory instead; such data sources can be indexed ahead of time with
+ * {@link org.broadinstitute.hellbender.tools.funcotator.IndexSimpleKeyXsvDataSource}.
+ *
  * This is a high-level object that interfaces with the internals of {@link org.broadinstitute.hellbender.tools.funcotator.Funcotator}.
  * Created by jonn on 11/28/17.
  */
@@ -71,10 +79,27 @@ public class SimpleKeyXsvFuncotationFactory extends DataSourceFuncotationFactory
     private final List<String> annotationColumnNames;
 
     /**
-     * Map containing the annotations that we have to
+     * Whether to allow mismatches between the number of columns in the header row and data rows.
+     */
+    private final boolean permissiveColumns;
+
+    /**
+     * Map containing the annotations that we have to add, keyed by the key of their row.
+     * {@code null} when the annotations are read through {@link #keyIndex}.
      */
     private final Map<String, List<String>> annotationMap;
 
+    /**
+     * Index of the rows of the XSV file by key.
+     * {@code null} when the annotations are held in {@link #annotationMap}.
+     */
+    private final SimpleKeyXsvIndex keyIndex;
+
+    /**
+     * The reason the index of the XSV file could not be written, if an index was requested but could not be written.
+     */
+    private UserException.CouldNotCreateOutputFile keyIndexWriteFailure;
+
     //==================================================================================================================
     // Constructors:
 
@@ -99,6 +124,23 @@ public class SimpleKeyXsvFuncotationFactory extends DataSourceFuncotationFactory
                                           final LinkedHashMap<String, String> annotationOverrides,
                                           final int numHeaderLinesToIgnore,
                                           final boolean permissiveColumns ) {
+        this(name, filePath, version, delim, keyColumn, keyType, annotationOverrides, numHeaderLinesToIgnore, permissiveColumns, false);
+    }
+
+    /**
+     * @param useKeyIndex If {@code true}, read the rows of the file on demand through a {@link SimpleKeyXsvIndex} (built next to the file if it is missing or out of date) rather than reading the whole file into memory.
+     *                    Only supported for files on the local file system whose index is up to date or can be written; the whole file is read into memory otherwise.
+     */
+    public SimpleKeyXsvFuncotationFactory(final String name,
+                                          final Path filePath,
+                                          final String version,
+                                          final String delim,
+                                          final int keyColumn,
+                                          final XsvDataKeyType keyType,
+                                          final LinkedHashMap<String, String> annotationOverrides,
+                                          final int numHeaderLinesToIgnore,
+                                          final boolean permissiveColumns,
+                                          final boolean useKeyIndex ) {
         this.name = name;
 
         delimiter = delim;
@@ -111,9 +153,13 @@ public class SimpleKeyXsvFuncotationFactory extends DataSourceFuncotationFactory
         annotationOverrideMap = annotationOverrides;
 
         this.numHeaderLinesToIgnore = numHeaderLinesToIgnore;
+        this.permissiveColumns = permissiveColumns;
 
-        // Initialize our annotations map:
-        annotationMap = new HashMap<>();
+        // Memory-mapping the index requires a local file:
+        final boolean indexed = useKeyIndex && xsvInputPath.getFileSystem().equals(FileSystems.getDefault());
+        if ( useKeyIndex && !indexed ) {
+            logger.warn("Cannot index " + xsvInputPath.toUri().toString() + " because it is not a local file.  Reading it into memory.");
+        }
 
         // Create our iterator:
         try ( final PathLineIterator pathLineIterator = new PathLineIterator(xsvInputPath) ) {
@@ -124,8 +170,16 @@ public class SimpleKeyXsvFuncotationFactory extends DataSourceFuncotationFactory
             // Get our column names:
             annotationColumnNames = createColumnNames( it, numHeaderLinesToIgnore );
 
-            // Populate our annotation map:
-            populateAnnotationMap( it, permissiveColumns );
+            keyIndex = indexed ? openKeyIndex() : null;
+
+            if ( keyIndex != null ) {
+                annotationMap = null;
+            }
+            else {
+                // Populate our annotation map:
+                annotationMap = new HashMap<>();
+                populateAnnotationMap( it );
+            }
         }
 
         // Initialize overrides / defaults:
@@ -182,7 +236,7 @@ public class SimpleKeyXsvFuncotationFactory extends DataSourceFuncotationFactory
             }
 
             // Get our annotations:
-            final List<String> annotations = annotationMap.get( key );
+            final List<String> annotations = getAnnotations( key );
             if ( annotations != null ) {
                 // Add our annotations to the list:
                 outputFuncotations.add( new TableFuncotation(annotationColumnNames, annotations) );
@@ -199,6 +253,13 @@ public class SimpleKeyXsvFuncotationFactory extends DataSourceFuncotationFactory
         return FuncotatorArgumentDefinitions.DataSourceType.SIMPLE_XSV;
     }
 
+    @Override
+    public void close() {
+        if ( keyIndex != null ) {
+            keyIndex.close();
+        }
+    }
+
     //==================================================================================================================
     // Static Methods:
 
@@ -241,65 +302,156 @@ public class SimpleKeyXsvFuncotationFactory extends DataSourceFuncotationFactory
      * Populates {@link SimpleKeyXsvFuncotationFactory#annotationMap} with data from the given iterator.
      * Assumes that {@link SimpleKeyXsvFuncotationFactory#annotationColumnNames} is populated.
      * @param it An {@link Iterator} of {@link String} starting at the first data line in the file to parse.
-     * @param permissiveColumnNumbers A flag which if true indicates to allow mismatches between the number of columns in the header row and data rows.
-     *                                In the event of a mismatch, the data row with either be padded to the number of columns in the header
-     *                                or it will be truncated to match the number of columns in the header.
      */
-    private void populateAnnotationMap(final Iterator<String> it,
-                                       final boolean permissiveColumnNumbers) {
-
-        boolean emptyLineFlag = false;
+    private void populateAnnotationMap(final Iterator<String> it) {
 
-        int dataRowNum = numHeaderLinesToIgnore + 2;
+        final DataRowValidator dataRowValidator = new DataRowValidator();
 
         // Parse the rest of the data:
         while ( it.hasNext() ) {
 
-            final String rawRow = it.next();
+            final Pair<String, List<String>> dataRow = dataRowValidator.validate( it.next() );
 
+            // Store this in our map:
+            if ( dataRow != null ) {
+                annotationMap.put(dataRow.getKey(), dataRow.getValue());
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if the rows of the XSV file are read through a {@link SimpleKeyXsvIndex}, {@code false} if
+     * they are held in memory.
+     */
+    public boolean isIndexed() {
+        return keyIndex != null;
+    }
+
+    /**
+     * @return Why the index of the XSV file could not be written, or {@code null} if the rows are read through an index
+     * or no index was requested.
+     */
+    public UserException.CouldNotCreateOutputFile getKeyIndexWriteFailure() {
+        return keyIndexWriteFailure;
+    }
+
+    /**
+     * Opens the {@link SimpleKeyXsvIndex} of {@link SimpleKeyXsvFuncotationFactory#xsvInputPath}, building it first if
+     * it is missing or out of date.
+     * Assumes that {@link SimpleKeyXsvFuncotationFactory#annotationColumnNames} is populated.
+     * @return The index, or {@code null} if it had to be built but could not be written next to the data file.
+     */
+    private SimpleKeyXsvIndex openKeyIndex() {
+        final Path indexPath = SimpleKeyXsvIndex.getIndexPath(xsvInputPath);
+
+        // The index depends on how the rows are split:
+        final String indexParameters = "delimiter=" + delimiter + ";keyColumn=" + keyColumn +
+                ";headerLines=" + numHeaderLinesToIgnore + ";permissiveColumns=" + permissiveColumns;
+
+        if ( !SimpleKeyXsvIndex.isUpToDate(indexPath, xsvInputPath, indexParameters) ) {
+            logger.info("Indexing " + xsvInputPath.toUri().toString() + " into " + indexPath.toUri().toString());
+
+            final DataRowValidator dataRowValidator = new DataRowValidator();
+            try {
+                SimpleKeyXsvIndex.build(xsvInputPath, indexPath, indexParameters, numHeaderLinesToIgnore + 1, rawRow -> {
+                    final Pair<String, List<String>> dataRow = dataRowValidator.validate(rawRow);
+                    return dataRow == null ? null : dataRow.getKey();
+                });
+            }
+            catch ( final UserException.CouldNotCreateOutputFile e ) {
+                // e.g. the data sources are read-only:
+                logger.warn("Cannot write the index of " + xsvInputPath.toUri().toString() + " (" + e.getMessage() + ").  Reading it into memory.  " +
+                        "The index can be built ahead of time with IndexSimpleKeyXsvDataSource by a user who can write to its directory.");
+                keyIndexWriteFailure = e;
+                return null;
+            }
+        }
+
+        return SimpleKeyXsvIndex.open(indexPath, xsvInputPath, indexParameters);
+    }
+
+    /**
+     * @param key The key of the annotations to get.
+     * @return The annotations of the row with the given {@code key}, or {@code null} if there is no such row.
+     */
+    private List<String> getAnnotations(final String key) {
+        if ( keyIndex == null ) {
+            return annotationMap.get( key );
+        }
+        final String rawRow = keyIndex.getRow( key );
+        return rawRow == null ? null : splitDataRow( rawRow ).getValue();
+    }
+
+    /**
+     * Splits the given data row into its key and its annotations.
+     * If {@link SimpleKeyXsvFuncotationFactory#permissiveColumns} is set, the annotations are either padded to the
+     * number of columns in the header or truncated to match the number of columns in the header.
+     * @param rawRow A data line in the file to parse.
+     * @return A {@link Pair} of the key of the row and its annotations.
+     */
+    private Pair<String, List<String>> splitDataRow(final String rawRow) {
+        final List<String> dataRow = new ArrayList<>( Arrays.asList(rawRow.split(delimiter)) );
+
+        // Remove the key column:
+        final String rowKey = dataRow.remove(keyColumn);
+
+        if ( permissiveColumns && (dataRow.size() != annotationColumnNames.size()) ) {
+            if ( dataRow.size() > annotationColumnNames.size() ) {
+                dataRow.remove(dataRow.size()-1);
+            }
+            else {
+                while ( dataRow.size() < annotationColumnNames.size() ) {
+                    dataRow.add( "" );
+                }
+            }
+        }
+
+        return Pair.of(rowKey, dataRow);
+    }
+
+    //==================================================================================================================
+    // Helper Data Types:
+
+    /**
+     * Checks the data rows of the file to parse in order, and splits them into their key and annotations.
+     */
+    private final class DataRowValidator {
+
+        private boolean emptyLineFlag = false;
+
+        private int dataRowNum = numHeaderLinesToIgnore + 2;
+
+        /**
+         * @param rawRow The next data line in the file to parse.
+         * @return A {@link Pair} of the key of the row and its annotations, or {@code null} if the row is the empty last line of the file.
+         */
+        private Pair<String, List<String>> validate(final String rawRow) {
             // Check for an empty line.
             // The only permissible place is at the end of the file.
             if ( rawRow.length() == 0 ) {
                 if ( !emptyLineFlag ) {
                     emptyLineFlag = true;
-                    continue;
+                    return null;
                 }
             }
             if ( emptyLineFlag ) {
                     throw new UserException.MalformedFile("File contains an empty line (" + dataRowNum + ").  All lines must have data.");
             }
 
-            final List<String> dataRow = new ArrayList<>( Arrays.asList(rawRow.split(delimiter)) );
-
-            // Remove the key column:
-            final String rowKey = dataRow.remove(keyColumn);
+            final Pair<String, List<String>> dataRow = splitDataRow(rawRow);
 
             // Make sure we have the same number of columns:
-            if ( (dataRow.size() != annotationColumnNames.size()) ) {
-                if ( !permissiveColumnNumbers ) {
-                    throw new UserException.MalformedFile("Data Source is badly formatted (" + xsvInputPath.toUri().toString() + ") - row " + dataRowNum + " does not contain the same number of columns as header (" + dataRow.size() + " != " + annotationColumnNames.size() + ")!");
-                }
-                else if ( dataRow.size() > annotationColumnNames.size() ) {
-                    dataRow.remove(dataRow.size()-1);
-                }
-                else {
-                    while ( dataRow.size() < annotationColumnNames.size() ) {
-                        dataRow.add( "" );
-                    }
-                }
+            if ( !permissiveColumns && (dataRow.getValue().size() != annotationColumnNames.size()) ) {
+                throw new UserException.MalformedFile("Data Source is badly formatted (" + xsvInputPath.toUri().toString() + ") - row " + dataRowNum + " does not contain the same number of columns as header (" + dataRow.getValue().size() + " != " + annotationColumnNames.size() + ")!");
             }
 
-            // Store this in our map:
-            annotationMap.put(rowKey, dataRow);
-
             // Increment our row counter:
             ++dataRowNum;
+
+            return dataRow;
         }
     }
 
-    //==================================================================================================================
-    // Helper Data Types:
-
     public enum XsvDataKeyType {
         /**
          * The key specified is a Gene Name which will be used to match and annotate a {@link VariantContext}.
@@ -0,0 +1,472 @@
+package org.broadinstitute.hellbender.tools.funcotator.dataSources.xsv;
+
+import com.google.common.hash.Hashing;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * On-disk index of the rows of a `Separated Value` file keyed by a single column, as used by a
+ * {@link SimpleKeyXsvFuncotationFactory}.
+ *
+ * The index is built once next to the data file (see {@link #build}) and memory-mapped when it is opened, so that
+ * opening it takes constant time and heap regardless of the size of the data file.  Rows are read from the data
+ * file when their key is looked up.
+ *
+ * The index file contains a header identifying the data file (its size and modification time) and the parameters the
+ * index was built with, followed by one fixed-size entry per distinct key, sorted by the 64-bit hash of the key, and
+ * finally the UTF-8 bytes of the keys.  When a key occurs in more than one row, the index refers to the last of them.
+ * The header also records the number of entries and of key bytes, so that a truncated index is detected.  Indexes are
+ * written to a temporary file that is then renamed, so that readers never see a partially written index.
+ *
+ * Lookups are thread-safe.
+ */
+public final class SimpleKeyXsvIndex implements Closeable {
+
+    //==================================================================================================================
+    // Public Static Members:
+
+    /**
+     * Extension added to the name of a data file to get the name of its index.
+     */
+    public static final String INDEX_EXTENSION = ".keyidx";
+
+    //==================================================================================================================
+    // Private Static Members:
+
+    private static final int MAGIC = 0x534B5849; // "SKXI"
+
+    private static final int FORMAT_VERSION = 2;
+
+    /** Size of an entry: key hash (long), row offset (long), row length (int), key offset (int), key length (int). */
+    private static final int ENTRY_SIZE = Long.BYTES * 2 + Integer.BYTES * 3;
+
+    //==================================================================================================================
+    // Private Members:
+
+    private final Path dataPath;
+
+    private final FileChannel dataChannel;
+
+    private final FileChannel indexChannel;
+
+    private final MappedByteBuffer index;
+
+    /** Position in {@link #index} of the first entry. */
+    private final int entriesStart;
+
+    /** Position in {@link #index} of the first byte of the keys. */
+    private final int keysStart;
+
+    private final int numEntries;
+
+    //==================================================================================================================
+    // Constructors:
+
+    private SimpleKeyXsvIndex(final Path indexPath, final Path dataPath, final String parameters) throws IOException {
+        this.dataPath = dataPath;
+        indexChannel = FileChannel.open(indexPath, StandardOpenOption.READ);
+        try {
+            Utils.validate(indexChannel.size() <= Integer.MAX_VALUE, () -> "index is too large to be mapped: " + indexPath.toUri());
+            index = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, indexChannel.size());
+
+            final Header header = Header.read(index);
+            if ( header == null || !header.matches(dataPath, parameters) ) {
+                throw new UserException.CouldNotReadInputFile(indexPath, "index is out of date with its data file " + dataPath.toUri() + " and must be rebuilt");
+            }
+            if ( indexChannel.size() != header.getIndexSize() ) {
+                throw new UserException.CouldNotReadInputFile(indexPath, "index is truncated or corrupt (expected " + header.getIndexSize() + " bytes but found " + indexChannel.size() + ") and must be rebuilt");
+            }
+            numEntries = header.numEntries;
+            entriesStart = index.position();
+            keysStart = entriesStart + numEntries * ENTRY_SIZE;
+
+            dataChannel = FileChannel.open(dataPath, StandardOpenOption.READ);
+        }
+        catch ( final IOException | RuntimeException e ) {
+            indexChannel.close();
+            throw e;
+        }
+    }
+
+    //==================================================================================================================
+    // Static Methods:
+
+    /**
+     * @param dataPath {@link Path} to a data file.  Must not be {@code null}.
+     * @return The {@link Path} of the index of the given data file.
+     */
+    public static Path getIndexPath(final Path dataPath) {
+        Utils.nonNull(dataPath);
+        return dataPath.resolveSibling(dataPath.getFileName().toString() + INDEX_EXTENSION);
+    }
+
+    /**
+     * @param indexPath {@link Path} to an index.  Must not be {@code null}.
+     * @param dataPath {@link Path} to the data file of the index.  Must not be {@code null}.
+     * @param parameters Description of how the data file is parsed.  Must not be {@code null}.
+     * @return {@code true} if the index at {@code indexPath} exists, is complete, and was built for the current version
+     * of the data file with the same {@code parameters}; {@code false} otherwise.
+     */
+    public static boolean isUpToDate(final Path indexPath, final Path dataPath, final String parameters) {
+        Utils.nonNull(indexPath);
+        Utils.nonNull(dataPath);
+        Utils.nonNull(parameters);
+
+        if ( !Files.exists(indexPath) ) {
+            return false;
+        }
+        try ( final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPath))) ) {
+            final Header header = Header.read(in);
+            return header != null && header.matches(dataPath, parameters) && Files.size(indexPath) == header.getIndexSize();
+        }
+        catch ( final IOException e ) {
+            return false;
+        }
+    }
+
+    /**
+     * Builds the index of a data file.
+     * @param dataPath {@link Path} to the data file to index.  Must be on the default file system.  Must not be {@code null}.
+     * @param indexPath {@link Path} of the index to write.  Must not be {@code null}.
+     * @param parameters Description of how the data file is parsed, checked when the index is opened.  Must not be {@code null}.
+     * @param numLinesToSkip Number of lines at the start of the data file that are not data rows.  Must be >= 0.
+     * @param rowKeyFunction Gets the key of a data row (without its line terminator), or {@code null} if the row has no key.  Must not be {@code null}.
+     */
+    public static void build(final Path dataPath,
+                             final Path indexPath,
+                             final String parameters,
+                             final int numLinesToSkip,
+                             final Function<String, String> rowKeyFunction) {
+        Utils.nonNull(dataPath);
+        Utils.nonNull(indexPath);
+        Utils.nonNull(parameters);
+        Utils.validateArg(numLinesToSkip >= 0, "numLinesToSkip must be >= 0");
+        Utils.nonNull(rowKeyFunction);
+
+        // Offset and length of the last row of each key:
+        final Map<String, long[]> rowsByKey = new HashMap<>();
+        final Header header;
+        try {
+            header = new Header(Files.size(dataPath), Files.getLastModifiedTime(dataPath).toMillis(), parameters, 0, 0);
+            try ( final InputStream in = Files.newInputStream(dataPath) ) {
+                final byte[] buffer = new byte[1 << 16];
+                final ByteArrayOutputStream line = new ByteArrayOutputStream();
+                long lineStart = 0;
+                long offset = 0;
+                int lineNum = 0;
+                int numRead;
+                while ( (numRead = in.read(buffer)) != -1 ) {
+                    int segmentStart = 0;
+                    for ( int i = 0; i < numRead; ++i ) {
+                        if ( buffer[i] == '\n' ) {
+                            line.write(buffer, segmentStart, i - segmentStart);
+                            if ( lineNum++ >= numLinesToSkip ) {
+                                addRow(rowsByKey, line, lineStart, rowKeyFunction);
+                            }
+                            line.reset();
+                            segmentStart = i + 1;
+                            lineStart = offset + segmentStart;
+                        }
+                    }
+                    line.write(buffer, segmentStart, numRead - segmentStart);
+                    offset += numRead;
+                }
+
+                // The last line may not have a terminator:
+                if ( line.size() > 0 && lineNum >= numLinesToSkip ) {
+                    addRow(rowsByKey, line, lineStart, rowKeyFunction);
+                }
+            }
+        }
+        catch ( final IOException e ) {
+            throw new UserException.CouldNotReadInputFile(dataPath, "could not index data file", e);
+        }
+
+        // Sort the keys by hash, then by key so that the index is reproducible:
+        final List<Map.Entry<String, long[]>> entries = new ArrayList<>(rowsByKey.entrySet());
+        final Map<String, Long> hashes = new HashMap<>(entries.size());
+        for ( final String key : rowsByKey.keySet() ) {
+            hashes.put(key, hashKey(key));
+        }
+        entries.sort(Comparator.<Map.Entry<String, long[]>>comparingLong(e -> hashes.get(e.getKey())).thenComparing(Map.Entry::getKey));
+
+        final List<byte[]> keyBytes = new ArrayList<>(entries.size());
+        long keysLength = 0;
+        for ( final Map.Entry<String, long[]> entry : entries ) {
+            final byte[] bytes = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            keyBytes.add(bytes);
+            keysLength += bytes.length;
+        }
+        Utils.validate(keysLength <= Integer.MAX_VALUE, () -> "keys of " + dataPath.toUri() + " are too large to be indexed");
+
+        // Write the index to a temporary file next to it, then rename it so that the index is never seen half-written:
+        final Path absoluteIndexPath = indexPath.toAbsolutePath();
+        Path tempIndexPath = null;
+        try {
+            tempIndexPath = Files.createTempFile(absoluteIndexPath.getParent(), absoluteIndexPath.getFileName().toString(), ".tmp");
+            try ( final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempIndexPath))) ) {
+                new Header(header.dataFileSize, header.dataFileLastModified, parameters, entries.size(), (int) keysLength).write(out);
+
+                int keyOffset = 0;
+                for ( int i = 0; i < entries.size(); ++i ) {
+                    final Map.Entry<String, long[]> entry = entries.get(i);
+                    out.writeLong(hashes.get(entry.getKey()));
+                    out.writeLong(entry.getValue()[0]);
+                    out.writeInt((int) entry.getValue()[1]);
+                    out.writeInt(keyOffset);
+                    out.writeInt(keyBytes.get(i).length);
+                    keyOffset += keyBytes.get(i).length;
+                }
+                for ( final byte[] bytes : keyBytes ) {
+                    out.write(bytes);
+                }
+            }
+            Files.move(tempIndexPath, absoluteIndexPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch ( final IOException e ) {
+            deleteQuietly(tempIndexPath);
+            throw new UserException.CouldNotCreateOutputFile(indexPath.toUri().toString(), "could not write index", e);
+        }
+    }
+
+    /**
+     * Opens the index of a data file.
+     * @param indexPath {@link Path} to the index.  Must be on the default file system.  Must not be {@code null}.
+     * @param dataPath {@link Path} to the data file of the index.  Must be on the default file system.  Must not be {@code null}.
+     * @param parameters Description of how the data file is parsed.  Must be the same as when the index was built.  Must not be {@code null}.
+     * @return The opened {@link SimpleKeyXsvIndex}.
+     */
+    public static SimpleKeyXsvIndex open(final Path indexPath, final Path dataPath, final String parameters) {
+        Utils.nonNull(indexPath);
+        Utils.nonNull(dataPath);
+        Utils.nonNull(parameters);
+        try {
+            return new SimpleKeyXsvIndex(indexPath, dataPath, parameters);
+        }
+        catch ( final IOException e ) {
+            throw new UserException.CouldNotReadInputFile(indexPath, "could not open index", e);
+        }
+    }
+
+    /**
+     * Records the offset and length of the given line (without its line terminator) as the row of its key.
+     */
+    private static void addRow(final Map<String, long[]> rowsByKey,
+                               final ByteArrayOutputStream line,
+                               final long lineStart,
+                               final Function<String, String> rowKeyFunction) {
+        byte[] bytes = line.toByteArray();
+        if ( bytes.length > 0 && bytes[bytes.length - 1] == '\r' ) {
+            bytes = Arrays.copyOf(bytes, bytes.length - 1);
+        }
+        final String key = rowKeyFunction.apply(new String(bytes, StandardCharsets.UTF_8));
+        if ( key != null ) {
+            rowsByKey.put(key, new long[]{lineStart, bytes.length});
+        }
+    }
+
+    private static void deleteQuietly(final Path path) {
+        if ( path != null ) {
+            try {
+                Files.deleteIfExists(path);
+            }
+            catch ( final IOException e ) {
+                // Only a leftover temporary file, and there is already an error to report.
+            }
+        }
+    }
+
+    private static long hashKey(final String key) {
+        return Hashing.murmur3_128().hashString(key, StandardCharsets.UTF_8).asLong();
+    }
+
+    //==================================================================================================================
+    // Instance Methods:
+
+    /**
+     * @return The number of distinct keys in this index.
+     */
+    public int size() {
+        return numEntries;
+    }
+
+    /**
+     * Get the last row of the data file with the given key.
+     * @param key The key of the row to get.  Must not be {@code null}.
+     * @return The row (without its line terminator), or {@code null} if no row has the given {@code key}.
+     */
+    public String getRow(final String key) {
+        Utils.nonNull(key);
+
+        final long hash = hashKey(key);
+
+        // Find the first entry with the hash of the key:
+        int low = 0;
+        int high = numEntries;
+        while ( low < high ) {
+            final int mid = (low + high) >>> 1;
+            if ( index.getLong(entriesStart + mid * ENTRY_SIZE) < hash ) {
+                low = mid + 1;
+            }
+            else {
+                high = mid;
+            }
+        }
+
+        // Several keys may have the same hash:
+        final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        for ( int i = low; i < numEntries; ++i ) {
+            final int entry = entriesStart + i * ENTRY_SIZE;
+            if ( index.getLong(entry) != hash ) {
+                break;
+            }
+            if ( keyEquals(entry, keyBytes) ) {
+                return readRow(index.getLong(entry + Long.BYTES), index.getInt(entry + Long.BYTES * 2));
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() {
+        try {
+            dataChannel.close();
+            indexChannel.close();
+        }
+        catch ( final IOException e ) {
+            throw new UserException.CouldNotReadInputFile(dataPath, "could not close index", e);
+        }
+    }
+
+    private boolean keyEquals(final int entry, final byte[] keyBytes) {
+        final int keyOffset = keysStart + index.getInt(entry + Long.BYTES * 2 + Integer.BYTES);
+        final int keyLength = index.getInt(entry + Long.BYTES * 2 + Integer.BYTES * 2);
+        if ( keyLength != keyBytes.length ) {
+            return false;
+        }
+        for ( int i = 0; i < keyLength; ++i ) {
+            if ( index.get(keyOffset + i) != keyBytes[i] ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String readRow(final long rowOffset, final int rowLength) {
+        final ByteBuffer row = ByteBuffer.allocate(rowLength);
+        try {
+            // Positional reads do not change the position of the channel, so they may be done concurrently:
+            while ( row.hasRemaining() ) {
+                if ( dataChannel.read(row, rowOffset + row.position()) < 0 ) {
+                    throw new UserException.CouldNotReadInputFile(dataPath, "data file is shorter than its index");
+                }
+            }
+        }
+        catch ( final IOException e ) {
+            throw new UserException.CouldNotReadInputFile(dataPath, "could not read row at offset " + rowOffset, e);
+        }
+        return new String(row.array(), StandardCharsets.UTF_8);
+    }
+
+    //==================================================================================================================
+    // Helper Data Types:
+
+    /**
+     * Header of an index file.
+     */
+    private static final class Header {
+        private final long dataFileSize;
+        private final long dataFileLastModified;
+        private final String parameters;
+        private final int numEntries;
+        private final int keysLength;
+
+        private Header(final long dataFileSize, final long dataFileLastModified, final String parameters, final int numEntries, final int keysLength) {
+            this.dataFileSize = dataFileSize;
+            this.dataFileLastModified = dataFileLastModified;
+            this.parameters = parameters;
+            this.numEntries = numEntries;
+            this.keysLength = keysLength;
+        }
+
+        /**
+         * @return The header at the start of the given input, or {@code null} if it is not an index of a supported version.
+         */
+        private static Header read(final DataInput in) throws IOException {
+            if ( in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION ) {
+                return null;
+            }
+            final long dataFileSize = in.readLong();
+            final long dataFileLastModified = in.readLong();
+            final String parameters = in.readUTF();
+            final int numEntries = in.readInt();
+            final int keysLength = in.readInt();
+            if ( numEntries < 0 || keysLength < 0 ) {
+                return null;
+            }
+            return new Header(dataFileSize, dataFileLastModified, parameters, numEntries, keysLength);
+        }
+
+        /**
+         * Reads the header at the start of the given buffer, leaving the buffer at the first entry.
+         */
+        private static Header read(final ByteBuffer buffer) {
+            try {
+                return read(new DataInputStream(new InputStream() {
+                    @Override
+                    public int read() {
+                        return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+                    }
+                }));
+            }
+            catch ( final IOException e ) {
+                return null;
+            }
+        }
+
+        private void write(final DataOutput out) throws IOException {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(dataFileSize);
+            out.writeLong(dataFileLastModified);
+            out.writeUTF(parameters);
+            out.writeInt(numEntries);
+            out.writeInt(keysLength);
+        }
+
+        /**
+         * @return The size in bytes of a complete index with this header.
+         */
+        private long getIndexSize() {
+            final ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+            try {
+                write(new DataOutputStream(headerBytes));
+            }
+            catch ( final IOException e ) {
+                throw new GATKException("Could not write index header to memory", e);
+            }
+            return headerBytes.size() + (long) numEntries * ENTRY_SIZE + keysLength;
+        }
+
+        private boolean matches(final Path dataPath, final String parameters) {
+            try {
+                return this.parameters.equals(parameters) &&
+                        dataFileSize == Files.size(dataPath) &&
+                        dataFileLastModified == Files.getLastModifiedTime(dataPath).toMillis();
+            }
+            catch ( final IOException e ) {
+                return false;
+            }
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package org.broadinstitute.hellbender.tools.spark;
 
 import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMSequenceDictionary;
+import org.broadinstitute.barclay.argparser.Advanced;
 import org.broadinstitute.barclay.argparser.BetaFeature;
 import org.broadinstitute.barclay.help.DocumentedFeature;
 import org.broadinstitute.hellbender.utils.SerializableFunction;
@@ -32,6 +34,7 @@ import picard.cmdline.programgroups.ReadDataManipulationProgramGroup;
 
 import java.io.PrintStream;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Spark version of the first pass of the base quality score recalibration.
@@ -137,6 +140,15 @@ public class BaseRecalibratorSpark extends GATKSparkTool {
     @Argument(fullName="read-shard-padding", doc = "Each read shard has this many bases of extra context on each side. Only applies when using the OVERLAPS_PARTITIONER join strategy.", optional = true)
     public int readShardPadding = 1000;
 
+    /**
+     * When intervals are specified, only the known sites within this many bases of the intervals are loaded by each
+     * executor, rather than the whole known-sites resource. This must be at least the length of the longest read
+     * overlapping the intervals for the results to be the same as loading all the known sites.
+     */
+    @Advanced
+    @Argument(fullName="known-sites-interval-padding", doc = "When intervals are specified, only load the known sites within this many bases of the intervals.", optional = true, minValue = 0)
+    public int knownSitesIntervalPadding = 1000;
+
     @Override
     protected void runTool( JavaSparkContext ctx ) {
         if (joinStrategy == JoinStrategy.BROADCAST && ! getReference().isCompatibleWithSparkBroadcast()){
@@ -153,7 +165,7 @@ public class BaseRecalibratorSpark extends GATKSparkTool {
 
         // TODO: Look into broadcasting the reference to all of the workers. This would make AddContextDataToReadSpark
         // TODO: and ApplyBQSRStub simpler (#855).
-        JavaPairRDD<GATKRead, ReadContextData> rddReadContext = AddContextDataToReadSpark.add(ctx, initialReads, getReference(), bqsrKnownVariants, knownVariants, joinStrategy, getHeaderForReads().getSequenceDictionary(), readShardSize, readShardPadding);
+        JavaPairRDD<GATKRead, ReadContextData> rddReadContext = AddContextDataToReadSpark.add(ctx, initialReads, getReference(), bqsrKnownVariants, knownVariants, getKnownSitesIntervals(), joinStrategy, getHeaderForReads().getSequenceDictionary(), readShardSize, readShardPadding);
 
         // TODO: broadcast the reads header?
         final RecalibrationReport bqsrReport = BaseRecalibratorSparkFn.apply(rddReadContext, getHeaderForReads(), getReferenceSequenceDictionary(), bqsrArgs);
@@ -162,4 +174,17 @@ public class BaseRecalibratorSpark extends GATKSparkTool {
             RecalUtils.outputRecalibrationReport(reportStream, bqsrArgs, bqsrReport.getQuantizationInfo(), bqsrReport.getRecalibrationTables(), bqsrReport.getCovariates());
         }
     }
+
+    /**
+     * @return the intervals, padded by {@link #knownSitesIntervalPadding}, or null if no intervals were specified
+     */
+    private List<SimpleInterval> getKnownSitesIntervals() {
+        if (getIntervals() == null) {
+            return null;
+        }
+        final SAMSequenceDictionary dictionary = getReferenceSequenceDictionary();
+        return getIntervals().stream()
+                .map(interval -> interval.expandWithinContig(knownSitesIntervalPadding, dictionary))
+                .collect(Collectors.toList());
+    }
 }
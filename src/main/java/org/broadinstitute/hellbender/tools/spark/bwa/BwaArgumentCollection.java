@@ -1,7 +1,9 @@
 package org.broadinstitute.hellbender.tools.spark.bwa;
 
+import org.broadinstitute.barclay.argparser.Advanced;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.hellbender.tools.BwaMemIndexImageCreator;
+import org.broadinstitute.hellbender.utils.bwa.BwaMemIndexCache;
 
 import java.io.Serializable;
 
@@ -15,6 +17,9 @@ public class BwaArgumentCollection implements Serializable {
     public static final String SINGLE_END_ALIGNMENT_SHORT_NAME = "se";
     public static final String BWA_MEM_INDEX_IMAGE_FULL_NAME = "bwa-mem-index-image";
     public static final String BWA_MEM_INDEX_IMAGE_SHORT_NAME = "image";
+    public static final String ALIGNMENT_BATCH_SIZE_FULL_NAME = "alignment-batch-size";
+    public static final String BWA_THREADS_FULL_NAME = "bwa-threads";
+    public static final String BWA_INDEX_MEMORY_BUDGET_FULL_NAME = "bwa-index-memory-budget";
 
     /**
      * The BWA-MEM index image file name that you've distributed to each executor. The image file can be generated using
@@ -35,4 +40,42 @@ public class BwaArgumentCollection implements Serializable {
             shortName = SINGLE_END_ALIGNMENT_SHORT_NAME,
             optional = true)
     public boolean singleEndAlignment = false;
+
+    /**
+     * By default, all the reads of a partition are aligned at once, so the memory needed by each task grows with the
+     * size of its partition. If this is set, the reads of each partition are aligned in batches of at most this many
+     * reads, and the next batch is aligned while the aligned reads of the previous one are written out. Note that the
+     * insert size distribution used for paired-end alignment is estimated from each batch.
+     */
+    @Advanced
+    @Argument(doc = "Maximum number of reads to align at once in each partition (0 to align whole partitions at once)",
+            fullName = ALIGNMENT_BATCH_SIZE_FULL_NAME,
+            minValue = 0,
+            optional = true)
+    public int alignmentBatchSize = 0;
+
+    /**
+     * The number of threads BWA uses to align the reads of each partition. The threads share the index image, so this
+     * lets executors with many cores reach full alignment throughput without loading one index image per core. It is
+     * best combined with fewer, larger executors and fewer Spark cores per task.
+     */
+    @Advanced
+    @Argument(doc = "Number of threads BWA uses to align the reads of each partition",
+            fullName = BWA_THREADS_FULL_NAME,
+            minValue = 1,
+            optional = true)
+    public int bwaThreads = 1;
+
+    /**
+     * Index images are kept open on each executor once the tasks using them are done, so that later tasks and jobs
+     * using the same image don't load it again. If this is set, the least recently used images that are no longer in
+     * use are closed whenever the images open on an executor would take more than this many bytes. By default they are
+     * only closed when the tool is done.
+     */
+    @Advanced
+    @Argument(doc = "Maximum number of bytes of BWA index images kept open on each executor once they are no longer in use",
+            fullName = BWA_INDEX_MEMORY_BUDGET_FULL_NAME,
+            minValue = 0,
+            optional = true)
+    public long indexMemoryBudget = BwaMemIndexCache.UNLIMITED_MEMORY_BUDGET;
 }
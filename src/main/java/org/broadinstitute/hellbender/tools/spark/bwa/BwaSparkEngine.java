@@ -1,7 +1,6 @@
 package org.broadinstitute.hellbender.tools.spark.bwa;
 
 import htsjdk.samtools.SAMFileHeader;
-import htsjdk.samtools.SAMRecord;
 import htsjdk.samtools.SAMSequenceDictionary;
 import org.apache.spark.SparkFiles;
 import org.apache.spark.api.java.JavaRDD;
@@ -12,7 +11,6 @@ import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.bwa.*;
 import org.broadinstitute.hellbender.utils.io.IOUtils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
-import org.broadinstitute.hellbender.utils.read.SAMRecordToGATKReadAdapter;
 
 import java.util.*;
 
@@ -33,6 +31,9 @@ public final class BwaSparkEngine implements AutoCloseable {
     private final String indexFileName;
     private final boolean resolveIndexFileName;
     private final Broadcast<SAMFileHeader> broadcastHeader;
+    private final int alignmentBatchSize;
+    private final int numThreads;
+    private final long indexMemoryBudget;
 
     /**
      * @param ctx           the Spark context
@@ -47,9 +48,39 @@ public final class BwaSparkEngine implements AutoCloseable {
                           final String indexFileName,
                           SAMFileHeader inputHeader,
                           final SAMSequenceDictionary refDictionary) {
+        this(ctx, referenceFile, indexFileName, inputHeader, refDictionary, 0, 1, BwaMemIndexCache.UNLIMITED_MEMORY_BUDGET);
+    }
+
+    /**
+     * @param ctx           the Spark context
+     * @param referenceFile the path to the reference file named <i>_prefix_.fa</i>, which is used to find the image file with name <i>_prefix_.fa.img</i>.
+     *                      Can be <code>null</code> if the indexFileName is provided.
+     * @param indexFileName the index image file name that already exists, or <code>null</code> to have the image file automatically distributed.
+     * @param inputHeader   the SAM file header to use for reads
+     * @param refDictionary the sequence dictionary to use for reads if the SAM file header doesn't have one (or it's empty)
+     * @param alignmentBatchSize the maximum number of reads aligned at once in each partition (rounded up to an even
+     *                           number for paired alignment), or 0 to align each partition at once
+     * @param numThreads    the number of threads BWA uses to align the reads of each partition, all sharing the same index
+     * @param indexMemoryBudget the maximum number of bytes of index images kept open on each executor once they are no
+     *                          longer in use, or {@link BwaMemIndexCache#UNLIMITED_MEMORY_BUDGET}
+     */
+    public BwaSparkEngine(final JavaSparkContext ctx,
+                          final String referenceFile,
+                          final String indexFileName,
+                          SAMFileHeader inputHeader,
+                          final SAMSequenceDictionary refDictionary,
+                          final int alignmentBatchSize,
+                          final int numThreads,
+                          final long indexMemoryBudget) {
         Utils.nonNull(referenceFile);
         Utils.nonNull(inputHeader);
+        Utils.validateArg(alignmentBatchSize >= 0, "the alignment batch size cannot be negative");
+        Utils.validateArg(numThreads > 0, "the number of threads must be positive");
+        Utils.validateArg(indexMemoryBudget >= 0, "the index memory budget cannot be negative");
         this.ctx = ctx;
+        this.alignmentBatchSize = alignmentBatchSize;
+        this.numThreads = numThreads;
+        this.indexMemoryBudget = indexMemoryBudget;
         if (indexFileName != null) {
             this.indexFileName = indexFileName;
             this.resolveIndexFileName = false;
@@ -99,74 +130,56 @@ public final class BwaSparkEngine implements AutoCloseable {
         final Broadcast<SAMFileHeader> broadcastHeader = this.broadcastHeader;
         final String indexFileName = this.indexFileName;
         final boolean resolveIndexFileName = this.resolveIndexFileName;
+        final int alignmentBatchSize = this.alignmentBatchSize;
+        final int numThreads = this.numThreads;
+        final long indexMemoryBudget = this.indexMemoryBudget;
         return unalignedReads.mapPartitions(itr ->
-                new ReadAligner(resolveIndexFileName ? SparkFiles.get(indexFileName) : indexFileName, broadcastHeader.value(), pairedAlignment).apply(itr));
+                new ReadAligner(resolveIndexFileName ? SparkFiles.get(indexFileName) : indexFileName, broadcastHeader.value(), pairedAlignment, alignmentBatchSize, numThreads, indexMemoryBudget).apply(itr));
     }
 
     @Override
     public void close() {
         broadcastHeader.destroy();
-        BwaMemIndexCache.closeAllDistributedInstances(ctx);
+        BwaMemIndexCache.closeAllDistributedInstances(ctx, indexMemoryBudget);
     }
 
     private static final class ReadAligner {
         private final BwaMemIndex bwaMemIndex;
         private final SAMFileHeader readsHeader;
         private final boolean alignsPairs;
+        private final int batchSize;
+        private final int numThreads;
 
-        // assumes 128Mb partitions, with reads needing about 100bytes each when BAM compressed
-        private static final int READS_PER_PARTITION_GUESS = 1500000;
-
-        ReadAligner( final String indexFileName, final SAMFileHeader readsHeader, final boolean alignsPairs) {
-            this.bwaMemIndex = BwaMemIndexCache.getInstance(indexFileName);
+        ReadAligner( final String indexFileName, final SAMFileHeader readsHeader, final boolean alignsPairs, final int batchSize, final int numThreads, final long indexMemoryBudget ) {
+            // the budget is passed with each task, as the executors may be shared with other tools and jobs
+            this.bwaMemIndex = BwaMemIndexCache.getInstanceForTask(indexFileName, indexMemoryBudget);
             this.readsHeader = readsHeader;
             this.alignsPairs = alignsPairs;
+            // the two reads of a pair must be in the same batch
+            this.batchSize = alignsPairs ? batchSize + (batchSize & 1) : batchSize;
+            this.numThreads = numThreads;
         }
 
         Iterator<GATKRead> apply( final Iterator<GATKRead> readItr ) {
-            final List<GATKRead> inputReads = new ArrayList<>(READS_PER_PARTITION_GUESS);
-            while ( readItr.hasNext() ) {
-                inputReads.add(readItr.next());
+            final BwaMemAligner aligner = new BwaMemAligner(bwaMemIndex);
+            // we are dealing with interleaved, paired reads.  tell BWA that they're paired.
+            if (alignsPairs) {
+                aligner.alignPairs();
             }
-            final int nReads = inputReads.size();
-            if (alignsPairs && (nReads & 1) != 0 ) {
+            aligner.setNThreadsOption(numThreads);
+            return new BatchedAlignmentIterator(readItr, batchSize, reads -> alignSeqs(aligner, reads), this::makeOutputReads);
+        }
+
+        private List<List<BwaMemAlignment>> alignSeqs( final BwaMemAligner aligner, final List<GATKRead> reads ) {
+            if (alignsPairs && (reads.size() & 1) != 0 ) {
                 throw new GATKException("We're supposed to be aligning paired reads, but there are an odd number of them.");
             }
-            final List<List<BwaMemAlignment>> allAlignments;
-            if ( nReads == 0 ) allAlignments = Collections.emptyList();
-            else {
-                final List<byte[]> seqs = new ArrayList<>(nReads);
-                for (final GATKRead read : inputReads) {
-                    seqs.add(read.getBases());
-                }
-                final BwaMemAligner aligner = new BwaMemAligner(bwaMemIndex);
-                // we are dealing with interleaved, paired reads.  tell BWA that they're paired.
-                if (alignsPairs) {
-                    aligner.alignPairs();
-                }
-                allAlignments = aligner.alignSeqs(seqs);
-            }
-            final List<String> refNames = bwaMemIndex.getReferenceContigNames();
-            final List<GATKRead> outputReads = new ArrayList<>(allAlignments.stream().mapToInt(List::size).sum());
-            for ( int idx = 0; idx != nReads; ++idx ) {
-                final GATKRead originalRead = inputReads.get(idx);
-                final String readName = originalRead.getName();
-                final byte[] bases = originalRead.getBases();
-                final byte[] quals = originalRead.getBaseQualities();
-                final String readGroup = originalRead.getReadGroup();
-                final List<BwaMemAlignment> alignments = allAlignments.get(idx);
-                final Map<BwaMemAlignment,String> saTagMap = BwaMemAlignmentUtils.createSATags(alignments,refNames);
-                for ( final BwaMemAlignment alignment : alignments ) {
-                    final SAMRecord samRecord =
-                            BwaMemAlignmentUtils.applyAlignment(readName, bases, quals, readGroup,
-                                                                alignment, refNames, readsHeader, false, true);
-                    final GATKRead rec = SAMRecordToGATKReadAdapter.headerlessReadAdapter(samRecord);
-                    final String saTag = saTagMap.get(alignment);
-                    if ( saTag != null ) rec.setAttribute("SA", saTag);
-                    outputReads.add(rec);
-                }
-            }
-            return outputReads.iterator();
+            // the bases are only read, to copy them to BWA
+            return aligner.alignSeqs(reads, GATKRead::getBasesNoCopy);
+        }
+
+        private List<GATKRead> makeOutputReads( final List<GATKRead> inputReads, final List<List<BwaMemAlignment>> allAlignments ) {
+            return BwaMemAlignmentUtils.toAlignedReads(inputReads, allAlignments, bwaMemIndex.getReferenceContigNames(), readsHeader);
         }
     }
 }
@@ -3,8 +3,6 @@ package org.broadinstitute.hellbender.tools.spark.pathseq;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.broadinstitute.hellbender.engine.filters.ReadFilter;
-import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerShort;
-import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerizer;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 
 /**
@@ -16,7 +14,8 @@ public class ContainsKmerReadFilter extends ReadFilter {
 
     private static final long serialVersionUID = 1L;
     private static volatile PSKmerCollection kmerLib = null; //Must be volatile for proper initialization
-    private final int kSize, kmerCountThreshold;
+    private final int kmerCountThreshold;
+    private transient PSBatchKmerizer kmerizer; //Not thread-safe, so not shared between filters
 
     public ContainsKmerReadFilter(final String kmerLibPath, final int kmerCountThreshold) {
         this.kmerCountThreshold = kmerCountThreshold;
@@ -29,21 +28,16 @@ public class ContainsKmerReadFilter extends ReadFilter {
                 }
             }
         }
-        kSize = kmerLib.kmerSize();
     }
 
     @Override
     public boolean test(final GATKRead read) {
-        final SVKmerizer kmers = new SVKmerizer(read.getBases(), kSize, 1, new SVKmerShort(kSize));
-        int numKmersFound = 0;
-        while (kmers.hasNext()) {
-            if (kmerLib.contains(((SVKmerShort)kmers.next()))) {
-                if (++numKmersFound >= kmerCountThreshold) {
-                    return false;
-                }
-            }
+        if (kmerizer == null) {
+            kmerizer = new PSBatchKmerizer(kmerLib);
         }
-        return true;
+        //A read is filtered out once it has a kmer in the set, and at least kmerCountThreshold of them
+        final int numKmersToFilter = Math.max(1, kmerCountThreshold);
+        return kmerizer.countKmers(read.getBases(), numKmersToFilter) < numKmersToFilter;
     }
 
     //Static variables can't be garbage collected until the object is unloaded
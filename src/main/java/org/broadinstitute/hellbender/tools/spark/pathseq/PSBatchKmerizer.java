@@ -0,0 +1,100 @@
+package org.broadinstitute.hellbender.tools.spark.pathseq;
+
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.Arrays;
+
+/**
+ * Counts the kmers of a sequence that are in a {@link PSKmerCollection}, without allocating any objects.
+ *
+ * The kmers are rolled across the sequence as 2-bit packed longs, keeping the forward kmer and its reverse-complement
+ * side by side, so that canonicalization and masking (in the same order as {@link PSKmerCollection#canonicalizeAndMask})
+ * are a couple of bit operations. Like {@link org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerizer}, parts of
+ * the sequence with bases other than A, C, G, or T are skipped. The kmers are collected into batches that are then
+ * looked up together: the lookups of a batch don't depend on each other, so the processor can overlap their cache
+ * misses rather than waiting for each one before computing the next kmer.
+ *
+ * Not thread-safe, as the batch buffer is reused: each thread needs its own instance.
+ */
+public final class PSBatchKmerizer {
+
+    public static final int BATCH_SIZE = 64;
+
+    // 2-bit code of each base, or -1 for bases other than A, C, G, or T
+    private static final byte[] BASE_CODES = new byte[256];
+    static {
+        Arrays.fill(BASE_CODES, (byte)-1);
+        BASE_CODES['A'] = BASE_CODES['a'] = 0;
+        BASE_CODES['C'] = BASE_CODES['c'] = 1;
+        BASE_CODES['G'] = BASE_CODES['g'] = 2;
+        BASE_CODES['T'] = BASE_CODES['t'] = 3;
+    }
+
+    private final PSKmerCollection kmerLib;
+    private final int kSize;
+    private final long kmerBits; // the 2*kSize least significant bits set
+    private final long kmerMask;
+    private final int firstBaseShift;
+    private final long[] batch = new long[BATCH_SIZE];
+
+    public PSBatchKmerizer(final PSKmerCollection kmerLib) {
+        this.kmerLib = Utils.nonNull(kmerLib);
+        kSize = kmerLib.kmerSize();
+        Utils.validateArg(kSize >= 1 && kSize < 32, "Kmer length must be between 1 and 31.");
+        Utils.validateArg((kSize & 1) != 0, "Kmer length must be odd to canonicalize.");
+        kmerBits = (1L << kSize * 2) - 1L;
+        kmerMask = kmerLib.getMask().getLong();
+        firstBaseShift = kSize * 2 - 2;
+    }
+
+    /**
+     * Counts the kmers of the sequence that are in the collection, stopping as soon as maxCount are found.
+     * Kmers occurring several times in the sequence are counted each time.
+     *
+     * @param bases the sequence
+     * @param maxCount the count at which to stop
+     * @return the number of kmers found, which is at most maxCount
+     */
+    public int countKmers(final byte[] bases, final int maxCount) {
+        Utils.nonNull(bases);
+        if (maxCount <= 0) {
+            return 0;
+        }
+        int count = 0;
+        long forward = 0;
+        long reverseComplement = 0;
+        int validBaseCount = 0;
+        int batchSize = 0;
+        for (final byte base : bases) {
+            final int code = BASE_CODES[base & 0xff];
+            if (code < 0) {
+                validBaseCount = 0;
+                continue;
+            }
+            forward = ((forward << 2) | code) & kmerBits;
+            reverseComplement = (reverseComplement >>> 2) | ((long)(3 - code) << firstBaseShift);
+            if (++validBaseCount >= kSize) {
+                // canonical if the middle base is A or C, as in SVKmerShort.canonical()
+                final long canonical = ((forward >> kSize) & 1L) == 0 ? forward : reverseComplement;
+                batch[batchSize++] = canonical & kmerMask;
+                if (batchSize == BATCH_SIZE) {
+                    count = countBatch(batchSize, count, maxCount);
+                    if (count >= maxCount) {
+                        return count;
+                    }
+                    batchSize = 0;
+                }
+            }
+        }
+        return countBatch(batchSize, count, maxCount);
+    }
+
+    private int countBatch(final int batchSize, int count, final int maxCount) {
+        for (int i = 0; i < batchSize; i++) {
+            if (kmerLib.containsMaskedKmer(batch[i]) && ++count >= maxCount) {
+                break;
+            }
+        }
+        return count;
+    }
+}
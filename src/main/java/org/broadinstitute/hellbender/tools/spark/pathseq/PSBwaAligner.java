@@ -24,7 +24,7 @@ public final class PSBwaAligner {
     private final boolean pairedAlignment;
 
     public PSBwaAligner(final PSBwaArgumentCollection bwaArgs, final boolean pairedAlignment) {
-        this.bwaIndex = BwaMemIndexCache.getInstance(bwaArgs.bwaImage);
+        this.bwaIndex = BwaMemIndexCache.getInstanceForTask(bwaArgs.bwaImage, bwaArgs.indexMemoryBudget);
         this.bwaArgs = bwaArgs;
         this.pairedAlignment = pairedAlignment;
     }
@@ -67,26 +67,22 @@ public final class PSBwaAligner {
         aligner.setOutputScoreThresholdOption(bwaArgs.scoreThreshold);
         aligner.setNThreadsOption(bwaArgs.bwaThreads);
 
-        //Get list of reads on the partition
-        final List<GATKRead> reads = new ArrayList<>();
-        while (itr.hasNext()) {
-            reads.add(itr.next());
-        }
-
-        final int numReads = reads.size();
-        if (pairedAlignment && numReads % 2 != 0) {
-            throw new UserException.BadInput("Expected paired reads but there are an odd number");
-        }
-        if (numReads == 0) {
-            return new ArrayList<GATKRead>(0).iterator();
-        }
-
-        //Align read sequences
+        //Align the reads of the partition, in batches if requested
         final List<String> refNames = bwaIndex.getReferenceContigNames();
-        final List<List<BwaMemAlignment>> alignments = aligner.alignSeqs(reads, GATKRead::getBases);
-        for (int i = 0; i < reads.size(); i++) {
-            reads.set(i, applyAlignments(reads.get(i), alignments.get(i), refNames, header));
-        }
-        return reads.iterator();
+        final int batchSize = pairedAlignment ? bwaArgs.alignmentBatchSize + (bwaArgs.alignmentBatchSize & 1) : bwaArgs.alignmentBatchSize;
+        return new BatchedAlignmentIterator(itr, batchSize,
+                reads -> {
+                    if (pairedAlignment && reads.size() % 2 != 0) {
+                        throw new UserException.BadInput("Expected paired reads but there are an odd number");
+                    }
+                    // the bases are only read, to copy them to BWA
+                    return aligner.alignSeqs(reads, GATKRead::getBasesNoCopy);
+                },
+                (reads, alignments) -> {
+                    for (int i = 0; i < reads.size(); i++) {
+                        reads.set(i, applyAlignments(reads.get(i), alignments.get(i), refNames, header));
+                    }
+                    return reads;
+                });
     }
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package org.broadinstitute.hellbender.tools.spark.pathseq;
 
+import org.broadinstitute.barclay.argparser.Advanced;
 import org.broadinstitute.barclay.argparser.Argument;
+import org.broadinstitute.hellbender.utils.bwa.BwaMemIndexCache;
 
 import java.io.Serializable;
 
@@ -17,6 +19,9 @@ public final class PSBwaArgumentCollection implements Serializable {
     public static final String MAX_ALT_HITS_SHORT_NAME = MAX_ALT_HITS_LONG_NAME;
     public static final String SCORE_THRESHOLD_LONG_NAME = "bwa-score-threshold";
     public static final String SCORE_THRESHOLD_SHORT_NAME = SCORE_THRESHOLD_LONG_NAME;
+    public static final String ALIGNMENT_BATCH_SIZE_LONG_NAME = "microbe-alignment-batch-size";
+    public static final String BWA_THREADS_LONG_NAME = "microbe-bwa-threads";
+    public static final String BWA_INDEX_MEMORY_BUDGET_LONG_NAME = "bwa-index-memory-budget";
 
     @Argument(doc = "Microbe reference BWA index image file generated using BwaMemIndexImageCreator. If running on a Spark cluster, this must be distributed to local disk on each node.",
             fullName = MICROBE_BWA_IMAGE_LONG_NAME,
@@ -60,6 +65,39 @@ public final class PSBwaArgumentCollection implements Serializable {
             optional = true)
     public int scoreThreshold = 30;
 
-    public final int bwaThreads = 1;
+    /**
+     * By default, all the reads of a partition are aligned at once. If this is set, the reads of each partition are
+     * aligned in batches of at most this many reads, so that the memory used by each task does not grow with the
+     * partition size. The insert size distribution used for paired alignment is then estimated from each batch.
+     */
+    @Advanced
+    @Argument(doc = "Maximum number of reads to align at once in each partition (0 to align whole partitions at once)",
+            fullName = ALIGNMENT_BATCH_SIZE_LONG_NAME,
+            minValue = 0,
+            optional = true)
+    public int alignmentBatchSize = 0;
+
+    /**
+     * The number of threads BWA uses to align the reads of each partition, all sharing the microbe index image.
+     */
+    @Advanced
+    @Argument(doc = "Number of threads BWA uses to align the reads of each partition to the microbe reference",
+            fullName = BWA_THREADS_LONG_NAME,
+            minValue = 1,
+            optional = true)
+    public int bwaThreads = 1;
+
+    /**
+     * The microbe index image is kept open on each executor once the tasks using it are done, so that later tasks don't
+     * load it again. If this is set, the least recently used images that are no longer in use are closed whenever the
+     * images open on an executor would take more than this many bytes. By default they are only closed when the
+     * alignment is done.
+     */
+    @Advanced
+    @Argument(doc = "Maximum number of bytes of BWA index images kept open on each executor once they are no longer in use",
+            fullName = BWA_INDEX_MEMORY_BUDGET_LONG_NAME,
+            minValue = 0,
+            optional = true)
+    public long indexMemoryBudget = BwaMemIndexCache.UNLIMITED_MEMORY_BUDGET;
 
 }
\ No newline at end of file
@@ -44,7 +44,12 @@ public final class PSKmerBloomFilter extends PSKmerCollection {
      */
     @Override
     public boolean contains(final SVKmerShort rawKmer) {
-        return kmerSet.contains(canonicalizeAndMask(rawKmer, kmerSize, kmerMask));
+        return containsMaskedKmer(canonicalizeAndMask(rawKmer, kmerSize, kmerMask));
+    }
+
+    @Override
+    boolean containsMaskedKmer(final long maskedKmer) {
+        return kmerSet.contains(maskedKmer);
     }
 
     @Override
@@ -8,6 +8,10 @@ import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerShort;
 public abstract class PSKmerCollection {
 
     abstract boolean contains(final SVKmerShort val);
+    /**
+     * Input should have been run through canonicalizeAndMask()
+     */
+    abstract boolean containsMaskedKmer(final long maskedKmer);
     abstract int kmerSize();
     abstract SVKmerShort getMask();
     abstract double getFalsePositiveProbability();
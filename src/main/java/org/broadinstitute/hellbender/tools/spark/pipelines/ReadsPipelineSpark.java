@@ -151,7 +151,7 @@ public class ReadsPipelineSpark extends GATKSparkTool {
         final SAMFileHeader header;
         final BwaSparkEngine bwaEngine;
         if (align) {
-            bwaEngine = new BwaSparkEngine(ctx, referenceArguments.getReferenceFileName(), bwaArgs.indexImageFile, getHeaderForReads(), getReferenceSequenceDictionary());
+            bwaEngine = new BwaSparkEngine(ctx, referenceArguments.getReferenceFileName(), bwaArgs.indexImageFile, getHeaderForReads(), getReferenceSequenceDictionary(), bwaArgs.alignmentBatchSize, bwaArgs.bwaThreads, bwaArgs.indexMemoryBudget);
             if (bwaArgs.singleEndAlignment) {
                 alignedReads = bwaEngine.alignUnpaired(getReads());
             } else {
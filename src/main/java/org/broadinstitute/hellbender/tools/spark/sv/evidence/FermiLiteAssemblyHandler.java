@@ -5,6 +5,7 @@ import org.broadinstitute.hellbender.tools.spark.sv.utils.SVFastqUtils;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVUtils;
 import org.broadinstitute.hellbender.utils.bwa.BwaMemAligner;
 import org.broadinstitute.hellbender.utils.bwa.BwaMemAlignment;
+import org.broadinstitute.hellbender.utils.bwa.BwaMemIndex;
 import org.broadinstitute.hellbender.utils.bwa.BwaMemIndexCache;
 import org.broadinstitute.hellbender.utils.fermi.FermiLiteAssembler;
 import org.broadinstitute.hellbender.utils.fermi.FermiLiteAssembly;
@@ -65,10 +66,13 @@ public final class FermiLiteAssemblyHandler implements FindBreakpointEvidenceSpa
                 assembly.getContigs().stream()
                         .map(FermiLiteAssembly.Contig::getSequence)
                         .collect(SVUtils.arrayListCollector(assembly.getNContigs()));
-        try ( final BwaMemAligner aligner = new BwaMemAligner(BwaMemIndexCache.getInstance(alignerIndexFile)) ) {
+        final BwaMemIndex index = BwaMemIndexCache.getInstance(alignerIndexFile);
+        try ( final BwaMemAligner aligner = new BwaMemAligner(index) ) {
             aligner.setIntraCtgOptions();
             final List<List<BwaMemAlignment>> alignments = aligner.alignSeqs(tigSeqs);
             return new AlignedAssemblyOrExcuse(intervalID, assembly, secondsInAssembly, alignments);
+        } finally {
+            BwaMemIndexCache.releaseInstance(index);
         }
     }
 }
@@ -3,6 +3,7 @@ package org.broadinstitute.hellbender.tools.spark.transforms.markduplicates;
 import com.google.common.collect.*;
 import htsjdk.samtools.SAMFileHeader;
 import htsjdk.samtools.metrics.MetricsFile;
+import org.apache.spark.HashPartitioner;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
 import org.broadinstitute.hellbender.exceptions.GATKException;
@@ -38,13 +39,21 @@ public class MarkDuplicatesSparkUtils {
      *       stranded unclipped start and reverse strand.
      *   (d) Leftover reads are emitted, unmodified, as an unpaired end.
      * (4) GroupByKey: Group PairedEnds that share alignment information. These pairs
-     *     are duplicates of each other.
+     *     are duplicates of each other. The alignment information is encoded as a fixed-width
+     *     {@link BinaryReadsKey}, which is much cheaper to build and shuffle than a string key.
      * (5) markDuplicatePairs:
      *   (a) For each group created by (4), sort the pairs by score and mark all but the
      *       highest scoring as duplicates.
      *   (b) Determine which duplicates are optical duplicates and increase the overall count.
+     *
+     * If <code>sortBasedGrouping</code> is true, the shuffles in (2) and (4) are done with
+     * {@link #sortAndSpanByKey} rather than <code>groupByKey</code>.
      */
     static JavaRDD<GATKRead> transformReads(final SAMFileHeader header, final MarkDuplicatesScoringStrategy scoringStrategy, final OpticalDuplicateFinder finder, final JavaRDD<GATKRead> reads, final int numReducers) {
+        return transformReads(header, scoringStrategy, finder, reads, numReducers, false);
+    }
+
+    static JavaRDD<GATKRead> transformReads(final SAMFileHeader header, final MarkDuplicatesScoringStrategy scoringStrategy, final OpticalDuplicateFinder finder, final JavaRDD<GATKRead> reads, final int numReducers, final boolean sortBasedGrouping) {
 
         JavaPairRDD<String, Iterable<GATKRead>> keyedReads;
         if (SAMFileHeader.SortOrder.queryname.equals(header.getSortOrder())) {
@@ -53,16 +62,19 @@ public class MarkDuplicatesSparkUtils {
         } else {
             // sort by group and name (incurs a shuffle)
             JavaPairRDD<String, GATKRead> keyReadPairs = reads.mapToPair(read -> new Tuple2<>(ReadsKey.keyForRead(header, read), read));
-            keyedReads = keyReadPairs.groupByKey(numReducers);
+            keyedReads = sortBasedGrouping ?
+                    sortAndSpanByKey(keyReadPairs, Comparator.<String>naturalOrder(), numReducers) :
+                    keyReadPairs.groupByKey(numReducers);
         }
 
-        JavaPairRDD<String, Iterable<PairedEnds>> keyedPairs = keyedReads.flatMapToPair(keyedRead -> {
-            List<Tuple2<String, PairedEnds>> out = Lists.newArrayList();
+        final Map<String, Short> libraryIds = LibraryIdGenerator.getLibraryIdsByReadGroup(header);
+        JavaPairRDD<BinaryReadsKey, PairedEnds> pairedEnds = keyedReads.flatMapToPair(keyedRead -> {
+            List<Tuple2<BinaryReadsKey, PairedEnds>> out = Lists.newArrayList();
             // Write each read out as a pair with only the first slot filled
             for (GATKRead read : keyedRead._2()) {
                 read.setIsDuplicate(false);
                 final PairedEnds pair = PairedEnds.of(read);
-                out.add(new Tuple2<>(pair.keyForFragment(header), pair));
+                out.add(new Tuple2<>(pair.keyForFragment(header, libraryIds), pair));
             }
             // Write each paired read with a mapped mate as a pair
             final List<GATKRead> sorted = Lists.newArrayList(Iterables.filter(keyedRead._2(), read -> ReadUtils.readHasMappedMate(read)));
@@ -74,15 +86,19 @@ public class MarkDuplicatesSparkUtils {
                     pair = PairedEnds.of(record);
                 } else {                                           //second in pair
                     pair.and(record);
-                    out.add(new Tuple2<>(pair.key(header), pair));
+                    out.add(new Tuple2<>(pair.key(header, libraryIds), pair));
                     pair = null;                                   //back to first
                 }
             }
             if (pair != null) {                                    //left over read
-                out.add(new Tuple2<>(pair.key(header), pair));
+                out.add(new Tuple2<>(pair.key(header, libraryIds), pair));
             }
             return out.iterator();
-        }).groupByKey(numReducers);
+        });
+
+        final JavaPairRDD<BinaryReadsKey, Iterable<PairedEnds>> keyedPairs = sortBasedGrouping ?
+                sortAndSpanByKey(pairedEnds, Comparator.<BinaryReadsKey>naturalOrder(), numReducers) :
+                pairedEnds.groupByKey(numReducers);
 
         return markPairedEnds(keyedPairs, scoringStrategy, finder, header);
     }
@@ -116,6 +132,21 @@ public class MarkDuplicatesSparkUtils {
         return rdd.mapPartitionsToPair(iter -> spanningIterator(iter));
     }
 
+    /**
+     * Like <code>groupByKey</code>, but shuffles with <code>repartitionAndSortWithinPartitions</code> and then groups
+     * the sorted values with {@link #spanByKey}. The shuffle output is streamed in key order, and can spill to disk,
+     * instead of being aggregated into an in-memory map, so only the values of one key are materialized at a time.
+     * @param rdd the input RDD
+     * @param comparator the key order used within each partition; must be serializable
+     * @param numReducers the number of output partitions
+     * @param <K> type of keys
+     * @param <V> type of values
+     * @return an RDD where each the values for each key are grouped into an iterable collection
+     */
+    static <K, V> JavaPairRDD<K, Iterable<V>> sortAndSpanByKey(final JavaPairRDD<K, V> rdd, final Comparator<K> comparator, final int numReducers) {
+        return spanByKey(rdd.repartitionAndSortWithinPartitions(new HashPartitioner(numReducers), comparator));
+    }
+
     /**
      * An iterator that groups values having the same key into iterable collections.
      * @param iterator an iterator over key-value pairs
@@ -153,7 +184,7 @@ public class MarkDuplicatesSparkUtils {
         };
     }
 
-    static JavaRDD<GATKRead> markPairedEnds(final JavaPairRDD<String, Iterable<PairedEnds>> keyedPairs,
+    static JavaRDD<GATKRead> markPairedEnds(final JavaPairRDD<BinaryReadsKey, Iterable<PairedEnds>> keyedPairs,
                                             final MarkDuplicatesScoringStrategy scoringStrategy,
                                             final OpticalDuplicateFinder finder, final SAMFileHeader header) {
         return keyedPairs.flatMap(keyedPair -> {
@@ -162,7 +193,7 @@ public class MarkDuplicatesSparkUtils {
 
             // Each key corresponds to either fragments or paired ends, not a mixture of both.
 
-            if (ReadsKey.isFragment(keyedPair._1())) { // fragments
+            if (keyedPair._1().isFragment()) { // fragments
                 return handleFragments(pairedEnds, scoringStrategy, header).iterator();
             }
 
@@ -1,6 +1,7 @@
 package org.broadinstitute.hellbender.tools.walkers;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.primitives.Doubles;
 import htsjdk.samtools.util.Locatable;
 import htsjdk.variant.variantcontext.*;
 import htsjdk.variant.vcf.VCFConstants;
@@ -76,13 +77,17 @@ public final class ReferenceConfidenceVariantContextMerger {
         int depth = 0;
         final Map<String, List<?>> annotationMap = new LinkedHashMap<>();
 
-        final GenotypesContext genotypes = GenotypesContext.create();
+        final GenotypesContext genotypes = GenotypesContext.create(vcs.stream().mapToInt(VariantContext::getNSamples).sum());
+
+        // Genotype index maps are shared by all the samples with the same ploidy and allele mapping, which at a given
+        // site are usually most of them
+        final Map<GenotypeIndexMapKey, int[]> genotypeIndexMaps = new HashMap<>();
 
         for ( final VCWithNewAlleles vcWithNewAlleles : vcAndNewAllelePairs ) {
             final VariantContext vc = vcWithNewAlleles.getVc();
             final List<Allele> remappedAlleles = vcWithNewAlleles.getNewAlleles();
 
-            genotypes.addAll(mergeRefConfidenceGenotypes(vc, remappedAlleles, allelesList, samplesAreUniquified));
+            mergeRefConfidenceGenotypes(genotypes, vc, remappedAlleles, allelesList, samplesAreUniquified, genotypeIndexMaps);
             depth += calculateVCDepth(vc);
 
             if ( loc.getStart() != vc.getStart() ) {
@@ -355,17 +360,13 @@ public final class ReferenceConfidenceVariantContextMerger {
 
             // If the key corresponds to a requested reducible key, store the data as AlleleSpecificAnnotationData
             if (annotatorEngine.isRequestedReducibleRawKey(key)) {
-                final List<Object> valueList = vcPair.getVc().getAttributeAsList(key);
-
                 List<ReducibleAnnotationData<?>> values = (List<ReducibleAnnotationData<?>>) annotationMap.get(key);
                 if (values == null) {
                     values = new ArrayList<>();
                     annotationMap.put(key, values);
                 }
-                StringJoiner joiner = new StringJoiner(",");
-                for (Object s : valueList) joiner.add(s.toString());
 
-                ReducibleAnnotationData<Object> pairData = new AlleleSpecificAnnotationData<>(vcPair.getNewAlleles(), joiner.toString());
+                ReducibleAnnotationData<Object> pairData = new AlleleSpecificAnnotationData<>(vcPair.getNewAlleles(), rawAnnotationString(vcPair.getVc(), key, p.getValue()));
                 values.add(pairData);
 
             // Otherwise simply treat it as a number
@@ -379,7 +380,7 @@ public final class ReferenceConfidenceVariantContextMerger {
                     annotationMap.put(key, values);
                 }
                 try {
-                    values.add(parseNumber(value.toString()));
+                    values.add(parseNumber(value));
                 } catch (final NumberFormatException e) {
                     warning.warn(String.format("Detected invalid annotations: When trying to merge variant contexts at location %s:%d the annotation %s was not a numerical value and was ignored",vcPair.getVc().getContig(),vcPair.getVc().getStart(),p.toString()));
                 }
@@ -387,8 +388,29 @@ public final class ReferenceConfidenceVariantContextMerger {
         }
     }
 
-    private Comparable<?> parseNumber(String stringValue) {
-        if (stringValue.contains(".")) {
+    /**
+     * Joins the values of a raw reducible annotation with commas. Values that are not lists or arrays are used as is,
+     * which avoids wrapping and re-joining the (usually already joined) string of each input.
+     */
+    private static String rawAnnotationString(final VariantContext vc, final String key, final Object value) {
+        if ( !(value instanceof List) && !value.getClass().isArray() ) {
+            return value.toString();
+        }
+        final StringJoiner joiner = new StringJoiner(",");
+        for (final Object s : vc.getAttributeAsList(key)) {
+            joiner.add(s.toString());
+        }
+        return joiner.toString();
+    }
+
+    private Comparable<?> parseNumber(final Object value) {
+        // values that were already decoded need not be printed and parsed again; NaN and infinite values are left to the
+        // string path below, which rejects them, so that they are ignored with a warning rather than merged
+        if ( value instanceof Integer || (value instanceof Double && Doubles.isFinite((Double) value)) ) {
+            return (Comparable<?>) value;
+        }
+        final String stringValue = value.toString();
+        if (stringValue.indexOf('.') >= 0) {
             return Double.parseDouble(stringValue);
         } else {
             return Integer.parseInt(stringValue);
@@ -411,24 +433,31 @@ public final class ReferenceConfidenceVariantContextMerger {
 
 
     /**
-     * Merge into the context a new genotype represented by the given VariantContext for the provided list of target alleles.
+     * Merge into the context the genotypes of the given VariantContext for the provided list of target alleles.
      * This method assumes that none of the alleles in the VC overlaps with any of the alleles in the set.
-     *  @param vc                    the Variant Context for the sample
+     *
+     * The mapping of the target alleles to the alleles of the VC only depends on the genotype when the VC has several
+     * spanning deletions, so it is otherwise computed once for the whole VC. The genotype index maps that follow from
+     * these allele mappings are looked up in (and added to) {@code genotypeIndexMaps}, so that they are only computed
+     * once for all the samples with the same ploidy and allele mapping.
+     *
+     * @param mergedGenotypes       the context the merged genotypes are added to
+     * @param vc                    the Variant Context for the sample
      * @param remappedAlleles       the list of remapped alleles for the sample
      * @param targetAlleles         the list of target alleles
      * @param samplesAreUniquified  true if sample names have been uniquified
+     * @param genotypeIndexMaps     the genotype index maps computed so far for the target alleles
      */
-    private GenotypesContext mergeRefConfidenceGenotypes(final VariantContext vc,
-                                                           final List<Allele> remappedAlleles,
-                                                           final List<Allele> targetAlleles,
-                                                           final boolean samplesAreUniquified) {
-        final GenotypesContext mergedGenotypes = GenotypesContext.create();
-        final int maximumPloidy = vc.getMaxPloidy(GATKVariantContextUtils.DEFAULT_PLOIDY);
-        // the map is different depending on the ploidy, so in order to keep this method flexible (mixed ploidies)
-        // we need to get a map done (lazily inside the loop) for each ploidy, up to the maximum possible.
-        final int[][] genotypeIndexMapsByPloidy = new int[maximumPloidy + 1][];
+    private void mergeRefConfidenceGenotypes(final GenotypesContext mergedGenotypes,
+                                             final VariantContext vc,
+                                             final List<Allele> remappedAlleles,
+                                             final List<Allele> targetAlleles,
+                                             final boolean samplesAreUniquified,
+                                             final Map<GenotypeIndexMapKey, int[]> genotypeIndexMaps) {
         final int maximumAlleleCount = Math.max(remappedAlleles.size(),targetAlleles.size());
-        int[] perSampleIndexesOfRelevantAlleles;
+        final boolean alleleMappingDependsOnGenotype = Collections.frequency(remappedAlleles, Allele.SPAN_DEL) > 1
+                && targetAlleles.stream().anyMatch(a -> a == Allele.SPAN_DEL);
+        int[] vcIndexesOfRelevantAlleles = null; // lazily initialized, as it requires a <NON_REF> allele
 
         for ( final Genotype g : vc.getGenotypes() ) {
             final String name;
@@ -441,19 +470,55 @@ public final class ReferenceConfidenceVariantContextMerger {
             final GenotypeBuilder genotypeBuilder = new GenotypeBuilder(g).alleles(GATKVariantContextUtils.noCallAlleles(g.getPloidy()));
             genotypeBuilder.name(name);
             if (g.hasPL()) {
-                // lazy initialization of the genotype index map by ploidy.
-                perSampleIndexesOfRelevantAlleles = getIndexesOfRelevantAlleles(remappedAlleles, targetAlleles, vc.getStart(), g);
-                final int[] genotypeIndexMapByPloidy = genotypeIndexMapsByPloidy[ploidy] == null
-                            ? calculators.getInstance(ploidy, maximumAlleleCount).genotypeIndexMap(perSampleIndexesOfRelevantAlleles, calculators) //probably horribly slow
-                            : genotypeIndexMapsByPloidy[ploidy];
+                final int[] perSampleIndexesOfRelevantAlleles;
+                if (alleleMappingDependsOnGenotype) {
+                    perSampleIndexesOfRelevantAlleles = getIndexesOfRelevantAlleles(remappedAlleles, targetAlleles, vc.getStart(), g);
+                } else {
+                    if (vcIndexesOfRelevantAlleles == null) {
+                        vcIndexesOfRelevantAlleles = getIndexesOfRelevantAlleles(remappedAlleles, targetAlleles, vc.getStart(), g);
+                    }
+                    perSampleIndexesOfRelevantAlleles = vcIndexesOfRelevantAlleles;
+                }
+                final int[] genotypeIndexMapByPloidy = genotypeIndexMaps.computeIfAbsent(new GenotypeIndexMapKey(ploidy, perSampleIndexesOfRelevantAlleles),
+                        key -> calculators.getInstance(ploidy, maximumAlleleCount).genotypeIndexMap(perSampleIndexesOfRelevantAlleles, calculators));
                 final int[] PLs = generatePL(g, genotypeIndexMapByPloidy);
                 final int[] AD = g.hasAD() ? generateAD(g.getAD(), perSampleIndexesOfRelevantAlleles) : null;
                 genotypeBuilder.PL(PLs).AD(AD);
             }
             mergedGenotypes.add(genotypeBuilder.make());
         }
+    }
+
+    /**
+     * Key of the genotype index map for a ploidy and a mapping of the target alleles to the alleles of a genotype.
+     */
+    private static final class GenotypeIndexMapKey {
+        private final int ploidy;
+        private final int[] indexesOfRelevantAlleles;
+        private final int hashCode;
+
+        GenotypeIndexMapKey(final int ploidy, final int[] indexesOfRelevantAlleles) {
+            this.ploidy = ploidy;
+            this.indexesOfRelevantAlleles = indexesOfRelevantAlleles;
+            this.hashCode = 31 * ploidy + Arrays.hashCode(indexesOfRelevantAlleles);
+        }
 
-        return mergedGenotypes;
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof GenotypeIndexMapKey)) {
+                return false;
+            }
+            final GenotypeIndexMapKey other = (GenotypeIndexMapKey) o;
+            return ploidy == other.ploidy && Arrays.equals(indexesOfRelevantAlleles, other.indexesOfRelevantAlleles);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
     }
 
     /**
@@ -1,17 +1,21 @@
 package org.broadinstitute.hellbender.tools.walkers.bqsr;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import htsjdk.tribble.Feature;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.broadinstitute.barclay.argparser.Advanced;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.ArgumentCollection;
 import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
+import org.broadinstitute.barclay.argparser.Hidden;
 import org.broadinstitute.barclay.help.DocumentedFeature;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.engine.*;
 import org.broadinstitute.hellbender.engine.filters.ReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadFilterLibrary;
 import org.broadinstitute.hellbender.engine.filters.WellformedReadFilter;
+import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
@@ -24,8 +28,14 @@ import picard.cmdline.programgroups.ReadDataManipulationProgramGroup;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * First pass of the base quality score recalibration.
@@ -72,6 +82,12 @@ import java.util.List;
  *   --known-sites another/optional/setOfSitesToMask.vcf \
  *   -O recal_data.table
  * </pre>
+ *
+ * <p>
+ * With --recalibration-threads greater than 1, the reads are handed in batches to worker threads, each of which
+ * collects statistics in its own recalibration tables. The tables are combined once all reads have been processed.
+ * Batches are given to the workers in turn, so the output does not depend on thread scheduling.
+ * </p>
  */
 
 @CommandLineProgramProperties(
@@ -87,6 +103,8 @@ public final class BaseRecalibrator extends ReadWalker {
             "(such as read group, reported quality score, machine cycle, and nucleotide context).";
 
     public static final String KNOWN_SITES_ARG_FULL_NAME = "known-sites";
+    public static final String RECALIBRATION_THREADS_LONG_NAME = "recalibration-threads";
+    public static final String RECALIBRATION_BATCH_SIZE_LONG_NAME = "recalibration-batch-size";
 
     protected static final Logger logger = LogManager.getLogger(BaseRecalibrator.class);
 
@@ -115,8 +133,25 @@ public final class BaseRecalibrator extends ReadWalker {
     @Argument(shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME, fullName = StandardArgumentDefinitions.OUTPUT_LONG_NAME, doc = "The output recalibration table file to create", optional = false)
     private File recalTableFile = null;
 
+    @Advanced
+    @Argument(fullName = RECALIBRATION_THREADS_LONG_NAME, doc = "Number of threads used to collect recalibration statistics", optional = true, minValue = 1)
+    private int recalibrationThreads = 1;
+
+    /**
+     * Number of reads handed to a worker thread at a time when more than one thread is used.
+     */
+    @Hidden
+    @Argument(fullName = RECALIBRATION_BATCH_SIZE_LONG_NAME, doc = "Number of reads handed to a worker thread at a time", optional = true, minValue = 1)
+    private int readsPerBatch = 10000;
+
+    // Maximum number of batches per worker thread that may be queued or in flight before the traversal thread
+    // waits for the oldest one to finish. Bounds the number of reads held in memory.
+    private static final int PENDING_BATCHES_PER_THREAD = 2;
+
     private BaseRecalibrationEngine recalibrationEngine;
 
+    private RecalibrationWorkers workers; // null unless more than one thread is used
+
     private ReferenceDataSource referenceDataSource; // datasource for the reference. We're using a different one from the engine itself to avoid messing with its caches.
 
     /**
@@ -144,6 +179,9 @@ public final class BaseRecalibrator extends ReadWalker {
         recalibrationEngine = new BaseRecalibrationEngine(recalArgs, getHeaderForReads());
         recalibrationEngine.logCovariatesUsed();
         referenceDataSource = ReferenceDataSource.of(referenceArguments.getReferencePath());
+        if (recalibrationThreads > 1) {
+            workers = new RecalibrationWorkers(recalibrationThreads);
+        }
     }
 
     @Override
@@ -182,11 +220,18 @@ public final class BaseRecalibrator extends ReadWalker {
      */
     @Override
     public void apply( GATKRead read, ReferenceContext ref, FeatureContext featureContext ) {
-        recalibrationEngine.processRead(read, referenceDataSource, featureContext.getValues(knownSites));
+        if (workers == null) {
+            recalibrationEngine.processRead(read, referenceDataSource, featureContext.getValues(knownSites));
+        } else {
+            workers.add(read, featureContext.getValues(knownSites));
+        }
     }
 
     @Override
     public Object onTraversalSuccess() {
+        if (workers != null) {
+            workers.combineInto(recalibrationEngine);
+        }
         recalibrationEngine.finalizeData();
 
         logger.info("Calculating quantized quality scores...");
@@ -217,4 +262,126 @@ public final class BaseRecalibrator extends ReadWalker {
             throw new UserException.CouldNotCreateOutputFile(recalTableFile, e);
         }
     }
+
+    @Override
+    public void closeTool() {
+        if (workers != null) {
+            workers.close();
+        }
+    }
+
+    /**
+     * Worker threads, each collecting statistics for a share of the reads in its own {@link BaseRecalibrationEngine},
+     * plus the batches of reads submitted to them, oldest first. All methods must be called from the traversal thread.
+     */
+    private final class RecalibrationWorkers implements AutoCloseable {
+        private final List<RecalibrationWorker> workers = new ArrayList<>();
+        private final Deque<Future<?>> pendingBatches = new ArrayDeque<>();
+        private final int maxPendingBatches;
+        private List<ReadWithKnownSites> batch = new ArrayList<>(readsPerBatch);
+        private int nextWorker = 0;
+
+        private RecalibrationWorkers(final int numThreads) {
+            for (int i = 0; i < numThreads; i++) {
+                workers.add(new RecalibrationWorker(i));
+            }
+            maxPendingBatches = numThreads * PENDING_BATCHES_PER_THREAD;
+            logger.info("Collecting recalibration statistics on " + numThreads + " threads");
+        }
+
+        /**
+         * Queue the read for processing. The known sites are looked up on the traversal thread, as the feature
+         * data sources are not thread-safe.
+         */
+        private void add(final GATKRead read, final List<Feature> knownSitesForRead) {
+            batch.add(new ReadWithKnownSites(read, knownSitesForRead));
+            if (batch.size() >= readsPerBatch) {
+                submitBatch();
+            }
+        }
+
+        private void submitBatch() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            while (pendingBatches.size() >= maxPendingBatches) {
+                waitForOldest();
+            }
+            final RecalibrationWorker worker = workers.get(nextWorker);
+            nextWorker = (nextWorker + 1) % workers.size();
+            final List<ReadWithKnownSites> reads = batch;
+            pendingBatches.add(worker.executor.submit(() -> worker.process(reads)));
+            batch = new ArrayList<>(readsPerBatch);
+        }
+
+        private void waitForOldest() {
+            try {
+                pendingBatches.remove().get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new GATKException("Interrupted while collecting recalibration statistics", e);
+            } catch (final ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new GATKException("Error collecting recalibration statistics", e.getCause());
+            }
+        }
+
+        /**
+         * Process all remaining reads and add the statistics collected by the workers, in worker order, to the given engine.
+         */
+        private void combineInto(final BaseRecalibrationEngine engine) {
+            submitBatch();
+            while (!pendingBatches.isEmpty()) {
+                waitForOldest();
+            }
+            workers.forEach(worker -> engine.combine(worker.engine));
+        }
+
+        @Override
+        public void close() {
+            workers.forEach(RecalibrationWorker::close);
+        }
+    }
+
+    /**
+     * A single thread with its own engine and reference data source. Each engine gets its own copy of the header,
+     * as the engine may set the platform of the read groups in it.
+     */
+    private final class RecalibrationWorker {
+        private final ExecutorService executor;
+        private final BaseRecalibrationEngine engine;
+        private final ReferenceDataSource reference;
+
+        private RecalibrationWorker(final int index) {
+            engine = new BaseRecalibrationEngine(recalArgs, getHeaderForReads().clone());
+            reference = ReferenceDataSource.of(referenceArguments.getReferencePath());
+            executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                    .setNameFormat("recalibration-worker-" + index)
+                    .setDaemon(true)
+                    .build());
+        }
+
+        private void process(final List<ReadWithKnownSites> reads) {
+            for (final ReadWithKnownSites read : reads) {
+                engine.processRead(read.read, reference, read.knownSites);
+            }
+        }
+
+        private void close() {
+            executor.shutdownNow();
+            reference.close();
+        }
+    }
+
+    private static final class ReadWithKnownSites {
+        private final GATKRead read;
+        private final List<Feature> knownSites;
+
+        private ReadWithKnownSites(final GATKRead read, final List<Feature> knownSites) {
+            this.read = read;
+            this.knownSites = knownSites;
+        }
+    }
 }
\ No newline at end of file
@@ -7,6 +7,7 @@ import htsjdk.samtools.util.Locatable;
 import htsjdk.variant.variantcontext.VariantContext;
 import org.apache.logging.log4j.Logger;
 import org.broadinstitute.hellbender.engine.AssemblyRegion;
+import org.broadinstitute.hellbender.engine.AssemblyRegionWalker;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.readthreading.ReadThreadingAssembler;
 import org.broadinstitute.hellbender.utils.QualityUtils;
@@ -166,7 +167,7 @@ public final class AssemblyBasedCallerUtils {
 
         switch ( likelihoodArgs.likelihoodEngineImplementation) {
             case PairHMM:
-                return new PairHMMLikelihoodCalculationEngine((byte) likelihoodArgs.gcpHMM, likelihoodArgs.pairHMMNativeArgs.getPairHMMArgs(), likelihoodArgs.pairHMM, log10GlobalReadMismappingRate, likelihoodArgs.pcrErrorModel, likelihoodArgs.BASE_QUALITY_SCORE_THRESHOLD);
+                return new PairHMMLikelihoodCalculationEngine((byte) likelihoodArgs.gcpHMM, likelihoodArgs.pairHMMNativeArgs.getPairHMMArgs(), likelihoodArgs.pairHMM, log10GlobalReadMismappingRate, likelihoodArgs.pcrErrorModel, likelihoodArgs.BASE_QUALITY_SCORE_THRESHOLD, likelihoodArgs.pairHMMCacheSize, likelihoodArgs.singlePrecisionLikelihoods);
             case Random:
                 return new RandomLikelihoodCalculationEngine();
             default:
@@ -184,6 +185,7 @@ public final class AssemblyBasedCallerUtils {
         assemblyEngine.setRecoverDanglingBranches(!rtaac.doNotRecoverDanglingBranches);
         assemblyEngine.setMinDanglingBranchLength(rtaac.minDanglingBranchLength);
         assemblyEngine.setMinBaseQualityToUseInAssembly(args.minBaseQualityScore);
+        assemblyEngine.setNumThreads(rtaac.assemblyThreads);
 
         if ( rtaac.graphOutput != null ) {
             assemblyEngine.setGraphWriter(new File(rtaac.graphOutput));
@@ -201,6 +203,19 @@ public final class AssemblyBasedCallerUtils {
                 Optional.empty();
     }
 
+    /**
+     * Outputs that are written directly by the calling engine, rather than through the tool's VCF writer, can't be
+     * shared by the per-thread engines used when assembly regions are processed on more than one thread.
+     */
+    public static void validateArgsForMultiThreadedTraversal(final AssemblyBasedCallerArgumentCollection args) {
+        if ( args.bamOutputPath != null ) {
+            throw new UserException.BadInput("--" + AssemblyRegionWalker.ASSEMBLY_REGION_THREADS_LONG_NAME + " > 1 is not supported together with bam output");
+        }
+        if ( args.assemblerArgs.graphOutput != null || args.assemblerArgs.debugGraphTransformations ) {
+            throw new UserException.BadInput("--" + AssemblyRegionWalker.ASSEMBLY_REGION_THREADS_LONG_NAME + " > 1 is not supported together with assembly graph debugging output");
+        }
+    }
+
     // create the assembly using just high quality reads (eg Q20 or higher).  We may want to use lower
     // quality reads in the PairHMM downstream, so we can't use a ReadFilter
     public static AssemblyRegion assemblyRegionWithWellMappedReads(final AssemblyRegion originalAssemblyRegion,
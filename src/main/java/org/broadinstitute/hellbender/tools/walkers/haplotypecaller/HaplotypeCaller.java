@@ -2,6 +2,7 @@ package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
 
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.samtools.reference.ReferenceSequenceFile;
+import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.writer.VariantContextWriter;
 import java.nio.file.Path;
 import org.broadinstitute.barclay.argparser.Argument;
@@ -194,6 +195,10 @@ public final class HaplotypeCaller extends AssemblyRegionWalker {
 
     @Override
     public void onTraversalStart() {
+        if ( assemblyRegionThreads > 1 ) {
+            AssemblyBasedCallerUtils.validateArgsForMultiThreadedTraversal(hcArgs);
+        }
+
         final ReferenceSequenceFile referenceReader = getReferenceReader(referenceArguments);
         hcEngine = new HaplotypeCallerEngine(hcArgs, createOutputBamIndex, createOutputBamMD5, getHeaderForReads(), referenceReader);
 
@@ -219,6 +224,30 @@ public final class HaplotypeCaller extends AssemblyRegionWalker {
         hcEngine.callRegion(region, featureContext).forEach(vcfWriter::add);
     }
 
+    @Override
+    protected boolean supportsMultiThreadedTraversal() { return true; }
+
+    /**
+     * Each worker thread gets its own engine (and reference reader); the engine created in {@link #onTraversalStart}
+     * is still used to evaluate activity, and to create and write to the output VCF.
+     */
+    @Override
+    protected AssemblyRegionProcessor makeAssemblyRegionProcessor() {
+        final HaplotypeCallerEngine workerEngine = new HaplotypeCallerEngine(hcArgs, createOutputBamIndex, createOutputBamMD5, getHeaderForReads(), getReferenceReader(referenceArguments));
+        return new AssemblyRegionProcessor() {
+            @Override
+            public Runnable process(final AssemblyRegion region, final ReferenceContext referenceContext, final FeatureContext featureContext) {
+                final List<VariantContext> calls = workerEngine.callRegion(region, featureContext);
+                return () -> calls.forEach(vcfWriter::add);
+            }
+
+            @Override
+            public void close() {
+                workerEngine.shutdown();
+            }
+        };
+    }
+
     @Override
     public void closeTool() {
         if ( vcfWriter != null ) {
@@ -68,6 +68,26 @@ public final class LikelihoodEngineArgumentCollection implements Serializable {
     @Argument(fullName="phred-scaled-global-read-mismapping-rate", doc="The global assumed mismapping rate for reads", optional = true)
     public int phredScaledGlobalReadMismappingRate = 45;
 
+    /**
+     * Maximum number of read/haplotype likelihoods to remember, so that they don't have to be recomputed when the same
+     * read is evaluated against the same haplotype again, for example because it is in overlapping padded regions. The
+     * least recently used likelihoods are forgotten first, and the number of likelihoods found in the cache is reported
+     * at the end of the run. Each likelihood takes on the order of a hundred bytes, plus the reads that it refers to.
+     * Set to 0 to disable the cache.
+     */
+    @Advanced
+    @Argument(fullName = "pair-hmm-cache-size", doc = "Maximum number of read/haplotype likelihoods to cache (0 to disable)", optional = true, minValue = 0)
+    public int pairHMMCacheSize = 0;
+
+    /**
+     * Keep the read likelihoods of each region in single rather than double precision, which halves the memory they
+     * take when there are many reads, haplotypes or samples. Likelihoods are still computed in double precision, but
+     * rounding them to floats can change the last digits of the output qualities and annotations.
+     */
+    @Advanced
+    @Argument(fullName = "single-precision-likelihoods", doc = "Keep read likelihoods in single precision to save memory", optional = true)
+    public boolean singlePrecisionLikelihoods = false;
+
     @ArgumentCollection
     public PairHMMNativeArgumentCollection pairHMMNativeArgs = new PairHMMNativeArgumentCollection();
 
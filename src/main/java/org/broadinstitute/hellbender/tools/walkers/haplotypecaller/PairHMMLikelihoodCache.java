@@ -0,0 +1,174 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
+
+import org.broadinstitute.hellbender.utils.LRUCache;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.ReadUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Bounded cache of PairHMM log10 likelihoods, used by {@link PairHMMLikelihoodCalculationEngine} to avoid evaluating
+ * the same read against the same haplotype more than once (as happens, for example, when a read is in overlapping
+ * padded regions that assemble the same haplotypes).
+ *
+ * Entries are keyed on the content of the (processed) read that is given to the PairHMM, that is its bases, base
+ * qualities, insertion and deletion gap open penalties and gap continuation penalties, together with the bases of
+ * the haplotype, so a cached value is only ever returned for an identical PairHMM computation. The least recently
+ * used entries are evicted once the cache holds the maximum number of read/haplotype pairs.
+ *
+ * This class is not thread-safe.
+ */
+final class PairHMMLikelihoodCache {
+
+    private final Map<Key, Double> likelihoods;
+
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * @param maxEntries maximum number of read/haplotype pairs to keep, must be > 0
+     */
+    PairHMMLikelihoodCache(final int maxEntries) {
+        Utils.validateArg(maxEntries > 0, () -> "maxEntries must be > 0 but got " + maxEntries);
+        likelihoods = new LRUCache<>(maxEntries);
+    }
+
+    /**
+     * Look up the likelihoods of a read against all of the given haplotypes.
+     *
+     * @param read key of the read
+     * @param haplotypes keys of the haplotypes
+     * @param dest where to put the likelihood of the read against each haplotype, in the same order as the haplotypes
+     * @return true if the likelihoods against all of the haplotypes were in the cache, in which case they are now in dest
+     */
+    boolean getAll(final ReadKey read, final List<HaplotypeKey> haplotypes, final double[] dest) {
+        for ( int h = 0; h < haplotypes.size(); h++ ) {
+            final Double likelihood = likelihoods.get(new Key(read, haplotypes.get(h)));
+            if ( likelihood == null ) {
+                misses += haplotypes.size();
+                return false;
+            }
+            dest[h] = likelihood;
+        }
+        hits += haplotypes.size();
+        return true;
+    }
+
+    void put(final ReadKey read, final HaplotypeKey haplotype, final double likelihood) {
+        likelihoods.put(new Key(read, haplotype), likelihood);
+    }
+
+    /**
+     * @return number of read/haplotype pairs whose likelihood was found by {@link #getAll}
+     */
+    long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return number of read/haplotype pairs that {@link #getAll} reported as needing to be computed
+     */
+    long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return fraction of the read/haplotype pairs looked up that were found in the cache, or 0 if there were none
+     */
+    double getHitRate() {
+        return hits + misses == 0 ? 0.0 : (double) hits / (hits + misses);
+    }
+
+    int size() {
+        return likelihoods.size();
+    }
+
+    /**
+     * The content of a processed read that determines its PairHMM likelihoods.
+     */
+    static final class ReadKey {
+        private final byte[] bases;
+        private final byte[] quals;
+        private final byte[] insertionGOP;
+        private final byte[] deletionGOP;
+        private final byte[] overallGCP;
+        private final int hash;
+
+        ReadKey(final GATKRead processedRead, final byte[] overallGCP) {
+            this.bases = processedRead.getBases();
+            this.quals = processedRead.getBaseQualities();
+            this.insertionGOP = ReadUtils.getBaseInsertionQualities(processedRead);
+            this.deletionGOP = ReadUtils.getBaseDeletionQualities(processedRead);
+            this.overallGCP = Utils.nonNull(overallGCP, "overallGCP is null");
+            this.hash = Objects.hash(Arrays.hashCode(bases), Arrays.hashCode(quals), Arrays.hashCode(insertionGOP),
+                    Arrays.hashCode(deletionGOP), Arrays.hashCode(overallGCP));
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if ( this == o ) {
+                return true;
+            }
+            if ( !(o instanceof ReadKey) ) {
+                return false;
+            }
+            final ReadKey other = (ReadKey) o;
+            return hash == other.hash && Arrays.equals(bases, other.bases) && Arrays.equals(quals, other.quals)
+                    && Arrays.equals(insertionGOP, other.insertionGOP) && Arrays.equals(deletionGOP, other.deletionGOP)
+                    && Arrays.equals(overallGCP, other.overallGCP);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * The bases of a haplotype, which are all that determine its PairHMM likelihoods.
+     */
+    static final class HaplotypeKey {
+        private final byte[] bases;
+        private final int hash;
+
+        HaplotypeKey(final Haplotype haplotype) {
+            this.bases = haplotype.getBases();
+            this.hash = Arrays.hashCode(bases);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return this == o || (o instanceof HaplotypeKey && hash == ((HaplotypeKey) o).hash && Arrays.equals(bases, ((HaplotypeKey) o).bases));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Key {
+        private final ReadKey read;
+        private final HaplotypeKey haplotype;
+
+        private Key(final ReadKey read, final HaplotypeKey haplotype) {
+            this.read = read;
+            this.haplotype = haplotype;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return o instanceof Key && read.equals(((Key) o).read) && haplotype.equals(((Key) o).haplotype);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * read.hashCode() + haplotype.hashCode();
+        }
+    }
+}
@@ -44,6 +44,11 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
 
     private final PairHMM pairHMM;
 
+    // null if likelihoods are not cached
+    private final PairHMMLikelihoodCache likelihoodCache;
+
+    private final boolean singlePrecisionLikelihoods;
+
     @VisibleForTesting
     static boolean writeLikelihoodsToFile = false;
 
@@ -127,6 +132,69 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
                                               final double log10globalReadMismappingRate,
                                               final PCRErrorModel pcrErrorModel,
                                               final byte baseQualityScoreThreshold) {
+        this( constantGCP, arguments, hmmType, log10globalReadMismappingRate, pcrErrorModel, baseQualityScoreThreshold, 0 );
+    }
+
+    /**
+     * Create a new PairHMMLikelihoodCalculationEngine using provided parameters and hmm to do its calculations
+     *
+     * @param constantGCP the gap continuation penalty to use with the PairHMM
+     * @param hmmType the type of the HMM to use
+     * @param log10globalReadMismappingRate the global mismapping probability, in log10(prob) units.  A value of
+     *                                      -3 means that the chance that a read doesn't actually belong at this
+     *                                      location in the genome is 1 in 1000.  The effect of this parameter is
+     *                                      to cap the maximum likelihood difference between the reference haplotype
+     *                                      and the best alternative haplotype by -3 log units.  So if the best
+     *                                      haplotype is at -10 and this parameter has a value of -3 then even if the
+     *                                      reference haplotype gets a score of -100 from the pairhmm it will be
+     *                                      assigned a likelihood of -13.
+     * @param pcrErrorModel model to correct for PCR indel artifacts
+     * @param baseQualityScoreThreshold Base qualities below this threshold will be reduced to the minimum usable base
+     *                                  quality.
+     * @param likelihoodCacheSize maximum number of read/haplotype likelihoods to remember, so that they are not
+     *                            recomputed if the same read is evaluated against the same haplotype again; 0 disables
+     *                            the cache.
+     */
+    public PairHMMLikelihoodCalculationEngine(final byte constantGCP,
+                                              final PairHMMNativeArguments arguments,
+                                              final PairHMM.Implementation hmmType,
+                                              final double log10globalReadMismappingRate,
+                                              final PCRErrorModel pcrErrorModel,
+                                              final byte baseQualityScoreThreshold,
+                                              final int likelihoodCacheSize) {
+        this( constantGCP, arguments, hmmType, log10globalReadMismappingRate, pcrErrorModel, baseQualityScoreThreshold, likelihoodCacheSize, false );
+    }
+
+    /**
+     * Create a new PairHMMLikelihoodCalculationEngine using provided parameters and hmm to do its calculations
+     *
+     * @param constantGCP the gap continuation penalty to use with the PairHMM
+     * @param hmmType the type of the HMM to use
+     * @param log10globalReadMismappingRate the global mismapping probability, in log10(prob) units.  A value of
+     *                                      -3 means that the chance that a read doesn't actually belong at this
+     *                                      location in the genome is 1 in 1000.  The effect of this parameter is
+     *                                      to cap the maximum likelihood difference between the reference haplotype
+     *                                      and the best alternative haplotype by -3 log units.  So if the best
+     *                                      haplotype is at -10 and this parameter has a value of -3 then even if the
+     *                                      reference haplotype gets a score of -100 from the pairhmm it will be
+     *                                      assigned a likelihood of -13.
+     * @param pcrErrorModel model to correct for PCR indel artifacts
+     * @param baseQualityScoreThreshold Base qualities below this threshold will be reduced to the minimum usable base
+     *                                  quality.
+     * @param likelihoodCacheSize maximum number of read/haplotype likelihoods to remember, so that they are not
+     *                            recomputed if the same read is evaluated against the same haplotype again; 0 disables
+     *                            the cache.
+     * @param singlePrecisionLikelihoods whether the returned read likelihoods are kept in single rather than double
+     *                                   precision, see {@link ReadLikelihoods#ReadLikelihoods(SampleList, AlleleList, Map, boolean)}.
+     */
+    public PairHMMLikelihoodCalculationEngine(final byte constantGCP,
+                                              final PairHMMNativeArguments arguments,
+                                              final PairHMM.Implementation hmmType,
+                                              final double log10globalReadMismappingRate,
+                                              final PCRErrorModel pcrErrorModel,
+                                              final byte baseQualityScoreThreshold,
+                                              final int likelihoodCacheSize,
+                                              final boolean singlePrecisionLikelihoods) {
         Utils.nonNull(hmmType, "hmmType is null");
         Utils.nonNull(pcrErrorModel, "pcrErrorModel is null");
         if (constantGCP < 0){
@@ -148,6 +216,10 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
             throw new IllegalArgumentException("baseQualityScoreThreshold must be greater than or equal to " + QualityUtils.MIN_USABLE_Q_SCORE + " (QualityUtils.MIN_USABLE_Q_SCORE)");
         }
         this.baseQualityScoreThreshold = baseQualityScoreThreshold;
+
+        Utils.validateArg(likelihoodCacheSize >= 0, "likelihoodCacheSize must be non-negative");
+        this.likelihoodCache = likelihoodCacheSize > 0 ? new PairHMMLikelihoodCache(likelihoodCacheSize) : null;
+        this.singlePrecisionLikelihoods = singlePrecisionLikelihoods;
     }
 
     private PrintStream makeLikelihoodStream() {
@@ -164,6 +236,10 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
             likelihoodsStream.close();
         }
         pairHMM.close();
+        if ( likelihoodCache != null ) {
+            logger.info(String.format("PairHMM likelihood cache: %d read/haplotype pairs found, %d computed (hit rate %.2f%%)",
+                    likelihoodCache.getHits(), likelihoodCache.getMisses(), 100 * likelihoodCache.getHitRate()));
+        }
     }
 
     @Override
@@ -178,11 +254,13 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
         initializePairHMM(haplotypeList, perSampleReadList);
 
         // Add likelihoods for each sample's reads to our result
-        final ReadLikelihoods<Haplotype> result = new ReadLikelihoods<>(samples, haplotypes, perSampleReadList);
+        final ReadLikelihoods<Haplotype> result = new ReadLikelihoods<>(samples, haplotypes, perSampleReadList, singlePrecisionLikelihoods);
         final int sampleCount = result.numberOfSamples();
+        final List<LikelihoodMatrix<Haplotype>> sampleMatrices = new ArrayList<>(sampleCount);
         for (int i = 0; i < sampleCount; i++) {
-            computeReadLikelihoods(result.sampleMatrix(i));
+            sampleMatrices.add(result.sampleMatrix(i));
         }
+        computeReadLikelihoods(sampleMatrices);
 
         result.normalizeLikelihoods(false, log10globalReadMismappingRate);
         result.filterPoorlyModeledReads(EXPECTED_ERROR_RATE_PER_BASE);
@@ -243,16 +321,159 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
         pairHMM.initialize(haplotypes, perSampleReadList, readMaxLength, haplotypeMaxLength);
     }
 
-    private void computeReadLikelihoods(final LikelihoodMatrix<Haplotype> likelihoods) {
-        // Modify the read qualities by applying the PCR error model and capping the minimum base,insertion,deletion qualities
-        final List<GATKRead> processedReads = modifyReadQualities(likelihoods.reads());
-
-        final Map<GATKRead, byte[]> gapContinuationPenalties = buildGapContinuationPenalties(processedReads, constantGCP);
+    /**
+     * Compute the likelihoods of the reads of all samples, which share the same haplotypes, as a single PairHMM batch so
+     * that the per-call overhead of the PairHMM (significant for the native implementations) is paid once per region
+     * rather than once per sample.
+     */
+    private void computeReadLikelihoods(final List<LikelihoodMatrix<Haplotype>> sampleLikelihoods) {
+        final List<List<GATKRead>> processedReads = new ArrayList<>(sampleLikelihoods.size());
+        final Map<GATKRead, byte[]> gapContinuationPenalties = new HashMap<>();
+        for (final LikelihoodMatrix<Haplotype> likelihoods : sampleLikelihoods) {
+            // Modify the read qualities by applying the PCR error model and capping the minimum base,insertion,deletion qualities
+            final List<GATKRead> sampleProcessedReads = modifyReadQualities(likelihoods.reads());
+            processedReads.add(sampleProcessedReads);
+            gapContinuationPenalties.putAll(buildGapContinuationPenalties(sampleProcessedReads, constantGCP));
+        }
 
         // Run the PairHMM to calculate the log10 likelihood of each (processed) reads' arising from each haplotype
-        pairHMM.computeLog10Likelihoods(likelihoods, processedReads, gapContinuationPenalties);
+        if ( likelihoodCache == null ) {
+            pairHMM.computeLog10Likelihoods(sampleLikelihoods, processedReads, gapContinuationPenalties);
+        } else {
+            computeReadLikelihoodsWithCache(sampleLikelihoods, processedReads, gapContinuationPenalties);
+        }
+
+        sampleLikelihoods.forEach(this::writeDebugLikelihoods);
+    }
+
+    /**
+     * Fill in the likelihoods of the reads whose likelihoods against all of the haplotypes are in the cache, and run
+     * the PairHMM (as a single batch) on the rest, adding their likelihoods to the cache.
+     */
+    private void computeReadLikelihoodsWithCache(final List<LikelihoodMatrix<Haplotype>> sampleLikelihoods,
+                                                 final List<List<GATKRead>> processedReads,
+                                                 final Map<GATKRead, byte[]> gapContinuationPenalties) {
+        if ( sampleLikelihoods.isEmpty() ) {
+            return;
+        }
+        final List<Haplotype> haplotypes = sampleLikelihoods.get(0).alleles();
+        final List<PairHMMLikelihoodCache.HaplotypeKey> haplotypeKeys = haplotypes.stream().map(PairHMMLikelihoodCache.HaplotypeKey::new).collect(Collectors.toList());
+        final double[] cachedLikelihoods = new double[haplotypes.size()];
+
+        final List<LikelihoodMatrix<Haplotype>> uncachedLikelihoods = new ArrayList<>(sampleLikelihoods.size());
+        final List<List<GATKRead>> uncachedReads = new ArrayList<>(sampleLikelihoods.size());
+        final List<List<PairHMMLikelihoodCache.ReadKey>> uncachedReadKeys = new ArrayList<>(sampleLikelihoods.size());
+        for ( int s = 0; s < sampleLikelihoods.size(); s++ ) {
+            final LikelihoodMatrix<Haplotype> likelihoods = sampleLikelihoods.get(s);
+            final List<GATKRead> reads = processedReads.get(s);
+            final List<Integer> readIndices = new ArrayList<>();
+            final List<GATKRead> sampleUncachedReads = new ArrayList<>();
+            final List<PairHMMLikelihoodCache.ReadKey> sampleUncachedReadKeys = new ArrayList<>();
+            for ( int r = 0; r < reads.size(); r++ ) {
+                final PairHMMLikelihoodCache.ReadKey readKey = new PairHMMLikelihoodCache.ReadKey(reads.get(r), gapContinuationPenalties.get(reads.get(r)));
+                if ( likelihoodCache.getAll(readKey, haplotypeKeys, cachedLikelihoods) ) {
+                    for ( int h = 0; h < cachedLikelihoods.length; h++ ) {
+                        likelihoods.set(h, r, cachedLikelihoods[h]);
+                    }
+                } else {
+                    readIndices.add(r);
+                    sampleUncachedReads.add(reads.get(r));
+                    sampleUncachedReadKeys.add(readKey);
+                }
+            }
+            if ( !sampleUncachedReads.isEmpty() ) {
+                uncachedLikelihoods.add(new ReadSubsetLikelihoodMatrix(likelihoods, readIndices));
+                uncachedReads.add(sampleUncachedReads);
+                uncachedReadKeys.add(sampleUncachedReadKeys);
+            }
+        }
+
+        if ( uncachedLikelihoods.isEmpty() ) {
+            return;
+        }
+        pairHMM.computeLog10Likelihoods(uncachedLikelihoods, uncachedReads, gapContinuationPenalties);
+
+        for ( int m = 0; m < uncachedLikelihoods.size(); m++ ) {
+            final LikelihoodMatrix<Haplotype> likelihoods = uncachedLikelihoods.get(m);
+            final List<PairHMMLikelihoodCache.ReadKey> readKeys = uncachedReadKeys.get(m);
+            for ( int r = 0; r < readKeys.size(); r++ ) {
+                for ( int h = 0; h < haplotypeKeys.size(); h++ ) {
+                    likelihoodCache.put(readKeys.get(r), haplotypeKeys.get(h), likelihoods.get(h, r));
+                }
+            }
+        }
+    }
+
+    /**
+     * View of some of the reads of a likelihood matrix, so that the PairHMM can be run on just those reads.
+     */
+    private static final class ReadSubsetLikelihoodMatrix implements LikelihoodMatrix<Haplotype> {
+        private final LikelihoodMatrix<Haplotype> matrix;
+        private final List<Integer> readIndices;
+        private final List<GATKRead> reads;
+
+        private ReadSubsetLikelihoodMatrix(final LikelihoodMatrix<Haplotype> matrix, final List<Integer> readIndices) {
+            this.matrix = matrix;
+            this.readIndices = readIndices;
+            this.reads = readIndices.stream().map(matrix::getRead).collect(Collectors.toList());
+        }
+
+        @Override
+        public List<GATKRead> reads() {
+            return Collections.unmodifiableList(reads);
+        }
+
+        @Override
+        public List<Haplotype> alleles() {
+            return matrix.alleles();
+        }
+
+        @Override
+        public void set(final int alleleIndex, final int readIndex, final double value) {
+            matrix.set(alleleIndex, readIndices.get(readIndex), value);
+        }
+
+        @Override
+        public double get(final int alleleIndex, final int readIndex) {
+            return matrix.get(alleleIndex, readIndices.get(readIndex));
+        }
+
+        @Override
+        public int indexOfAllele(final Haplotype allele) {
+            return matrix.indexOfAllele(allele);
+        }
 
-        writeDebugLikelihoods(likelihoods);
+        @Override
+        public int indexOfRead(final GATKRead read) {
+            return reads.indexOf(read);
+        }
+
+        @Override
+        public int numberOfAlleles() {
+            return matrix.numberOfAlleles();
+        }
+
+        @Override
+        public int numberOfReads() {
+            return reads.size();
+        }
+
+        @Override
+        public Haplotype getAllele(final int alleleIndex) {
+            return matrix.getAllele(alleleIndex);
+        }
+
+        @Override
+        public GATKRead getRead(final int readIndex) {
+            return reads.get(readIndex);
+        }
+
+        @Override
+        public void copyAlleleLikelihoods(final int alleleIndex, final double[] dest, final int offset) {
+            for ( int r = 0; r < readIndices.size(); r++ ) {
+                dest[offset + r] = get(alleleIndex, r);
+            }
+        }
     }
 
     /**
@@ -25,6 +25,15 @@ public final class ReadThreadingAssemblerArgumentCollection implements Serializa
     @Argument(fullName="kmer-size", doc="Kmer size to use in the read threading assembler", optional = true)
     public List<Integer> kmerSizes = Lists.newArrayList(10,25);
 
+    /**
+     * Number of threads used to build the assembly graphs for the different kmer sizes of an active region, and to find
+     * the best haplotypes in them. Since the graphs for different kmer sizes are independent, this can speed up assembly
+     * when several kmer sizes are in use; the results do not depend on the number of threads.
+     */
+    @Advanced
+    @Argument(fullName="assembly-threads", doc="Number of threads used to assemble the graphs for the different kmer sizes of a region", optional = true, minValue = 1)
+    public int assemblyThreads = 1;
+
     /**
      * When graph cycles are detected, the normal behavior is to increase kmer sizes iteratively until the cycles are
      * resolved. Disabling this behavior may cause the program to give up on assembling the ActiveRegion.
@@ -0,0 +1,178 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller.readthreading;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.Kmer;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Map from the kmers of a single size to values, used by {@link ReadThreadingGraph} to find the vertex for a kmer.
+ *
+ * Kmers of at most {@link #MAX_PACKED_KMER_SIZE} bases consisting only of A, C, G and T are packed two bits per base
+ * into a long key and stored in a primitive-keyed map, so looking them up does not allocate. Any other kmer (one
+ * containing an N, for example, or any kmer when the kmer size is too large to pack) is stored as a {@link Kmer}.
+ *
+ * Kmers are identified by a range of a larger array of bases together with its packed key, which callers that
+ * scan consecutive kmers can compute cheaply with {@link #packAll}; methods that take no key compute it themselves.
+ *
+ * @param <V> type of the values
+ */
+final class KmerIndex<V> {
+
+    /**
+     * The largest kmer size for which kmers can be packed into a long
+     */
+    static final int MAX_PACKED_KMER_SIZE = 31;
+
+    /**
+     * Key of a kmer that cannot be packed into a long
+     */
+    static final long UNPACKABLE = -1L;
+
+    private static final byte[] BASES = {'A', 'C', 'G', 'T'};
+
+    private final int kmerSize;
+    private final Long2ObjectOpenHashMap<V> packedKmers = new Long2ObjectOpenHashMap<>();
+    private final Map<Kmer, V> otherKmers = new HashMap<>();
+
+    KmerIndex(final int kmerSize) {
+        Utils.validateArg(kmerSize > 0, () -> "kmerSize must be > 0 but got " + kmerSize);
+        this.kmerSize = kmerSize;
+    }
+
+    /**
+     * Pack the kmer of kmerSize bases starting at start in bases into a long.
+     *
+     * @return the packed kmer, or {@link #UNPACKABLE} if kmerSize is too large or the kmer contains a base other than A, C, G or T
+     */
+    static long pack(final byte[] bases, final int start, final int kmerSize) {
+        if ( kmerSize > MAX_PACKED_KMER_SIZE ) {
+            return UNPACKABLE;
+        }
+        long key = 0;
+        for ( int i = start; i < start + kmerSize; i++ ) {
+            final int code = encode(bases[i]);
+            if ( code < 0 ) {
+                return UNPACKABLE;
+            }
+            key = (key << 2) | code;
+        }
+        return key;
+    }
+
+    /**
+     * Pack every kmer of kmerSize bases starting between start and stop - kmerSize (inclusive) in bases, rolling the key
+     * from one kmer to the next.
+     *
+     * @return an array whose i-th element is the packed kmer starting at start + i (as returned by {@link #pack})
+     */
+    static long[] packAll(final byte[] bases, final int start, final int stop, final int kmerSize) {
+        final long[] keys = new long[Math.max(stop - start - kmerSize + 1, 0)];
+        if ( kmerSize > MAX_PACKED_KMER_SIZE ) {
+            Arrays.fill(keys, UNPACKABLE);
+            return keys;
+        }
+
+        final long mask = (1L << (2 * kmerSize)) - 1;
+        long key = 0;
+        int packedBases = 0; // number of consecutive packable bases ending at i
+        for ( int i = start; i < stop; i++ ) {
+            final int code = encode(bases[i]);
+            if ( code < 0 ) {
+                packedBases = 0;
+            } else {
+                key = ((key << 2) | code) & mask;
+                packedBases++;
+            }
+            final int kmerStart = i - kmerSize + 1;
+            if ( kmerStart >= start ) {
+                keys[kmerStart - start] = packedBases >= kmerSize ? key : UNPACKABLE;
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Unpack a kmer packed by {@link #pack}.
+     */
+    static byte[] unpack(final long key, final int kmerSize) {
+        final byte[] bases = new byte[kmerSize];
+        long remaining = key;
+        for ( int i = kmerSize - 1; i >= 0; i-- ) {
+            bases[i] = BASES[(int) (remaining & 3)];
+            remaining >>>= 2;
+        }
+        return bases;
+    }
+
+    private static int encode(final byte base) {
+        switch ( base ) {
+            case 'A': return 0;
+            case 'C': return 1;
+            case 'G': return 2;
+            case 'T': return 3;
+            default: return -1;
+        }
+    }
+
+    V get(final byte[] bases, final int start) {
+        return get(pack(bases, start, kmerSize), bases, start);
+    }
+
+    V get(final long key, final byte[] bases, final int start) {
+        return key != UNPACKABLE ? packedKmers.get(key) : otherKmers.get(new Kmer(bases, start, kmerSize));
+    }
+
+    /**
+     * @return the value for kmer, or null if there is none (which is always the case if kmer is not of our kmer size)
+     */
+    V get(final Kmer kmer) {
+        return kmer.length() == kmerSize ? get(kmer.bases(), 0) : null;
+    }
+
+    boolean containsKey(final long key, final byte[] bases, final int start) {
+        return key != UNPACKABLE ? packedKmers.containsKey(key) : otherKmers.containsKey(new Kmer(bases, start, kmerSize));
+    }
+
+    /**
+     * Note that kmers that cannot be packed keep a reference to bases, which therefore must not be modified afterwards.
+     */
+    void put(final long key, final byte[] bases, final int start, final V value) {
+        if ( key != UNPACKABLE ) {
+            packedKmers.put(key, value);
+        } else {
+            otherKmers.put(new Kmer(bases, start, kmerSize), value);
+        }
+    }
+
+    /**
+     * Remove the kmer consisting of all of the bases in kmerBases, which must have kmer size length.
+     */
+    void remove(final byte[] kmerBases) {
+        Utils.validateArg(kmerBases.length == kmerSize, () -> "expected a kmer of size " + kmerSize + " but got " + kmerBases.length + " bases");
+        final long key = pack(kmerBases, 0, kmerSize);
+        if ( key != UNPACKABLE ) {
+            packedKmers.remove(key);
+        } else {
+            otherKmers.remove(new Kmer(kmerBases));
+        }
+    }
+
+    int size() {
+        return packedKmers.size() + otherKmers.size();
+    }
+
+    void clear() {
+        packedKmers.clear();
+        otherKmers.clear();
+    }
+
+    void forEachValue(final Consumer<? super V> action) {
+        packedKmers.values().forEach(action);
+        otherKmers.values().forEach(action);
+    }
+}
@@ -0,0 +1,61 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller.readthreading;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.Kmer;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Set of kmers of a single size, stored like the keys of a {@link KmerIndex}: packed into longs when possible, and as
+ * {@link Kmer}s otherwise.
+ */
+final class KmerSet {
+    private final int kmerSize;
+    private final LongOpenHashSet packedKmers = new LongOpenHashSet();
+    private final Set<Kmer> otherKmers = new HashSet<>();
+
+    KmerSet(final int kmerSize) {
+        Utils.validateArg(kmerSize > 0, () -> "kmerSize must be > 0 but got " + kmerSize);
+        this.kmerSize = kmerSize;
+    }
+
+    /**
+     * Add the kmer starting at start in bases, whose key was computed by {@link KmerIndex#pack} or {@link KmerIndex#packAll}.
+     *
+     * @return true if the kmer was not already in this set
+     */
+    boolean add(final long key, final byte[] bases, final int start) {
+        return key != KmerIndex.UNPACKABLE ? packedKmers.add(key) : otherKmers.add(new Kmer(bases, start, kmerSize));
+    }
+
+    boolean contains(final long key, final byte[] bases, final int start) {
+        return key != KmerIndex.UNPACKABLE ? packedKmers.contains(key) : otherKmers.contains(new Kmer(bases, start, kmerSize));
+    }
+
+    void addAll(final KmerSet other) {
+        Utils.validateArg(other.kmerSize == kmerSize, "kmer sizes differ");
+        packedKmers.addAll(other.packedKmers);
+        otherKmers.addAll(other.otherKmers);
+    }
+
+    int size() {
+        return packedKmers.size() + otherKmers.size();
+    }
+
+    boolean isEmpty() {
+        return packedKmers.isEmpty() && otherKmers.isEmpty();
+    }
+
+    /**
+     * @return a new set containing all of the kmers in this set as {@link Kmer}s
+     */
+    Set<Kmer> toKmers() {
+        final Set<Kmer> result = new LinkedHashSet<>(size());
+        packedKmers.forEach(key -> result.add(new Kmer(KmerIndex.unpack(key, kmerSize))));
+        result.addAll(otherKmers);
+        return result;
+    }
+}
@@ -1,6 +1,7 @@
 package org.broadinstitute.hellbender.tools.walkers.haplotypecaller.readthreading;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import htsjdk.samtools.Cigar;
 import htsjdk.samtools.CigarOperator;
 import htsjdk.samtools.SAMFileHeader;
@@ -9,6 +10,7 @@ import htsjdk.variant.variantcontext.VariantContext;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.broadinstitute.hellbender.engine.AssemblyRegion;
+import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.AssemblyResult;
 import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.AssemblyResultSet;
@@ -27,6 +29,11 @@ import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public final class ReadThreadingAssembler {
     private static final Logger logger = LogManager.getLogger(ReadThreadingAssembler.class);
@@ -68,6 +75,12 @@ public final class ReadThreadingAssembler {
     private File debugGraphOutputPath = null;  //Where to write debug graphs, if unset it defaults to the current working dir
     private File graphOutputPath = null;
 
+    /**
+     * Pool used to build the graphs for the different kmer sizes of a region, and to find their best paths,
+     * concurrently; null if this is done on the calling thread.
+     */
+    private ExecutorService graphExecutor = null;
+
     public ReadThreadingAssembler(final int maxAllowedPathsForReadThreadingAssembler, final List<Integer> kmerSizes, final boolean dontIncreaseKmerSizesForCycles, final boolean allowNonUniqueKmersInRef, final int numPruningSamples) {
         Utils.validateArg( maxAllowedPathsForReadThreadingAssembler >= 1, "numBestHaplotypesPerGraph should be >= 1 but got " + maxAllowedPathsForReadThreadingAssembler);
         this.kmerSizes = kmerSizes;
@@ -199,19 +212,14 @@ public final class ReadThreadingAssembler {
         final Collection<KBestHaplotypeFinder> finders = new ArrayList<>(graphs.size());
         int failedCigars = 0;
 
-        for( final SeqGraph graph : graphs ) {
-            final SeqVertex source = graph.getReferenceSourceVertex();
-            final SeqVertex sink = graph.getReferenceSinkVertex();
-            Utils.validateArg( source != null && sink != null, () -> "Both source and sink cannot be null but got " + source + " and sink " + sink + " for graph " + graph);
-            final KBestHaplotypeFinder haplotypeFinder = new KBestHaplotypeFinder(graph,source,sink);
-            finders.add(haplotypeFinder);
-            final Iterator<KBestHaplotype> bestHaplotypes = haplotypeFinder.iterator(numBestHaplotypesPerGraph);
-
-            while (bestHaplotypes.hasNext()) {
-                final KBestHaplotype kBestHaplotype = bestHaplotypes.next();
-                final Haplotype h = kBestHaplotype.haplotype();
+        for( final GraphPaths graphPaths : findPathsInGraphs(graphs, refHaplotype, aligner) ) {
+            final SeqGraph graph = graphPaths.graph;
+            finders.add(graphPaths.finder);
+
+            for ( int i = 0; i < graphPaths.haplotypes.size(); i++ ) {
+                final Haplotype h = graphPaths.haplotypes.get(i);
                 if( !returnHaplotypes.contains(h) ) {
-                    final Cigar cigar = CigarUtils.calculateCigar(refHaplotype.getBases(), h.getBases(), aligner);
+                    final Cigar cigar = graphPaths.cigars != null ? graphPaths.cigars.get(i) : CigarUtils.calculateCigar(refHaplotype.getBases(), h.getBases(), aligner);
 
                     if ( cigar == null ) {
                         failedCigars++; // couldn't produce a meaningful alignment of haplotype to reference, fail quietly
@@ -276,6 +284,99 @@ public final class ReadThreadingAssembler {
         return new ArrayList<>(returnHaplotypes);
 
     }
+    /**
+     * The best paths through a single graph, in order of decreasing score.
+     */
+    private static final class GraphPaths {
+        final SeqGraph graph;
+        final KBestHaplotypeFinder finder;
+        final List<Haplotype> haplotypes;
+        // the alignment of each haplotype to the reference, or null if these have not been computed in advance
+        final List<Cigar> cigars;
+
+        private GraphPaths(final SeqGraph graph, final KBestHaplotypeFinder finder, final List<Haplotype> haplotypes, final List<Cigar> cigars) {
+            this.graph = graph;
+            this.finder = finder;
+            this.haplotypes = haplotypes;
+            this.cigars = cigars;
+        }
+    }
+
+    /**
+     * Find the best paths through each graph, in the same order as the graphs.
+     *
+     * If we have a graph executor, the graphs are processed concurrently, and the paths are aligned to the reference
+     * in advance (including those that will turn out to duplicate a haplotype from an earlier graph).
+     */
+    private List<GraphPaths> findPathsInGraphs(final Collection<SeqGraph> graphs, final Haplotype refHaplotype, final SmithWatermanAligner aligner) {
+        final boolean alignInAdvance = graphExecutor != null && graphs.size() > 1;
+        final List<Callable<GraphPaths>> tasks = new ArrayList<>(graphs.size());
+        for ( final SeqGraph graph : graphs ) {
+            tasks.add(() -> {
+                final SeqVertex source = graph.getReferenceSourceVertex();
+                final SeqVertex sink = graph.getReferenceSinkVertex();
+                Utils.validateArg( source != null && sink != null, () -> "Both source and sink cannot be null but got " + source + " and sink " + sink + " for graph " + graph);
+                final KBestHaplotypeFinder haplotypeFinder = new KBestHaplotypeFinder(graph,source,sink);
+                final List<Haplotype> haplotypes = new ArrayList<>();
+                haplotypeFinder.iterator(numBestHaplotypesPerGraph).forEachRemaining(kBestHaplotype -> haplotypes.add(kBestHaplotype.haplotype()));
+
+                final List<Cigar> cigars = alignInAdvance ? new ArrayList<>(haplotypes.size()) : null;
+                if ( alignInAdvance ) {
+                    for ( final Haplotype h : haplotypes ) {
+                        cigars.add(CigarUtils.calculateCigar(refHaplotype.getBases(), h.getBases(), aligner));
+                    }
+                }
+                return new GraphPaths(graph, haplotypeFinder, haplotypes, cigars);
+            });
+        }
+        return alignInAdvance ? runConcurrently(tasks) : runSequentially(tasks);
+    }
+
+    private static <T> List<T> runSequentially(final List<Callable<T>> tasks) {
+        final List<T> results = new ArrayList<>(tasks.size());
+        for ( final Callable<T> task : tasks ) {
+            try {
+                results.add(task.call());
+            } catch ( final RuntimeException e ) {
+                throw e;
+            } catch ( final Exception e ) {
+                throw new GATKException("Error during assembly", e);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Run the tasks on the graph executor, returning their results in the same order as the tasks.
+     */
+    private <T> List<T> runConcurrently(final List<Callable<T>> tasks) {
+        final List<Future<T>> futures = new ArrayList<>(tasks.size());
+        for ( final Callable<T> task : tasks ) {
+            futures.add(graphExecutor.submit(task));
+        }
+
+        final List<T> results = new ArrayList<>(tasks.size());
+        try {
+            for ( final Future<T> future : futures ) {
+                results.add(future.get());
+            }
+        } catch ( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted during assembly", e);
+        } catch ( final ExecutionException e ) {
+            if ( e.getCause() instanceof RuntimeException ) {
+                throw (RuntimeException) e.getCause();
+            }
+            if ( e.getCause() instanceof Error ) {
+                throw (Error) e.getCause();
+            }
+            throw new GATKException("Error during assembly", e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+        return results;
+    }
+
     /**
      * We use CigarOperator.N as the signal that an incomplete or too divergent bubble was found during bubble traversal
      * @param c the cigar to test
@@ -388,9 +489,13 @@ public final class ReadThreadingAssembler {
         final List<AssemblyResult> results = new LinkedList<>();
 
         // first, try using the requested kmer sizes
+        // the graphs for these are independent, so if we have an executor we build them concurrently
+        final List<Callable<AssemblyResult>> graphTasks = new ArrayList<>(kmerSizes.size());
         for ( final int kmerSize : kmerSizes ) {
-            addResult(results, createGraph(reads, refHaplotype, kmerSize, givenHaplotypes, dontIncreaseKmerSizesForCycles, allowNonUniqueKmersInRef, header, aligner));
+            graphTasks.add(() -> createGraph(reads, refHaplotype, kmerSize, givenHaplotypes, dontIncreaseKmerSizesForCycles, allowNonUniqueKmersInRef, header, aligner));
         }
+        final List<AssemblyResult> graphResults = graphExecutor != null && graphTasks.size() > 1 ? runConcurrently(graphTasks) : runSequentially(graphTasks);
+        graphResults.forEach(result -> addResult(results, result));
 
         // if none of those worked, iterate over larger sizes if allowed to do so
         if ( results.isEmpty() && !dontIncreaseKmerSizesForCycles ) {
@@ -578,6 +683,33 @@ public final class ReadThreadingAssembler {
         this.errorCorrectKmers = errorCorrectKmers;
     }
 
+    /**
+     * Set the number of threads used to build the graphs for the different kmer sizes of a region, and to find
+     * their best paths. The results don't depend on the number of threads.
+     *
+     * @param numThreads number of threads, must be >= 1; if 1 everything is done on the calling thread
+     */
+    public void setNumThreads(final int numThreads) {
+        Utils.validateArg(numThreads >= 1, () -> "numThreads must be >= 1 but got " + numThreads);
+        shutdown();
+        if ( numThreads > 1 ) {
+            graphExecutor = Executors.newFixedThreadPool(numThreads, new ThreadFactoryBuilder()
+                    .setNameFormat("assembly-graph-%d")
+                    .setDaemon(true)
+                    .build());
+        }
+    }
+
+    /**
+     * Release the threads used for assembly, if any. The assembler may still be used afterwards, on the calling thread.
+     */
+    public void shutdown() {
+        if ( graphExecutor != null ) {
+            graphExecutor.shutdownNow();
+            graphExecutor = null;
+        }
+    }
+
     public void setGraphWriter(File graphOutputPath) {
         this.graphOutputPath = graphOutputPath;
     }
@@ -58,12 +58,15 @@ public class ReadThreadingGraph extends BaseGraph<MultiDeBruijnVertex, MultiSamp
     /**
      * A set of non-unique kmers that cannot be used as merge points in the graph
      */
-    private Set<Kmer> nonUniqueKmers;
+    private KmerSet nonUniqueKmers;
 
     /**
      * A map from kmers -> their corresponding vertex in the graph
+     *
+     * Kmers are packed into longs whenever possible (see {@link KmerIndex}), so that threading reads through the
+     * graph doesn't allocate a {@link Kmer} for every base.
      */
-    private final Map<Kmer, MultiDeBruijnVertex> uniqueKmers = new LinkedHashMap<>();
+    private final KmerIndex<MultiDeBruijnVertex> uniqueKmers = new KmerIndex<>(kmerSize);
 
     private final boolean debugGraphTransformations;
     private final byte minBaseQualityToUseInAssembly;
@@ -75,6 +78,7 @@ public class ReadThreadingGraph extends BaseGraph<MultiDeBruijnVertex, MultiSamp
     // state variables, initialized in resetToInitialState()
     // --------------------------------------------------------------------------------
     private Kmer refSource;
+    private long refSourceKey;
 
     /**
      * Constructs an empty read-threading-grpah provided the kmerSize.
@@ -159,6 +163,7 @@ public class ReadThreadingGraph extends BaseGraph<MultiDeBruijnVertex, MultiSamp
         nonUniqueKmers = null;
         uniqueKmers.clear();
         refSource = null;
+        refSourceKey = KmerIndex.UNPACKABLE;
         alreadyBuilt = false;
     }
 
@@ -221,12 +226,15 @@ public class ReadThreadingGraph extends BaseGraph<MultiDeBruijnVertex, MultiSamp
      * @param seqForKmers a non-null sequence
      */
     private void threadSequence(final SequenceForKmers seqForKmers) {
-        final int uniqueStartPos = findStart(seqForKmers);
+        // packed keys for the kmers starting at every position of the sequence up to stop - kmerSize
+        final long[] kmerKeys = KmerIndex.packAll(seqForKmers.sequence, 0, seqForKmers.stop, kmerSize);
+
+        final int uniqueStartPos = findStart(seqForKmers, kmerKeys);
         if ( uniqueStartPos == -1 ) {
             return;
         }
 
-        final MultiDeBruijnVertex startingVertex = getOrCreateKmerVertex(seqForKmers.sequence, uniqueStartPos);
+        final MultiDeBruijnVertex startingVertex = getOrCreateKmerVertex(seqForKmers.sequence, uniqueStartPos, kmerKeys[uniqueStartPos]);
 
         // increase the counts of all edges incoming into the starting vertex supported by going back in sequence
         if (INCREASE_COUNTS_BACKWARDS) {
@@ -243,12 +251,13 @@ public class ReadThreadingGraph extends BaseGraph<MultiDeBruijnVertex, MultiSamp
                 throw new IllegalStateException("Found two refSources! prev: " + refSource + ", new: " + startingVertex);
             }
             refSource = new Kmer(seqForKmers.sequence, seqForKmers.start, kmerSize);
+            refSourceKey = KmerIndex.pack(seqForKmers.sequence, seqForKmers.start, kmerSize);
         }
 
         // loop over all of the bases in sequence, extending the graph by one base at each point, as appropriate
         MultiDeBruijnVertex vertex = startingVertex;
         for ( int i = uniqueStartPos + 1; i <= seqForKmers.stop - kmerSize; i++ ) {
-            vertex = extendChainByOne(vertex, seqForKmers.sequence, i, seqForKmers.count, seqForKmers.isRef);
+            vertex = extendChainByOne(vertex, seqForKmers.sequence, i, kmerKeys[i], seqForKmers.count, seqForKmers.isRef);
             if ( debugGraphTransformations ) {
                 vertex.addRead(seqForKmers.name);
             }
@@ -259,16 +268,16 @@ public class ReadThreadingGraph extends BaseGraph<MultiDeBruijnVertex, MultiSamp
      * Find vertex and its position in seqForKmers where we should start assembling seqForKmers
      *
      * @param seqForKmers the sequence we want to thread into the graph
+     * @param kmerKeys the packed keys of the kmers in seqForKmers, indexed by kmer start
      * @return the position of the starting vertex in seqForKmer, or -1 if it cannot find one
      */
-    private int findStart(final SequenceForKmers seqForKmers) {
+    private int findStart(final SequenceForKmers seqForKmers, final long[] kmerKeys) {
         if ( seqForKmers.isRef ) {
             return 0;
         }
 
         for ( int i = seqForKmers.start; i < seqForKmers.stop - kmerSize; i++ ) {
-            final Kmer kmer1 = new Kmer(seqForKmers.sequence, i, kmerSize);
-            if ( isThreadingStart(kmer1) ) {
+            if ( isThreadingStart(seqForKmers.sequence, i, kmerKeys[i]) ) {
                 return i;
             }
         }
@@ -282,12 +291,13 @@ public class ReadThreadingGraph extends BaseGraph<MultiDeBruijnVertex, MultiSamp
      * @see #setThreadingStartOnlyAtExistingVertex(boolean)
      * @see #getThreadingStartOnlyAtExistingVertex()
      *
-     * @param kmer the query kmer.
+     * @param sequence the bases containing the query kmer.
+     * @param start the start of the query kmer in sequence.
+     * @param key the packed query kmer.
      * @return {@code true} if we can start thread the sequence at this kmer, {@code false} otherwise.
      */
-    private boolean isThreadingStart(final Kmer kmer) {
-        Utils.nonNull(kmer);
-        return startThreadingOnlyAtExistingVertex ? uniqueKmers.containsKey(kmer) : !nonUniqueKmers.contains(kmer);
+    private boolean isThreadingStart(final byte[] sequence, final int start, final long key) {
+        return startThreadingOnlyAtExistingVertex ? uniqueKmers.containsKey(key, sequence, start) : !nonUniqueKmers.contains(key, sequence, start);
     }
 
     /**
@@ -335,9 +345,7 @@ public class ReadThreadingGraph extends BaseGraph<MultiDeBruijnVertex, MultiSamp
         // clear
         pending.clear();
         alreadyBuilt = true;
-        for (final MultiDeBruijnVertex v : uniqueKmers.values()) {
-            v.setAdditionalInfo(v.getAdditionalInfo() + '+');
-        }
+        uniqueKmers.forEachValue(v -> v.setAdditionalInfo(v.getAdditionalInfo() + '+'));
     }
 
 
@@ -345,9 +353,7 @@ public class ReadThreadingGraph extends BaseGraph<MultiDeBruijnVertex, MultiSamp
     public boolean removeVertex(final MultiDeBruijnVertex V) {
         final boolean result = super.removeVertex(V);
         if (result) {
-            final byte[] sequence = V.getSequence();
-            final Kmer kmer = new Kmer(sequence);
-            uniqueKmers.remove(kmer);
+            uniqueKmers.remove(V.getSequence());
         }
         return result;
     }
@@ -430,9 +436,9 @@ public class ReadThreadingGraph extends BaseGraph<MultiDeBruijnVertex, MultiSamp
 
     /** structure that keeps track of the non-unique kmers for a given kmer size */
     private static final class NonUniqueResult {
-        final Set<Kmer> nonUniques;
+        final KmerSet nonUniques;
 
-        private NonUniqueResult(final Set<Kmer> nonUniques) {
+        private NonUniqueResult(final KmerSet nonUniques) {
             this.nonUniques = nonUniques;
         }
     }
@@ -967,12 +973,12 @@ public class ReadThreadingGraph extends BaseGraph<MultiDeBruijnVertex, MultiSamp
      */
     private NonUniqueResult determineKmerSizeAndNonUniques(final int minKmerSize, final int maxKmerSize) {
         final Collection<SequenceForKmers> withNonUniques = getAllPendingSequences();
-        final Set<Kmer> nonUniqueKmers = new HashSet<>();
+        KmerSet nonUniqueKmers = null;
 
         // go through the sequences and determine which kmers aren't unique within each read
         for (int kmerSize = minKmerSize ; kmerSize <= maxKmerSize; kmerSize++) {
-            // clear out set of non-unique kmers
-            nonUniqueKmers.clear();
+            // start a new set of non-unique kmers
+            nonUniqueKmers = new KmerSet(kmerSize);
 
             // loop over all sequences that have non-unique kmers in them from the previous iterator
             final Iterator<SequenceForKmers> it = withNonUniques.iterator();
@@ -980,7 +986,7 @@ public class ReadThreadingGraph extends BaseGraph<MultiDeBruijnVertex, MultiSamp
                 final SequenceForKmers sequenceForKmers = it.next();
 
                 // determine the non-unique kmers for this sequence
-                final Collection<Kmer> nonUniquesFromSeq = determineNonUniqueKmers(sequenceForKmers, kmerSize);
+                final KmerSet nonUniquesFromSeq = findNonUniqueKmers(sequenceForKmers, kmerSize);
                 if ( nonUniquesFromSeq.isEmpty() ) {
                     // remove this sequence from future consideration
                     it.remove();
@@ -1016,14 +1022,17 @@ public class ReadThreadingGraph extends BaseGraph<MultiDeBruijnVertex, MultiSamp
      * @return a non-null collection of non-unique kmers in sequence
      */
     static Collection<Kmer> determineNonUniqueKmers(final SequenceForKmers seqForKmers, final int kmerSize) {
+        return findNonUniqueKmers(seqForKmers, kmerSize).toKmers();
+    }
+
+    private static KmerSet findNonUniqueKmers(final SequenceForKmers seqForKmers, final int kmerSize) {
         // count up occurrences of kmers within each read
-        final Set<Kmer> allKmers = new LinkedHashSet<>();
-        final List<Kmer> nonUniqueKmers = new ArrayList<>();
-        final int stopPosition = seqForKmers.stop - kmerSize;
-        for (int i = 0; i <= stopPosition; i++) {
-            final Kmer kmer = new Kmer(seqForKmers.sequence, i, kmerSize);
-            if (!allKmers.add(kmer)) {
-                nonUniqueKmers.add(kmer);
+        final KmerSet allKmers = new KmerSet(kmerSize);
+        final KmerSet nonUniqueKmers = new KmerSet(kmerSize);
+        final long[] kmerKeys = KmerIndex.packAll(seqForKmers.sequence, 0, seqForKmers.stop, kmerSize);
+        for (int i = 0; i < kmerKeys.length; i++) {
+            if (!allKmers.add(kmerKeys[i], seqForKmers.sequence, i)) {
+                nonUniqueKmers.add(kmerKeys[i], seqForKmers.sequence, i);
             }
         }
         return nonUniqueKmers;
@@ -1058,26 +1067,33 @@ public class ReadThreadingGraph extends BaseGraph<MultiDeBruijnVertex, MultiSamp
      * Get the vertex for the kmer in sequence starting at start
      * @param sequence the sequence
      * @param start the position of the kmer start
+     * @param key the packed kmer
      * @return a non-null vertex
      */
-    private MultiDeBruijnVertex getOrCreateKmerVertex(final byte[] sequence, final int start) {
-        final Kmer kmer = new Kmer(sequence, start, kmerSize);
-        final MultiDeBruijnVertex vertex = getUniqueKmerVertex(kmer, true);
-        return ( vertex != null ) ? vertex : createVertex(kmer);
+    private MultiDeBruijnVertex getOrCreateKmerVertex(final byte[] sequence, final int start, final long key) {
+        final MultiDeBruijnVertex vertex = getUniqueKmerVertex(sequence, start, key, true);
+        return ( vertex != null ) ? vertex : createVertex(sequence, start, key);
     }
 
     /**
-     * Get the unique vertex for kmer, or null if not possible.
+     * Get the unique vertex for the kmer starting at start in sequence, or null if not possible.
      *
      * @param allowRefSource if true, we will allow kmer to match the reference source vertex
      * @return a vertex for kmer, or null if it's not unique
      */
-    private MultiDeBruijnVertex getUniqueKmerVertex(final Kmer kmer, final boolean allowRefSource) {
-        if ( ! allowRefSource && kmer.equals(refSource) ) {
+    private MultiDeBruijnVertex getUniqueKmerVertex(final byte[] sequence, final int start, final long key, final boolean allowRefSource) {
+        if ( ! allowRefSource && isRefSource(sequence, start, key) ) {
             return null;
         }
 
-        return uniqueKmers.get(kmer);
+        return uniqueKmers.get(key, sequence, start);
+    }
+
+    private boolean isRefSource(final byte[] sequence, final int start, final long key) {
+        if ( refSource == null ) {
+            return false;
+        }
+        return key != KmerIndex.UNPACKABLE ? key == refSourceKey : refSource.equals(new Kmer(sequence, start, kmerSize));
     }
 
 
@@ -1086,11 +1102,13 @@ public class ReadThreadingGraph extends BaseGraph<MultiDeBruijnVertex, MultiSamp
      *
      * kmer must not have a entry in unique kmers, or an error will be thrown
      *
-     * @param kmer the kmer we want to create a vertex for
+     * @param sequence the sequence containing the kmer we want to create a vertex for
+     * @param start the start of the kmer in sequence
+     * @param key the packed kmer
      * @return the non-null created vertex
      */
-    private MultiDeBruijnVertex createVertex(final Kmer kmer) {
-        final MultiDeBruijnVertex newVertex = new MultiDeBruijnVertex(kmer.bases());
+    private MultiDeBruijnVertex createVertex(final byte[] sequence, final int start, final long key) {
+        final MultiDeBruijnVertex newVertex = new MultiDeBruijnVertex(Arrays.copyOfRange(sequence, start, start + kmerSize));
         final int prevSize = vertexSet().size();
         addVertex(newVertex);
 
@@ -1100,9 +1118,9 @@ public class ReadThreadingGraph extends BaseGraph<MultiDeBruijnVertex, MultiSamp
         }
 
         // add the vertex to the unique kmer map, if it is in fact unique
-        if ( ! nonUniqueKmers.contains(kmer) && ! uniqueKmers.containsKey(kmer) ) // TODO -- not sure this last test is necessary
+        if ( ! nonUniqueKmers.contains(key, sequence, start) && ! uniqueKmers.containsKey(key, sequence, start) ) // TODO -- not sure this last test is necessary
         {
-            uniqueKmers.put(kmer, newVertex);
+            uniqueKmers.put(key, sequence, start, newVertex);
         }
 
         return newVertex;
@@ -1115,11 +1133,12 @@ public class ReadThreadingGraph extends BaseGraph<MultiDeBruijnVertex, MultiSamp
      * @param prevVertex a non-null vertex where sequence was last anchored in the graph
      * @param sequence the sequence we're threading through the graph
      * @param kmerStart the start of the current kmer in graph we'd like to add
+     * @param kmerKey the packed kmer starting at kmerStart
      * @param count the number of observations of this kmer in graph (can be > 1 for GGA)
      * @param isRef is this the reference sequence?
      * @return a non-null vertex connecting prevVertex to in the graph based on sequence
      */
-    private MultiDeBruijnVertex extendChainByOne(final MultiDeBruijnVertex prevVertex, final byte[] sequence, final int kmerStart, final int count, final boolean isRef) {
+    private MultiDeBruijnVertex extendChainByOne(final MultiDeBruijnVertex prevVertex, final byte[] sequence, final int kmerStart, final long kmerKey, final int count, final boolean isRef) {
         final Set<MultiSampleEdge> outgoingEdges = outgoingEdgesOf(prevVertex);
 
         final int nextPos = kmerStart + kmerSize - 1;
@@ -1133,15 +1152,14 @@ public class ReadThreadingGraph extends BaseGraph<MultiDeBruijnVertex, MultiSamp
         }
 
         // none of our outgoing edges had our unique suffix base, so we check for an opportunity to merge back in
-        final Kmer kmer = new Kmer(sequence, kmerStart, kmerSize);
-        final MultiDeBruijnVertex uniqueMergeVertex = getUniqueKmerVertex(kmer, false);
+        final MultiDeBruijnVertex uniqueMergeVertex = getUniqueKmerVertex(sequence, kmerStart, kmerKey, false);
 
         if ( isRef && uniqueMergeVertex != null ) {
             throw new IllegalStateException("Found a unique vertex to merge into the reference graph " + prevVertex + " -> " + uniqueMergeVertex);
         }
 
         // either use our unique merge vertex, or create a new one in the chain
-        final MultiDeBruijnVertex nextVertex = uniqueMergeVertex == null ? createVertex(kmer) : uniqueMergeVertex;
+        final MultiDeBruijnVertex nextVertex = uniqueMergeVertex == null ? createVertex(sequence, kmerStart, kmerKey) : uniqueMergeVertex;
         addEdge(prevVertex, nextVertex, ((MyEdgeFactory)getEdgeFactory()).createEdge(isRef, count));
         return nextVertex;
     }
@@ -1196,7 +1214,7 @@ public class ReadThreadingGraph extends BaseGraph<MultiDeBruijnVertex, MultiSamp
      */
     @VisibleForTesting
     Set<Kmer> getNonUniqueKmers() {
-        return nonUniqueKmers;
+        return nonUniqueKmers.toKmers();
     }
 
     @Override
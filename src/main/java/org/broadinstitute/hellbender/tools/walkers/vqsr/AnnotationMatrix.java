@@ -0,0 +1,256 @@
+package org.broadinstitute.hellbender.tools.walkers.vqsr;
+
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Annotation values of a set of {@link VariantDatum}s, one row per datum.
+ *
+ * <p>
+ *     Values are kept column by column, in one primitive array per annotation, either in double or in single (float)
+ *     precision, and missing annotations in one bit set per annotation. This avoids two small arrays per datum, and
+ *     lets whole annotations be reordered by swapping columns. Single precision halves the memory taken by the values
+ *     at the cost of about 7 significant digits, which changes the last digits of the normalized annotations.
+ * </p>
+ *
+ * <p>
+ *     Rows are only ever added, never removed. The values of a row may be read concurrently from several threads,
+ *     but rows must not be added or changed concurrently.
+ * </p>
+ */
+abstract class AnnotationMatrix {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final int MAX_ROWS = Integer.MAX_VALUE - 8;
+
+    protected final int numAnnotations;
+
+    protected int numRows = 0;
+
+    private BitSet[] isNull;
+
+    private AnnotationMatrix(final int numAnnotations) {
+        this.numAnnotations = numAnnotations;
+        isNull = new BitSet[numAnnotations];
+        for (int i = 0; i < numAnnotations; i++) {
+            isNull[i] = new BitSet();
+        }
+    }
+
+    /**
+     * Creates a new empty matrix.
+     *
+     * @param singlePrecision whether to keep the values as floats rather than doubles.
+     */
+    static AnnotationMatrix create(final int numAnnotations, final boolean singlePrecision) {
+        Utils.validateArg(numAnnotations >= 0, "the number of annotations cannot be negative");
+        return singlePrecision ? new FloatMatrix(numAnnotations) : new DoubleMatrix(numAnnotations);
+    }
+
+    /**
+     * Creates a matrix holding a single row with a copy of the given values.
+     */
+    static AnnotationMatrix of(final double[] values, final boolean[] isNull) {
+        Utils.nonNull(values);
+        Utils.nonNull(isNull);
+        Utils.validateArg(values.length == isNull.length, "there must be as many null flags as values");
+        final AnnotationMatrix result = new DoubleMatrix(values.length);
+        final int row = result.addRow();
+        for (int i = 0; i < values.length; i++) {
+            result.set(i, row, values[i]);
+            result.setNull(i, row, isNull[i]);
+        }
+        return result;
+    }
+
+    final int numAnnotations() {
+        return numAnnotations;
+    }
+
+    final int numRows() {
+        return numRows;
+    }
+
+    abstract boolean isSinglePrecision();
+
+    /**
+     * Adds a row with all values set to 0 and no missing annotation.
+     *
+     * @return the index of the new row.
+     */
+    final int addRow() {
+        if (numRows == capacity()) {
+            Utils.validate(numRows < MAX_ROWS, "too many variants in an annotation matrix");
+            grow((int) Math.min(MAX_ROWS, Math.max(INITIAL_CAPACITY, 2L * capacity())));
+        }
+        return numRows++;
+    }
+
+    abstract double get(final int annotation, final int row);
+
+    abstract void set(final int annotation, final int row, final double value);
+
+    final boolean isNull(final int annotation, final int row) {
+        return isNull[annotation].get(row);
+    }
+
+    final void setNull(final int annotation, final int row, final boolean value) {
+        isNull[annotation].set(row, value);
+    }
+
+    /**
+     * Whether any annotation of the given row is missing.
+     */
+    final boolean hasNull(final int row) {
+        for (final BitSet nulls : isNull) {
+            if (nulls.get(row)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reorders the annotations of all rows.
+     *
+     * @param order for each new annotation index, the index of the annotation that is moved there.
+     */
+    final void reorderAnnotations(final List<Integer> order) {
+        Utils.validateArg(order.size() == numAnnotations, "the new order must include every annotation");
+        final int[] orderArray = order.stream().mapToInt(Integer::intValue).toArray();
+        final int[] sorted = orderArray.clone();
+        Arrays.sort(sorted);
+        for (int i = 0; i < numAnnotations; i++) {
+            Utils.validateArg(sorted[i] == i, "the new order must be a permutation of the annotations");
+        }
+
+        final BitSet[] newIsNull = new BitSet[numAnnotations];
+        for (int i = 0; i < numAnnotations; i++) {
+            newIsNull[i] = isNull[orderArray[i]];
+        }
+        isNull = newIsNull;
+        reorderColumns(orderArray);
+    }
+
+    /**
+     * Drops the capacity reserved for rows that have not been added yet.
+     */
+    final void trimToSize() {
+        grow(numRows);
+    }
+
+    /**
+     * Number of bytes taken by the values held by this matrix (excluding the missing annotation flags).
+     */
+    abstract long valueBytes();
+
+    protected abstract int capacity();
+
+    protected abstract void grow(final int newCapacity);
+
+    protected abstract void reorderColumns(final int[] order);
+
+    private static final class DoubleMatrix extends AnnotationMatrix {
+        private double[][] columns;
+
+        private DoubleMatrix(final int numAnnotations) {
+            super(numAnnotations);
+            columns = new double[numAnnotations][0];
+        }
+
+        @Override
+        boolean isSinglePrecision() {
+            return false;
+        }
+
+        @Override
+        double get(final int annotation, final int row) {
+            return columns[annotation][row];
+        }
+
+        @Override
+        void set(final int annotation, final int row, final double value) {
+            columns[annotation][row] = value;
+        }
+
+        @Override
+        long valueBytes() {
+            return (long) numAnnotations * capacity() * Double.BYTES;
+        }
+
+        @Override
+        protected int capacity() {
+            return numAnnotations == 0 ? Integer.MAX_VALUE : columns[0].length;
+        }
+
+        @Override
+        protected void grow(final int newCapacity) {
+            for (int i = 0; i < numAnnotations; i++) {
+                columns[i] = Arrays.copyOf(columns[i], newCapacity);
+            }
+        }
+
+        @Override
+        protected void reorderColumns(final int[] order) {
+            final double[][] newColumns = new double[numAnnotations][];
+            for (int i = 0; i < numAnnotations; i++) {
+                newColumns[i] = columns[order[i]];
+            }
+            columns = newColumns;
+        }
+    }
+
+    private static final class FloatMatrix extends AnnotationMatrix {
+        private float[][] columns;
+
+        private FloatMatrix(final int numAnnotations) {
+            super(numAnnotations);
+            columns = new float[numAnnotations][0];
+        }
+
+        @Override
+        boolean isSinglePrecision() {
+            return true;
+        }
+
+        @Override
+        double get(final int annotation, final int row) {
+            return columns[annotation][row];
+        }
+
+        @Override
+        void set(final int annotation, final int row, final double value) {
+            columns[annotation][row] = (float) value;
+        }
+
+        @Override
+        long valueBytes() {
+            return (long) numAnnotations * capacity() * Float.BYTES;
+        }
+
+        @Override
+        protected int capacity() {
+            return numAnnotations == 0 ? Integer.MAX_VALUE : columns[0].length;
+        }
+
+        @Override
+        protected void grow(final int newCapacity) {
+            for (int i = 0; i < numAnnotations; i++) {
+                columns[i] = Arrays.copyOf(columns[i], newCapacity);
+            }
+        }
+
+        @Override
+        protected void reorderColumns(final int[] order) {
+            final float[][] newColumns = new float[numAnnotations][];
+            for (int i = 0; i < numAnnotations; i++) {
+                newColumns[i] = columns[order[i]];
+            }
+            columns = newColumns;
+        }
+    }
+}
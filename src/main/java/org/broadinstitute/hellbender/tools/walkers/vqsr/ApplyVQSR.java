@@ -1,5 +1,6 @@
 package org.broadinstitute.hellbender.tools.walkers.vqsr;
 
+import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.vcf.*;
 import htsjdk.variant.variantcontext.VariantContext;
@@ -13,6 +14,7 @@ import org.broadinstitute.barclay.help.DocumentedFeature;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import picard.cmdline.programgroups.VariantFilteringProgramGroup;
 import org.broadinstitute.hellbender.engine.FeatureContext;
+import org.broadinstitute.hellbender.engine.FeatureDataSource;
 import org.broadinstitute.hellbender.engine.FeatureInput;
 import org.broadinstitute.hellbender.engine.ReadsContext;
 import org.broadinstitute.hellbender.engine.ReferenceContext;
@@ -182,6 +184,16 @@ public class ApplyVQSR extends MultiVariantWalker {
     @Argument(fullName="exclude-filtered", doc="Don't output filtered loci after applying the recalibration", optional=true)
     private boolean EXCLUDE_FILTERED = false;
 
+    /**
+     * Read the recal file once, from start to end, alongside the input variants rather than querying it at each input
+     * variant. This is much faster for large callsets, but requires the input variants and the recal file to be sorted
+     * in the order of the sequence dictionary, as they are when the recal file was produced by VariantRecalibrator from
+     * the same input. Works in both site-level and allele-specific modes.
+     */
+    @Advanced
+    @Argument(fullName="merge-join-recal", doc="If specified, stream through the sorted recal file alongside the input variants instead of querying it at each variant", optional=true)
+    private boolean MERGE_JOIN_RECAL = false;
+
     @Argument(fullName = "mode", shortName = "mode", doc = "Recalibration mode to employ: 1.) SNP for recalibrating only SNPs (emitting indels untouched in the output VCF); 2.) INDEL for indels; and 3.) BOTH for recalibrating both SNPs and indels simultaneously.", optional=true)
     private VariantRecalibratorArgumentCollection.Mode MODE = VariantRecalibratorArgumentCollection.Mode.SNP;
 
@@ -189,6 +201,8 @@ public class ApplyVQSR extends MultiVariantWalker {
     // Private Member Variables
     /////////////////////////////
     private VariantContextWriter vcfWriter;
+    private FeatureDataSource<VariantContext> recalDataSource; // only used with MERGE_JOIN_RECAL
+    private RecalRecordMerger recalMerger; // only used with MERGE_JOIN_RECAL
     final private List<TruthSensitivityTranche> tranches = new ArrayList<>();
     final private Set<String> ignoreInputFilterSet = new TreeSet<>();
     final static private String listPrintSeparator = ",";
@@ -270,12 +284,28 @@ public class ApplyVQSR extends MultiVariantWalker {
             logger.info("Keeping all variants with VQSLOD >= " + VQSLOD_CUTOFF);
         }
 
+        if( MERGE_JOIN_RECAL ) {
+            initializeRecalMerger();
+        }
+
         hInfo.addAll(getDefaultToolVCFHeaderLines());
         final VCFHeader vcfHeader = new VCFHeader(hInfo, samples);
         vcfWriter = createVCFWriter(new File(output));
         vcfWriter.writeHeader(vcfHeader);
     }
 
+    private void initializeRecalMerger() {
+        final SAMSequenceDictionary dictionary = getBestAvailableSequenceDictionary();
+        if( dictionary == null ) {
+            throw new UserException("A sequence dictionary (from the input variants or the reference) is required to merge the recal file with the input variants. Run without --merge-join-recal instead.");
+        }
+        recalDataSource = new FeatureDataSource<>(recal, 0, VariantContext.class);
+        if( hasIntervals() ) {
+            recalDataSource.setIntervalsForTraversal(intervalArgumentCollection.getIntervals(dictionary));
+        }
+        recalMerger = new RecalRecordMerger(recalDataSource.iterator(), dictionary, recal.getFeaturePath());
+    }
+
     private boolean trancheIntervalIsValid(final String sensitivityLimits) {
         final String[] vals = sensitivityLimits.split("to");
         if(vals.length != 2)
@@ -328,7 +358,7 @@ public class ApplyVQSR extends MultiVariantWalker {
     @Override
     public void apply(final VariantContext vc, final ReadsContext readsContext, final ReferenceContext ref, final FeatureContext featureContext) {
 
-        final List<VariantContext> recals =  featureContext.getValues(recal, vc.getStart());
+        final List<VariantContext> recals = MERGE_JOIN_RECAL ? recalMerger.getRecordsStartingAt(vc) : featureContext.getValues(recal, vc.getStart());
         final boolean evaluateThisVariant = useASannotations || VariantDataManager.checkVariationClass( vc, MODE );
 
         //vc.isNotFiltered is true for PASS; vc.filtersHaveBeenApplied covers PASS and filters
@@ -627,6 +657,9 @@ public class ApplyVQSR extends MultiVariantWalker {
         if (vcfWriter != null) {
             vcfWriter.close();
         }
+        if (recalDataSource != null) {
+            recalDataSource.close();
+        }
     }
 }
 
@@ -3,6 +3,8 @@ package org.broadinstitute.hellbender.tools.walkers.vqsr;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 
+import com.google.common.annotations.VisibleForTesting;
+import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.utils.MathUtils;
 import org.broadinstitute.hellbender.utils.Utils;
 
@@ -10,13 +12,32 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
 
 import Jama.Matrix;
 
+/**
+ * Gaussian mixture model of the annotations of variants, fit by variational Bayes EM.
+ *
+ * The k-means initialization and the EM steps can run on a {@link ForkJoinPool} (see {@link #setThreadPool}).  The data
+ * are then split into partitions of a fixed size, whose sufficient statistics are computed in parallel and summed up in
+ * partition order, so the fitted model does not depend on the number of threads.  It may differ in the last digits from
+ * the model fit without a thread pool unless all of the data fit in a single partition.
+ */
 class GaussianMixtureModel {
 
     protected final static Logger logger = LogManager.getLogger(GaussianMixtureModel.class);
 
+    /**
+     * Default number of variants in each partition of the data processed in parallel.
+     */
+    static final int DEFAULT_PARTITION_SIZE = 10000;
+
     private final List<MultivariateGaussian> gaussians;
     private final double shrinkage;
     private final double dirichletParameter;
@@ -26,6 +47,9 @@ class GaussianMixtureModel {
     public boolean isModelReadyForEvaluation;
     public boolean failedToConverge = false;
 
+    private ForkJoinPool threadPool = null;
+    private int partitionSize = DEFAULT_PARTITION_SIZE;
+
     public GaussianMixtureModel( final int numGaussians, final int numVariantData, final int numAnnotations,
                                  final double shrinkage, final double dirichletParameter, final double priorCounts ) {
 
@@ -85,32 +109,45 @@ class GaussianMixtureModel {
 
         int ttt = 0;
         while( ttt++ < numIterations ) {
-            // E step: assign each variant to the nearest cluster
-            for( final VariantDatum datum : data ) {
-                double minDistance = Double.MAX_VALUE;
-                MultivariateGaussian minGaussian = null;
-                datum.assignment = minGaussian;
-                for( final MultivariateGaussian gaussian : gaussians ) {
-                    final double dist = gaussian.calculateDistanceFromMeanSquared( datum );
-                    if( dist < minDistance ) {
-                        minDistance = dist;
-                        minGaussian = gaussian;
+            // E step: assign each variant to the nearest cluster, and sum up the variants assigned to each cluster
+            final List<double[][]> partialSums = mapPartitions( data, (start, end) -> {
+                final double[][] sums = new double[gaussians.size()][getNumAnnotations() + 1];
+                for( final VariantDatum datum : data.subList(start, end) ) {
+                    double minDistance = Double.MAX_VALUE;
+                    MultivariateGaussian minGaussian = null;
+                    datum.assignment = minGaussian;
+                    for( final MultivariateGaussian gaussian : gaussians ) {
+                        final double dist = gaussian.calculateDistanceFromMeanSquared( datum );
+                        if( dist < minDistance ) {
+                            minDistance = dist;
+                            minGaussian = gaussian;
+                        }
+                    }
+                    datum.assignment = minGaussian;
+
+                    final double[] gaussianSums = sums[gaussians.indexOf(minGaussian)];
+                    gaussianSums[0]++;
+                    for( int jjj = 0; jjj < datum.getNumAnnotations(); jjj++ ) {
+                        gaussianSums[jjj + 1] += datum.getAnnotation(jjj);
                     }
                 }
-                datum.assignment = minGaussian;
-            }
+                return sums;
+            });
 
             // M step: update gaussian means based on assigned variants
+            int gaussianIndex = 0;
             for( final MultivariateGaussian gaussian : gaussians ) {
                 gaussian.zeroOutMu();
                 int numAssigned = 0;
 
-                for( final VariantDatum datum : data ) {
-                    if( datum.assignment.equals(gaussian) ) {
-                        numAssigned++;
-                        gaussian.incrementMu( datum );
+                for( final double[][] sums : partialSums ) {
+                    final double[] gaussianSums = sums[gaussianIndex];
+                    numAssigned += (int) gaussianSums[0];
+                    for( int jjj = 0; jjj < gaussian.mu.length; jjj++ ) {
+                        gaussian.mu[jjj] += gaussianSums[jjj + 1];
                     }
                 }
+                gaussianIndex++;
                 if( numAssigned != 0 ) {
                     gaussian.divideEqualsMu( ((double) numAssigned) );
                 } else {
@@ -126,18 +163,105 @@ class GaussianMixtureModel {
             gaussian.precomputeDenominatorForVariationalBayes( getSumHyperParameterLambda() );
         }
 
-        for( final VariantDatum datum : data ) {
-            final double[] pVarInGaussianLog10 = gaussians.stream().mapToDouble(g -> g.evaluateDatumLog10(datum)).toArray();
-            final double[] pVarInGaussianNormalized = MathUtils.normalizeLog10DeleteMePlease( pVarInGaussianLog10, false);
-            int gaussianIndex = 0;
-            for( final MultivariateGaussian gaussian : gaussians ) {
-                gaussian.assignPVarInGaussian( pVarInGaussianNormalized[gaussianIndex++] );
+        mapPartitions( data, (start, end) -> {
+            for( int datumIndex = start; datumIndex < end; datumIndex++ ) {
+                final VariantDatum datum = data.get(datumIndex);
+                final double[] pVarInGaussianLog10 = gaussians.stream().mapToDouble(g -> g.evaluateDatumLog10(datum)).toArray();
+                final double[] pVarInGaussianNormalized = MathUtils.normalizeLog10DeleteMePlease( pVarInGaussianLog10, false);
+                int gaussianIndex = 0;
+                for( final MultivariateGaussian gaussian : gaussians ) {
+                    gaussian.assignPVarInGaussian( datumIndex, pVarInGaussianNormalized[gaussianIndex++] );
+                }
             }
-        }
+            return null;
+        });
     }
 
     public void maximizationStep( final List<VariantDatum> data ) {
-        gaussians.forEach(g -> g.maximizeGaussian( data, empiricalMu, empiricalSigma, shrinkage, dirichletParameter, priorCounts));
+        computeWeightedMeans( data, MultivariateGaussian.MIN_SUM_PROB );
+        final List<List<double[][]>> partialScatters = computeWeightedScatters( data );
+        for( int gaussianIndex = 0; gaussianIndex < gaussians.size(); gaussianIndex++ ) {
+            gaussians.get(gaussianIndex).maximizeGaussian( partialScatters.get(gaussianIndex), empiricalMu, empiricalSigma, shrinkage, dirichletParameter, priorCounts );
+        }
+    }
+
+    /**
+     * Sets the total probability and the mean of each Gaussian to those of the data weighted by the probabilities
+     * computed by the last expectation step.
+     */
+    private void computeWeightedMeans( final List<VariantDatum> data, final double initialSumProb ) {
+        final List<List<double[]>> partialSums = mapPartitions( data, (start, end) ->
+                gaussians.stream()
+                        .map(g -> g.sumWeightedAnnotations( data, start, end, start == 0 ? initialSumProb : 0.0 ))
+                        .collect(Collectors.toList()) );
+        for( int gaussianIndex = 0; gaussianIndex < gaussians.size(); gaussianIndex++ ) {
+            final int index = gaussianIndex;
+            gaussians.get(gaussianIndex).setWeightedMean( partialSums.stream().map(sums -> sums.get(index)).collect(Collectors.toList()) );
+        }
+    }
+
+    /**
+     * @return for each Gaussian, its weighted scatter matrices over each partition of the data, in order
+     */
+    private List<List<double[][]>> computeWeightedScatters( final List<VariantDatum> data ) {
+        final List<List<double[][]>> partialScatters = mapPartitions( data, (start, end) ->
+                gaussians.stream()
+                        .map(g -> g.sumWeightedScatter( data, start, end ))
+                        .collect(Collectors.toList()) );
+        final List<List<double[][]>> result = new ArrayList<>(gaussians.size());
+        for( int gaussianIndex = 0; gaussianIndex < gaussians.size(); gaussianIndex++ ) {
+            final int index = gaussianIndex;
+            result.add( partialScatters.stream().map(scatters -> scatters.get(index)).collect(Collectors.toList()) );
+        }
+        return result;
+    }
+
+    /**
+     * Applies a function to each partition of the data, on the thread pool if there is one.
+     *
+     * @param function function of the start (inclusive) and end (exclusive) index of a partition
+     * @return the results of the function for each partition, in order
+     */
+    private <T> List<T> mapPartitions( final List<VariantDatum> data, final BiFunction<Integer, Integer, T> function ) {
+        if( threadPool == null ) {
+            return Collections.singletonList( function.apply(0, data.size()) );
+        }
+
+        final List<Callable<T>> tasks = new ArrayList<>();
+        for( int start = 0; start < data.size(); start += partitionSize ) {
+            final int partitionStart = start;
+            final int partitionEnd = Math.min(start + partitionSize, data.size());
+            tasks.add(() -> function.apply(partitionStart, partitionEnd));
+        }
+
+        final List<T> results = new ArrayList<>(tasks.size());
+        try {
+            for( final Future<T> future : threadPool.invokeAll(tasks) ) {
+                results.add( future.get() );
+            }
+        } catch( final ExecutionException e ) {
+            if( e.getCause() instanceof RuntimeException ) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new GATKException("Error while fitting the Gaussian mixture model", e.getCause());
+        } catch( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while fitting the Gaussian mixture model", e);
+        }
+        return results;
+    }
+
+    /**
+     * Sets the thread pool on which to fit this model, or {@code null} to fit it on the calling thread.
+     */
+    public void setThreadPool( final ForkJoinPool threadPool ) {
+        this.threadPool = threadPool;
+    }
+
+    @VisibleForTesting
+    void setPartitionSize( final int partitionSize ) {
+        Utils.validateArg(partitionSize > 0, "partitionSize must be positive");
+        this.partitionSize = partitionSize;
     }
 
     private double getSumHyperParameterLambda() {
@@ -145,7 +269,11 @@ class GaussianMixtureModel {
     }
 
     public void evaluateFinalModelParameters( final List<VariantDatum> data ) {
-        gaussians.forEach(g -> g.evaluateFinalModelParameters(data));
+        computeWeightedMeans( data, 0.0 );
+        final List<List<double[][]>> partialScatters = computeWeightedScatters( data );
+        for( int gaussianIndex = 0; gaussianIndex < gaussians.size(); gaussianIndex++ ) {
+            gaussians.get(gaussianIndex).evaluateFinalModelParameters( partialScatters.get(gaussianIndex) );
+        }
         normalizePMixtureLog10();
     }
 
@@ -191,10 +319,8 @@ class GaussianMixtureModel {
     }
 
     public double evaluateDatum( final VariantDatum datum ) {
-        for( final boolean isNull : datum.isNull ) {
-            if( isNull ) {
-                return evaluateDatumMarginalized( datum );
-            }
+        if( datum.hasNullAnnotation() ) {
+            return evaluateDatumMarginalized( datum );
         }
         // Fill an array with the log10 probability coming from each Gaussian and then use MathUtils to sum them up correctly
         final double[] pVarInGaussianLog10 = new double[gaussians.size()];
@@ -207,12 +333,12 @@ class GaussianMixtureModel {
 
     // Used only to decide which covariate dimension is most divergent in order to report in the culprit info field annotation
     public Double evaluateDatumInOneDimension( final VariantDatum datum, final int iii ) {
-        if(datum.isNull[iii]) { return null; }
+        if(datum.isNull(iii)) { return null; }
 
         final double[] pVarInGaussianLog10 = new double[gaussians.size()];
         int gaussianIndex = 0;
         for( final MultivariateGaussian gaussian : gaussians ) {
-            pVarInGaussianLog10[gaussianIndex++] = gaussian.pMixtureLog10 + MathUtils.normalDistributionLog10(gaussian.mu[iii], gaussian.sigma.get(iii, iii), datum.annotations[iii]);
+            pVarInGaussianLog10[gaussianIndex++] = gaussian.pMixtureLog10 + MathUtils.normalDistributionLog10(gaussian.mu[iii], gaussian.sigma.get(iii, iii), datum.getAnnotation(iii));
         }
         return nanTolerantLog10SumLog10(pVarInGaussianLog10); // Sum(pi_k * p(v|n,k))
     }
@@ -223,11 +349,11 @@ class GaussianMixtureModel {
         final int numIterPerMissingAnnotation = 20; // Trade off here between speed of computation and accuracy of the marginalization
         final double[] pVarInGaussianLog10 = new double[gaussians.size()];
         // for each dimension
-        for( int iii = 0; iii < datum.annotations.length; iii++ ) {
+        for( int iii = 0; iii < datum.getNumAnnotations(); iii++ ) {
             // if it is missing marginalize over the missing dimension by drawing X random values for the missing annotation and averaging the lod
-            if( datum.isNull[iii] ) {
+            if( datum.isNull(iii) ) {
                 for( int ttt = 0; ttt < numIterPerMissingAnnotation; ttt++ ) {
-                    datum.annotations[iii] = Utils.getRandomGenerator().nextGaussian(); // draw a random sample from the standard normal distribution
+                    datum.setAnnotation(iii, Utils.getRandomGenerator().nextGaussian()); // draw a random sample from the standard normal distribution
 
                     // evaluate this random data point
                     int gaussianIndex = 0;
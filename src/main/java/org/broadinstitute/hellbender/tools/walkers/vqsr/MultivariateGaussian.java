@@ -3,6 +3,7 @@ package org.broadinstitute.hellbender.tools.walkers.vqsr;
 import org.apache.commons.math3.special.Gamma;
 
 import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.IndexRange;
 import org.broadinstitute.hellbender.utils.MathUtils;
 import org.broadinstitute.hellbender.utils.collections.ExpandingArrayList;
 
@@ -13,6 +14,11 @@ import java.util.Random;
 import Jama.Matrix;
 
 class MultivariateGaussian {
+    /**
+     * Value the total probability of the data starts from in the maximization step, so that it is never 0.
+     */
+    static final double MIN_SUM_PROB = 1E-10;
+
     public double pMixtureLog10;
     public double sumProb;
     final public double[] mu;
@@ -23,13 +29,11 @@ class MultivariateGaussian {
     private double cachedDenomLog10;
     private Matrix cachedSigmaInverse;
     final private double[] pVarInGaussian;
-    int pVarInGaussianIndex;
 
     public MultivariateGaussian( final int numVariants, final int numAnnotations  ) {
         mu = new double[numAnnotations];
         sigma = new Matrix(numAnnotations, numAnnotations);
         pVarInGaussian = new double[numVariants];
-        pVarInGaussianIndex = 0;
     }
 
     public void zeroOutMu() {
@@ -68,7 +72,7 @@ class MultivariateGaussian {
     }
 
     public double calculateDistanceFromMeanSquared( final VariantDatum datum ) {
-        return MathUtils.distanceSquared( datum.annotations, mu );
+        return new IndexRange(0, mu.length).sum(n -> MathUtils.square(datum.getAnnotation(n) - mu[n]));
     }
 
     public void incrementMu( final VariantDatum datum ) {
@@ -77,7 +81,7 @@ class MultivariateGaussian {
 
     public void incrementMu( final VariantDatum datum, final double prob ) {
         for( int jjj = 0; jjj < mu.length; jjj++ ) {
-            mu[jjj] += prob * datum.annotations[jjj];
+            mu[jjj] += prob * datum.getAnnotation(jjj);
         }
     }
 
@@ -126,65 +130,116 @@ class MultivariateGaussian {
 
     public double evaluateDatumLog10( final VariantDatum datum ) {
         double sumKernel = 0.0;
+        final double[] delta = datum.copyAnnotations(new double[mu.length]);
+        for( int iii = 0; iii < mu.length; iii++ ) {
+            delta[iii] -= mu[iii];
+        }
         final double[] crossProdTmp = new double[mu.length];
-        Arrays.fill(crossProdTmp, 0.0);
         for( int iii = 0; iii < mu.length; iii++ ) {
             for( int jjj = 0; jjj < mu.length; jjj++ ) {
-                crossProdTmp[iii] += (datum.annotations[jjj] - mu[jjj]) * cachedSigmaInverse.get(jjj, iii);
+                crossProdTmp[iii] += delta[jjj] * cachedSigmaInverse.get(jjj, iii);
             }
         }
         for( int iii = 0; iii < mu.length; iii++ ) {
-            sumKernel += crossProdTmp[iii] * (datum.annotations[iii] - mu[iii]);
+            sumKernel += crossProdTmp[iii] * delta[iii];
         }
 
         return (( -0.5 * sumKernel ) / Math.log(10.0)) + cachedDenomLog10; // This is the definition of a Gaussian PDF Log10
     }
 
-    public void assignPVarInGaussian( final double pVar ) {
-        pVarInGaussian[pVarInGaussianIndex++] = pVar;
+    public void assignPVarInGaussian( final int datumIndex, final double pVar ) {
+        pVarInGaussian[datumIndex] = pVar;
     }
 
     public void resetPVarInGaussian() {
         Arrays.fill(pVarInGaussian, 0.0);
-        pVarInGaussianIndex = 0;
     }
 
-    public void maximizeGaussian(final List<VariantDatum> data, final double[] empiricalMu, final Matrix empiricalSigma,
-                                 final double SHRINKAGE, final double DIRICHLET_PARAMETER, final double DEGREES_OF_FREEDOM ) {
-        sumProb = 1E-10;
-        final Matrix wishart = new Matrix(mu.length, mu.length);
-        zeroOutMu();
-        zeroOutSigma();
-
-        int datumIndex = 0;
-        for( final VariantDatum datum : data ) {
-            final double prob = pVarInGaussian[datumIndex++];
-            sumProb += prob;
-            incrementMu( datum, prob );
+    /**
+     * Sums the probabilities that the data in [start, end) belong to this Gaussian, and their annotations weighted by
+     * these probabilities.  The sums over consecutive ranges of the data are combined by {@link #setWeightedMean}.
+     *
+     * @param initialSumProb the value the sum of the probabilities starts from
+     * @return the sum of the probabilities, followed by the weighted sum of each annotation
+     */
+    public double[] sumWeightedAnnotations( final List<VariantDatum> data, final int start, final int end, final double initialSumProb ) {
+        final double[] sums = new double[mu.length + 1];
+        sums[0] = initialSumProb;
+        for( int datumIndex = start; datumIndex < end; datumIndex++ ) {
+            final VariantDatum datum = data.get(datumIndex);
+            final double prob = pVarInGaussian[datumIndex];
+            sums[0] += prob;
+            for( int jjj = 0; jjj < mu.length; jjj++ ) {
+                sums[jjj + 1] += prob * datum.getAnnotation(jjj);
+            }
         }
-        divideEqualsMu( sumProb );
+        return sums;
+    }
 
-        final double shrinkageFactor = (SHRINKAGE * sumProb) / (SHRINKAGE + sumProb);
-        for( int iii = 0; iii < mu.length; iii++ ) {
-            double deltaMu = shrinkageFactor * (mu[iii] - empiricalMu[iii]);
+    /**
+     * Sets {@link #sumProb} and {@link #mu} to the total probability and the weighted mean of the data given the
+     * results of {@link #sumWeightedAnnotations} over consecutive ranges of the data, in order.
+     */
+    public void setWeightedMean( final List<double[]> partialSums ) {
+        sumProb = 0.0;
+        zeroOutMu();
+        for( final double[] sums : partialSums ) {
+            sumProb += sums[0];
             for( int jjj = 0; jjj < mu.length; jjj++ ) {
-                wishart.set(iii, jjj, deltaMu * (mu[jjj] - empiricalMu[jjj]));
+                mu[jjj] += sums[jjj + 1];
             }
         }
+        divideEqualsMu( sumProb );
+    }
 
-        datumIndex = 0;
-        final Matrix pVarSigma = new Matrix(mu.length, mu.length);
-        for( final VariantDatum datum : data ) {
-            final double prob = pVarInGaussian[datumIndex++];
+    /**
+     * Sums the scatter matrices around {@link #mu} of the data in [start, end), weighted by the probabilities that
+     * the data belong to this Gaussian.  The sums over consecutive ranges of the data are combined by {@link #setSigmaToSum}.
+     */
+    public double[][] sumWeightedScatter( final List<VariantDatum> data, final int start, final int end ) {
+        final double[][] scatter = new double[mu.length][mu.length];
+        final double[] delta = new double[mu.length];
+        for( int datumIndex = start; datumIndex < end; datumIndex++ ) {
+            final double prob = pVarInGaussian[datumIndex];
+            data.get(datumIndex).copyAnnotations(delta);
+            for( int iii = 0; iii < mu.length; iii++ ) {
+                delta[iii] -= mu[iii];
+            }
             for( int iii = 0; iii < mu.length; iii++ ) {
-                double deltaMu = prob * (datum.annotations[iii]-mu[iii]);
+                final double deltaMu = prob * delta[iii];
                 for( int jjj = 0; jjj < mu.length; jjj++ ) {
-                    pVarSigma.set(iii, jjj, deltaMu * (datum.annotations[jjj]-mu[jjj]));
+                    scatter[iii][jjj] += deltaMu * delta[jjj];
                 }
             }
-            sigma.plusEquals( pVarSigma );
         }
+        return scatter;
+    }
 
+    private void setSigmaToSum( final List<double[][]> partialScatters ) {
+        zeroOutSigma();
+        for( final double[][] scatter : partialScatters ) {
+            sigma.plusEquals( new Matrix(scatter) );
+        }
+    }
+
+    /**
+     * Completes the maximization step for this Gaussian once {@link #setWeightedMean} was called with sums starting
+     * from {@link #MIN_SUM_PROB}.
+     *
+     * @param partialScatters the results of {@link #sumWeightedScatter} over consecutive ranges of the data, in order
+     */
+    public void maximizeGaussian(final List<double[][]> partialScatters, final double[] empiricalMu, final Matrix empiricalSigma,
+                                 final double SHRINKAGE, final double DIRICHLET_PARAMETER, final double DEGREES_OF_FREEDOM ) {
+        final Matrix wishart = new Matrix(mu.length, mu.length);
+        final double shrinkageFactor = (SHRINKAGE * sumProb) / (SHRINKAGE + sumProb);
+        for( int iii = 0; iii < mu.length; iii++ ) {
+            double deltaMu = shrinkageFactor * (mu[iii] - empiricalMu[iii]);
+            for( int jjj = 0; jjj < mu.length; jjj++ ) {
+                wishart.set(iii, jjj, deltaMu * (mu[jjj] - empiricalMu[jjj]));
+            }
+        }
+
+        setSigmaToSum( partialScatters );
         sigma.plusEquals( empiricalSigma );
         sigma.plusEquals( wishart );
 
@@ -199,32 +254,16 @@ class MultivariateGaussian {
         resetPVarInGaussian(); // clean up some memory
     }
 
-    public void evaluateFinalModelParameters( final List<VariantDatum> data ) {
-        sumProb = 0.0;
-        zeroOutMu();
-        zeroOutSigma();
-
-        int datumIndex = 0;
-        for( final VariantDatum datum : data ) {
-            final double prob = pVarInGaussian[datumIndex++];
-            sumProb += prob;
-            incrementMu( datum, prob );
-        }
-        divideEqualsMu( sumProb );
-
-        datumIndex = 0;
-        final Matrix pVarSigma = new Matrix(mu.length, mu.length);
-        for( final VariantDatum datum : data ) {
-            final double prob = pVarInGaussian[datumIndex++];
-            for( int iii = 0; iii < mu.length; iii++ ) {
-                for( int jjj = 0; jjj < mu.length; jjj++ ) {
-                    pVarSigma.set(iii, jjj, prob * (datum.annotations[iii]-mu[iii]) * (datum.annotations[jjj]-mu[jjj]));
-                }
-            }
-            sigma.plusEquals( pVarSigma );
-        }
+    /**
+     * Completes the evaluation of the final parameters of this Gaussian once {@link #setWeightedMean} was called with
+     * sums starting from 0.
+     *
+     * @param partialScatters the results of {@link #sumWeightedScatter} over consecutive ranges of the data, in order
+     */
+    public void evaluateFinalModelParameters( final List<double[][]> partialScatters ) {
+        setSigmaToSum( partialScatters );
         sigma.timesEquals( 1.0 / sumProb );
 
         resetPVarInGaussian(); // clean up some memory
     }
-}
\ No newline at end of file
+}
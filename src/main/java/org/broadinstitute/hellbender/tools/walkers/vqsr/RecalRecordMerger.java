@@ -0,0 +1,107 @@
+package org.broadinstitute.hellbender.tools.walkers.vqsr;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.util.Locatable;
+import htsjdk.samtools.util.PeekableIterator;
+import htsjdk.variant.variantcontext.VariantContext;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Finds the records of a recal file that match the input variants of ApplyVQSR by merging two sorted streams,
+ * rather than by querying the recal file at each variant.
+ *
+ * <p>
+ *     The recal records must be sorted by position, and the variants must be looked up in increasing position order,
+ *     both in the order of the contigs of the given sequence dictionary. Each lookup skips the recal records that start
+ *     before the variant, so every recal record is read only once. The records starting at the position of the last
+ *     lookup are kept, as several input variants may start at the same position.
+ * </p>
+ */
+final class RecalRecordMerger {
+
+    private final PeekableIterator<VariantContext> recalRecords;
+    private final SAMSequenceDictionary dictionary;
+    private final String recalSource;
+
+    // the recal records starting at the position of the last lookup
+    private final List<VariantContext> currentRecords = new ArrayList<>();
+    private int currentContigIndex = -1;
+    private int currentStart = -1;
+
+    // position of the last recal record read, to check that the recal records are sorted
+    private int lastRecordContigIndex = -1;
+    private int lastRecordStart = -1;
+
+    /**
+     * @param recalRecords the records of the recal file, sorted by position
+     * @param dictionary the dictionary giving the order of the contigs of both the recal records and the variants
+     * @param recalSource name of the recal file, for error messages
+     */
+    RecalRecordMerger(final Iterator<VariantContext> recalRecords, final SAMSequenceDictionary dictionary, final String recalSource) {
+        this.recalRecords = new PeekableIterator<>(Utils.nonNull(recalRecords));
+        this.dictionary = Utils.nonNull(dictionary);
+        this.recalSource = Utils.nonNull(recalSource);
+    }
+
+    /**
+     * Gets the recal records that start at the same position as the given variant.
+     *
+     * @param variant must not start before the variant of the previous call
+     * @return an unmodifiable list of the recal records starting at the start of the variant, possibly empty
+     */
+    List<VariantContext> getRecordsStartingAt(final Locatable variant) {
+        final int contigIndex = getContigIndex(variant.getContig(), "input variant " + variant);
+        final int start = variant.getStart();
+        final int comparison = compare(contigIndex, start, currentContigIndex, currentStart);
+        if (comparison < 0) {
+            throw new UserException.BadInput("Input variants must be sorted in the order of the sequence dictionary to be merged with the recal file, but "
+                    + variant.getContig() + ":" + start + " comes after " + dictionary.getSequence(currentContigIndex).getSequenceName() + ":" + currentStart);
+        }
+        if (comparison > 0) {
+            currentRecords.clear();
+            currentContigIndex = contigIndex;
+            currentStart = start;
+            while (recalRecords.hasNext()) {
+                final VariantContext record = recalRecords.peek();
+                final int recordContigIndex = getContigIndex(record.getContig(), "recal record " + record);
+                final int recordComparison = compare(recordContigIndex, record.getStart(), contigIndex, start);
+                if (recordComparison > 0) {
+                    break;
+                }
+                checkRecordOrder(record, recordContigIndex);
+                recalRecords.next();
+                if (recordComparison == 0) {
+                    currentRecords.add(record);
+                }
+            }
+        }
+        return Collections.unmodifiableList(currentRecords);
+    }
+
+    private void checkRecordOrder(final VariantContext record, final int recordContigIndex) {
+        if (compare(recordContigIndex, record.getStart(), lastRecordContigIndex, lastRecordStart) < 0) {
+            throw new UserException.BadInput("The recal file " + recalSource + " must be sorted in the order of the sequence dictionary, but "
+                    + record.getContig() + ":" + record.getStart() + " comes after " + dictionary.getSequence(lastRecordContigIndex).getSequenceName() + ":" + lastRecordStart);
+        }
+        lastRecordContigIndex = recordContigIndex;
+        lastRecordStart = record.getStart();
+    }
+
+    private int getContigIndex(final String contig, final String description) {
+        final int contigIndex = dictionary.getSequenceIndex(contig);
+        if (contigIndex == -1) {
+            throw new UserException.BadInput("The contig of the " + description + " is not in the sequence dictionary");
+        }
+        return contigIndex;
+    }
+
+    private static int compare(final int contigIndex1, final int start1, final int contigIndex2, final int start2) {
+        return contigIndex1 != contigIndex2 ? Integer.compare(contigIndex1, contigIndex2) : Integer.compare(start1, start2);
+    }
+}
@@ -27,6 +27,7 @@ public class VariantDataManager {
     private double[] varianceVector; // this is really the standard deviation
     public List<String> annotationKeys;
     private final VariantRecalibratorArgumentCollection VRAC;
+    private final AnnotationMatrix annotationMatrix; // annotations of the variants decoded by this manager
     protected final static Logger logger = LogManager.getLogger(VariantDataManager.class);
     protected final List<TrainingSet> trainingSets;
     private static final double SAFETY_OFFSET = 0.01;     //To use for example as 1/(X + SAFETY_OFFSET) to protect against dividing or taking log of X=0.
@@ -39,6 +40,7 @@ public class VariantDataManager {
         meanVector = new double[this.annotationKeys.size()];
         varianceVector = new double[this.annotationKeys.size()];
         trainingSets = new ArrayList<>();
+        annotationMatrix = AnnotationMatrix.create(this.annotationKeys.size(), VRAC.SINGLE_PRECISION_ANNOTATIONS);
     }
 
     public void setData( final List<VariantDatum> data ) {
@@ -78,7 +80,7 @@ public class VariantDataManager {
             logger.info(annotationKeys.get(iii) + String.format(": \t mean = %.2f\t standard deviation = %.2f", theMean, theSTD));
             for( final VariantDatum datum : data ) {
                 // Transform each data point via: (x - mean) / standard deviation
-                datum.annotations[iii] = ( datum.isNull[iii] ? 0.1 * Utils.getRandomGenerator().nextGaussian() : ( datum.annotations[iii] - theMean ) / theSTD );
+                datum.setAnnotation(iii, datum.isNull(iii) ? 0.1 * Utils.getRandomGenerator().nextGaussian() : ( datum.getAnnotation(iii) - theMean ) / theSTD );
             }
         }
         if( foundZeroVarianceAnnotation ) {
@@ -88,8 +90,8 @@ public class VariantDataManager {
         // trim data by standard deviation threshold and mark failing data for exclusion later
         for( final VariantDatum datum : data ) {
             boolean remove = false;
-            for( final double val : datum.annotations ) {
-                remove = remove || (Math.abs(val) > VRAC.STD_THRESHOLD);
+            for( int iii = 0; iii < datum.getNumAnnotations(); iii++ ) {
+                remove = remove || (Math.abs(datum.getAnnotation(iii)) > VRAC.STD_THRESHOLD);
             }
             datum.failingSTDThreshold = remove;
         }
@@ -100,9 +102,13 @@ public class VariantDataManager {
         annotationKeys = reorderList(annotationKeys, theOrder);
         varianceVector = ArrayUtils.toPrimitive(reorderArray(ArrayUtils.toObject(varianceVector), theOrder));
         meanVector = ArrayUtils.toPrimitive(reorderArray(ArrayUtils.toObject(meanVector), theOrder));
+
+        // The annotations are reordered by reordering the columns of the matrices holding them, which are usually all the same:
+        final Set<AnnotationMatrix> annotationMatrices = Collections.newSetFromMap(new IdentityHashMap<>());
         for( final VariantDatum datum : data ) {
-            datum.annotations = ArrayUtils.toPrimitive(reorderArray(ArrayUtils.toObject(datum.annotations), theOrder));
-            datum.isNull = ArrayUtils.toPrimitive(reorderArray(ArrayUtils.toObject(datum.isNull), theOrder));
+            if( annotationMatrices.add(datum.getAnnotationMatrix()) ) {
+                datum.getAnnotationMatrix().reorderAnnotations(theOrder);
+            }
         }
         logger.info("Annotations are now ordered by their information content: " + annotationKeys.toString());
     }
@@ -283,8 +289,8 @@ public class VariantDataManager {
         double sum = 0.0;
         int numNonNull = 0;
         for( final VariantDatum datum : data ) {
-            if( (trainingData == datum.atTrainingSite) && !datum.isNull[index] ) {
-                sum += datum.annotations[index];
+            if( (trainingData == datum.atTrainingSite) && !datum.isNull(index) ) {
+                sum += datum.getAnnotation(index);
                 numNonNull++;
             }
         }
@@ -295,23 +301,37 @@ public class VariantDataManager {
         double sum = 0.0;
         int numNonNull = 0;
         for( final VariantDatum datum : data ) {
-            if( (trainingData == datum.atTrainingSite) && !datum.isNull[index] ) { sum += ((datum.annotations[index] - mean)*(datum.annotations[index] - mean)); numNonNull++; }
+            if( (trainingData == datum.atTrainingSite) && !datum.isNull(index) ) {
+                final double annotation = datum.getAnnotation(index);
+                sum += ((annotation - mean)*(annotation - mean));
+                numNonNull++;
+            }
         }
         return Math.sqrt( sum / ((double) numNonNull) );
     }
 
+    /**
+     * Decodes the annotations of the given variant into a new row of the annotation matrix of this manager, and
+     * sets the annotations of the given datum to that row.
+     */
     public void decodeAnnotations( final VariantDatum datum, final VariantContext vc, final boolean jitter ) {
-        final double[] annotations = new double[annotationKeys.size()];
-        final boolean[] isNull = new boolean[annotationKeys.size()];
+        final int row = annotationMatrix.addRow();
         int iii = 0;
         for( final String key : annotationKeys ) {
-            isNull[iii] = false;
-            annotations[iii] = decodeAnnotation( key, vc, jitter, VRAC, datum );
-            if( Double.isNaN(annotations[iii]) ) { isNull[iii] = true; }
+            final double annotation = decodeAnnotation( key, vc, jitter, VRAC, datum );
+            annotationMatrix.set(iii, row, annotation);
+            if( Double.isNaN(annotation) ) { annotationMatrix.setNull(iii, row, true); }
             iii++;
         }
-        datum.annotations = annotations;
-        datum.isNull = isNull;
+        datum.setAnnotations(annotationMatrix, row);
+    }
+
+    /**
+     * Drops the memory reserved for the annotations of variants that have not been decoded yet.
+     */
+    public void trimAnnotationMatrix() {
+        annotationMatrix.trimToSize();
+        logger.info(String.format("Annotations of %d variants take %.1f MB", annotationMatrix.numRows(), annotationMatrix.valueBytes() / (1024.0 * 1024.0)));
     }
     /** Transforms an interval [xmin, xmax] to (-inf, +inf) **/
     private static double logitTransform( final double x, final double xmin, final double xmax) {
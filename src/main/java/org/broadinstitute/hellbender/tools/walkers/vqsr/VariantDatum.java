@@ -4,6 +4,7 @@ import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.variant.variantcontext.Allele;
 import org.broadinstitute.hellbender.utils.IntervalUtils;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
 
 import java.util.Comparator;
 import java.util.List;
@@ -14,8 +15,6 @@ import java.util.List;
  */
 final class VariantDatum {
 
-    public double[] annotations;
-    public boolean[] isNull;
     public boolean isKnown;
     public double lod;
     public boolean atTruthSite;
@@ -34,6 +33,65 @@ final class VariantDatum {
     public Allele referenceAllele;
     public Allele alternateAllele;
 
+    // the annotations of this datum are a row of a (usually shared) matrix
+    private AnnotationMatrix annotationMatrix;
+    private int annotationRow;
+
+    /**
+     * Sets the annotations of this datum to a copy of the given values, in a matrix of its own.
+     */
+    public void setAnnotations(final double[] annotations, final boolean[] isNull) {
+        setAnnotations(AnnotationMatrix.of(annotations, isNull), 0);
+    }
+
+    /**
+     * Sets the annotations of this datum to a row of the given matrix.
+     */
+    public void setAnnotations(final AnnotationMatrix annotationMatrix, final int annotationRow) {
+        Utils.nonNull(annotationMatrix);
+        Utils.validIndex(annotationRow, annotationMatrix.numRows());
+        this.annotationMatrix = annotationMatrix;
+        this.annotationRow = annotationRow;
+    }
+
+    public AnnotationMatrix getAnnotationMatrix() {
+        return annotationMatrix;
+    }
+
+    public int getNumAnnotations() {
+        return annotationMatrix.numAnnotations();
+    }
+
+    public double getAnnotation(final int index) {
+        return annotationMatrix.get(index, annotationRow);
+    }
+
+    /**
+     * Copies the annotations of this datum into the given array, which must have room for all of them.
+     * @return the given array
+     */
+    public double[] copyAnnotations(final double[] destination) {
+        for (int i = 0; i < annotationMatrix.numAnnotations(); i++) {
+            destination[i] = annotationMatrix.get(i, annotationRow);
+        }
+        return destination;
+    }
+
+    public void setAnnotation(final int index, final double value) {
+        annotationMatrix.set(index, annotationRow, value);
+    }
+
+    public boolean isNull(final int index) {
+        return annotationMatrix.isNull(index, annotationRow);
+    }
+
+    /**
+     * @return whether any of the annotations of this datum is missing
+     */
+    public boolean hasNullAnnotation() {
+        return annotationMatrix.hasNull(annotationRow);
+    }
+
     public static final Comparator<VariantDatum> VariantDatumLODComparator = (datum1, datum2) -> Double.compare(datum1.lod, datum2.lod);
 
     public static int countCallsAtTruth(final List<VariantDatum> data, double minLOD ) {
@@ -606,6 +606,9 @@ public class VariantRecalibrator extends MultiVariantWalker {
         for (int i = 1; i <= max_attempts; i++) {
             try {
                 dataManager.setData(reduceSum);
+                if (i == 1) {
+                    dataManager.trimAnnotationMatrix();
+                }
                 dataManager.normalizeData(inputModel == null); // Each data point is now (x - mean) / standard deviation
 
                 final GaussianMixtureModel goodModel;
@@ -1001,12 +1004,14 @@ private GATKReportTable makeVectorTable(final String tableName,
                 logger.info( "Building " + annotationKeys[iii] + " x " + annotationKeys[jjj] + " plot...");
 
                 final List<VariantDatum> fakeData = new ExpandingArrayList<>();
+                final int numAnnotations = randomData.get(0).getNumAnnotations();
+                final AnnotationMatrix fakeAnnotations = AnnotationMatrix.create(numAnnotations, false);
                 double minAnn1 = 100.0, maxAnn1 = -100.0, minAnn2 = 100.0, maxAnn2 = -100.0;
                 for( final VariantDatum datum : randomData ) {
-                    minAnn1 = Math.min(minAnn1, datum.annotations[iii]);
-                    maxAnn1 = Math.max(maxAnn1, datum.annotations[iii]);
-                    minAnn2 = Math.min(minAnn2, datum.annotations[jjj]);
-                    maxAnn2 = Math.max(maxAnn2, datum.annotations[jjj]);
+                    minAnn1 = Math.min(minAnn1, datum.getAnnotation(iii));
+                    maxAnn1 = Math.max(maxAnn1, datum.getAnnotation(iii));
+                    minAnn2 = Math.min(minAnn2, datum.getAnnotation(jjj));
+                    maxAnn2 = Math.max(maxAnn2, datum.getAnnotation(jjj));
                 }
                 // Create a fake set of data which spans the full extent of these two annotation dimensions in order
                 // to calculate the model PDF projected to 2D
@@ -1015,16 +1020,15 @@ private GATKReportTable makeVectorTable(final String tableName,
                     for(double ann2 = minAnn2; ann2 <= maxAnn2; ann2+= (maxAnn2 - minAnn2) / NUM_STEPS) {
                         final VariantDatum datum = new VariantDatum();
                         datum.prior = 0.0;
-                        datum.annotations = new double[randomData.get(0).annotations.length];
-                        datum.isNull = new boolean[randomData.get(0).annotations.length];
-                        for(int ann=0; ann< datum.annotations.length; ann++) {
-                            datum.annotations[ann] = 0.0;
-                            datum.isNull[ann] = true;
+                        final int row = fakeAnnotations.addRow();
+                        for(int ann=0; ann< numAnnotations; ann++) {
+                            fakeAnnotations.setNull(ann, row, true);
                         }
-                        datum.annotations[iii] = ann1;
-                        datum.annotations[jjj] = ann2;
-                        datum.isNull[iii] = false;
-                        datum.isNull[jjj] = false;
+                        fakeAnnotations.set(iii, row, ann1);
+                        fakeAnnotations.set(jjj, row, ann2);
+                        fakeAnnotations.setNull(iii, row, false);
+                        fakeAnnotations.setNull(jjj, row, false);
+                        datum.setAnnotations(fakeAnnotations, row);
                         fakeData.add(datum);
                     }
                 }
@@ -1035,8 +1039,8 @@ private GATKReportTable makeVectorTable(final String tableName,
                 stream.print("surface <- c(");
                 for( final VariantDatum datum : fakeData ) {
                     stream.print(String.format("%.4f, %.4f, %.4f, ",
-                            dataManager.denormalizeDatum(datum.annotations[iii], iii),
-                            dataManager.denormalizeDatum(datum.annotations[jjj], jjj),
+                            dataManager.denormalizeDatum(datum.getAnnotation(iii), iii),
+                            dataManager.denormalizeDatum(datum.getAnnotation(jjj), jjj),
                             Math.min(4.0, Math.max(-4.0, datum.lod))));
                 }
                 stream.println("NA,NA,NA)");
@@ -1045,8 +1049,8 @@ private GATKReportTable makeVectorTable(final String tableName,
                 stream.print("data <- c(");
                 for( final VariantDatum datum : randomData ) {
                     stream.print(String.format("%.4f, %.4f, %.4f, %d, %d,",
-                            dataManager.denormalizeDatum(datum.annotations[iii], iii),
-                            dataManager.denormalizeDatum(datum.annotations[jjj], jjj),
+                            dataManager.denormalizeDatum(datum.getAnnotation(iii), iii),
+                            dataManager.denormalizeDatum(datum.getAnnotation(jjj), jjj),
                             (datum.lod < lodCutoff ? -1.0 : 1.0),
                             (datum.atAntiTrainingSite ? -1 : (datum.atTrainingSite ? 1 : 0)), (datum.isKnown ? 1 : -1)));
                 }
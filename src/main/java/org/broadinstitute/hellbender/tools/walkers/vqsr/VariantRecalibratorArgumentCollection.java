@@ -65,6 +65,25 @@ final class VariantRecalibratorArgumentCollection {
     @Argument(fullName = "k-means-iterations", doc = "Number of k-means iterations", optional = true)
     public int NUM_KMEANS_ITERATIONS = 100;
 
+    /**
+     * This parameter determines the number of threads used to fit the Gaussian mixture models. When more than one
+     * thread is used, the variants are split into partitions whose contributions to each step are computed in parallel
+     * and then summed up in a fixed order, so the models do not depend on the number of threads. They may however
+     * differ slightly from the models fit on a single thread.
+     */
+    @Advanced
+    @Argument(fullName = "modeling-threads", doc = "Number of threads used to fit the Gaussian mixture models", minValue = 1, optional = true)
+    public int NUM_MODELING_THREADS = 1;
+
+    /**
+     * When this flag is set, the annotations of the variants are kept in single (float) rather than double precision,
+     * which halves the memory they take. The normalized annotations, and therefore the models and the VQSLOD scores,
+     * may then differ in their last digits from those computed in double precision.
+     */
+    @Advanced
+    @Argument(fullName = "single-precision-annotations", doc = "Keep the annotations of the variants in single precision", optional = true)
+    public boolean SINGLE_PRECISION_ANNOTATIONS = false;
+
     /**
      * If a variant has annotations more than -std standard deviations away from mean, it won't be used for building
      * the Gaussian mixture model.
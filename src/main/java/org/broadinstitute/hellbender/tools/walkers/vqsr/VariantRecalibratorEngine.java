@@ -6,6 +6,7 @@ import org.apache.logging.log4j.LogManager;
 import org.broadinstitute.hellbender.utils.Utils;
 
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 public class VariantRecalibratorEngine {
 
@@ -40,11 +41,21 @@ public class VariantRecalibratorEngine {
         final GaussianMixtureModel model = new GaussianMixtureModel(
                 maxGaussians,
                 data.size(),
-                data.get(0).annotations.length,
+                data.get(0).getNumAnnotations(),
                 VRAC.SHRINKAGE,
                 VRAC.DIRICHLET_PARAMETER,
                 VRAC.PRIOR_COUNTS );
-        variationalBayesExpectationMaximization( model, data );
+        // Fit the model on a thread pool if more than one thread was requested:
+        final ForkJoinPool threadPool = VRAC.NUM_MODELING_THREADS > 1 ? new ForkJoinPool(VRAC.NUM_MODELING_THREADS) : null;
+        model.setThreadPool( threadPool );
+        try {
+            variationalBayesExpectationMaximization( model, data );
+        } finally {
+            model.setThreadPool( null );
+            if( threadPool != null ) {
+                threadPool.shutdown();
+            }
+        }
         return model;
     }
 
@@ -81,12 +92,12 @@ public class VariantRecalibratorEngine {
             int worstAnnotation = -1;
             double minProb = Double.MAX_VALUE;
             double worstValue = -1;
-            for( int iii = 0; iii < datum.annotations.length; iii++ ) {
+            for( int iii = 0; iii < datum.getNumAnnotations(); iii++ ) {
                 final Double goodProbLog10 = goodModel.evaluateDatumInOneDimension(datum, iii);
                 final Double badProbLog10 = badModel.evaluateDatumInOneDimension(datum, iii);
                 if( goodProbLog10 != null && badProbLog10 != null ) {
                     final double prob = goodProbLog10 - badProbLog10;
-                    if(prob < minProb) { minProb = prob; worstAnnotation = iii; worstValue = datum.annotations[iii];}
+                    if(prob < minProb) { minProb = prob; worstAnnotation = iii; worstValue = datum.getAnnotation(iii);}
                 }
             }
             datum.worstAnnotation = worstAnnotation;
@@ -0,0 +1,58 @@
+package org.broadinstitute.hellbender.utils.bwa;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Accumulates the time spent in each stage of aligning batches of reads: getting the sequences of the reads (unless it
+ * is part of the alignment), aligning them with BWA, and making the output reads from the alignments. Safe to update
+ * from several threads.
+ */
+public final class AlignmentStageTimes {
+    private final AtomicLong numReads = new AtomicLong();
+    private final AtomicLong numBatches = new AtomicLong();
+    private final AtomicLong sequenceExtractionNanos = new AtomicLong();
+    private final AtomicLong alignmentNanos = new AtomicLong();
+    private final AtomicLong conversionNanos = new AtomicLong();
+
+    public void addBatch(final int batchSize) {
+        numReads.addAndGet(batchSize);
+        numBatches.incrementAndGet();
+    }
+
+    public void addSequenceExtraction(final long nanos) {
+        sequenceExtractionNanos.addAndGet(nanos);
+    }
+
+    public void addAlignment(final long nanos) {
+        alignmentNanos.addAndGet(nanos);
+    }
+
+    public void addConversion(final long nanos) {
+        conversionNanos.addAndGet(nanos);
+    }
+
+    public long getNumReads() { return numReads.get(); }
+
+    public long getNumBatches() { return numBatches.get(); }
+
+    public long getSequenceExtractionNanos() { return sequenceExtractionNanos.get(); }
+
+    public long getAlignmentNanos() { return alignmentNanos.get(); }
+
+    public long getConversionNanos() { return conversionNanos.get(); }
+
+    @Override
+    public String toString() {
+        // the sequences aren't always got separately from the alignment
+        final String sequenceExtraction = getSequenceExtractionNanos() == 0 ? "" :
+                String.format("%.3fs getting sequences, ", toSeconds(getSequenceExtractionNanos()));
+        return String.format("%d reads in %d batches: %s%.3fs aligning, %.3fs making output reads",
+                getNumReads(), getNumBatches(), sequenceExtraction, toSeconds(getAlignmentNanos()),
+                toSeconds(getConversionNanos()));
+    }
+
+    private static double toSeconds(final long nanos) {
+        return nanos / (double)TimeUnit.SECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,199 @@
+package org.broadinstitute.hellbender.utils.bwa;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.spark.TaskContext;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Aligns the reads of an iterator in batches of bounded size, rather than all at once, and returns the aligned reads
+ * of each batch as soon as the batch is done.
+ *
+ * <p>
+ *     Only one batch of input reads and one batch of aligned reads are held in memory at any time, so the memory used
+ *     doesn't depend on the number of input reads. The next batch is aligned on a background thread while the
+ *     alignments of the current batch are converted to output reads and consumed. The input reads are always read on
+ *     the thread calling {@link #hasNext()} and {@link #next()}.
+ * </p>
+ * <p>
+ *     Note that BWA estimates the insert size distribution of paired reads from each batch it is given, so for paired
+ *     alignment the results can depend on the batch size. A batch size of 0 aligns all the reads as a single batch.
+ * </p>
+ * <p>
+ *     The time spent aligning the reads, and making the output reads, is accumulated in {@link #getStageTimes()}, and
+ *     logged at debug level once all the reads have been aligned. The aligner is given the reads rather than copies of
+ *     their sequences, so that it can read the bases of each read without copying them (see
+ *     {@link GATKRead#getBasesNoCopy()}); the time spent getting the sequences is part of the alignment time.
+ * </p>
+ * <p>
+ *     The background thread may still be aligning a batch when the reads are not all consumed, so the iterator must be
+ *     closed if it isn't drained. Within a Spark task this is done automatically when the task completes. The iterator
+ *     must be created after the index it aligns with is taken for the task (see
+ *     {@link BwaMemIndexCache#getInstanceForTask}), as Spark calls the completion listeners of a task in the reverse
+ *     order of their registration, and the background thread must be stopped before the index is released.
+ * </p>
+ */
+public final class BatchedAlignmentIterator implements Iterator<GATKRead>, AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(BatchedAlignmentIterator.class);
+
+    private final Iterator<GATKRead> inputReads;
+    private final int batchSize;
+    private final Function<List<GATKRead>, List<List<BwaMemAlignment>>> aligner;
+    private final BiFunction<List<GATKRead>, List<List<BwaMemAlignment>>, List<GATKRead>> converter;
+    private final AlignmentStageTimes stageTimes = new AlignmentStageTimes();
+
+    private ExecutorService executor;
+    private boolean started;
+    // the batch being aligned, and its alignments
+    private List<GATKRead> pendingReads;
+    private Future<List<List<BwaMemAlignment>>> pendingAlignments;
+    private Iterator<GATKRead> outputReads = Collections.emptyIterator();
+
+    /**
+     * @param inputReads the reads to align
+     * @param batchSize the maximum number of reads of each batch, or 0 to align all the reads as a single batch.
+     *                  For paired alignment, this must be even so that the two reads of a pair are in the same batch.
+     * @param aligner aligns a batch of reads, returning the alignments of each read. May be run on another thread, but
+     *                only on one batch at a time.
+     * @param converter makes the output reads of a batch from its reads and their alignments
+     */
+    public BatchedAlignmentIterator(final Iterator<GATKRead> inputReads, final int batchSize,
+                                    final Function<List<GATKRead>, List<List<BwaMemAlignment>>> aligner,
+                                    final BiFunction<List<GATKRead>, List<List<BwaMemAlignment>>, List<GATKRead>> converter) {
+        Utils.validateArg(batchSize >= 0, "the batch size cannot be negative");
+        this.inputReads = Utils.nonNull(inputReads);
+        this.batchSize = batchSize;
+        this.aligner = Utils.nonNull(aligner);
+        this.converter = Utils.nonNull(converter);
+        final TaskContext taskContext = TaskContext.get();
+        if ( taskContext != null ) {
+            taskContext.addTaskCompletionListener(context -> close());
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if ( !started ) {
+            started = true;
+            if ( inputReads.hasNext() ) {
+                // the first batch is aligned on this thread, as there's nothing else to do meanwhile
+                pendingReads = nextBatch();
+                pendingAlignments = CompletableFuture.completedFuture(align(pendingReads));
+            }
+        }
+        while ( !outputReads.hasNext() && pendingReads != null ) {
+            final List<GATKRead> reads = pendingReads;
+            final List<List<BwaMemAlignment>> alignments = getAlignments(pendingAlignments);
+            pendingReads = null;
+            pendingAlignments = null;
+            if ( inputReads.hasNext() ) {
+                pendingReads = nextBatch();
+                final List<GATKRead> readsToAlign = pendingReads;
+                pendingAlignments = getExecutor().submit(() -> align(readsToAlign));
+            } else if ( executor != null ) {
+                executor.shutdown();
+            }
+            final long start = System.nanoTime();
+            outputReads = converter.apply(reads, alignments).iterator();
+            stageTimes.addConversion(System.nanoTime() - start);
+            if ( pendingReads == null ) {
+                logger.debug("Aligned " + stageTimes);
+            }
+        }
+        return outputReads.hasNext();
+    }
+
+    /**
+     * @return the time spent so far in each stage of the alignment
+     */
+    public AlignmentStageTimes getStageTimes() {
+        return stageTimes;
+    }
+
+    private List<List<BwaMemAlignment>> align(final List<GATKRead> reads) {
+        final long start = System.nanoTime();
+        final List<List<BwaMemAlignment>> alignments = aligner.apply(reads);
+        stageTimes.addAlignment(System.nanoTime() - start);
+        stageTimes.addBatch(reads.size());
+        return alignments;
+    }
+
+    @Override
+    public GATKRead next() {
+        if ( !hasNext() ) {
+            throw new NoSuchElementException("No more aligned reads");
+        }
+        return outputReads.next();
+    }
+
+    private List<GATKRead> nextBatch() {
+        final List<GATKRead> batch = new ArrayList<>(batchSize == 0 ? 16 : batchSize);
+        while ( inputReads.hasNext() && (batchSize == 0 || batch.size() < batchSize) ) {
+            batch.add(inputReads.next());
+        }
+        return batch;
+    }
+
+    private ExecutorService getExecutor() {
+        if ( executor == null ) {
+            executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                    .setNameFormat("batched-alignment-%d")
+                    .setDaemon(true)
+                    .build());
+        }
+        return executor;
+    }
+
+    private void shutdownNow() {
+        if ( executor != null ) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Stops aligning, and waits for the batch being aligned on the background thread, if any, to be done: BWA can't be
+     * interrupted in the middle of a batch. No more reads may be taken from the iterator once it's closed.
+     */
+    @Override
+    public void close() {
+        started = true;
+        pendingReads = null;
+        pendingAlignments = null;
+        outputReads = Collections.emptyIterator();
+        if ( executor != null ) {
+            executor.shutdownNow();
+            try {
+                while ( !executor.awaitTermination(1, TimeUnit.MINUTES) ) {
+                    logger.warn("Still waiting for the alignment of a batch of reads to finish");
+                }
+            } catch ( final InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                throw new GATKException("Interrupted while waiting for the alignment of a batch of reads to finish", e);
+            }
+        }
+    }
+
+    private List<List<BwaMemAlignment>> getAlignments(final Future<List<List<BwaMemAlignment>>> alignments) {
+        try {
+            return alignments.get();
+        } catch ( final ExecutionException e ) {
+            shutdownNow();
+            if ( e.getCause() instanceof RuntimeException ) {
+                throw (RuntimeException)e.getCause();
+            }
+            throw new GATKException("Alignment of a batch of reads failed", e.getCause());
+        } catch ( final InterruptedException e ) {
+            shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while waiting for the alignment of a batch of reads", e);
+        }
+    }
+}
@@ -5,6 +5,8 @@ import htsjdk.samtools.util.SequenceUtil;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVUtils;
 import org.broadinstitute.hellbender.utils.BaseUtils;
 import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.SAMRecordToGATKReadAdapter;
 
 import java.util.*;
 import java.util.stream.Stream;
@@ -92,6 +94,40 @@ public class BwaMemAlignmentUtils {
         return samRecord;
     }
 
+    /**
+     * Makes the aligned reads for a batch of unaligned reads and their alignments: one headerless read for each
+     * alignment, with SA tags linking the primary and supplementary alignments of each read.
+     *
+     * @param inputReads the unaligned reads
+     * @param allAlignments the alignments of each read, in the same order as the reads
+     * @param refNames the names of the reference contigs, as given by {@link BwaMemIndex#getReferenceContigNames()}
+     * @param header the header of the aligned reads, with the sequence dictionary of the reference
+     */
+    public static List<GATKRead> toAlignedReads( final List<GATKRead> inputReads,
+                                                 final List<List<BwaMemAlignment>> allAlignments,
+                                                 final List<String> refNames, final SAMFileHeader header ) {
+        final int nReads = inputReads.size();
+        final List<GATKRead> outputReads = new ArrayList<>(allAlignments.stream().mapToInt(List::size).sum());
+        for ( int idx = 0; idx != nReads; ++idx ) {
+            final GATKRead originalRead = inputReads.get(idx);
+            final String readName = originalRead.getName();
+            final byte[] bases = originalRead.getBases();
+            final byte[] quals = originalRead.getBaseQualities();
+            final String readGroup = originalRead.getReadGroup();
+            final List<BwaMemAlignment> alignments = allAlignments.get(idx);
+            final Map<BwaMemAlignment,String> saTagMap = createSATags(alignments,refNames);
+            for ( final BwaMemAlignment alignment : alignments ) {
+                final SAMRecord samRecord =
+                        applyAlignment(readName, bases, quals, readGroup, alignment, refNames, header, false, true);
+                final GATKRead rec = SAMRecordToGATKReadAdapter.headerlessReadAdapter(samRecord);
+                final String saTag = saTagMap.get(alignment);
+                if ( saTag != null ) rec.setAttribute("SA", saTag);
+                outputReads.add(rec);
+            }
+        }
+        return outputReads;
+    }
+
     /**
      * Produces an SA tag for each primary line and supplemental alignment as a map from alignment to tag value.
      */
@@ -1,33 +1,202 @@
 package org.broadinstitute.hellbender.utils.bwa;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.spark.TaskContext;
 import org.apache.spark.api.java.JavaSparkContext;
-import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.utils.Utils;
 
+import java.io.File;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Manage a global collection of {@link BwaMemIndex} instances.
+ * <p>
+ *     Instances are reference counted: each call to {@link #getInstance} takes a reference to the instance, which must
+ *     be given back with {@link #releaseInstance} once the caller is done aligning with it. Within a Spark task,
+ *     {@link #getInstanceForTask} releases the reference automatically when the task completes. An instance is never
+ *     closed while it's referenced, so several tools or jobs sharing an executor can safely use the same or different
+ *     index images at the same time.
+ * </p>
+ * <p>
+ *     Instances that are no longer referenced stay open, so that later tasks, stages and jobs using the same image don't
+ *     pay for loading it again, as long as the images fit within the memory budget (see {@link #setMemoryBudget}).
+ *     When loading an image would exceed the budget, the least recently used unreferenced instances are closed first.
+ * </p>
+ * <p>
+ *     Spark tools pass their budget with each task (see {@link #getInstanceForTask(String, long)}) rather than set the
+ *     budget of the executors: a job can't be sure to reach every executor, and the budget would be left to the later
+ *     tools and jobs sharing them.
+ * </p>
  */
 public class BwaMemIndexCache {
 
-    private final static Map<String, BwaMemIndex> instances = new HashMap<>();
+    private static final Logger logger = LogManager.getLogger(BwaMemIndexCache.class);
 
     /**
-     * Returns a {@link BwaMemIndex} instance that corresponds to  given index image file.
+     * The default memory budget: no limit, i.e. unreferenced instances are only closed by {@link #closeInstances}.
+     */
+    public static final long UNLIMITED_MEMORY_BUDGET = Long.MAX_VALUE;
+
+    // in access order, so that the least recently used instance comes first
+    private final static Map<String, CachedIndex> instances = new LinkedHashMap<>(16, 0.75f, true);
+    private final static Map<BwaMemIndex, CachedIndex> instancesByIndex = new IdentityHashMap<>();
+
+    private static long memoryBudget = UNLIMITED_MEMORY_BUDGET;
+    private static long residentBytes = 0;
+    private static long numHits = 0;
+    private static long numLoads = 0;
+    private static long loadNanos = 0;
+    private static long numEvictions = 0;
+
+    private static final class CachedIndex {
+        private final String indexImageFile;
+        private final BwaMemIndex index;
+        private final long sizeInBytes;
+        private int refCount;
+
+        private CachedIndex( final String indexImageFile, final BwaMemIndex index, final long sizeInBytes ) {
+            this.indexImageFile = indexImageFile;
+            this.index = index;
+            this.sizeInBytes = sizeInBytes;
+        }
+    }
+
+    /**
+     * Returns a {@link BwaMemIndex} instance that corresponds to  given index image file, loading it if needed.
+     * <p>
+     *     The caller holds a reference to the instance until it calls {@link #releaseInstance}.
+     * </p>
      * @param indexImageFile the target image file.
      * @return never {@code null}.
      */
     public static synchronized BwaMemIndex getInstance( final String indexImageFile ) {
+        return getInstance(indexImageFile, memoryBudget);
+    }
+
+    /**
+     * Returns a {@link BwaMemIndex} instance like {@link #getInstance(String)}, but with the given memory budget instead
+     * of the one set for this VM.
+     * @param indexImageFile the target image file.
+     * @param budget the maximum total size in bytes of the instances kept open when this one is loaded, or
+     *               {@link #UNLIMITED_MEMORY_BUDGET}.
+     * @return never {@code null}.
+     */
+    public static synchronized BwaMemIndex getInstance( final String indexImageFile, final long budget ) {
         Utils.nonNull(indexImageFile, "the index image file name provided cannot be null");
-        if (!instances.containsKey(indexImageFile)) {
-            instances.put(indexImageFile, new BwaMemIndex(indexImageFile));
+        Utils.validateArg(budget >= 0, "the memory budget cannot be negative");
+        CachedIndex cached = instances.get(indexImageFile);
+        if (cached != null) {
+            numHits++;
+        } else {
+            final long sizeInBytes = new File(indexImageFile).length();
+            evictUnreferenced(budget - sizeInBytes);
+            final long start = System.nanoTime();
+            final BwaMemIndex index = new BwaMemIndex(indexImageFile);
+            final long elapsed = System.nanoTime() - start;
+            cached = new CachedIndex(indexImageFile, index, sizeInBytes);
+            instances.put(indexImageFile, cached);
+            instancesByIndex.put(index, cached);
+            residentBytes += sizeInBytes;
+            numLoads++;
+            loadNanos += elapsed;
+            logger.info(String.format("Loaded BWA index image %s (%d bytes) in %.3fs; %s",
+                    indexImageFile, sizeInBytes, elapsed / (double)TimeUnit.SECONDS.toNanos(1), getMetrics()));
+            if (residentBytes > budget) {
+                logger.warn("The BWA index images in use exceed the memory budget of " + budget + " bytes");
+            }
         }
-        return instances.get(indexImageFile);
+        cached.refCount++;
+        return cached.index;
+    }
+
+    /**
+     * Returns a {@link BwaMemIndex} instance like {@link #getInstance}, but when called within a Spark task, the reference
+     * is released automatically when the task completes, whether it succeeds or fails. Outside a Spark task, this is the
+     * same as {@link #getInstance}.
+     * @param indexImageFile the target image file.
+     * @return never {@code null}.
+     */
+    public static BwaMemIndex getInstanceForTask( final String indexImageFile ) {
+        return getInstanceForTask(indexImageFile, getMemoryBudget());
     }
 
     /**
-     * Closes an index instance in the cache given its index file name.
+     * Returns a {@link BwaMemIndex} instance like {@link #getInstanceForTask(String)}, but with the given memory budget
+     * instead of the one set for this VM, both when the instance is loaded and when the reference is released.
+     * @param indexImageFile the target image file.
+     * @param budget the maximum total size in bytes of the instances kept open, or {@link #UNLIMITED_MEMORY_BUDGET}.
+     * @return never {@code null}.
+     */
+    public static BwaMemIndex getInstanceForTask( final String indexImageFile, final long budget ) {
+        final BwaMemIndex index = getInstance(indexImageFile, budget);
+        final TaskContext taskContext = TaskContext.get();
+        if (taskContext != null) {
+            taskContext.addTaskCompletionListener(context -> releaseInstance(index, budget));
+        }
+        return index;
+    }
+
+    /**
+     * Gives back a reference taken by {@link #getInstance}. The instance stays open for later use, unless the memory
+     * budget is exceeded.
+     * <p>
+     *     An attempt to release an instance that is not present in the cache, or that is not referenced, won't have any effect.
+     * </p>
+     * @param instance the instance to release.
+     */
+    public static synchronized void releaseInstance( final BwaMemIndex instance ) {
+        releaseInstance(instance, memoryBudget);
+    }
+
+    /**
+     * Gives back a reference like {@link #releaseInstance(BwaMemIndex)}, but with the given memory budget instead of
+     * the one set for this VM.
+     * @param instance the instance to release.
+     * @param budget the maximum total size in bytes of the instances kept open, or {@link #UNLIMITED_MEMORY_BUDGET}.
+     */
+    public static synchronized void releaseInstance( final BwaMemIndex instance, final long budget ) {
+        Utils.nonNull(instance, "the input index cannot be null");
+        Utils.validateArg(budget >= 0, "the memory budget cannot be negative");
+        final CachedIndex cached = instancesByIndex.get(instance);
+        if (cached != null && cached.refCount > 0) {
+            cached.refCount--;
+            evictUnreferenced(budget);
+        }
+    }
+
+    /**
+     * Sets the maximum total size of the index images kept open in this VM. Unreferenced instances are closed, least
+     * recently used first, to keep within the budget; instances in use are never closed, so the budget may be exceeded
+     * while they are.
+     * @param bytes the budget in bytes, or {@link #UNLIMITED_MEMORY_BUDGET}.
+     */
+    public static synchronized void setMemoryBudget( final long bytes ) {
+        Utils.validateArg(bytes >= 0, "the memory budget cannot be negative");
+        memoryBudget = bytes;
+        evictUnreferenced(memoryBudget);
+    }
+
+    public static synchronized long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * @return a snapshot of the number of instances and bytes held, and of the hits, loads and evictions so far.
+     */
+    public static synchronized Metrics getMetrics() {
+        int numReferenced = 0;
+        for (final CachedIndex cached : instances.values()) {
+            if (cached.refCount > 0) {
+                numReferenced++;
+            }
+        }
+        return new Metrics(instances.size(), numReferenced, residentBytes, numHits, numLoads, loadNanos, numEvictions);
+    }
+
+    /**
+     * Closes an index instance in the cache given its index file name, whether or not it's referenced.
      * <p>
      *     Notice that you need to pass in exactly the same file name that was used when invoking {@link #getInstance}.
      * </p>
@@ -39,14 +208,14 @@ public class BwaMemIndexCache {
      */
     public static synchronized void closeInstance(final String indexImageFile) {
         Utils.nonNull(indexImageFile, "the input image file cannot be null");
-        if (instances.containsKey(indexImageFile)) {
-            instances.get(indexImageFile).close();
-            instances.remove(indexImageFile);
+        final CachedIndex cached = instances.get(indexImageFile);
+        if (cached != null) {
+            close(cached);
         }
     }
 
     /**
-     * Closes an index instance.
+     * Closes an index instance, whether or not it's referenced.
      *<p>
      *     An attempt to close a instance that is not present in the cache, won't have any effect.
      *     Thus if the input instance is not part of the cache an is not closed, will remind unclosed.
@@ -55,32 +224,155 @@ public class BwaMemIndexCache {
      */
     public static synchronized void closeInstance(final BwaMemIndex instance) {
         Utils.nonNull(instance, "the input index cannot be null");
-        if (instances.values().contains(instance)) {
-            instance.close();
-            instances.values().remove(instance);
+        final CachedIndex cached = instancesByIndex.get(instance);
+        if (cached != null) {
+            close(cached);
         }
     }
 
     /**
-     * Closes all instances in the VM.
+     * Closes all the instances in the VM that are not referenced.
+     * <p>
+     *     Instances still in use (for example by another job sharing the VM) are left open; they are subject to the
+     *     memory budget once they are released.
+     * </p>
      */
     public static synchronized void closeInstances() {
-        final Iterator<BwaMemIndex> it = instances.values().iterator();
-        while (it.hasNext()) {
-            it.next().close();
-            it.remove();
-        }
+        evictUnreferenced(0);
     }
 
     /**
-     * Closes all instances in all the VMs involved in the spark context provided.
+     * Closes the instances in all the VMs involved in the spark context provided, except those in use.
+     * <p>
+     *     If a memory budget is set, unreferenced instances that fit within it are kept open, so that later jobs can
+     *     reuse them; otherwise all the unreferenced instances are closed (see {@link #closeInstances}).
+     * </p>
      * @param ctx the spark context.
      */
     public static void closeAllDistributedInstances( final JavaSparkContext ctx ) {
         Utils.nonNull(ctx, "the context provided cannot be null");
+        runOnAllExecutors(ctx, BwaMemIndexCache::trimInstances);
+    }
+
+    /**
+     * Closes the instances in all the VMs involved in the spark context provided like
+     * {@link #closeAllDistributedInstances(JavaSparkContext)}, but with the given memory budget instead of the one set
+     * for each VM.
+     * @param ctx the spark context.
+     * @param budget the maximum total size in bytes of the unreferenced instances kept open, or {@link #UNLIMITED_MEMORY_BUDGET}.
+     */
+    public static void closeAllDistributedInstances( final JavaSparkContext ctx, final long budget ) {
+        Utils.nonNull(ctx, "the context provided cannot be null");
+        Utils.validateArg(budget >= 0, "the memory budget cannot be negative");
+        runOnAllExecutors(ctx, () -> trimInstances(budget));
+    }
+
+    /**
+     * Closes the instances in the VM that are not referenced, except those that fit within the memory budget if one is set.
+     */
+    public static synchronized void trimInstances() {
+        trimInstances(memoryBudget);
+    }
+
+    /**
+     * Closes the instances in the VM that are not referenced, except those that fit within the given memory budget
+     * unless it's {@link #UNLIMITED_MEMORY_BUDGET}.
+     * @param budget the maximum total size in bytes of the unreferenced instances kept open, or {@link #UNLIMITED_MEMORY_BUDGET}.
+     */
+    public static synchronized void trimInstances( final long budget ) {
+        Utils.validateArg(budget >= 0, "the memory budget cannot be negative");
+        if (budget == UNLIMITED_MEMORY_BUDGET) {
+            closeInstances();
+        } else {
+            evictUnreferenced(budget);
+        }
+    }
+
+    private static void runOnAllExecutors( final JavaSparkContext ctx, final SerializableRunnable task ) {
         int nJobs = ctx.defaultParallelism();
         final List<Integer> jobList = new ArrayList<>(nJobs);
         for ( int idx = 0; idx != nJobs; ++idx ) jobList.add(idx);
-        ctx.parallelize(jobList, nJobs).foreach(idx -> closeInstances());
+        ctx.parallelize(jobList, nJobs).foreach(idx -> task.run());
+    }
+
+    @FunctionalInterface
+    private interface SerializableRunnable extends Runnable, java.io.Serializable {}
+
+    // closes unreferenced instances, least recently used first, until at most the given number of bytes are resident
+    private static void evictUnreferenced( final long maxResidentBytes ) {
+        final Iterator<CachedIndex> it = instances.values().iterator();
+        while (residentBytes > maxResidentBytes && it.hasNext()) {
+            final CachedIndex cached = it.next();
+            if (cached.refCount == 0) {
+                it.remove();
+                instancesByIndex.remove(cached.index);
+                residentBytes -= cached.sizeInBytes;
+                cached.index.close();
+                numEvictions++;
+                logger.info("Closed BWA index image " + cached.indexImageFile + "; " + getMetrics());
+            }
+        }
+    }
+
+    private static void close( final CachedIndex cached ) {
+        if (cached.refCount > 0) {
+            logger.warn("Closing BWA index image " + cached.indexImageFile + " while it's referenced " + cached.refCount + " times");
+        }
+        instances.remove(cached.indexImageFile);
+        instancesByIndex.remove(cached.index);
+        residentBytes -= cached.sizeInBytes;
+        cached.index.close();
+    }
+
+    /**
+     * A snapshot of the state of the cache in this VM.
+     */
+    public static final class Metrics {
+        private final int numInstances;
+        private final int numReferencedInstances;
+        private final long residentBytes;
+        private final long numHits;
+        private final long numLoads;
+        private final long loadNanos;
+        private final long numEvictions;
+
+        private Metrics( final int numInstances, final int numReferencedInstances, final long residentBytes,
+                         final long numHits, final long numLoads, final long loadNanos, final long numEvictions ) {
+            this.numInstances = numInstances;
+            this.numReferencedInstances = numReferencedInstances;
+            this.residentBytes = residentBytes;
+            this.numHits = numHits;
+            this.numLoads = numLoads;
+            this.loadNanos = loadNanos;
+            this.numEvictions = numEvictions;
+        }
+
+        /** The number of open instances. */
+        public int getNumInstances() { return numInstances; }
+
+        /** The number of open instances currently in use. */
+        public int getNumReferencedInstances() { return numReferencedInstances; }
+
+        /** The total size of the image files of the open instances. */
+        public long getResidentBytes() { return residentBytes; }
+
+        /** The number of requests for an instance that was already open. */
+        public long getNumHits() { return numHits; }
+
+        /** The number of instances loaded. */
+        public long getNumLoads() { return numLoads; }
+
+        /** The total time spent loading instances. */
+        public long getLoadNanos() { return loadNanos; }
+
+        /** The number of unreferenced instances closed to keep within the memory budget, or by {@link #closeInstances}. */
+        public long getNumEvictions() { return numEvictions; }
+
+        @Override
+        public String toString() {
+            return String.format("%d BWA index images open (%d in use, %d bytes); %d hits, %d loads in %.3fs, %d evictions",
+                    numInstances, numReferencedInstances, residentBytes, numHits, numLoads,
+                    loadNanos / (double)TimeUnit.SECONDS.toNanos(1), numEvictions);
+        }
     }
 }
@@ -0,0 +1,282 @@
+package org.broadinstitute.hellbender.utils.genotyper;
+
+import org.broadinstitute.hellbender.utils.Utils;
+
+/**
+ * Read-likelihoods of a single sample in a {@link ReadLikelihoods} collection.
+ *
+ * <p>
+ *     Likelihoods are kept in a single flat array indexed first by allele and then by read, so that
+ *     the likelihoods of all reads given an allele are contiguous, either in double or in single (float)
+ *     precision. The latter halves the memory taken by the collection at the cost of about 7 significant
+ *     digits of precision, which is plenty for genotyping but changes the last digits of the likelihoods.
+ * </p>
+ *
+ * <p>
+ *     A store can also be a read-only view that marginalizes the likelihoods of another store into a new set of
+ *     alleles (and possibly a subset of its reads) on the fly, as done by {@link ReadLikelihoods#marginalize}.
+ *     As the view does not copy the likelihoods, a store is {@link #freeze frozen} when a view (or a copy)
+ *     is made of it, and may never be modified afterwards. The {@link ReadLikelihoods} collections that
+ *     refer to a store that is not {@link #isWritable writable} must replace it with a {@link #copy} before
+ *     changing any likelihood in it.
+ * </p>
+ */
+abstract class LikelihoodStore {
+
+    protected final int alleleCount;
+
+    protected final int readCount;
+
+    private boolean frozen = false;
+
+    private LikelihoodStore(final int alleleCount, final int readCount) {
+        this.alleleCount = alleleCount;
+        this.readCount = readCount;
+    }
+
+    /**
+     * Creates a new writable store with all likelihoods set to 0.
+     *
+     * @param singlePrecision whether to keep the likelihoods as floats rather than doubles.
+     */
+    static LikelihoodStore create(final int alleleCount, final int readCount, final boolean singlePrecision) {
+        Utils.validateArg(alleleCount >= 0, "the allele count cannot be negative");
+        Utils.validateArg(readCount >= 0, "the read count cannot be negative");
+        Utils.validateArg((long) alleleCount * readCount <= Integer.MAX_VALUE, () ->
+                "too many likelihoods in a sample: " + alleleCount + " alleles times " + readCount + " reads");
+        return singlePrecision ? new FloatStore(alleleCount, readCount) : new DoubleStore(alleleCount, readCount);
+    }
+
+    final int alleleCount() {
+        return alleleCount;
+    }
+
+    final int readCount() {
+        return readCount;
+    }
+
+    abstract boolean isSinglePrecision();
+
+    abstract double get(final int alleleIndex, final int readIndex);
+
+    /**
+     * Changes a likelihood; only supported by {@link #isWritable writable} stores.
+     */
+    abstract void set(final int alleleIndex, final int readIndex, final double value);
+
+    /**
+     * Copies the likelihoods of all reads given an allele into an array.
+     */
+    void copyAlleleLikelihoods(final int alleleIndex, final double[] dest, final int offset) {
+        for (int r = 0; r < readCount; r++) {
+            dest[offset + r] = get(alleleIndex, r);
+        }
+    }
+
+    /**
+     * Whether the likelihoods in this store can be changed with {@link #set}.
+     */
+    boolean isWritable() {
+        return !frozen;
+    }
+
+    /**
+     * Prevents any further change of this store, so that it can be shared with views and copies.
+     */
+    final void freeze() {
+        frozen = true;
+    }
+
+    /**
+     * Returns a new writable store with the same precision and likelihoods as this one.
+     */
+    LikelihoodStore copy() {
+        return resize(alleleCount, readCount, 0.0);
+    }
+
+    /**
+     * Returns a new writable store with the same precision as this one but a different number of alleles and reads.
+     *
+     * @param fillValue likelihood given to the alleles or reads beyond those of this store.
+     */
+    final LikelihoodStore resize(final int newAlleleCount, final int newReadCount, final double fillValue) {
+        final LikelihoodStore result = create(newAlleleCount, newReadCount, isSinglePrecision());
+        final int commonAlleleCount = Math.min(alleleCount, newAlleleCount);
+        final int commonReadCount = Math.min(readCount, newReadCount);
+        for (int a = 0; a < newAlleleCount; a++) {
+            final int firstFilled = a < commonAlleleCount ? commonReadCount : 0;
+            for (int r = 0; r < firstFilled; r++) {
+                result.set(a, r, get(a, r));
+            }
+            if (fillValue != 0.0) {
+                for (int r = firstFilled; r < newReadCount; r++) {
+                    result.set(a, r, fillValue);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new writable store with the same precision and alleles as this one but without some of its reads.
+     *
+     * @param removeIndex which reads to remove, indexed by read.
+     * @param newReadCount number of reads that are not removed.
+     */
+    final LikelihoodStore removeReads(final boolean[] removeIndex, final int newReadCount) {
+        final LikelihoodStore result = create(alleleCount, newReadCount, isSinglePrecision());
+        for (int a = 0; a < alleleCount; a++) {
+            for (int r = 0, newR = 0; r < readCount; r++) {
+                if (!removeIndex[r]) {
+                    result.set(a, newR++, get(a, r));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a read-only view of the marginal likelihoods of a new set of alleles, each of them corresponding to
+     * some of the alleles of this store. The marginal likelihood of a read given a new allele is the maximum
+     * (ignoring NaNs) of its likelihoods given the corresponding old alleles, or -Inf if there is none.
+     *
+     * <p>This store is frozen, as the view keeps referring to its likelihoods.</p>
+     *
+     * @param oldAlleleIndicesByNewAllele for each new allele, the indices of the corresponding alleles in this store.
+     * @param readIndices indices of the reads of this store that are kept in the view, or {@code null} to keep them all.
+     */
+    final LikelihoodStore marginalize(final int[][] oldAlleleIndicesByNewAllele, final int[] readIndices) {
+        freeze();
+        return new MarginalView(this, oldAlleleIndicesByNewAllele, readIndices);
+    }
+
+    /**
+     * Number of bytes taken by the likelihoods held by this store.
+     */
+    abstract long valueBytes();
+
+    private static final class DoubleStore extends LikelihoodStore {
+        private final double[] values;
+
+        private DoubleStore(final int alleleCount, final int readCount) {
+            super(alleleCount, readCount);
+            values = new double[alleleCount * readCount];
+        }
+
+        @Override
+        boolean isSinglePrecision() {
+            return false;
+        }
+
+        @Override
+        double get(final int alleleIndex, final int readIndex) {
+            return values[alleleIndex * readCount + readIndex];
+        }
+
+        @Override
+        void set(final int alleleIndex, final int readIndex, final double value) {
+            Utils.validate(isWritable(), "cannot change the likelihoods of a shared store");
+            values[alleleIndex * readCount + readIndex] = value;
+        }
+
+        @Override
+        void copyAlleleLikelihoods(final int alleleIndex, final double[] dest, final int offset) {
+            System.arraycopy(values, alleleIndex * readCount, dest, offset, readCount);
+        }
+
+        @Override
+        LikelihoodStore copy() {
+            final DoubleStore result = new DoubleStore(alleleCount, readCount);
+            System.arraycopy(values, 0, result.values, 0, values.length);
+            return result;
+        }
+
+        @Override
+        long valueBytes() {
+            return (long) values.length * Double.BYTES;
+        }
+    }
+
+    private static final class FloatStore extends LikelihoodStore {
+        private final float[] values;
+
+        private FloatStore(final int alleleCount, final int readCount) {
+            super(alleleCount, readCount);
+            values = new float[alleleCount * readCount];
+        }
+
+        @Override
+        boolean isSinglePrecision() {
+            return true;
+        }
+
+        @Override
+        double get(final int alleleIndex, final int readIndex) {
+            return values[alleleIndex * readCount + readIndex];
+        }
+
+        @Override
+        void set(final int alleleIndex, final int readIndex, final double value) {
+            Utils.validate(isWritable(), "cannot change the likelihoods of a shared store");
+            values[alleleIndex * readCount + readIndex] = (float) value;
+        }
+
+        @Override
+        LikelihoodStore copy() {
+            final FloatStore result = new FloatStore(alleleCount, readCount);
+            System.arraycopy(values, 0, result.values, 0, values.length);
+            return result;
+        }
+
+        @Override
+        long valueBytes() {
+            return (long) values.length * Float.BYTES;
+        }
+    }
+
+    private static final class MarginalView extends LikelihoodStore {
+        private final LikelihoodStore source;
+        private final int[][] oldAlleleIndicesByNewAllele;
+        private final int[] readIndices;
+
+        private MarginalView(final LikelihoodStore source, final int[][] oldAlleleIndicesByNewAllele, final int[] readIndices) {
+            super(oldAlleleIndicesByNewAllele.length, readIndices == null ? source.readCount : readIndices.length);
+            this.source = source;
+            this.oldAlleleIndicesByNewAllele = oldAlleleIndicesByNewAllele;
+            this.readIndices = readIndices;
+        }
+
+        @Override
+        boolean isSinglePrecision() {
+            return source.isSinglePrecision();
+        }
+
+        @Override
+        double get(final int alleleIndex, final int readIndex) {
+            final int sourceReadIndex = readIndices == null ? readIndex : readIndices[readIndex];
+            double result = Double.NEGATIVE_INFINITY;
+            for (final int oldAlleleIndex : oldAlleleIndicesByNewAllele[alleleIndex]) {
+                final double likelihood = source.get(oldAlleleIndex, sourceReadIndex);
+                if (likelihood > result) {
+                    result = likelihood;
+                }
+            }
+            return result;
+        }
+
+        @Override
+        void set(final int alleleIndex, final int readIndex, final double value) {
+            throw new IllegalStateException("cannot change the likelihoods of a marginalization view");
+        }
+
+        @Override
+        boolean isWritable() {
+            return false;
+        }
+
+        @Override
+        long valueBytes() {
+            return 0;
+        }
+    }
+}
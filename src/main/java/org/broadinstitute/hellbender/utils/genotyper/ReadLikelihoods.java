@@ -40,12 +40,21 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
     private final GATKRead[][] readsBySampleIndex;
 
     /**
-     * Indexed per sample, allele and finally read (within sample).
+     * Likelihoods indexed per sample, then allele and finally read (within sample).
      * <p>
-     *     valuesBySampleIndex[s][a][r] == lnLk(R_r | A_a) where R_r comes from Sample s.
+     *     valuesBySampleIndex[s].get(a, r) == lnLk(R_r | A_a) where R_r comes from Sample s.
      * </p>
+     * <p>
+     *     Stores may be shared with other collections (see {@link #copy} and {@link #marginalize}), so they
+     *     must be obtained through {@link #writableValues} before changing any likelihood.
+     * </p>
+     */
+    private final LikelihoodStore[] valuesBySampleIndex;
+
+    /**
+     * Whether likelihoods are kept in single rather than double precision.
      */
-    private final double[][][] valuesBySampleIndex;
+    private final boolean singlePrecision;
 
     /**
      * Sample list
@@ -106,23 +115,54 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
      * or {@code reads} is {@code null},
      *  or if they contain null values.
      */
-    @SuppressWarnings({"rawtypes", "unchecked"})
     public ReadLikelihoods(final SampleList samples,
                            final AlleleList<A> alleles,
                            final Map<String, List<GATKRead>> reads) {
+        this(samples, alleles, reads, false);
+    }
+
+    /**
+     * Constructs a new read-likelihood collection, possibly keeping the likelihoods in single precision.
+     *
+     * <p>
+     *     The initial likelihoods for all allele-read combinations are
+     *     0.
+     * </p>
+     *
+     * <p>
+     *     Single precision halves the memory taken by the likelihoods, but values are rounded to the
+     *     nearest float as they are set, so they are only accurate to about 7 significant digits.
+     *     Copies and marginalizations of the collection keep the same precision.
+     * </p>
+     *
+     * @param samples all supported samples in the collection.
+     * @param alleles all supported alleles in the collection.
+     * @param reads reads stratified per sample.
+     * @param singlePrecision whether to keep the likelihoods as floats rather than doubles.
+     *
+     * @throws IllegalArgumentException if any of {@code allele}, {@code samples}
+     * or {@code reads} is {@code null},
+     *  or if they contain null values.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public ReadLikelihoods(final SampleList samples,
+                           final AlleleList<A> alleles,
+                           final Map<String, List<GATKRead>> reads,
+                           final boolean singlePrecision) {
         Utils.nonNull(alleles, "allele list cannot be null");
         Utils.nonNull(samples, "sample list cannot be null");
         Utils.nonNull(reads, "read map cannot be null");
 
         this.samples = samples;
         this.alleles = alleles;
+        this.singlePrecision = singlePrecision;
 
         final int sampleCount = samples.numberOfSamples();
         final int alleleCount = alleles.numberOfAlleles();
 
         readsBySampleIndex = new GATKRead[sampleCount][];
         readListBySampleIndex = (List<GATKRead>[])new List[sampleCount];
-        valuesBySampleIndex = new double[sampleCount][][];
+        valuesBySampleIndex = new LikelihoodStore[sampleCount];
         referenceAlleleIndex = findReferenceAllele(alleles);
 
         readIndexBySampleIndex = new Object2IntMap[sampleCount];
@@ -139,9 +179,11 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
                             final SampleList samples,
                             final GATKRead[][] readsBySampleIndex,
                             final Object2IntMap<GATKRead>[] readIndex,
-                            final double[][][] values) {
+                            final LikelihoodStore[] values,
+                            final boolean singlePrecision) {
         this.samples = samples;
         this.alleles = alleles;
+        this.singlePrecision = singlePrecision;
         this.readsBySampleIndex = readsBySampleIndex;
         this.valuesBySampleIndex = values;
         this.readIndexBySampleIndex = readIndex;
@@ -171,19 +213,22 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
                 : reads.toArray(new GATKRead[reads.size()]);
         final int sampleReadCount = readsBySampleIndex[sampleIndex].length;
 
-        final double[][] sampleValues = new double[alleleCount][sampleReadCount];
-        valuesBySampleIndex[sampleIndex] = sampleValues;
+        valuesBySampleIndex[sampleIndex] = LikelihoodStore.create(alleleCount, sampleReadCount, singlePrecision);
     }
 
     /**
-     * Create an independent copy of this read-likelihoods collection
+     * Create an independent copy of this read-likelihoods collection.
+     *
+     * <p>
+     *     Likelihoods are shared by both collections until either of them changes them,
+     *     so copying is cheap.
+     * </p>
      */
     public ReadLikelihoods<A> copy() {
 
         final int sampleCount = samples.numberOfSamples();
-        final int alleleCount = alleles.numberOfAlleles();
 
-        final double[][][] newLikelihoodValues = new double[sampleCount][alleleCount][];
+        final LikelihoodStore[] newLikelihoodValues = new LikelihoodStore[sampleCount];
 
         @SuppressWarnings({"unchecked", "rawtypes"})
         final Object2IntMap<GATKRead>[] newReadIndexBySampleIndex = new Object2IntMap[sampleCount];
@@ -191,9 +236,8 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
 
         for (int s = 0; s < sampleCount; s++) {
             newReadsBySampleIndex[s] = readsBySampleIndex[s].clone();
-            for (int a = 0; a < alleleCount; a++) {
-                newLikelihoodValues[s][a] = valuesBySampleIndex[s][a].clone();
-            }
+            valuesBySampleIndex[s].freeze();
+            newLikelihoodValues[s] = valuesBySampleIndex[s];
         }
 
         // Finally we create the new read-likelihood
@@ -202,7 +246,30 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
                 samples,
                 newReadsBySampleIndex,
                 newReadIndexBySampleIndex,
-                newLikelihoodValues);
+                newLikelihoodValues,
+                singlePrecision);
+    }
+
+    /**
+     * Whether likelihoods are kept in single (float) rather than double precision.
+     */
+    public boolean isSinglePrecision() {
+        return singlePrecision;
+    }
+
+    /**
+     * Returns the number of bytes taken by the likelihoods held by this collection, not counting those
+     * shared with the collection it was marginalized from.
+     */
+    @VisibleForTesting
+    long likelihoodValueBytes() {
+        return Arrays.stream(valuesBySampleIndex).mapToLong(LikelihoodStore::valueBytes).sum();
+    }
+
+    // Returns the likelihoods of a sample ready to be changed, replacing them by a copy if they are shared.
+    private LikelihoodStore writableValues(final int sampleIndex) {
+        final LikelihoodStore values = valuesBySampleIndex[sampleIndex];
+        return values.isWritable() ? values : (valuesBySampleIndex[sampleIndex] = values.copy());
     }
 
 
@@ -346,7 +413,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         }
 
         for (int s = 0; s < valuesBySampleIndex.length; s++) {
-            final double[][] sampleValues = valuesBySampleIndex[s];
+            final LikelihoodStore sampleValues = writableValues(s);
             final int readCount = readsBySampleIndex[s].length;
             for (int r = 0; r < readCount; r++) {
                 normalizeLikelihoodsPerRead(bestToZero, maximumLikelihoodDifferenceCap, sampleValues, s, r);
@@ -356,14 +423,14 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
 
     // Does the normalizeLikelihoods job for each read.
     private void normalizeLikelihoodsPerRead(final boolean bestToZero, final double maximumBestAltLikelihoodDifference,
-                                             final double[][] sampleValues, final int sampleIndex, final int readIndex) {
+                                             final LikelihoodStore sampleValues, final int sampleIndex, final int readIndex) {
 
         final BestAllele bestAlternativeAllele = searchBestAllele(sampleIndex,readIndex,false);
 
         final double worstLikelihoodCap = bestAlternativeAllele.likelihood + maximumBestAltLikelihoodDifference;
 
         final double referenceLikelihood = referenceAlleleIndex == MISSING_REF ? Double.NEGATIVE_INFINITY :
-                sampleValues[referenceAlleleIndex][readIndex];
+                sampleValues.get(referenceAlleleIndex, readIndex);
 
         final double bestAbsoluteLikelihood = Math.max(bestAlternativeAllele.likelihood, referenceLikelihood);
 
@@ -371,22 +438,23 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         if (bestToZero) {
             if (bestAbsoluteLikelihood == Double.NEGATIVE_INFINITY) {
                 for (int a = 0; a < alleleCount; a++) {
-                    sampleValues[a][readIndex] = 0;
+                    sampleValues.set(a, readIndex, 0);
                 }
             } else if (worstLikelihoodCap != Double.NEGATIVE_INFINITY) {
                 for (int a = 0; a < alleleCount; a++) {
-                    sampleValues[a][readIndex] = (sampleValues[a][readIndex] < worstLikelihoodCap ? worstLikelihoodCap : sampleValues[a][readIndex]) - bestAbsoluteLikelihood;
+                    final double likelihood = sampleValues.get(a, readIndex);
+                    sampleValues.set(a, readIndex, (likelihood < worstLikelihoodCap ? worstLikelihoodCap : likelihood) - bestAbsoluteLikelihood);
                 }
             } else {
                 for (int a = 0; a < alleleCount; a++) {
-                    sampleValues[a][readIndex] -= bestAbsoluteLikelihood;
+                    sampleValues.set(a, readIndex, sampleValues.get(a, readIndex) - bestAbsoluteLikelihood);
                 }
             }
         } else {
             // Guarantee to be the case by enclosing code.
             for (int a = 0; a < alleleCount; a++) {
-                if (sampleValues[a][readIndex] < worstLikelihoodCap) {
-                    sampleValues[a][readIndex] = worstLikelihoodCap;
+                if (sampleValues.get(a, readIndex) < worstLikelihoodCap) {
+                    sampleValues.set(a, readIndex, worstLikelihoodCap);
                 }
             }
         }
@@ -441,16 +509,16 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
             return new BestAllele(sampleIndex, readIndex, -1, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY);
         }
 
-        final double[][] sampleValues = valuesBySampleIndex[sampleIndex];
+        final LikelihoodStore sampleValues = valuesBySampleIndex[sampleIndex];
         int bestAlleleIndex = canBeReference || referenceAlleleIndex != 0 ? 0 : 1;
 
-        double bestLikelihood = sampleValues[bestAlleleIndex][readIndex];
+        double bestLikelihood = sampleValues.get(bestAlleleIndex, readIndex);
         double secondBestLikelihood = Double.NEGATIVE_INFINITY;
         for (int a = bestAlleleIndex + 1; a < alleleCount; a++) {
             if (!canBeReference && referenceAlleleIndex == a) {
                 continue;
             }
-            final double candidateLikelihood = sampleValues[a][readIndex];
+            final double candidateLikelihood = sampleValues.get(a, readIndex);
             if (candidateLikelihood > bestLikelihood) {
                 bestAlleleIndex = a;
                 secondBestLikelihood = bestLikelihood;
@@ -531,14 +599,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         //copy old allele likelihoods and set new allele likelihoods to the default value
         for (int s = 0; s < samples.numberOfSamples(); s++) {
             final int sampleReadCount = readsBySampleIndex[s].length;
-            final double[][] newValuesBySampleIndex = Arrays.copyOf(valuesBySampleIndex[s], newAlleleCount);
-            for (int a = oldAlleleCount; a < newAlleleCount; a++) {
-                newValuesBySampleIndex[a] = new double[sampleReadCount];
-                if (defaultLikelihood != 0.0) {
-                    Arrays.fill(newValuesBySampleIndex[a], defaultLikelihood);
-                }
-            }
-            valuesBySampleIndex[s] = newValuesBySampleIndex;
+            valuesBySampleIndex[s] = valuesBySampleIndex[s].resize(newAlleleCount, sampleReadCount, defaultLikelihood);
         }
         return true;
     }
@@ -569,7 +630,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         final int[] oldToNewAlleleIndexMap = oldToNewAlleleIndexMap(newToOldAlleleMap, oldAlleleCount, newAlleles);
 
         // We calculate the marginal likelihoods.
-        final double[][][] newLikelihoodValues = marginalLikelihoods(oldAlleleCount, newAlleleCount, oldToNewAlleleIndexMap, null);
+        final LikelihoodStore[] newLikelihoodValues = marginalLikelihoods(newAlleleCount, oldToNewAlleleIndexMap, null);
 
         final int sampleCount = samples.numberOfSamples();
 
@@ -585,7 +646,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
                 new IndexedAlleleList(newAlleles),
                 samples,
                 newReadsBySampleIndex,
-                newReadIndexBySampleIndex, newLikelihoodValues);
+                newReadIndexBySampleIndex, newLikelihoodValues, singlePrecision);
     }
 
 
@@ -623,7 +684,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         final int[][] readsToKeep = overlappingReadIndicesBySampleIndex(overlap);
         // We calculate the marginal likelihoods.
 
-        final double[][][] newLikelihoodValues = marginalLikelihoods(oldAlleleCount, newAlleleCount, oldToNewAlleleIndexMap, readsToKeep);
+        final LikelihoodStore[] newLikelihoodValues = marginalLikelihoods(newAlleleCount, oldToNewAlleleIndexMap, readsToKeep);
 
         final int sampleCount = samples.numberOfSamples();
 
@@ -649,7 +710,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         // Finally we create the new read-likelihood
         return new ReadLikelihoods<>(new IndexedAlleleList<>(newAlleles), samples,
                 newReadsBySampleIndex,
-                newReadIndexBySampleIndex, newLikelihoodValues);
+                newReadIndexBySampleIndex, newLikelihoodValues, singlePrecision);
     }
 
     private int[][] overlappingReadIndicesBySampleIndex(final Locatable overlap) {
@@ -698,35 +759,28 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
     }
 
     // Calculate the marginal likelihoods considering the old -> new allele index mapping.
-    private double[][][] marginalLikelihoods(final int oldAlleleCount, final int newAlleleCount, final int[] oldToNewAlleleIndexMap, final int[][] readsToKeep) {
+    // These are views on the likelihoods of this collection, which are therefore frozen.
+    private LikelihoodStore[] marginalLikelihoods(final int newAlleleCount, final int[] oldToNewAlleleIndexMap, final int[][] readsToKeep) {
+
+        final int[][] oldAlleleIndicesByNewAllele = new int[newAlleleCount][];
+        final IntArrayList buffer = new IntArrayList(oldToNewAlleleIndexMap.length);
+        for (int newAlleleIndex = 0; newAlleleIndex < newAlleleCount; newAlleleIndex++) {
+            buffer.clear();
+            for (int a = 0; a < oldToNewAlleleIndexMap.length; a++) {
+                if (oldToNewAlleleIndexMap[a] == newAlleleIndex) {
+                    buffer.add(a);
+                }
+            }
+            oldAlleleIndicesByNewAllele[newAlleleIndex] = buffer.toIntArray();
+        }
 
         final int sampleCount = samples.numberOfSamples();
-        final double[][][] result = new double[sampleCount][][];
+        final LikelihoodStore[] result = new LikelihoodStore[sampleCount];
 
         for (int s = 0; s < sampleCount; s++) {
             final int sampleReadCount = readsBySampleIndex[s].length;
-            final double[][] oldSampleValues = valuesBySampleIndex[s];
             final int[] sampleReadToKeep = readsToKeep == null || readsToKeep[s].length == sampleReadCount ? null : readsToKeep[s];
-            final int newSampleReadCount = sampleReadToKeep == null ? sampleReadCount : sampleReadToKeep.length;
-            final double[][] newSampleValues = result[s] = new double[newAlleleCount][newSampleReadCount];
-            // We initiate all likelihoods to -Inf.
-            for (int a = 0; a < newAlleleCount; a++) {
-                Arrays.fill(newSampleValues[a], Double.NEGATIVE_INFINITY);
-            }
-            // For each old allele and read we update the new table keeping the maximum likelihood.
-            for (int r = 0; r < newSampleReadCount; r++) {
-                for (int a = 0; a < oldAlleleCount; a++) {
-                    final int oldReadIndex = newSampleReadCount == sampleReadCount ? r : sampleReadToKeep[r];
-                    final int newAlleleIndex = oldToNewAlleleIndexMap[a];
-                    if (newAlleleIndex == -1) {
-                        continue;
-                    }
-                    final double likelihood = oldSampleValues[a][oldReadIndex];
-                    if (likelihood > newSampleValues[newAlleleIndex][r]) {
-                        newSampleValues[newAlleleIndex][r] = likelihood;
-                    }
-                }
-            }
+            result[s] = valuesBySampleIndex[s].marginalize(oldAlleleIndicesByNewAllele, sampleReadToKeep);
         }
         return result;
     }
@@ -789,9 +843,9 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         final double log10MaxLikelihoodForTrueAllele = maxErrorsForRead * log10QualPerBase;
 
         final int alleleCount = alleles.numberOfAlleles();
-        final double[][] sampleValues = valuesBySampleIndex[sampleIndex];
+        final LikelihoodStore sampleValues = valuesBySampleIndex[sampleIndex];
         for (int a = 0; a < alleleCount; a++) {
-            if (sampleValues[a][readIndex] >= log10MaxLikelihoodForTrueAllele) {
+            if (sampleValues.get(a, readIndex) >= log10MaxLikelihoodForTrueAllele) {
                 return false;
             }
         }
@@ -833,17 +887,8 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
 
     // Extends the likelihood arrays-matrices.
     private void extendsLikelihoodArrays(final double initialLikelihood, final int sampleIndex, final int sampleReadCount, final int newSampleReadCount) {
-        final double[][] sampleValues = valuesBySampleIndex[sampleIndex];
         final int alleleCount = alleles.numberOfAlleles();
-        for (int a = 0; a < alleleCount; a++) {
-            sampleValues[a] = Arrays.copyOf(sampleValues[a], newSampleReadCount);
-        }
-        if (initialLikelihood != 0.0) // the default array new value.
-        {
-            for (int a = 0; a < alleleCount; a++) {
-                Arrays.fill(sampleValues[a], sampleReadCount, newSampleReadCount, initialLikelihood);
-            }
-        }
+        valuesBySampleIndex[sampleIndex] = valuesBySampleIndex[sampleIndex].resize(alleleCount, newSampleReadCount, initialLikelihood);
     }
 
     // Append the new read reference into the structure per-sample.
@@ -921,13 +966,13 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         final double[] qualifiedAlleleLikelihoods = new double[nonSymbolicAlleleCount];
         final Median medianCalculator = new Median();
         for (int s = 0; s < samples.numberOfSamples(); s++) {
-            final double[][] sampleValues = valuesBySampleIndex[s];
-            final int readCount = sampleValues[0].length;
+            final LikelihoodStore sampleValues = writableValues(s);
+            final int readCount = sampleValues.readCount();
             for (int r = 0; r < readCount; r++) {
                 final BestAllele bestAllele = searchBestAllele(s, r, true);
                 int numberOfQualifiedAlleleLikelihoods = 0;
                 for (int i = 0; i < alleleCount; i++) {
-                    final double alleleLikelihood = sampleValues[i][r];
+                    final double alleleLikelihood = sampleValues.get(i, r);
                     if (i != nonRefAlleleIndex && alleleLikelihood < bestAllele.likelihood
                             && !Double.isNaN(alleleLikelihood) && allelesToConsider.indexOfAllele(alleles.getAllele(i)) != -1) {
                         qualifiedAlleleLikelihoods[numberOfQualifiedAlleleLikelihoods++] = alleleLikelihood;
@@ -938,8 +983,8 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
                 // so the read is not informative at all given the existing alleles. Unless there is only one (or zero) concrete
                 // alleles with give the same (the best) likelihood to the NON-REF. When there is only one (or zero) concrete
                 // alleles we set the NON-REF likelihood to NaN.
-                sampleValues[nonRefAlleleIndex][r] = !Double.isNaN(nonRefLikelihood) ? nonRefLikelihood
-                        : nonSymbolicAlleleCount <= 1 ? Double.NaN : bestAllele.likelihood;
+                sampleValues.set(nonRefAlleleIndex, r, !Double.isNaN(nonRefLikelihood) ? nonRefLikelihood
+                        : nonSymbolicAlleleCount <= 1 ? Double.NaN : bestAllele.likelihood);
             }
         }
     }
@@ -1214,13 +1259,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         Utils.skimArray(oldSampleReads,firstDeleted, newSampleReads, firstDeleted, removeIndex, firstDeleted);
 
         // Then we skim out the likelihoods of the removed reads.
-        final double[][] oldSampleValues = valuesBySampleIndex[sampleIndex];
-        final double[][] newSampleValues = new double[alleleCount][newSampleReadCount];
-        for (int a = 0; a < alleleCount; a++) {
-            System.arraycopy(oldSampleValues[a], 0, newSampleValues[a], 0, firstDeleted);
-            Utils.skimArray(oldSampleValues[a], firstDeleted, newSampleValues[a], firstDeleted, removeIndex, firstDeleted);
-        }
-        valuesBySampleIndex[sampleIndex] = newSampleValues;
+        valuesBySampleIndex[sampleIndex] = valuesBySampleIndex[sampleIndex].removeReads(removeIndex, newSampleReadCount);
         readsBySampleIndex[sampleIndex] = newSampleReads;
         readListBySampleIndex[sampleIndex] = null; // reset the unmodifiable list.
     }
@@ -1272,13 +1311,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         }
 
         // Then we skim out the likelihoods of the removed reads.
-        final double[][] oldSampleValues = valuesBySampleIndex[sampleIndex];
-        final double[][] newSampleValues = new double[alleleCount][newSampleReadCount];
-        for (int a = 0; a < alleleCount; a++) {
-            System.arraycopy(oldSampleValues[a],0,newSampleValues[a],0,firstDeleted);
-            Utils.skimArray(oldSampleValues[a], firstDeleted, newSampleValues[a], firstDeleted, removeIndex, firstDeleted);
-        }
-        valuesBySampleIndex[sampleIndex] = newSampleValues;
+        valuesBySampleIndex[sampleIndex] = valuesBySampleIndex[sampleIndex].removeReads(removeIndex, newSampleReadCount);
         readsBySampleIndex[sampleIndex] = newSampleReads;
         readListBySampleIndex[sampleIndex] = null; // reset the unmodifiable list.
     }
@@ -1319,16 +1352,18 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
 
         @Override
         public void set(final int alleleIndex, final int readIndex, final double value) {
-            Utils.validIndex(alleleIndex, valuesBySampleIndex[sampleIndex].length);
-            Utils.validIndex(readIndex, valuesBySampleIndex[sampleIndex][alleleIndex].length);
-            valuesBySampleIndex[sampleIndex][alleleIndex][readIndex] = value;
+            final LikelihoodStore sampleValues = writableValues(sampleIndex);
+            Utils.validIndex(alleleIndex, sampleValues.alleleCount());
+            Utils.validIndex(readIndex, sampleValues.readCount());
+            sampleValues.set(alleleIndex, readIndex, value);
         }
 
         @Override
         public double get(final int alleleIndex, final int readIndex) {
-            Utils.validIndex(alleleIndex, valuesBySampleIndex[sampleIndex].length);
-            Utils.validIndex(readIndex, valuesBySampleIndex[sampleIndex][alleleIndex].length);
-            return valuesBySampleIndex[sampleIndex][alleleIndex][readIndex];
+            final LikelihoodStore sampleValues = valuesBySampleIndex[sampleIndex];
+            Utils.validIndex(alleleIndex, sampleValues.alleleCount());
+            Utils.validIndex(readIndex, sampleValues.readCount());
+            return sampleValues.get(alleleIndex, readIndex);
         }
 
         @Override
@@ -1368,8 +1403,8 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         @Override
         public void copyAlleleLikelihoods(final int alleleIndex, final double[] dest, final int offset) {
             Utils.nonNull(dest);
-            Utils.validIndex(alleleIndex, valuesBySampleIndex[sampleIndex].length);
-            System.arraycopy(valuesBySampleIndex[sampleIndex][alleleIndex], 0, dest, offset, numberOfReads());
+            Utils.validIndex(alleleIndex, valuesBySampleIndex[sampleIndex].alleleCount());
+            valuesBySampleIndex[sampleIndex].copyAlleleLikelihoods(alleleIndex, dest, offset);
         }
     }
 }
@@ -320,15 +320,16 @@ public final class LocusIteratorByState implements Iterator<AlignmentContext> {
             // since they are just going to get combined into one monolithic pileup anyway
             // when we construct the final ReadPileup below. This optimization speeds up the
             // HaplotypeCaller by quite a bit!
-            final List<PileupElement> allPileupElements = new ArrayList<>(100);
+            // The pileup can hold at most one element per read state, so size it up front to avoid regrowth.
+            final List<PileupElement> allPileupElements = new ArrayList<>(readStates.size());
 
             for (final Map.Entry<String, PerSampleReadStateManager> sampleStatePair : readStates) {
                 final PerSampleReadStateManager readState = sampleStatePair.getValue();
-                final Iterator<AlignmentStateMachine> iterator = readState.iterator();
+                final int nStates = readState.size();
 
-                while (iterator.hasNext()) {
+                for (int i = 0; i < nStates; i++) {
                     // state object with the read/offset information
-                    final AlignmentStateMachine state = iterator.next();
+                    final AlignmentStateMachine state = readState.get(i);
                     final GATKRead read = state.getRead();
                     final CigarOperator op = state.getCigarOperator();
 
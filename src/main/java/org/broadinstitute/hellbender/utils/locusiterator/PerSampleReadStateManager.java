@@ -7,9 +7,11 @@ import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.downsampling.Downsampler;
 import org.broadinstitute.hellbender.utils.downsampling.LevelingDownsampler;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
  * ReadStateManager for a single sample
@@ -18,13 +20,18 @@ final class PerSampleReadStateManager implements Iterable<AlignmentStateMachine>
     private static final Logger logger = LogManager.getLogger(PerSampleReadStateManager.class);
     private static final boolean CAPTURE_DOWNSAMPLING_STATS = false;
 
+    private static final int INITIAL_CAPACITY = 64;
+
     /**
-     * A list (potentially empty) of alignment state machines.
+     * An array (potentially empty) of alignment state machines, of which the first nReadStates are in use.
      *
      * The state machines must be ordered by the alignment start of their underlying reads, with the
-     * lowest alignment starts on the left, and the largest on the right
+     * lowest alignment starts on the left, and the largest on the right.  New states are only ever appended,
+     * and states are removed by compacting the array in place, so updating the states at each locus does not
+     * allocate (unlike a linked list, which allocates a node per state).
      */
-    private List<AlignmentStateMachine> readStatesByAlignmentStart = new LinkedList<>();
+    private AlignmentStateMachine[] readStatesByAlignmentStart = new AlignmentStateMachine[INITIAL_CAPACITY];
+    private int nReadStates = 0;
 
     private final Downsampler<LinkedList<AlignmentStateMachine>> levelingDownsampler;
     private final int downsamplingTarget;
@@ -65,7 +72,8 @@ final class PerSampleReadStateManager implements Iterable<AlignmentStateMachine>
         final LinkedList<LinkedList<AlignmentStateMachine>> grouped = new LinkedList<>();
 
         AlignmentStateMachine last = null;
-        for ( final AlignmentStateMachine stateMachine : readStatesByAlignmentStart ) {
+        for ( int i = 0; i < nReadStates; i++ ) {
+            final AlignmentStateMachine stateMachine = readStatesByAlignmentStart[i];
             if ( last == null || stateMachine.getGenomeOffset() != last.getGenomeOffset() ) {
                 // we've advanced to a place where the state machine has a different state,
                 // so start a new list
@@ -79,15 +87,27 @@ final class PerSampleReadStateManager implements Iterable<AlignmentStateMachine>
     }
 
     /**
-     * Flattens the grouped list of list of alignment state machines into a single list in order
-     * @return a non-null list contains the state machines
+     * Flattens the grouped list of list of alignment state machines back into readStatesByAlignmentStart, in order
      */
-    private LinkedList<AlignmentStateMachine> flattenByAlignmentStart(final List<LinkedList<AlignmentStateMachine>> grouped) {
-        final LinkedList<AlignmentStateMachine> flat = new LinkedList<>();
+    private void flattenByAlignmentStart(final List<LinkedList<AlignmentStateMachine>> grouped) {
+        final int previousSize = nReadStates;
+        nReadStates = 0;
         for ( final List<AlignmentStateMachine> l : grouped ) {
-            flat.addAll(l);
+            for ( final AlignmentStateMachine stateMachine : l ) {
+                readStatesByAlignmentStart[nReadStates++] = stateMachine;
+            }
+        }
+        // release the discarded states
+        Arrays.fill(readStatesByAlignmentStart, nReadStates, previousSize, null);
+    }
+
+    /**
+     * Make sure there is room for at least minCapacity states in readStatesByAlignmentStart
+     */
+    private void ensureCapacity(final int minCapacity) {
+        if ( minCapacity > readStatesByAlignmentStart.length ) {
+            readStatesByAlignmentStart = Arrays.copyOf(readStatesByAlignmentStart, Math.max(minCapacity, 2 * readStatesByAlignmentStart.length));
         }
-        return flat;
     }
 
     /**
@@ -103,10 +123,13 @@ final class PerSampleReadStateManager implements Iterable<AlignmentStateMachine>
             return 0;
         }
 
-        readStatesByAlignmentStart.addAll(states);
+        ensureCapacity(nReadStates + states.size());
+        for ( final AlignmentStateMachine state : states ) {
+            readStatesByAlignmentStart[nReadStates++] = state;
+        }
         int nStatesAdded = states.size();
 
-        if ( isDownsampling() && readStatesByAlignmentStart.size() > downsamplingTarget ) {
+        if ( isDownsampling() && nReadStates > downsamplingTarget ) {
             // only go into the downsampling branch if we are downsampling and the coverage > the target
             captureDownsamplingStats();
             levelingDownsampler.submit(groupByAlignmentStart());
@@ -114,8 +137,7 @@ final class PerSampleReadStateManager implements Iterable<AlignmentStateMachine>
 
             nStatesAdded -= levelingDownsampler.getNumberOfDiscardedItems();
 
-            // use returned List directly rather than make a copy, for efficiency's sake
-            readStatesByAlignmentStart = flattenByAlignmentStart(levelingDownsampler.consumeFinalizedItems());
+            flattenByAlignmentStart(levelingDownsampler.consumeFinalizedItems());
             levelingDownsampler.resetStats();
         }
 
@@ -135,7 +157,7 @@ final class PerSampleReadStateManager implements Iterable<AlignmentStateMachine>
      * @return a potentially null AlignmentStateMachine
      */
     public AlignmentStateMachine getFirst() {
-        return isEmpty() ? null : readStatesByAlignmentStart.get(0);
+        return isEmpty() ? null : readStatesByAlignmentStart[0];
     }
 
     /**
@@ -164,7 +186,7 @@ final class PerSampleReadStateManager implements Iterable<AlignmentStateMachine>
      * @return true if there's at least one alignment, false otherwise
      */
     public boolean isEmpty() {
-        return readStatesByAlignmentStart.isEmpty();
+        return nReadStates == 0;
     }
 
     /**
@@ -172,7 +194,18 @@ final class PerSampleReadStateManager implements Iterable<AlignmentStateMachine>
      * @return the number of read states
      */
     public int size() {
-        return readStatesByAlignmentStart.size();
+        return nReadStates;
+    }
+
+    /**
+     * Get the i-th read state in alignment start order.  Allows callers to visit the states without
+     * allocating an iterator.
+     * @param i the index of the read state, must be between 0 and size() - 1
+     * @return a non-null AlignmentStateMachine
+     */
+    public AlignmentStateMachine get(final int i) {
+        Utils.validIndex(i, nReadStates);
+        return readStatesByAlignmentStart[i];
     }
 
     /**
@@ -181,20 +214,22 @@ final class PerSampleReadStateManager implements Iterable<AlignmentStateMachine>
      * @return the number of states we're removed after advancing
      */
     public int updateReadStates() {
-        int nRemoved = 0;
-        final Iterator<AlignmentStateMachine> it = iterator();
-        while (it.hasNext()) {
-            final AlignmentStateMachine state = it.next();
+        int nKept = 0;
+        for ( int i = 0; i < nReadStates; i++ ) {
+            final AlignmentStateMachine state = readStatesByAlignmentStart[i];
             final CigarOperator op = state.stepForwardOnGenome();
-            if (op == null) {
-                // we discard the read only when we are past its end AND indel at the end of the read (if any) was
-                // already processed. Keeping the read state that returned null upon stepForwardOnGenome() is safe
-                // as the next call to stepForwardOnGenome() will return null again AND will clear hadIndel() flag.
-                it.remove();                                                // we've stepped off the end of the object
-                nRemoved++;
+            // we discard the read only when we are past its end AND indel at the end of the read (if any) was
+            // already processed. Keeping the read state that returned null upon stepForwardOnGenome() is safe
+            // as the next call to stepForwardOnGenome() will return null again AND will clear hadIndel() flag.
+            if (op != null) {
+                // compact the surviving states towards the front, preserving their order
+                readStatesByAlignmentStart[nKept++] = state;
             }
         }
 
+        final int nRemoved = nReadStates - nKept;
+        Arrays.fill(readStatesByAlignmentStart, nKept, nReadStates, null); // we've stepped off the end of these objects
+        nReadStates = nKept;
         return nRemoved;
     }
 
@@ -204,6 +239,32 @@ final class PerSampleReadStateManager implements Iterable<AlignmentStateMachine>
      */
     @Override
     public Iterator<AlignmentStateMachine> iterator() {
-        return readStatesByAlignmentStart.iterator();
+        return new Iterator<AlignmentStateMachine>() {
+            private int next = 0;
+            private boolean canRemove = false;
+
+            @Override
+            public boolean hasNext() {
+                return next < nReadStates;
+            }
+
+            @Override
+            public AlignmentStateMachine next() {
+                if ( ! hasNext() ) {
+                    throw new NoSuchElementException();
+                }
+                canRemove = true;
+                return readStatesByAlignmentStart[next++];
+            }
+
+            @Override
+            public void remove() {
+                Utils.validate(canRemove, "remove() may only be called once after each call to next()");
+                canRemove = false;
+                next--;
+                System.arraycopy(readStatesByAlignmentStart, next + 1, readStatesByAlignmentStart, next, nReadStates - next - 1);
+                readStatesByAlignmentStart[--nReadStates] = null;
+            }
+        };
     }
 }
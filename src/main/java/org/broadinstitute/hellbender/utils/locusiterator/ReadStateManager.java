@@ -251,7 +251,7 @@ final class ReadStateManager implements Iterable<Map.Entry<String, PerSampleRead
             return;
         }
 
-        final LinkedList<AlignmentStateMachine> newReadStates = new LinkedList<>();
+        final List<AlignmentStateMachine> newReadStates = new ArrayList<>(reads.size());
 
         for (final GATKRead read : reads) {
             final AlignmentStateMachine state = new AlignmentStateMachine(read);
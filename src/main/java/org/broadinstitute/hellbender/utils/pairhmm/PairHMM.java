@@ -139,6 +139,12 @@ public abstract class PairHMM implements Closeable{
     protected long threadLocalPairHMMComputeTimeDiff = 0;
     protected long startTime = 0;
 
+    // batch throughput information, see computeLog10Likelihoods(List, List, Map)
+    private long batchCount = 0;
+    private long batchPairCount = 0;
+    private long maxBatchPairCount = 0;
+    private long batchComputeTime = 0;
+
     /**
      * Initialize this PairHMM, making it suitable to run against a read and haplotype with given lengths
      *
@@ -259,6 +265,56 @@ public abstract class PairHMM implements Closeable{
         }
     }
 
+    /**
+     * Compute the log10 likelihoods of several groups of reads (for example the reads of each sample in a region) against
+     * the same haplotypes as a single batch. This is equivalent to calling
+     * {@link #computeLog10Likelihoods(LikelihoodMatrix, List, Map)} for each group, but lets implementations with a
+     * high per-call overhead (such as the native ones) evaluate all of the read/haplotype pairs in one call.
+     *
+     * @param logLikelihoods destination matrices, one per group of reads; all must have the same alleles, in the same order
+     * @param processedReads the reads to analyze for each group, in the same order as the destination matrices
+     * @param gcp penalty for gap continuations base array map for all of the processed reads
+     */
+    public void computeLog10Likelihoods(final List<? extends LikelihoodMatrix<Haplotype>> logLikelihoods,
+                                        final List<List<GATKRead>> processedReads,
+                                        final Map<GATKRead, byte[]> gcp) {
+        validateBatch(logLikelihoods, processedReads);
+
+        final long batchStartTime = System.nanoTime();
+        for (int i = 0; i < logLikelihoods.size(); i++) {
+            computeLog10Likelihoods(logLikelihoods.get(i), processedReads.get(i), gcp);
+        }
+        final int alleleCount = logLikelihoods.isEmpty() ? 0 : logLikelihoods.get(0).numberOfAlleles();
+        recordBatch((long) processedReads.stream().mapToInt(List::size).sum() * alleleCount, System.nanoTime() - batchStartTime);
+    }
+
+    protected static void validateBatch(final List<? extends LikelihoodMatrix<Haplotype>> logLikelihoods, final List<List<GATKRead>> processedReads) {
+        Utils.nonNull(logLikelihoods, "logLikelihoods is null");
+        Utils.nonNull(processedReads, "processedReads is null");
+        Utils.validateArg(logLikelihoods.size() == processedReads.size(), () -> "expected the reads for " + logLikelihoods.size() + " matrices but got " + processedReads.size());
+        Utils.validateArg(logLikelihoods.stream().allMatch(m -> m.alleles().equals(logLikelihoods.get(0).alleles())), "all of the matrices in a batch must have the same alleles");
+    }
+
+    /**
+     * Record the throughput of a batch evaluated by {@link #computeLog10Likelihoods(List, List, Map)}
+     *
+     * @param pairCount number of read/haplotype pairs in the batch
+     * @param elapsedNanos time spent evaluating the batch
+     */
+    protected void recordBatch(final long pairCount, final long elapsedNanos) {
+        if (!doProfiling || pairCount == 0) {
+            return;
+        }
+        batchCount++;
+        batchPairCount += pairCount;
+        maxBatchPairCount = Math.max(maxBatchPairCount, pairCount);
+        batchComputeTime += elapsedNanos;
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format("PairHMM batch of %d read/haplotype pairs took %.6f s (%.0f pairs/s)",
+                    pairCount, elapsedNanos * 1e-9, pairCount / Math.max(elapsedNanos * 1e-9, 1e-9)));
+        }
+    }
+
     /**
      * Compute the total probability of read arising from haplotypeBases given base substitution, insertion, and deletion
      * probabilities.
@@ -375,7 +431,12 @@ public abstract class PairHMM implements Closeable{
      */
     @Override
     public void close() {
-        if(doProfiling)
-            logger.info("Total compute time in PairHMM computeLogLikelihoods() : "+(pairHMMComputeTime*1e-9));
+        if(doProfiling) {
+            logger.info("Total compute time in PairHMM computeLogLikelihoods() : " + (pairHMMComputeTime * 1e-9));
+            if (batchCount > 0) {
+                logger.info(String.format("PairHMM batches : %d, mean read/haplotype pairs per batch : %.1f, max : %d, pairs per second : %.0f",
+                        batchCount, (double) batchPairCount / batchCount, maxBatchPairCount, batchPairCount / Math.max(batchComputeTime * 1e-9, 1e-9)));
+            }
+        }
     }
 }
@@ -15,6 +15,7 @@ import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.read.ReadUtils;
 
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -121,24 +122,54 @@ public final class VectorLoglessPairHMM extends LoglessPairHMM {
     public void computeLog10Likelihoods(final LikelihoodMatrix<Haplotype> logLikelihoods,
                                         final List<GATKRead> processedReads,
                                         final Map<GATKRead, byte[]> gcp) {
-        if (processedReads.isEmpty()) {
-            return;
+        computeLikelihoodsInOneCall(Collections.singletonList(logLikelihoods), Collections.singletonList(processedReads), gcp);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * All of the read/haplotype pairs in the batch are evaluated by a single call to the native library.
+     */
+    @Override
+    public void computeLog10Likelihoods(final List<? extends LikelihoodMatrix<Haplotype>> logLikelihoods,
+                                        final List<List<GATKRead>> processedReads,
+                                        final Map<GATKRead, byte[]> gcp) {
+        validateBatch(logLikelihoods, processedReads);
+
+        final long batchStartTime = System.nanoTime();
+        final int pairCount = computeLikelihoodsInOneCall(logLikelihoods, processedReads, gcp);
+        recordBatch(pairCount, System.nanoTime() - batchStartTime);
+    }
+
+    /**
+     * Evaluate the reads of each matrix against the haplotypes passed to initialize with one native call, and fill
+     * in the matrices.
+     *
+     * @return the number of read/haplotype pairs evaluated
+     */
+    private int computeLikelihoodsInOneCall(final List<? extends LikelihoodMatrix<Haplotype>> logLikelihoods,
+                                            final List<List<GATKRead>> processedReads,
+                                            final Map<GATKRead, byte[]> gcp) {
+        final int readListSize = processedReads.stream().mapToInt(List::size).sum();
+        if (readListSize == 0) {
+            return 0;
         }
         if (doProfiling) {
             startTime = System.nanoTime();
         }
-        int readListSize = processedReads.size();
-        int numHaplotypes = logLikelihoods.numberOfAlleles();
-        ReadDataHolder[] readDataArray = new ReadDataHolder[readListSize];
+        final int numHaplotypes = mHaplotypeDataArray.length;
+        final ReadDataHolder[] readDataArray = new ReadDataHolder[readListSize];
         int idx = 0;
-        for (GATKRead read : processedReads) {
-            readDataArray[idx] = new ReadDataHolder();
-            readDataArray[idx].readBases = read.getBases();
-            readDataArray[idx].readQuals = read.getBaseQualities();
-            readDataArray[idx].insertionGOP = ReadUtils.getBaseInsertionQualities(read);
-            readDataArray[idx].deletionGOP = ReadUtils.getBaseDeletionQualities(read);
-            readDataArray[idx].overallGCP = gcp.get(read);
-            ++idx;
+        for (final List<GATKRead> reads : processedReads) {
+            for (final GATKRead read : reads) {
+                readDataArray[idx] = new ReadDataHolder();
+                readDataArray[idx].readBases = read.getBases();
+                readDataArray[idx].readQuals = read.getBaseQualities();
+                readDataArray[idx].insertionGOP = ReadUtils.getBaseInsertionQualities(read);
+                readDataArray[idx].deletionGOP = ReadUtils.getBaseDeletionQualities(read);
+                readDataArray[idx].overallGCP = gcp.get(read);
+                ++idx;
+            }
         }
 
         mLogLikelihoodArray = new double[readListSize * numHaplotypes];      //to store results
@@ -151,26 +182,30 @@ public final class VectorLoglessPairHMM extends LoglessPairHMM {
         pairHmm.computeLikelihoods(readDataArray, mHaplotypeDataArray, mLogLikelihoodArray);
 
         int readIdx = 0;
-        for (int r = 0; r < readListSize; r++) {
-            int hapIdx = 0;
-            for (final Haplotype haplotype : logLikelihoods.alleles()) {
-
-                //Since the order of haplotypes in the List<Haplotype> and alleleHaplotypeMap is different,
-                //get idx of current haplotype in the list and use this idx to get the right likelihoodValue
-                final int idxInsideHaplotypeList = haplotypeToHaplotypeListIdxMap.get(haplotype);
-                logLikelihoods.set(hapIdx, r, mLogLikelihoodArray[readIdx + idxInsideHaplotypeList]);
-                ++hapIdx;
+        for (int m = 0; m < logLikelihoods.size(); m++) {
+            final LikelihoodMatrix<Haplotype> matrix = logLikelihoods.get(m);
+            final int matrixReadCount = processedReads.get(m).size();
+            for (int r = 0; r < matrixReadCount; r++) {
+                int hapIdx = 0;
+                for (final Haplotype haplotype : matrix.alleles()) {
+
+                    //Since the order of haplotypes in the List<Haplotype> and alleleHaplotypeMap is different,
+                    //get idx of current haplotype in the list and use this idx to get the right likelihoodValue
+                    final int idxInsideHaplotypeList = haplotypeToHaplotypeListIdxMap.get(haplotype);
+                    matrix.set(hapIdx, r, mLogLikelihoodArray[readIdx + idxInsideHaplotypeList]);
+                    ++hapIdx;
+                }
+                readIdx += numHaplotypes;
             }
-            readIdx += numHaplotypes;
         }
         if (doProfiling) {
             threadLocalPairHMMComputeTimeDiff = (System.nanoTime() - startTime);
             pairHMMComputeTime += threadLocalPairHMMComputeTimeDiff;
             pairHMMSetupTime += threadLocalSetupTimeDiff;
         }
+        return readListSize * logLikelihoods.get(0).numberOfAlleles();
     }
 
-
     @Override
     public void close() {
         pairHmm.done();
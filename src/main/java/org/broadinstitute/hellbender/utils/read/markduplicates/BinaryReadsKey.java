@@ -0,0 +1,139 @@
+package org.broadinstitute.hellbender.utils.read.markduplicates;
+
+import com.esotericsoftware.kryo.DefaultSerializer;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import htsjdk.samtools.SAMFileHeader;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.ReadUtils;
+
+import java.util.Map;
+
+/**
+ * Fixed-width binary equivalent of the fragment and paired-ends keys produced by {@link ReadsKey}.
+ *
+ * Each end is packed into a single long (reference index in the high 32 bits, stranded unclipped start in the low
+ * 32 bits), and the library id, strands and key type are packed into a single int, so keys are cheap to build, hash
+ * and compare, and serialize to a handful of bytes when shuffled.
+ *
+ * Library ids come from a read group to library id table (see {@link LibraryIdGenerator#getLibraryIdsByReadGroup}),
+ * which must be the same for every key that is compared.
+ */
+@DefaultSerializer(BinaryReadsKey.Serializer.class)
+public final class BinaryReadsKey implements Comparable<BinaryReadsKey> {
+
+    private static final int FRAGMENT_FLAG = 1;
+    private static final int HAS_SECOND_FLAG = 1 << 1;
+    private static final int FIRST_REVERSE_FLAG = 1 << 2;
+    private static final int SECOND_REVERSE_FLAG = 1 << 3;
+    private static final int LIBRARY_SHIFT = 16;
+
+    private final long firstEnd;
+    private final long secondEnd;
+    private final int flags;
+
+    private BinaryReadsKey(final long firstEnd, final long secondEnd, final int flags) {
+        this.firstEnd = firstEnd;
+        this.secondEnd = secondEnd;
+        this.flags = flags;
+    }
+
+    /**
+     * Makes a unique key for the fragment.
+     */
+    public static BinaryReadsKey keyForFragment(final SAMFileHeader header, final Map<String, Short> libraryIds, final GATKRead read) {
+        return new BinaryReadsKey(packEnd(header, read), 0L,
+                FRAGMENT_FLAG | libraryFlags(libraryIds, read) | (read.isReverseStrand() ? FIRST_REVERSE_FLAG : 0));
+    }
+
+    /**
+     * Makes a unique key for the paired reads. The second read may be null.
+     */
+    public static BinaryReadsKey keyForPairedEnds(final SAMFileHeader header, final Map<String, Short> libraryIds, final GATKRead first, final GATKRead second) {
+        final int firstFlags = libraryFlags(libraryIds, first) | (first.isReverseStrand() ? FIRST_REVERSE_FLAG : 0);
+        if (second == null) {
+            return new BinaryReadsKey(packEnd(header, first), 0L, firstFlags);
+        }
+        return new BinaryReadsKey(packEnd(header, first), packEnd(header, second),
+                firstFlags | HAS_SECOND_FLAG | (second.isReverseStrand() ? SECOND_REVERSE_FLAG : 0));
+    }
+
+    /**
+     * Returns true if this is a fragment key.
+     */
+    public boolean isFragment() {
+        return (flags & FRAGMENT_FLAG) != 0;
+    }
+
+    private static long packEnd(final SAMFileHeader header, final GATKRead read) {
+        return ((long) ReadUtils.getReferenceIndex(read, header) << 32) | (ReadUtils.getStrandedUnclippedStart(read) & 0xFFFFFFFFL);
+    }
+
+    private static int libraryFlags(final Map<String, Short> libraryIds, final GATKRead read) {
+        final String readGroup = read.getReadGroup();
+        final Short libraryId = readGroup == null ? null : libraryIds.get(readGroup);
+        return libraryId == null ? 0 : (libraryId & 0xFFFF) << LIBRARY_SHIFT;
+    }
+
+    /**
+     * Orders keys by type, library and strands, then by the first and second ends. The order is only used to
+     * bring equal keys together, so it has no biological meaning.
+     */
+    @Override
+    public int compareTo(final BinaryReadsKey other) {
+        int result = Integer.compare(flags, other.flags);
+        if (result == 0) {
+            result = Long.compare(firstEnd, other.firstEnd);
+        }
+        if (result == 0) {
+            result = Long.compare(secondEnd, other.secondEnd);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        final BinaryReadsKey that = (BinaryReadsKey) o;
+        return firstEnd == that.firstEnd && secondEnd == that.secondEnd && flags == that.flags;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Long.hashCode(firstEnd);
+        result = 31 * result + Long.hashCode(secondEnd);
+        result = 31 * result + flags;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return (isFragment() ? ReadsKey.FRAGMENT_PREFIX : "p|") + (flags >>> LIBRARY_SHIFT) + "|" +
+                endToString(firstEnd, (flags & FIRST_REVERSE_FLAG) != 0) +
+                ((flags & HAS_SECOND_FLAG) != 0 ? "|" + endToString(secondEnd, (flags & SECOND_REVERSE_FLAG) != 0) : "");
+    }
+
+    private static String endToString(final long end, final boolean reverse) {
+        return (int) (end >> 32) + "|" + (int) end + "|" + (reverse ? "r" : "f");
+    }
+
+    public static final class Serializer extends com.esotericsoftware.kryo.Serializer<BinaryReadsKey> {
+        @Override
+        public void write(final Kryo kryo, final Output output, final BinaryReadsKey key) {
+            output.writeLong(key.firstEnd);
+            output.writeLong(key.secondEnd);
+            output.writeInt(key.flags);
+        }
+
+        @Override
+        public BinaryReadsKey read(final Kryo kryo, final Input input, final Class<BinaryReadsKey> klass) {
+            final long firstEnd = input.readLong();
+            final long secondEnd = input.readLong();
+            final int flags = input.readInt();
+            return new BinaryReadsKey(firstEnd, secondEnd, flags);
+        }
+    }
+}
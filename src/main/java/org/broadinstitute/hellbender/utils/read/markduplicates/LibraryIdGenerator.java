@@ -4,6 +4,7 @@ import htsjdk.samtools.SAMFileHeader;
 import htsjdk.samtools.SAMReadGroupRecord;
 import htsjdk.samtools.SAMRecord;
 import htsjdk.samtools.util.Histogram;
+import org.broadinstitute.hellbender.exceptions.GATKException;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -69,6 +70,32 @@ public final class LibraryIdGenerator {
         return "Unknown Library";
     }
 
+    /**
+     * Gets a map from read group id to library id for every read group in the header that has a library.
+     * Unlike {@link #getLibraryId}, the ids depend only on the header (libraries are numbered from 1 in the
+     * order in which they first appear in the read groups), so they agree across processes sharing the header.
+     */
+    public static Map<String, Short> getLibraryIdsByReadGroup(final SAMFileHeader header) {
+        final Map<String, Short> idsByLibrary = new LinkedHashMap<>();
+        final Map<String, Short> idsByReadGroup = new LinkedHashMap<>();
+        for (final SAMReadGroupRecord readGroup : header.getReadGroups()) {
+            final String library = readGroup.getLibrary();
+            if (library == null) {
+                continue;
+            }
+            Short libraryId = idsByLibrary.get(library);
+            if (libraryId == null) {
+                if (idsByLibrary.size() == Short.MAX_VALUE) {
+                    throw new GATKException("Too many libraries in header, at most " + Short.MAX_VALUE + " are supported");
+                }
+                libraryId = (short) (idsByLibrary.size() + 1);
+                idsByLibrary.put(library, libraryId);
+            }
+            idsByReadGroup.put(readGroup.getReadGroupId(), libraryId);
+        }
+        return idsByReadGroup;
+    }
+
     /** Get the library ID for the given SAM record. */
     public short getLibraryId(final SAMRecord rec) {
         final String library = getLibraryName(this.header, rec);
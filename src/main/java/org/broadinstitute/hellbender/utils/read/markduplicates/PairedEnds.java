@@ -4,6 +4,8 @@ import htsjdk.samtools.SAMFileHeader;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.read.ReadUtils;
 
+import java.util.Map;
+
 /**
  * Struct-like class to store information about the paired reads for mark duplicates.
  */
@@ -35,12 +37,12 @@ public class PairedEnds implements OpticalDuplicateFinder.PhysicalLocation {
     return this;
   }
 
-  public String key(final SAMFileHeader header) {
-    return ReadsKey.keyForPairedEnds(header, first, second);
+  public BinaryReadsKey key(final SAMFileHeader header, final Map<String, Short> libraryIds) {
+    return BinaryReadsKey.keyForPairedEnds(header, libraryIds, first, second);
   }
 
-  public String keyForFragment(final SAMFileHeader header) {
-    return ReadsKey.keyForFragment(header, first);
+  public BinaryReadsKey keyForFragment(final SAMFileHeader header, final Map<String, Short> libraryIds) {
+    return BinaryReadsKey.keyForFragment(header, libraryIds, first);
   }
 
   public GATKRead first() {
@@ -227,6 +227,22 @@ public final class BaseRecalibrationEngine implements Serializable {
         return recalTables;
     }
 
+    /**
+     * Add the statistics collected by another engine, for example one that processed a different subset of the reads
+     * on another thread, to those collected by this one.
+     *
+     * Both engines must have been created with the same arguments and read groups, and neither may have been
+     * finalized.
+     *
+     * @param other engine whose statistics are added to this one; it is left unchanged
+     */
+    public void combine( final BaseRecalibrationEngine other ) {
+        Utils.nonNull(other);
+        Utils.validate(!finalized && !other.finalized, "Cannot combine engines after finalizeData() has been called");
+        recalTables.combine(other.recalTables);
+        numReadsProcessed += other.numReadsProcessed;
+    }
+
     public StandardCovariateList getCovariates() {
         return covariates;
     }
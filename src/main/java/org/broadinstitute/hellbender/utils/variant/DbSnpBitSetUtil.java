@@ -1,22 +1,44 @@
 package org.broadinstitute.hellbender.utils.variant;
 
 import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
 import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.CloserUtil;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.vcf.VCFFileReader;
+import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.Utils;
 
-import java.io.File;
+import java.io.*;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 
 /**
  * Utility class to use with DbSnp files to determine is a locus is
  * a dbSnp site.
+ *
+ * The bit sets can be saved to a bitset index file with {@link #writeIndex}, which later runs can memory-map with
+ * {@link #load} rather than parsing the dbSnp VCF again.
+ *
+ * The index file starts with a magic number and the length of a header giving the variant types loaded, then the name,
+ * sequence length (or -1 if unknown) and number of 64-bit words of the bit set of each sequence. The words of the bit
+ * sets follow the header, one sequence after the other, in the same order as in the header.
  */
 public final class DbSnpBitSetUtil {
 
-    private final Map<String, BitSet> sequenceToBitSet = new LinkedHashMap<>();
+    /** Extension of bitset index files, appended to the name of the dbSnp VCF by default. */
+    public static final String INDEX_EXTENSION = ".bitset";
+
+    private static final long INDEX_MAGIC = 0x4442534E50424954L; // "DBSNPBIT"
+    private static final int INDEX_VERSION = 1;
+
+    // the bits of each sequence, laid out as in BitSet.toLongArray(), either on the heap or memory-mapped
+    private final Map<String, LongBuffer> sequenceToBits = new LinkedHashMap<>();
+    // the length of each sequence according to the dictionary used to load it, or -1 if there was no dictionary
+    private final Map<String, Integer> sequenceToLength = new LinkedHashMap<>();
+    private Set<DbSnpVariantType> variantTypes;
 
     /** Little tuple class to contain one bitset for SNPs and another for Indels. */
     public static class DbSnpBitSets {
@@ -50,10 +72,155 @@ public final class DbSnpBitSetUtil {
                            final Collection<DbSnpVariantType> variantsToMatch) {
         Utils.nonNull(dbSnpFile);
         final Map<DbSnpBitSetUtil, Set<DbSnpVariantType>> tmp = new LinkedHashMap<>();
-        tmp.put(this, EnumSet.copyOf(variantsToMatch));
+        tmp.put(this, toEnumSet(variantsToMatch));
         loadVcf(dbSnpFile, sequenceDictionary, tmp);
     }
 
+    /**
+     * Loads the dbSnp sites from either a dbSnp VCF or a bitset index file written by {@link #writeIndex}, depending on
+     * the extension of the file. The bitset index is memory-mapped, and checked against the sequence dictionary and
+     * variant types, if any.
+     *
+     * @param dbSnpFile a dbSnp VCF, or a bitset index file ending in {@link #INDEX_EXTENSION}
+     * @param sequenceDictionary Optionally, the sequence dictionary of the reference, else null.
+     * @param variantsToMatch what types of variants to load. Must be the types the index was built with.
+     */
+    public static DbSnpBitSetUtil load(final File dbSnpFile,
+                                       final SAMSequenceDictionary sequenceDictionary,
+                                       final Collection<DbSnpVariantType> variantsToMatch) {
+        Utils.nonNull(dbSnpFile);
+        Utils.nonNull(variantsToMatch);
+        if (dbSnpFile.getName().endsWith(INDEX_EXTENSION)) {
+            return readIndex(dbSnpFile, sequenceDictionary, variantsToMatch);
+        }
+        return new DbSnpBitSetUtil(dbSnpFile, sequenceDictionary, variantsToMatch);
+    }
+
+    /**
+     * Writes these bit sets to a bitset index file, which can then be loaded with {@link #load}.
+     */
+    public void writeIndex(final File indexFile) {
+        Utils.nonNull(indexFile);
+        try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)))) {
+            final ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+            try (final DataOutputStream header = new DataOutputStream(headerBytes)) {
+                header.writeInt(INDEX_VERSION);
+                header.writeInt(toMask(variantTypes));
+                header.writeInt(sequenceToBits.size());
+                for (final Map.Entry<String, LongBuffer> entry : sequenceToBits.entrySet()) {
+                    header.writeUTF(entry.getKey());
+                    header.writeInt(sequenceToLength.get(entry.getKey()));
+                    header.writeInt(entry.getValue().limit());
+                }
+            }
+            out.writeLong(INDEX_MAGIC);
+            out.writeInt(headerBytes.size());
+            headerBytes.writeTo(out);
+            for (final LongBuffer bits : sequenceToBits.values()) {
+                for (int i = 0; i < bits.limit(); i++) {
+                    out.writeLong(bits.get(i));
+                }
+            }
+        } catch (final IOException e) {
+            throw new UserException.CouldNotCreateOutputFile(indexFile, e);
+        }
+    }
+
+    /** Private helper method to memory-map the bit sets of an index file. */
+    private static DbSnpBitSetUtil readIndex(final File indexFile,
+                                             final SAMSequenceDictionary sequenceDictionary,
+                                             final Collection<DbSnpVariantType> variantsToMatch) {
+        final DbSnpBitSetUtil result = new DbSnpBitSetUtil();
+        try (final FileChannel channel = FileChannel.open(indexFile.toPath(), StandardOpenOption.READ);
+             final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (in.readLong() != INDEX_MAGIC) {
+                throw new UserException.MalformedFile(indexFile, "not a dbSnp bitset index file");
+            }
+            final int headerLength = in.readInt();
+            final int version = in.readInt();
+            if (version != INDEX_VERSION) {
+                throw new UserException.MalformedFile(indexFile, "unsupported dbSnp bitset index version " + version);
+            }
+            result.variantTypes = fromMask(in.readInt());
+            final int numSequences = in.readInt();
+            final int[] numWords = new int[numSequences];
+            for (int i = 0; i < numSequences; i++) {
+                final String sequenceName = in.readUTF();
+                result.sequenceToLength.put(sequenceName, in.readInt());
+                numWords[i] = in.readInt();
+            }
+            // each bit set is mapped separately, as a single mapping cannot be larger than 2GB
+            long offset = Long.BYTES + Integer.BYTES + headerLength;
+            int i = 0;
+            for (final String sequenceName : result.sequenceToLength.keySet()) {
+                final long size = (long) numWords[i++] * Long.BYTES;
+                if (offset + size > channel.size()) {
+                    throw new UserException.MalformedFile(indexFile, "truncated dbSnp bitset index file");
+                }
+                result.sequenceToBits.put(sequenceName, channel.map(FileChannel.MapMode.READ_ONLY, offset, size).asLongBuffer());
+                offset += size;
+            }
+        } catch (final EOFException e) {
+            throw new UserException.MalformedFile(indexFile, "truncated dbSnp bitset index file", e);
+        } catch (final IOException e) {
+            throw new UserException.CouldNotReadInputFile(indexFile, e);
+        }
+        result.validate(indexFile, sequenceDictionary, toEnumSet(variantsToMatch));
+        return result;
+    }
+
+    /**
+     * Checks that the bit sets loaded from an index were built for the given variant types, and with sequence lengths
+     * matching the dictionary.
+     */
+    private void validate(final File indexFile, final SAMSequenceDictionary sequenceDictionary, final Set<DbSnpVariantType> variantsToMatch) {
+        if (!variantTypes.equals(variantsToMatch)) {
+            throw new UserException.BadInput("The dbSnp bitset index " + indexFile + " was built for variant types " + describe(variantTypes)
+                    + " but " + describe(variantsToMatch) + " were requested. Rebuild the index for these types.");
+        }
+        if (sequenceDictionary == null) {
+            return;
+        }
+        for (final Map.Entry<String, Integer> entry : sequenceToLength.entrySet()) {
+            final SAMSequenceRecord sequence = sequenceDictionary.getSequence(entry.getKey());
+            if (sequence == null) {
+                throw new UserException.BadInput("The dbSnp bitset index " + indexFile + " has sites on sequence " + entry.getKey()
+                        + ", which is not in the sequence dictionary");
+            }
+            final int indexLength = entry.getValue();
+            if (indexLength != -1 && indexLength != sequence.getSequenceLength()) {
+                throw new UserException.BadInput("The dbSnp bitset index " + indexFile + " was built for sequence " + entry.getKey()
+                        + " of length " + indexLength + ", but its length in the sequence dictionary is " + sequence.getSequenceLength());
+            }
+        }
+    }
+
+    private static Set<DbSnpVariantType> toEnumSet(final Collection<DbSnpVariantType> variantTypes) {
+        return variantTypes.isEmpty() ? EnumSet.noneOf(DbSnpVariantType.class) : EnumSet.copyOf(variantTypes);
+    }
+
+    private static int toMask(final Set<DbSnpVariantType> variantTypes) {
+        int mask = 0;
+        for (final DbSnpVariantType type : variantTypes) {
+            mask |= 1 << type.ordinal();
+        }
+        return mask;
+    }
+
+    private static Set<DbSnpVariantType> fromMask(final int mask) {
+        final Set<DbSnpVariantType> variantTypes = EnumSet.noneOf(DbSnpVariantType.class);
+        for (final DbSnpVariantType type : DbSnpVariantType.values()) {
+            if ((mask & 1 << type.ordinal()) != 0) {
+                variantTypes.add(type);
+            }
+        }
+        return variantTypes;
+    }
+
+    private static String describe(final Set<DbSnpVariantType> variantTypes) {
+        return variantTypes.isEmpty() ? "(all)" : variantTypes.toString();
+    }
+
     /** Private helper method to read through the VCF and create one or more bit sets. */
     private static void loadVcf(final File dbSnpFile,
                                 final SAMSequenceDictionary sequenceDictionary,
@@ -61,6 +228,10 @@ public final class DbSnpBitSetUtil {
 
         final VCFFileReader variantReader = new VCFFileReader(dbSnpFile);
         final CloseableIterator<VariantContext> variantIterator = variantReader.iterator();
+        final Map<DbSnpBitSetUtil, Map<String, BitSet>> sequenceToBitSets = new LinkedHashMap<>();
+        for (final DbSnpBitSetUtil bitset : bitSetsToVariantTypes.keySet()) {
+            sequenceToBitSets.put(bitset, new LinkedHashMap<>());
+        }
 
         while (variantIterator.hasNext()) {
             final VariantContext kv = variantIterator.next();
@@ -69,13 +240,15 @@ public final class DbSnpBitSetUtil {
                 final DbSnpBitSetUtil bitset            = tuple.getKey();
                 final Set<DbSnpVariantType> variantsToMatch  = tuple.getValue();
 
-                BitSet bits = bitset.sequenceToBitSet.get(kv.getContig());
+                final Map<String, BitSet> sequenceToBitSet = sequenceToBitSets.get(bitset);
+                BitSet bits = sequenceToBitSet.get(kv.getContig());
                 if (bits == null) {
                     final int nBits;
                     if (sequenceDictionary == null) nBits = kv.getEnd() + 1;
                     else nBits = sequenceDictionary.getSequence(kv.getContig()).getSequenceLength() + 1;
                     bits = new BitSet(nBits);
-                    bitset.sequenceToBitSet.put(kv.getContig(), bits);
+                    sequenceToBitSet.put(kv.getContig(), bits);
+                    bitset.sequenceToLength.put(kv.getContig(), sequenceDictionary == null ? -1 : nBits - 1);
                 }
                 if (variantsToMatch.isEmpty() ||
                         (kv.isSNP() && variantsToMatch.contains(DbSnpVariantType.SNP)) ||
@@ -89,20 +262,28 @@ public final class DbSnpBitSetUtil {
 
         CloserUtil.close(variantIterator);
         CloserUtil.close(variantReader);
+
+        for (final Map.Entry<DbSnpBitSetUtil, Map<String, BitSet>> entry : sequenceToBitSets.entrySet()) {
+            final DbSnpBitSetUtil bitset = entry.getKey();
+            bitset.variantTypes = bitSetsToVariantTypes.get(bitset);
+            entry.getValue().forEach((sequence, bits) -> bitset.sequenceToBits.put(sequence, LongBuffer.wrap(bits.toLongArray())));
+        }
     }
 
     /**
      * Returns true if there is a dbSnp entry at pos in sequenceName, otherwise false
      */
     public boolean isDbSnpSite(final String sequenceName, final int pos) {
+        final LongBuffer bits = sequenceToBits.get(sequenceName);
         // When we have a dbSnpFile with no sequence dictionary, this line will be necessary
-        if (sequenceToBitSet.get(sequenceName) == null) {
+        if (bits == null) {
             return false;
         }
-        if (pos > sequenceToBitSet.get(sequenceName).length()) {
+        final int word = pos >>> 6;
+        if (word >= bits.limit()) {
             return false;
         }
-        return sequenceToBitSet.get(sequenceName).get(pos);
+        return (bits.get(word) & (1L << pos)) != 0;
     }
 
 }
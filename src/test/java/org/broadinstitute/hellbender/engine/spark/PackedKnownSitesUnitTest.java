@@ -0,0 +1,97 @@
+package org.broadinstitute.hellbender.engine.spark;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.collections.IntervalsSkipList;
+import org.broadinstitute.hellbender.utils.variant.GATKVariant;
+import org.broadinstitute.hellbender.utils.variant.MinimalVariant;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+public final class PackedKnownSitesUnitTest extends GATKBaseTest {
+
+    private static final String VCF = publicTestDir + "org/broadinstitute/hellbender/engine/feature_data_source_test.vcf";
+
+    private static final Comparator<GATKVariant> BY_POSITION = Comparator.comparing(GATKVariant::getContig)
+            .thenComparingInt(GATKVariant::getStart).thenComparingInt(GATKVariant::getEnd)
+            .thenComparing(GATKVariant::isSnp).thenComparing(GATKVariant::isIndel);
+
+    private static List<GATKVariant> sorted(final List<GATKVariant> variants) {
+        final List<GATKVariant> result = new ArrayList<>(variants);
+        result.sort(BY_POSITION);
+        return result;
+    }
+
+    @Test
+    public void testOverlapMatchesIntervalsSkipList() {
+        final Random random = new Random(42);
+        final List<GATKVariant> variants = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            final String contig = i % 3 == 0 ? "1" : "2";
+            final int start = 1 + random.nextInt(1000000);
+            final boolean isIndel = random.nextInt(5) == 0;
+            // a few long deletions so that the queries have to look behind the start of the query
+            final int length = isIndel ? (random.nextInt(20) == 0 ? 5000 : random.nextInt(30)) : 0;
+            variants.add(new MinimalVariant(new SimpleInterval(contig, start, start + length), !isIndel, isIndel));
+        }
+        final PackedKnownSites packed = PackedKnownSites.fromVariants(variants);
+        final IntervalsSkipList<GATKVariant> skipList = new IntervalsSkipList<>(variants);
+        Assert.assertEquals(packed.size(), variants.size());
+
+        for (int i = 0; i < 2000; i++) {
+            final int start = 1 + random.nextInt(1010000);
+            final SimpleInterval query = new SimpleInterval(random.nextBoolean() ? "1" : "2", start, start + random.nextInt(300));
+            final List<GATKVariant> actual = packed.getOverlapping(query);
+            Assert.assertEquals(actual, sorted(actual), "not sorted for " + query);
+            Assert.assertEquals(actual, sorted(skipList.getOverlapping(query)), "for " + query);
+        }
+        Assert.assertTrue(packed.getOverlapping(new SimpleInterval("3", 1, 1000000)).isEmpty());
+    }
+
+    @Test
+    public void testPositionsOnLongContigs() {
+        // starts of 2^30 or more use the top bit of the packed values
+        final int big = 1 << 30;
+        final List<GATKVariant> variants = Arrays.asList(
+                new MinimalVariant(new SimpleInterval("1", Integer.MAX_VALUE - 10, Integer.MAX_VALUE - 5), false, true),
+                new MinimalVariant(new SimpleInterval("1", big + 5, big + 5), true, false),
+                new MinimalVariant(new SimpleInterval("1", big - 5, big + 2), false, true),
+                new MinimalVariant(new SimpleInterval("1", 100, 100), true, false));
+        final PackedKnownSites packed = PackedKnownSites.fromVariants(variants);
+        Assert.assertEquals(packed.getOverlapping(new SimpleInterval("1", 1, Integer.MAX_VALUE)), sorted(variants));
+        Assert.assertEquals(packed.getOverlapping(new SimpleInterval("1", big, big + 10)), Arrays.asList(variants.get(2), variants.get(1)));
+        Assert.assertEquals(packed.getOverlapping(new SimpleInterval("1", Integer.MAX_VALUE - 6, Integer.MAX_VALUE - 6)), Collections.singletonList(variants.get(0)));
+        Assert.assertTrue(packed.getOverlapping(new SimpleInterval("1", big + 6, big + 100)).isEmpty());
+    }
+
+    @Test
+    public void testSerialization() {
+        final List<GATKVariant> variants = Arrays.asList(
+                new MinimalVariant(new SimpleInterval("1", 100, 100), true, false),
+                new MinimalVariant(new SimpleInterval("1", 90, 110), false, true),
+                new MinimalVariant(new SimpleInterval("2", 5, 5), false, false));
+        final PackedKnownSites roundTripped = SerializationUtils.roundtrip(PackedKnownSites.fromVariants(variants));
+        Assert.assertEquals(roundTripped.size(), 3);
+        Assert.assertEquals(roundTripped.getOverlapping(new SimpleInterval("1", 100, 100)), Arrays.asList(variants.get(1), variants.get(0)));
+        Assert.assertEquals(roundTripped.getOverlapping(new SimpleInterval("2", 1, 10)), Collections.singletonList(variants.get(2)));
+    }
+
+    @Test
+    public void testLoadWithIntervals() {
+        final PackedKnownSites all = PackedKnownSites.load(Collections.singletonList(VCF), null);
+        Assert.assertEquals(all.size(), 26);
+
+        final List<SimpleInterval> intervals = Arrays.asList(new SimpleInterval("1", 190, 201), new SimpleInterval("3", 300, 300));
+        final PackedKnownSites restricted = PackedKnownSites.load(Collections.singletonList(VCF), intervals);
+        Assert.assertEquals(restricted.size(), 4);
+        final SimpleInterval wholeContig1 = new SimpleInterval("1", 1, 100000);
+        Assert.assertEquals(restricted.getOverlapping(wholeContig1).stream().map(GATKVariant::getStart).collect(Collectors.toList()), Arrays.asList(199, 200));
+        Assert.assertEquals(restricted.getOverlapping(new SimpleInterval("3", 1, 100000)).size(), 2);
+        Assert.assertTrue(restricted.getOverlapping(new SimpleInterval("2", 1, 100000)).isEmpty());
+        Assert.assertEquals(all.getOverlapping(wholeContig1).size(), 14);
+    }
+}
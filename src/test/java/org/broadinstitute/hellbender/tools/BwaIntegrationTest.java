@@ -0,0 +1,64 @@
+package org.broadinstitute.hellbender.tools;
+
+import org.broadinstitute.hellbender.CommandLineProgramTest;
+import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
+import org.broadinstitute.hellbender.tools.spark.bwa.BwaArgumentCollection;
+import org.broadinstitute.hellbender.utils.test.ArgumentsBuilder;
+import org.broadinstitute.hellbender.utils.test.SamAssertionUtils;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.File;
+
+public final class BwaIntegrationTest extends CommandLineProgramTest {
+
+    // the same test data as BwaSpark, which should give the same alignments
+    private static final File TEST_DIR = new File(toolsTestDir, "spark/bwa/BwaSpark");
+
+    @Override
+    public String getTestedClassName() {
+        return Bwa.class.getSimpleName();
+    }
+
+    private static ArgumentsBuilder makeArgs(final String input, final File output, final int batchSize, final int alignerThreads) {
+        final ArgumentsBuilder args = new ArgumentsBuilder();
+        args.addFileArgument(StandardArgumentDefinitions.REFERENCE_LONG_NAME, new File(TEST_DIR, "ref.fa"));
+        args.addFileArgument(StandardArgumentDefinitions.INPUT_LONG_NAME, new File(TEST_DIR, input));
+        args.addBooleanArgument(StandardArgumentDefinitions.DISABLE_SEQUENCE_DICT_VALIDATION_NAME, true); // disable since input does not have a sequence dictionary
+        args.addOutput(output);
+        args.addFileArgument(BwaArgumentCollection.BWA_MEM_INDEX_IMAGE_FULL_NAME, new File(TEST_DIR, "ref.fa.img"));
+        args.addArgument(Bwa.BATCH_SIZE_FULL_NAME, String.valueOf(batchSize));
+        args.addArgument(Bwa.ALIGNER_THREADS_FULL_NAME, String.valueOf(alignerThreads));
+        return args;
+    }
+
+    @DataProvider(name = "alignerThreads")
+    public Object[][] alignerThreads() {
+        return new Object[][]{{1}, {4}};
+    }
+
+    @Test(dataProvider = "alignerThreads")
+    public void testPairedEnd(final int alignerThreads) throws Exception {
+        final File output = createTempFile("bwa", ".bam");
+        // BWA estimates the insert sizes from each batch, so all the pairs must be in one batch to match BwaSpark
+        runCommandLine(makeArgs("R.bam", output, 100000, alignerThreads));
+
+        SamAssertionUtils.assertSamsEqual(output, new File(TEST_DIR, "bwa.sam"));
+    }
+
+    @DataProvider(name = "singleEndBatches")
+    public Object[][] singleEndBatches() {
+        // the single-end alignments don't depend on the batches, so they should all give the same results
+        return new Object[][]{{1, 1}, {7, 4}, {100000, 2}};
+    }
+
+    @Test(dataProvider = "singleEndBatches")
+    public void testSingleEnd(final int batchSize, final int alignerThreads) throws Exception {
+        final File output = createTempFile("bwa", ".bam");
+        final ArgumentsBuilder args = makeArgs("seR.bam", output, batchSize, alignerThreads);
+        args.add("--" + BwaArgumentCollection.SINGLE_END_ALIGNMENT_FULL_NAME);
+        runCommandLine(args);
+
+        SamAssertionUtils.assertSamsEqual(output, new File(TEST_DIR, "seBwa.bam"));
+    }
+}
@@ -1,6 +1,7 @@
 package org.broadinstitute.hellbender.tools.examples;
 
 import org.broadinstitute.hellbender.CommandLineProgramTest;
+import org.broadinstitute.hellbender.engine.AssemblyRegionWalker;
 import org.broadinstitute.hellbender.utils.test.IntegrationTestSpec;
 import org.testng.annotations.Test;
 
@@ -22,4 +23,20 @@ public class ExampleAssemblyRegionWalkerIntegrationTest extends CommandLineProgr
 
         testSpec.executeTest("testExampleAssemblyRegionWalker", this);
     }
+
+    @Test
+    public void testExampleAssemblyRegionWalkerMultiThreaded() throws Exception {
+        // output must be identical to that of the single-threaded traversal
+        IntegrationTestSpec testSpec = new IntegrationTestSpec(
+                " -R " + b37_reference_20_21 +
+                " -I " + NA12878_20_21_WGS_bam +
+                " -knownVariants " + dbsnp_138_b37_20_21_vcf +
+                " -L 20:10000000-10050000 " +
+                " --" + AssemblyRegionWalker.ASSEMBLY_REGION_THREADS_LONG_NAME + " 4" +
+                " -O %s",
+                Arrays.asList(TEST_OUTPUT_DIRECTORY + "expected_ExampleAssemblyRegionWalkerIntegrationTest_output.txt")
+        );
+
+        testSpec.executeTest("testExampleAssemblyRegionWalkerMultiThreaded", this);
+    }
 }
@@ -3,6 +3,7 @@ package org.broadinstitute.hellbender.tools.funcotator;
 import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.tools.funcotator.dataSources.xsv.SimpleKeyXsvFuncotationFactory;
+import org.broadinstitute.hellbender.utils.test.IntegrationTestSpec;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
@@ -128,4 +129,44 @@ public class FuncotatorIntegrationTest extends CommandLineProgramTest {
         // Run the beast:
         runCommandLine(arguments);
     }
+
+    @Test(dataProvider = "provideForIntegrationTest")
+    public void testMultithreadedAnnotationMatchesSingleThreaded(final String dataSourcesPath,
+                                                                 final FuncotatorArgumentDefinitions.ReferenceVersionType refVer,
+                                                                 final String referenceFileName,
+                                                                 final String variantFileName,
+                                                                 final String transcriptName,
+                                                                 final SimpleKeyXsvFuncotationFactory.XsvDataKeyType xsvMatchType) throws IOException {
+
+        final File singleThreadedOutputFile = createTempFile("funcotator_tmp_out_1_thread", ".vcf");
+        final File multithreadedOutputFile = createTempFile("funcotator_tmp_out_4_threads", ".vcf");
+
+        for ( final File outputFile : new File[] { singleThreadedOutputFile, multithreadedOutputFile } ) {
+            final List<String> arguments = new ArrayList<>();
+
+            arguments.add("--" + FuncotatorArgumentDefinitions.DATA_SOURCES_PATH_LONG_NAME);
+            arguments.add(dataSourcesPath);
+            arguments.add("--" + FuncotatorArgumentDefinitions.REFERENCE_VERSION_LONG_NAME);
+            arguments.add(refVer.toString());
+            arguments.add("-" + StandardArgumentDefinitions.REFERENCE_SHORT_NAME);
+            arguments.add(referenceFileName);
+            arguments.add("-" + StandardArgumentDefinitions.VARIANT_SHORT_NAME);
+            arguments.add(variantFileName);
+            arguments.add("-" + StandardArgumentDefinitions.OUTPUT_SHORT_NAME);
+            arguments.add(outputFile.getAbsolutePath());
+
+            if ( outputFile == multithreadedOutputFile ) {
+                // Use small batches so that the variants are spread over all of the threads:
+                arguments.add("--" + FuncotatorArgumentDefinitions.ANNOTATION_THREADS_LONG_NAME);
+                arguments.add("4");
+                arguments.add("--" + FuncotatorArgumentDefinitions.ANNOTATION_BATCH_SIZE_LONG_NAME);
+                arguments.add("3");
+            }
+
+            runCommandLine(arguments);
+        }
+
+        // The annotated variants must be the same, and in the same order:
+        IntegrationTestSpec.assertEqualTextFiles(multithreadedOutputFile, singleThreadedOutputFile, "#");
+    }
 }
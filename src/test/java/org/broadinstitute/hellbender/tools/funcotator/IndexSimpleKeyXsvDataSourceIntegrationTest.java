@@ -0,0 +1,91 @@
+package org.broadinstitute.hellbender.tools.funcotator;
+
+import org.broadinstitute.hellbender.CommandLineProgramTest;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.tools.funcotator.dataSources.xsv.SimpleKeyXsvFuncotationFactory;
+import org.broadinstitute.hellbender.tools.funcotator.dataSources.xsv.SimpleKeyXsvIndex;
+import org.broadinstitute.hellbender.utils.test.ArgumentsBuilder;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+
+/**
+ * Integration test class for {@link IndexSimpleKeyXsvDataSource}.
+ */
+public class IndexSimpleKeyXsvDataSourceIntegrationTest extends CommandLineProgramTest {
+
+    private static File writeConfigFile(final File directory, final String type) throws IOException {
+        final File configFile = new File(directory, "simple_test.config");
+        Files.write(configFile.toPath(), Arrays.asList(
+                "name = SIMPLE_TEST",
+                "version = TEST",
+                "src_file = data.csv",
+                "origin_location = LOCAL",
+                "preprocessing_script = ",
+                "type = " + type,
+                "xsv_key = GENE_NAME",
+                "xsv_key_column = 1",
+                "xsv_delimiter = ,",
+                "xsv_permissive_cols = false"
+        ), StandardCharsets.UTF_8);
+        return configFile;
+    }
+
+    @Test
+    public void testIndexDataSource() throws IOException {
+        final File directory = createTempDir("indexSimpleKeyXsvDataSource");
+        final Path dataPath = new File(directory, "data.csv").toPath();
+        Files.copy(new File(FuncotatorTestConstants.XSV_CSV_FILE_PATH).toPath(), dataPath);
+        final File configFile = writeConfigFile(directory, FuncotatorArgumentDefinitions.DataSourceType.SIMPLE_XSV.toString());
+
+        final ArgumentsBuilder args = new ArgumentsBuilder();
+        args.addArgument(IndexSimpleKeyXsvDataSource.DATA_SOURCE_CONFIG_LONG_NAME, configFile.getAbsolutePath());
+        runCommandLine(args);
+
+        final Path indexPath = SimpleKeyXsvIndex.getIndexPath(dataPath);
+        Assert.assertTrue(Files.exists(indexPath));
+        final long lastModified = Files.getLastModifiedTime(indexPath).toMillis();
+
+        // Funcotator uses the index that was built rather than building its own:
+        try ( final SimpleKeyXsvFuncotationFactory factory = new SimpleKeyXsvFuncotationFactory("SIMPLE_TEST", dataPath, "TEST", ",", 1,
+                SimpleKeyXsvFuncotationFactory.XsvDataKeyType.GENE_NAME, new LinkedHashMap<>(), 0, false, true) ) {
+            Assert.assertTrue(factory.isIndexed());
+        }
+        Assert.assertEquals(Files.getLastModifiedTime(indexPath).toMillis(), lastModified);
+    }
+
+    @Test(expectedExceptions = UserException.BadInput.class)
+    public void testOtherDataSourceType() throws IOException {
+        final File directory = createTempDir("indexSimpleKeyXsvDataSource");
+        Files.copy(new File(FuncotatorTestConstants.XSV_CSV_FILE_PATH).toPath(), new File(directory, "data.csv").toPath());
+        final File configFile = writeConfigFile(directory, FuncotatorArgumentDefinitions.DataSourceType.COSMIC.toString());
+
+        final ArgumentsBuilder args = new ArgumentsBuilder();
+        args.addArgument(IndexSimpleKeyXsvDataSource.DATA_SOURCE_CONFIG_LONG_NAME, configFile.getAbsolutePath());
+        runCommandLine(args);
+    }
+
+    @Test(expectedExceptions = UserException.CouldNotCreateOutputFile.class)
+    public void testIndexThatCannotBeWritten() throws IOException {
+        final File directory = createTempDir("indexSimpleKeyXsvDataSource");
+        final Path dataPath = new File(directory, "data.csv").toPath();
+        Files.copy(new File(FuncotatorTestConstants.XSV_CSV_FILE_PATH).toPath(), dataPath);
+        final File configFile = writeConfigFile(directory, FuncotatorArgumentDefinitions.DataSourceType.SIMPLE_XSV.toString());
+
+        // A non-empty directory where the index should be can't be replaced by the index:
+        final Path indexPath = SimpleKeyXsvIndex.getIndexPath(dataPath);
+        Files.createDirectory(indexPath);
+        Files.createFile(indexPath.resolve("blocker"));
+
+        final ArgumentsBuilder args = new ArgumentsBuilder();
+        args.addArgument(IndexSimpleKeyXsvDataSource.DATA_SOURCE_CONFIG_LONG_NAME, configFile.getAbsolutePath());
+        runCommandLine(args);
+    }
+}
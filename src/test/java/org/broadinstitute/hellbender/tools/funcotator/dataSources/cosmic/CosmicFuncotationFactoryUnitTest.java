@@ -9,6 +9,7 @@ import org.broadinstitute.hellbender.engine.ReferenceContext;
 import org.broadinstitute.hellbender.engine.ReferenceDataSource;
 import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.tools.funcotator.Funcotation;
+import org.broadinstitute.hellbender.tools.funcotator.FuncotatorArgumentDefinitions;
 import org.broadinstitute.hellbender.tools.funcotator.FuncotatorTestConstants;
 import org.broadinstitute.hellbender.tools.funcotator.dataSources.TableFuncotation;
 import org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode.GencodeFuncotation;
@@ -280,4 +281,75 @@ public class CosmicFuncotationFactoryUnitTest extends GATKBaseTest {
             expected
         );
     }
+
+    @Test(dataProvider = "provideForTestCreateFuncotations")
+    public void testCreateFuncotationsWithCachedAndPreloadedRecords(final VariantContext variant,
+                                                                    final ReferenceContext referenceContext,
+                                                                    final List<Feature> featureList,
+                                                                    final List<GencodeFuncotation> gencodeFuncotations,
+                                                                    final List<Funcotation> expected) {
+
+        // No cache, a cache that only holds one gene, the default cache, and all records preloaded:
+        for ( final boolean preload : Arrays.asList(false, true) ) {
+            for ( final int cacheSize : Arrays.asList(0, 1, FuncotatorArgumentDefinitions.COSMIC_GENE_CACHE_SIZE_DEFAULT_VALUE) ) {
+                final CosmicFuncotationFactory cosmicFuncotationFactory =
+                        new CosmicFuncotationFactory(PATH_TO_TEST_DB, new LinkedHashMap<>(), cacheSize, preload);
+
+                // Annotate twice so that the second time may use the cache:
+                for ( int i = 0; i < 2; ++i ) {
+                    Assert.assertEquals(
+                            cosmicFuncotationFactory.createFuncotations(variant, referenceContext, featureList, gencodeFuncotations),
+                            expected
+                    );
+                }
+                cosmicFuncotationFactory.close();
+            }
+        }
+    }
+
+    @Test
+    public void testGeneCacheHitsAndMisses() {
+        final List<GencodeFuncotation> pik3ca = Collections.singletonList(
+                new GencodeFuncotationBuilder().setHugoSymbol("PIK3CA").setChromosome("chr3").setStart(178936091).setEnd(178936091).setProteinChange("p.E545K").build()
+        );
+        final List<GencodeFuncotation> notInDb = Collections.singletonList(
+                new GencodeFuncotationBuilder().setHugoSymbol("NOT_A_GENE").setChromosome("chr3").setStart(178936091).setEnd(178936091).setProteinChange("p.E545K").build()
+        );
+
+        // A cache of a single gene:
+        final CosmicFuncotationFactory cachedFactory = new CosmicFuncotationFactory(PATH_TO_TEST_DB, new LinkedHashMap<>(), 1, false);
+        cachedFactory.createFuncotations(defaultVariantContext, defaultReferenceContext, Collections.emptyList(), pik3ca);
+        cachedFactory.createFuncotations(defaultVariantContext, defaultReferenceContext, Collections.emptyList(), pik3ca);
+        Assert.assertEquals(cachedFactory.getCacheHits(), 1);
+        Assert.assertEquals(cachedFactory.getCacheMisses(), 1);
+
+        // Genes without records are cached too, and evict the least recently used gene:
+        cachedFactory.createFuncotations(defaultVariantContext, defaultReferenceContext, Collections.emptyList(), notInDb);
+        cachedFactory.createFuncotations(defaultVariantContext, defaultReferenceContext, Collections.emptyList(), notInDb);
+        cachedFactory.createFuncotations(defaultVariantContext, defaultReferenceContext, Collections.emptyList(), pik3ca);
+        Assert.assertEquals(cachedFactory.getCacheHits(), 2);
+        Assert.assertEquals(cachedFactory.getCacheMisses(), 3);
+        cachedFactory.close();
+
+        // No cache:
+        final CosmicFuncotationFactory uncachedFactory = new CosmicFuncotationFactory(PATH_TO_TEST_DB, new LinkedHashMap<>(), 0, false);
+        uncachedFactory.createFuncotations(defaultVariantContext, defaultReferenceContext, Collections.emptyList(), pik3ca);
+        uncachedFactory.createFuncotations(defaultVariantContext, defaultReferenceContext, Collections.emptyList(), pik3ca);
+        Assert.assertEquals(uncachedFactory.getCacheHits(), 0);
+        Assert.assertEquals(uncachedFactory.getCacheMisses(), 2);
+        uncachedFactory.close();
+
+        // Preloaded records never query the database:
+        final CosmicFuncotationFactory preloadedFactory = new CosmicFuncotationFactory(PATH_TO_TEST_DB, new LinkedHashMap<>(), 0, true);
+        preloadedFactory.createFuncotations(defaultVariantContext, defaultReferenceContext, Collections.emptyList(), pik3ca);
+        preloadedFactory.createFuncotations(defaultVariantContext, defaultReferenceContext, Collections.emptyList(), notInDb);
+        Assert.assertEquals(preloadedFactory.getCacheHits(), 2);
+        Assert.assertEquals(preloadedFactory.getCacheMisses(), 0);
+        preloadedFactory.close();
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNegativeGeneCacheSize() {
+        new CosmicFuncotationFactory(PATH_TO_TEST_DB, new LinkedHashMap<>(), -1, false);
+    }
 }
@@ -0,0 +1,144 @@
+package org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode;
+
+import htsjdk.samtools.util.Locatable;
+import htsjdk.tribble.annotation.Strand;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.tools.funcotator.FuncotatorUtils;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.codecs.gencode.GencodeGtfTranscriptFeature;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Unit tests for {@link GencodeTranscriptIndex}.
+ */
+public class GencodeTranscriptIndexUnitTest extends GATKBaseTest {
+
+    //==================================================================================================================
+    // Data Providers:
+
+    @DataProvider
+    private Object[][] provideForTestGetStartPositionInTranscript() {
+        return new Object[][] {
+                // Regions in exon number order on the positive strand:
+                { Arrays.asList(new SimpleInterval("chr1", 100, 199), new SimpleInterval("chr1", 300, 302), new SimpleInterval("chr1", 500, 650)), Strand.POSITIVE },
+                // Regions in exon number order on the negative strand:
+                { Arrays.asList(new SimpleInterval("chr1", 500, 650), new SimpleInterval("chr1", 300, 302), new SimpleInterval("chr1", 100, 199)), Strand.NEGATIVE },
+                // A single region:
+                { Collections.singletonList(new SimpleInterval("chr1", 250, 250)), Strand.POSITIVE },
+                { Collections.singletonList(new SimpleInterval("chr1", 250, 250)), Strand.NEGATIVE },
+                // No regions:
+                { Collections.emptyList(), Strand.POSITIVE },
+        };
+    }
+
+    //==================================================================================================================
+    // Tests:
+
+    @Test(dataProvider = "provideForTestGetStartPositionInTranscript")
+    public void testGetStartPositionInTranscript(final List<? extends Locatable> codingRegions, final Strand strand) {
+        final GencodeTranscriptIndex.IndexedTranscript indexedTranscript = new GencodeTranscriptIndex.IndexedTranscript(codingRegions, "ATGCCC");
+
+        Assert.assertEquals(indexedTranscript.getCodingRegions(), codingRegions);
+        Assert.assertEquals(indexedTranscript.getCodingSequence(), "ATGCCC");
+        Assert.assertEquals(indexedTranscript.getCodingSequenceBases(), "ATGCCC".getBytes());
+
+        // Every position in and around the regions, for variants of different lengths:
+        for ( int start = 50; start <= 700; ++start ) {
+            for ( final int length : Arrays.asList(1, 2, 5) ) {
+                final SimpleInterval variant = new SimpleInterval("chr1", start, start + length - 1);
+                Assert.assertEquals(
+                        indexedTranscript.getStartPositionInTranscript(variant, strand),
+                        FuncotatorUtils.getStartPositionInTranscript(variant, codingRegions, strand),
+                        variant.toString()
+                );
+            }
+        }
+    }
+
+    @Test(expectedExceptions = GATKException.class)
+    public void testGetStartPositionInTranscriptOnOtherContig() {
+        final GencodeTranscriptIndex.IndexedTranscript indexedTranscript =
+                new GencodeTranscriptIndex.IndexedTranscript(Collections.singletonList(new SimpleInterval("chr1", 100, 199)), "ATG");
+        indexedTranscript.getStartPositionInTranscript(new SimpleInterval("chr2", 150, 150), Strand.POSITIVE);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNonPositiveMaxTranscripts() {
+        new GencodeTranscriptIndex(0, transcriptId -> "ATG");
+    }
+
+    @Test
+    public void testLeastRecentlyUsedTranscriptsAreEvicted() {
+        final List<GencodeGtfTranscriptFeature> transcripts = DataProviderForExampleGencodeGtfGene.createGencodeGtfGeneFeature().getTranscripts();
+        final GencodeGtfTranscriptFeature transcript1 = transcripts.get(0);
+        final GencodeGtfTranscriptFeature transcript2 = transcripts.get(1);
+        final GencodeGtfTranscriptFeature transcript3 = transcripts.get(2);
+
+        final Map<String, Integer> numLoads = new HashMap<>();
+        final GencodeTranscriptIndex index = new GencodeTranscriptIndex(2, transcriptId -> {
+            numLoads.merge(transcriptId, 1, Integer::sum);
+            return "ATG";
+        });
+
+        // A transcript is loaded once, and then found in the index:
+        final GencodeTranscriptIndex.IndexedTranscript indexedTranscript1 = index.get(transcript1);
+        Assert.assertSame(index.get(transcript1), indexedTranscript1);
+        Assert.assertEquals(numLoads.get(transcript1.getTranscriptId()), Integer.valueOf(1));
+        Assert.assertEquals(indexedTranscript1.getCodingRegions(), GencodeFuncotationFactory.getSortedExonAndStartStopPositions(transcript1));
+
+        index.get(transcript2);
+        // Use transcript 1 again, so that transcript 2 is the least recently used when transcript 3 is indexed:
+        Assert.assertSame(index.get(transcript1), indexedTranscript1);
+        index.get(transcript3);
+        Assert.assertEquals(index.size(), 2);
+
+        Assert.assertSame(index.get(transcript1), indexedTranscript1);
+        Assert.assertEquals(numLoads.get(transcript1.getTranscriptId()), Integer.valueOf(1));
+        index.get(transcript2);
+        Assert.assertEquals(numLoads.get(transcript2.getTranscriptId()), Integer.valueOf(2));
+        Assert.assertEquals(numLoads.get(transcript3.getTranscriptId()), Integer.valueOf(1));
+        Assert.assertEquals(index.size(), 2);
+    }
+
+    @Test
+    public void testTranscriptsAreLoadedOutsideOfTheLock() throws Exception {
+        final List<GencodeGtfTranscriptFeature> transcripts = DataProviderForExampleGencodeGtfGene.createGencodeGtfGeneFeature().getTranscripts();
+        final GencodeGtfTranscriptFeature slowTranscript = transcripts.get(0);
+        final CountDownLatch slowLoadStarted = new CountDownLatch(1);
+        final CountDownLatch otherTranscriptIndexed = new CountDownLatch(1);
+        final GencodeTranscriptIndex index = new GencodeTranscriptIndex(GencodeTranscriptIndex.DEFAULT_MAX_TRANSCRIPTS, transcriptId -> {
+            if ( transcriptId.equals(slowTranscript.getTranscriptId()) ) {
+                slowLoadStarted.countDown();
+                try {
+                    Assert.assertTrue(otherTranscriptIndexed.await(1, TimeUnit.MINUTES));
+                }
+                catch ( final InterruptedException e ) {
+                    throw new AssertionError(e);
+                }
+            }
+            return "ATG";
+        });
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<GencodeTranscriptIndex.IndexedTranscript> slowIndexedTranscript = executor.submit(() -> index.get(slowTranscript));
+            Assert.assertTrue(slowLoadStarted.await(1, TimeUnit.MINUTES));
+
+            // Another transcript can be indexed while the slow one is being loaded:
+            index.get(transcripts.get(1));
+            otherTranscriptIndexed.countDown();
+
+            Assert.assertSame(index.get(slowTranscript), slowIndexedTranscript.get(1, TimeUnit.MINUTES));
+            Assert.assertEquals(index.size(), 2);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+}
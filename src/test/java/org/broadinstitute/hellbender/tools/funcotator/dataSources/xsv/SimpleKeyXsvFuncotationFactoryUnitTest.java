@@ -19,7 +19,10 @@ import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 
 /**
@@ -379,4 +382,64 @@ public class SimpleKeyXsvFuncotationFactoryUnitTest extends GATKBaseTest {
         }
     }
 
+    @Test(dataProvider = "provideForTestGetSupportedFuncotationFields")
+    public void testCreateFuncotationsWithKeyIndex(final Path inputPath,
+                                                   final int headerLinesToIgnore,
+                                                   final String name,
+                                                   final String delimiter,
+                                                   final int keyColumn,
+                                                   final SimpleKeyXsvFuncotationFactory.XsvDataKeyType dataKeyType,
+                                                   final LinkedHashSet<String> expected) throws IOException {
+
+        // Copy the data source so that its index is written to a temporary location:
+        final Path dataPath = createTempFile("simpleKeyXsvIndexed", ".csv").toPath();
+        Files.copy(inputPath, dataPath, StandardCopyOption.REPLACE_EXISTING);
+        SimpleKeyXsvIndex.getIndexPath(dataPath).toFile().deleteOnExit();
+
+        try ( final SimpleKeyXsvFuncotationFactory inMemoryFactory = new SimpleKeyXsvFuncotationFactory(name, dataPath, "VERSION", delimiter, keyColumn, dataKeyType, new LinkedHashMap<>(), headerLinesToIgnore, false, false);
+              final SimpleKeyXsvFuncotationFactory indexedFactory = new SimpleKeyXsvFuncotationFactory(name, dataPath, "VERSION", delimiter, keyColumn, dataKeyType, new LinkedHashMap<>(), headerLinesToIgnore, false, true) ) {
+
+            Assert.assertTrue(indexedFactory.isIndexed());
+            Assert.assertTrue(Files.exists(SimpleKeyXsvIndex.getIndexPath(dataPath)));
+            Assert.assertEquals(indexedFactory.getSupportedFuncotationFields(), expected);
+
+            // Every key in the file, as well as a missing key:
+            final List<GencodeFuncotation> gencodeFuncotations = new ArrayList<>();
+            for ( final List<String> dataRow : dataTable ) {
+                gencodeFuncotations.add(new GencodeFuncotationBuilder().setHugoSymbol(dataRow.get(keyColumn)).build());
+            }
+            gencodeFuncotations.add(new GencodeFuncotationBuilder().setHugoSymbol("NOT THE RIGHT GENE NAME").build());
+
+            final List<Funcotation> expectedFuncotations = inMemoryFactory.createFuncotations(defaultVariantContext, defaultReferenceContext, Collections.emptyList(), gencodeFuncotations);
+            Assert.assertEquals(expectedFuncotations.size(), squareSize - headerLinesToIgnore - 1);
+            Assert.assertEquals(indexedFactory.createFuncotations(defaultVariantContext, defaultReferenceContext, Collections.emptyList(), gencodeFuncotations), expectedFuncotations);
+
+            // The index is reused once built:
+            try ( final SimpleKeyXsvFuncotationFactory reopenedFactory = new SimpleKeyXsvFuncotationFactory(name, dataPath, "VERSION", delimiter, keyColumn, dataKeyType, new LinkedHashMap<>(), headerLinesToIgnore, false, true) ) {
+                Assert.assertEquals(reopenedFactory.createFuncotations(defaultVariantContext, defaultReferenceContext, Collections.emptyList(), gencodeFuncotations), expectedFuncotations);
+            }
+        }
+    }
+
+    @Test
+    public void testKeyIndexThatCannotBeWritten() throws IOException {
+        final Path dataPath = createTempFile("simpleKeyXsvIndexed", ".csv").toPath();
+        Files.copy(IOUtils.getPath(FuncotatorTestConstants.XSV_CSV_FILE_PATH), dataPath, StandardCopyOption.REPLACE_EXISTING);
+
+        // A non-empty directory where the index should be can't be replaced by the index:
+        final Path indexPath = SimpleKeyXsvIndex.getIndexPath(dataPath);
+        Files.createDirectory(indexPath);
+        Files.createFile(indexPath.resolve("blocker"));
+        indexPath.resolve("blocker").toFile().deleteOnExit();
+        indexPath.toFile().deleteOnExit();
+
+        // The data source is read into memory instead:
+        try ( final SimpleKeyXsvFuncotationFactory factory = new SimpleKeyXsvFuncotationFactory("name", dataPath, "VERSION", ",", 1, SimpleKeyXsvFuncotationFactory.XsvDataKeyType.GENE_NAME, new LinkedHashMap<>(), 0, false, true) ) {
+            Assert.assertFalse(factory.isIndexed());
+
+            final List<GencodeFuncotation> gencodeFuncotations = Collections.singletonList(new GencodeFuncotationBuilder().setHugoSymbol("R3C2").build());
+            Assert.assertEquals(factory.createFuncotations(defaultVariantContext, defaultReferenceContext, Collections.emptyList(), gencodeFuncotations).size(), 1);
+        }
+    }
+
 }
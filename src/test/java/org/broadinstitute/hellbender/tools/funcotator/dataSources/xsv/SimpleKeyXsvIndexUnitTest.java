@@ -0,0 +1,177 @@
+package org.broadinstitute.hellbender.tools.funcotator.dataSources.xsv;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.function.Function;
+
+/**
+ * Unit test class for {@link SimpleKeyXsvIndex}.
+ */
+public class SimpleKeyXsvIndexUnitTest extends GATKBaseTest {
+
+    //==================================================================================================================
+    // Private Static Members:
+
+    private static final String PARAMETERS = "delimiter=,;keyColumn=1";
+
+    private static final Function<String, String> KEY_OF_ROW = row -> row.isEmpty() ? null : row.split(",")[1];
+
+    //==================================================================================================================
+    // Helper Methods:
+
+    private Path writeDataFile(final String contents) throws IOException {
+        final File dataFile = createTempFile("simpleKeyXsvIndex", ".csv");
+        Files.write(dataFile.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+        return dataFile.toPath();
+    }
+
+    private SimpleKeyXsvIndex buildAndOpen(final Path dataPath, final int numLinesToSkip) {
+        final Path indexPath = SimpleKeyXsvIndex.getIndexPath(dataPath);
+        indexPath.toFile().deleteOnExit();
+        SimpleKeyXsvIndex.build(dataPath, indexPath, PARAMETERS, numLinesToSkip, KEY_OF_ROW);
+        return SimpleKeyXsvIndex.open(indexPath, dataPath, PARAMETERS);
+    }
+
+    //==================================================================================================================
+    // Data Providers:
+
+    @DataProvider
+    private Object[][] provideLineTerminators() {
+        return new Object[][] {
+                { "\n" },
+                { "\r\n" },
+        };
+    }
+
+    //==================================================================================================================
+    // Tests:
+
+    @Test(dataProvider = "provideLineTerminators")
+    public void testGetRow(final String lineTerminator) throws IOException {
+        final Path dataPath = writeDataFile(
+                String.join(lineTerminator, "H1,H2,H3", "a,PIK3CA,1", "b,MUC16,2", "c,ÄÖÜ,3", "d,PIK3CA,4", "e,TP53,5")
+        );
+
+        try ( final SimpleKeyXsvIndex index = buildAndOpen(dataPath, 1) ) {
+            Assert.assertEquals(index.size(), 4);
+
+            // The last row of a key wins:
+            Assert.assertEquals(index.getRow("PIK3CA"), "d,PIK3CA,4");
+            Assert.assertEquals(index.getRow("MUC16"), "b,MUC16,2");
+            Assert.assertEquals(index.getRow("ÄÖÜ"), "c,ÄÖÜ,3");
+
+            // The last line has no line terminator:
+            Assert.assertEquals(index.getRow("TP53"), "e,TP53,5");
+
+            Assert.assertNull(index.getRow("H2"));
+            Assert.assertNull(index.getRow("pik3ca"));
+            Assert.assertNull(index.getRow(""));
+        }
+    }
+
+    @Test
+    public void testRowsWithoutKeysAreNotIndexed() throws IOException {
+        final Path dataPath = writeDataFile("skipped\nH1,H2\na,KEY\n\n");
+
+        try ( final SimpleKeyXsvIndex index = buildAndOpen(dataPath, 2) ) {
+            Assert.assertEquals(index.size(), 1);
+            Assert.assertEquals(index.getRow("KEY"), "a,KEY");
+        }
+    }
+
+    @Test
+    public void testEmptyIndex() throws IOException {
+        final Path dataPath = writeDataFile("H1,H2\n");
+
+        try ( final SimpleKeyXsvIndex index = buildAndOpen(dataPath, 1) ) {
+            Assert.assertEquals(index.size(), 0);
+            Assert.assertNull(index.getRow("KEY"));
+        }
+    }
+
+    @Test
+    public void testIsUpToDate() throws IOException {
+        final Path dataPath = writeDataFile("H1,H2\na,KEY\n");
+        final Path indexPath = SimpleKeyXsvIndex.getIndexPath(dataPath);
+        indexPath.toFile().deleteOnExit();
+
+        Assert.assertFalse(SimpleKeyXsvIndex.isUpToDate(indexPath, dataPath, PARAMETERS));
+
+        SimpleKeyXsvIndex.build(dataPath, indexPath, PARAMETERS, 1, KEY_OF_ROW);
+        Assert.assertTrue(SimpleKeyXsvIndex.isUpToDate(indexPath, dataPath, PARAMETERS));
+        Assert.assertFalse(SimpleKeyXsvIndex.isUpToDate(indexPath, dataPath, PARAMETERS + ";other"));
+
+        // Changing the data file makes the index out of date:
+        Files.setLastModifiedTime(dataPath, FileTime.fromMillis(Files.getLastModifiedTime(dataPath).toMillis() - 10000));
+        Assert.assertFalse(SimpleKeyXsvIndex.isUpToDate(indexPath, dataPath, PARAMETERS));
+    }
+
+    @Test(expectedExceptions = UserException.class)
+    public void testOpenOutOfDateIndex() throws IOException {
+        final Path dataPath = writeDataFile("H1,H2\na,KEY\n");
+        final Path indexPath = SimpleKeyXsvIndex.getIndexPath(dataPath);
+        indexPath.toFile().deleteOnExit();
+
+        SimpleKeyXsvIndex.build(dataPath, indexPath, PARAMETERS, 1, KEY_OF_ROW);
+        Files.write(dataPath, "H1,H2\na,KEY\nb,OTHER\n".getBytes(StandardCharsets.UTF_8));
+
+        SimpleKeyXsvIndex.open(indexPath, dataPath, PARAMETERS);
+    }
+
+    @Test
+    public void testTruncatedIndex() throws IOException {
+        final Path dataPath = writeDataFile("H1,H2\na,KEY\nb,OTHER\n");
+        final Path indexPath = SimpleKeyXsvIndex.getIndexPath(dataPath);
+        indexPath.toFile().deleteOnExit();
+
+        SimpleKeyXsvIndex.build(dataPath, indexPath, PARAMETERS, 1, KEY_OF_ROW);
+        try ( final FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.WRITE) ) {
+            channel.truncate(channel.size() - 1);
+        }
+
+        // The header is intact, but the index is not complete:
+        Assert.assertFalse(SimpleKeyXsvIndex.isUpToDate(indexPath, dataPath, PARAMETERS));
+        Assert.assertThrows(UserException.CouldNotReadInputFile.class, () -> SimpleKeyXsvIndex.open(indexPath, dataPath, PARAMETERS));
+    }
+
+    @Test
+    public void testBuildReplacesIndex() throws IOException {
+        final File directory = createTempDir("simpleKeyXsvIndex");
+        final Path dataPath = new File(directory, "data.csv").toPath();
+        final Path indexPath = SimpleKeyXsvIndex.getIndexPath(dataPath);
+        Files.write(dataPath, "H1,H2\na,KEY\n".getBytes(StandardCharsets.UTF_8));
+        SimpleKeyXsvIndex.build(dataPath, indexPath, PARAMETERS, 1, KEY_OF_ROW);
+
+        Files.write(dataPath, "H1,H2\na,KEY\nb,OTHER\n".getBytes(StandardCharsets.UTF_8));
+        SimpleKeyXsvIndex.build(dataPath, indexPath, PARAMETERS, 1, KEY_OF_ROW);
+
+        // The index is written to a temporary file that is renamed, which must not be left behind:
+        Assert.assertEquals(new HashSet<>(Arrays.asList(directory.list())), new HashSet<>(Arrays.asList("data.csv", "data.csv" + SimpleKeyXsvIndex.INDEX_EXTENSION)));
+        try ( final SimpleKeyXsvIndex index = SimpleKeyXsvIndex.open(indexPath, dataPath, PARAMETERS) ) {
+            Assert.assertEquals(index.size(), 2);
+            Assert.assertEquals(index.getRow("OTHER"), "b,OTHER");
+        }
+    }
+
+    @Test(expectedExceptions = UserException.CouldNotCreateOutputFile.class)
+    public void testBuildIntoMissingDirectory() throws IOException {
+        final Path dataPath = writeDataFile("H1,H2\na,KEY\n");
+        final Path indexPath = new File(createTempDir("simpleKeyXsvIndex"), "missing/data.csv" + SimpleKeyXsvIndex.INDEX_EXTENSION).toPath();
+
+        SimpleKeyXsvIndex.build(dataPath, indexPath, PARAMETERS, 1, KEY_OF_ROW);
+    }
+}
@@ -3,9 +3,11 @@ package org.broadinstitute.hellbender.tools.spark.bwa;
 import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.engine.spark.GATKSparkTool;
+import org.broadinstitute.hellbender.utils.bwa.BwaMemIndexCache;
 import org.broadinstitute.hellbender.utils.test.ArgumentsBuilder;
 import org.broadinstitute.hellbender.utils.test.SamAssertionUtils;
 import org.testng.Assert;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.io.File;
@@ -17,8 +19,13 @@ public final class BwaSparkIntegrationTest extends CommandLineProgramTest {
         return BwaSpark.class.getSimpleName();
     }
 
-    @Test
-    public void testPairedEnd() throws Exception {
+    @DataProvider(name = "bwaThreads")
+    public Object[][] bwaThreads() {
+        return new Object[][]{{1}, {4}};
+    }
+
+    @Test(dataProvider = "bwaThreads")
+    public void testPairedEnd(final int bwaThreads) throws Exception {
         final File expectedSam = getTestFile("bwa.sam");
 
         final File ref = getTestFile("ref.fa");
@@ -34,13 +41,20 @@ public final class BwaSparkIntegrationTest extends CommandLineProgramTest {
         args.addArgument(GATKSparkTool.NUM_REDUCERS_LONG_NAME,"1");
         args.addOutput(output);
         args.addFileArgument(BwaArgumentCollection.BWA_MEM_INDEX_IMAGE_FULL_NAME, getTestFile("ref.fa.img"));
+        args.addArgument(BwaArgumentCollection.BWA_THREADS_FULL_NAME, String.valueOf(bwaThreads));
         this.runCommandLine(args.getArgsArray());
 
         SamAssertionUtils.assertSamsEqual(new File(output, "part-r-00000.bam"), expectedSam);
     }
 
-    @Test
-    public void testSingleEnd() throws Exception {
+    @DataProvider(name = "alignmentBatchSizes")
+    public Object[][] alignmentBatchSizes() {
+        // the single-end alignments don't depend on the batches, so they should all give the same results
+        return new Object[][]{{0}, {1}, {7}, {1000000}};
+    }
+
+    @Test(dataProvider = "alignmentBatchSizes")
+    public void testSingleEnd(final int alignmentBatchSize) throws Exception {
         final File expectedSam = getTestFile("seBwa.bam");
 
         final File ref = getTestFile("ref.fa");
@@ -56,9 +70,34 @@ public final class BwaSparkIntegrationTest extends CommandLineProgramTest {
         args.addArgument(GATKSparkTool.NUM_REDUCERS_LONG_NAME,"1");
         args.addOutput(output);
         args.add("--" + BwaArgumentCollection.SINGLE_END_ALIGNMENT_FULL_NAME);
+        args.addArgument(BwaArgumentCollection.ALIGNMENT_BATCH_SIZE_FULL_NAME, String.valueOf(alignmentBatchSize));
         this.runCommandLine(args.getArgsArray());
 
         SamAssertionUtils.assertSamsEqual(new File(output, "part-r-00000.bam"), expectedSam);
     }
 
+    @Test
+    public void testIndexMemoryBudget() throws Exception {
+        final File ref = getTestFile("ref.fa");
+        final File output = createTempFile("bwa", ".bam");
+        Assert.assertTrue(output.delete());
+
+        final ArgumentsBuilder args = new ArgumentsBuilder();
+        args.addFileArgument(StandardArgumentDefinitions.REFERENCE_LONG_NAME, ref);
+        args.addFileArgument(StandardArgumentDefinitions.INPUT_LONG_NAME, getTestFile("seR.bam"));
+        args.addBooleanArgument(StandardArgumentDefinitions.DISABLE_SEQUENCE_DICT_VALIDATION_NAME , true); // disable since input does not have a sequence dictionary
+        args.addBooleanArgument(GATKSparkTool.SHARDED_OUTPUT_LONG_NAME, true);
+        args.addArgument(GATKSparkTool.NUM_REDUCERS_LONG_NAME,"1");
+        args.addOutput(output);
+        args.add("--" + BwaArgumentCollection.SINGLE_END_ALIGNMENT_FULL_NAME);
+        args.addFileArgument(BwaArgumentCollection.BWA_MEM_INDEX_IMAGE_FULL_NAME, getTestFile("ref.fa.img"));
+        args.addArgument(BwaArgumentCollection.BWA_INDEX_MEMORY_BUDGET_FULL_NAME, "0");
+        final long budget = BwaMemIndexCache.getMemoryBudget();
+        this.runCommandLine(args.getArgsArray());
+
+        // the budget is passed with the tasks, so it isn't left to later tools in the executors (this VM in local mode)
+        Assert.assertEquals(BwaMemIndexCache.getMemoryBudget(), budget);
+        Assert.assertEquals(BwaMemIndexCache.getMetrics().getNumInstances(), 0);
+        SamAssertionUtils.assertSamsEqual(new File(output, "part-r-00000.bam"), getTestFile("seBwa.bam"));
+    }
 }
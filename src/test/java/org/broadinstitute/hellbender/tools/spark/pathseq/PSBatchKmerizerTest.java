@@ -0,0 +1,103 @@
+package org.broadinstitute.hellbender.tools.spark.pathseq;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerShort;
+import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerizer;
+import org.broadinstitute.hellbender.tools.spark.utils.LargeLongHopscotchSet;
+import org.broadinstitute.hellbender.tools.spark.utils.LongBloomFilter;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+public class PSBatchKmerizerTest extends GATKBaseTest {
+
+    private static final int K_SIZE = 15;
+    private static final String BASES = "ACGTacgtN";
+
+    private static String randomSequence(final Random random, final int length, final String alphabet) {
+        final StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+
+    @DataProvider(name = "kmerCollections")
+    public Object[][] getKmerCollections() {
+        final Random random = new Random(7);
+        final SVKmerShort mask = SVKmerShort.getMask(new byte[]{3, 7}, K_SIZE);
+        // every other kmer of a reference, so that the test sequences have both kmers in and not in the collection
+        final String reference = randomSequence(random, 2000, "ACGT");
+        final LargeLongHopscotchSet set = new LargeLongHopscotchSet(reference.length());
+        final LongBloomFilter bloomFilter = new LongBloomFilter(reference.length(), 0.01);
+        final SVKmerizer kmerizer = new SVKmerizer(reference.getBytes(), K_SIZE, 1, new SVKmerShort(K_SIZE));
+        for (int i = 0; kmerizer.hasNext(); i++) {
+            final long kmer = PSKmerCollection.canonicalizeAndMask((SVKmerShort) kmerizer.next(), K_SIZE, mask);
+            if (i % 2 == 0) {
+                set.add(kmer);
+                bloomFilter.add(kmer);
+            }
+        }
+        return new Object[][]{
+                {new PSKmerSet(set, K_SIZE, mask), reference},
+                {new PSKmerBloomFilter(bloomFilter, K_SIZE, mask, set.size()), reference}
+        };
+    }
+
+    private static int countKmersOneByOne(final PSKmerCollection kmerLib, final byte[] bases) {
+        final SVKmerizer kmerizer = new SVKmerizer(bases, K_SIZE, 1, new SVKmerShort(K_SIZE));
+        int count = 0;
+        while (kmerizer.hasNext()) {
+            if (kmerLib.contains((SVKmerShort) kmerizer.next())) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test(dataProvider = "kmerCollections")
+    public void testCountKmers(final PSKmerCollection kmerLib, final String reference) {
+        final Random random = new Random(11);
+        final PSBatchKmerizer kmerizer = new PSBatchKmerizer(kmerLib);
+        for (int i = 0; i < 500; i++) {
+            // pieces of the reference, reverse-complemented or not, with random bases, Ns and lower-case bases mixed in
+            final int start = random.nextInt(reference.length() - 300);
+            final StringBuilder sb = new StringBuilder(reference.substring(start, start + random.nextInt(300)));
+            if (random.nextBoolean()) {
+                sb.reverse();
+                for (int j = 0; j < sb.length(); j++) {
+                    sb.setCharAt(j, "TGCA".charAt("ACGT".indexOf(sb.charAt(j))));
+                }
+            }
+            for (int j = random.nextInt(4); j > 0 && sb.length() > 0; j--) {
+                sb.setCharAt(random.nextInt(sb.length()), BASES.charAt(random.nextInt(BASES.length())));
+            }
+            sb.append(randomSequence(random, random.nextInt(20), BASES));
+            final byte[] bases = sb.toString().getBytes();
+
+            final int expectedCount = countKmersOneByOne(kmerLib, bases);
+            Assert.assertEquals(kmerizer.countKmers(bases, Integer.MAX_VALUE), expectedCount, sb.toString());
+            final int maxCount = 1 + random.nextInt(50);
+            Assert.assertEquals(kmerizer.countKmers(bases, maxCount), Math.min(expectedCount, maxCount), sb.toString());
+        }
+    }
+
+    @Test(dataProvider = "kmerCollections")
+    public void testCountKmersEdgeCases(final PSKmerCollection kmerLib, final String reference) {
+        final PSBatchKmerizer kmerizer = new PSBatchKmerizer(kmerLib);
+        Assert.assertEquals(kmerizer.countKmers(new byte[0], 10), 0);
+        Assert.assertEquals(kmerizer.countKmers(reference.substring(0, K_SIZE - 1).getBytes(), 10), 0);
+        Assert.assertEquals(kmerizer.countKmers(reference.getBytes(), 0), 0);
+        // the first kmer of the reference is in the collection
+        Assert.assertEquals(kmerizer.countKmers(reference.substring(0, K_SIZE).getBytes(), 10), 1);
+        Assert.assertEquals(kmerizer.countKmers(reference.substring(0, K_SIZE).toLowerCase().getBytes(), 10), 1);
+        Assert.assertEquals(kmerizer.countKmers((reference.substring(0, K_SIZE - 1) + "N").getBytes(), 10), 0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testEvenKmerSize() {
+        new PSBatchKmerizer(new PSKmerSet(new LargeLongHopscotchSet(10), 14, SVKmerShort.getMask(new byte[0], 14)));
+    }
+}
@@ -22,14 +22,17 @@ public class MarkDuplicatesSparkUnitTest extends GATKBaseTest {
     public Object[][] loadReads() {
         String dir = new File("src/test/resources/org/broadinstitute/hellbender/tools/walkers/MarkDuplicatesGATK/").getAbsolutePath();
         return new Object[][]{
-                {dir + "/example.chr1.1-1K.unmarkedDups.noDups.bam", 20, 0},
-                {dir + "/example.chr1.1-1K.unmarkedDups.bam", 90, 6},
-                {dir + "/example.chr1.1-1K.markedDups.bam", 90, 6},
+                {dir + "/example.chr1.1-1K.unmarkedDups.noDups.bam", 20, 0, false},
+                {dir + "/example.chr1.1-1K.unmarkedDups.bam", 90, 6, false},
+                {dir + "/example.chr1.1-1K.markedDups.bam", 90, 6, false},
+                {dir + "/example.chr1.1-1K.unmarkedDups.noDups.bam", 20, 0, true},
+                {dir + "/example.chr1.1-1K.unmarkedDups.bam", 90, 6, true},
+                {dir + "/example.chr1.1-1K.markedDups.bam", 90, 6, true},
         };
     }
 
     @Test(dataProvider = "md", groups = "spark")
-    public void markDupesTest(final String input, final long totalExpected, final long dupsExpected) throws IOException {
+    public void markDupesTest(final String input, final long totalExpected, final long dupsExpected, final boolean sortBasedGrouping) throws IOException {
         JavaSparkContext ctx = SparkContextFactory.getTestSparkContext();
 
         ReadsSparkSource readSource = new ReadsSparkSource(ctx);
@@ -40,7 +43,7 @@ public class MarkDuplicatesSparkUnitTest extends GATKBaseTest {
         OpticalDuplicatesArgumentCollection opticalDuplicatesArgumentCollection = new OpticalDuplicatesArgumentCollection();
         final OpticalDuplicateFinder finder = opticalDuplicatesArgumentCollection.READ_NAME_REGEX != null ?
                 new OpticalDuplicateFinder(opticalDuplicatesArgumentCollection.READ_NAME_REGEX, opticalDuplicatesArgumentCollection.OPTICAL_DUPLICATE_PIXEL_DISTANCE, null) : null;
-        JavaRDD<GATKRead> markedReads = MarkDuplicatesSpark.mark(reads, header, MarkDuplicatesScoringStrategy.SUM_OF_BASE_QUALITIES, finder, 1);
+        JavaRDD<GATKRead> markedReads = MarkDuplicatesSpark.mark(reads, header, MarkDuplicatesScoringStrategy.SUM_OF_BASE_QUALITIES, finder, 1, sortBasedGrouping);
 
         Assert.assertEquals(markedReads.count(), totalExpected);
         JavaRDD<GATKRead> dupes = markedReads.filter(GATKRead::isDuplicate);
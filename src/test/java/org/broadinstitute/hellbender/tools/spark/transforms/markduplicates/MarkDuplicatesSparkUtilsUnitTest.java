@@ -17,6 +17,7 @@ import scala.Tuple2;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 
@@ -67,6 +68,31 @@ public class MarkDuplicatesSparkUtilsUnitTest extends GATKBaseTest {
                 ImmutableList.of(pairIterable(key1, read1, read3), pairIterable(key2, read2, read4)));
     }
 
+    @Test(groups = "spark")
+    public void testSortAndSpanByKey() {
+        JavaSparkContext ctx = SparkContextFactory.getTestSparkContext();
+        JavaPairRDD<Integer, String> pairs = ctx.parallelizePairs(ImmutableList.of(
+                pair(3, "a"), pair(1, "b"), pair(2, "c"), pair(1, "d"), pair(3, "e"), pair(4, "f"), pair(1, "g")), 3);
+
+        List<Tuple2<Integer, Iterable<String>>> grouped = new ArrayList<>(
+                MarkDuplicatesSparkUtils.sortAndSpanByKey(pairs, Comparator.<Integer>naturalOrder(), 2).collect());
+        Assert.assertEquals(grouped.size(), 4);
+
+        // each key appears exactly once, with all of its values
+        grouped.sort(Comparator.comparing(Tuple2::_1));
+        for (final Tuple2<Integer, Iterable<String>> group : grouped) {
+            final List<String> values = Lists.newArrayList(group._2());
+            Collections.sort(values);
+            switch (group._1()) {
+                case 1: Assert.assertEquals(values, ImmutableList.of("b", "d", "g")); break;
+                case 2: Assert.assertEquals(values, ImmutableList.of("c")); break;
+                case 3: Assert.assertEquals(values, ImmutableList.of("a", "e")); break;
+                case 4: Assert.assertEquals(values, ImmutableList.of("f")); break;
+                default: Assert.fail("unexpected key " + group._1());
+            }
+        }
+    }
+
     private String getReadGroupId(final SAMFileHeader header, final int index) {
         return header.getReadGroups().get(index).getReadGroupId();
     }
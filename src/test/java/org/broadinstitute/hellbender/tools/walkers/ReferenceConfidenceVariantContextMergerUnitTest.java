@@ -9,6 +9,7 @@ import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.GATKBaseTest;
 import org.broadinstitute.hellbender.utils.test.VariantContextTestUtils;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
+import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -260,8 +261,63 @@ public class ReferenceConfidenceVariantContextMergerUnitTest extends GATKBaseTes
                         new GenotypeBuilder("A_C_G.test2").PL(new int[]{40, 20, 30, 20, 10, 30}).alleles(noCalls).make(),
                         new GenotypeBuilder("A_C_G.test").PL(new int[]{40, 20, 30, 20, 10, 30}).alleles(noCalls).make()).make()});
 
+        // several samples with the same ploidy and allele mapping, within a record and across records, share a genotype index map
+        final Genotype gA_G_ALT2 = new GenotypeBuilder("A_G2").PL(new int[]{1, 2, 3, 4, 5, 6}).alleles(noCalls).make();
+        final VariantContext vcA_G_ALT_twoSamples = new VariantContextBuilder(VCbase).alleles(A_G_ALT).genotypes(gA_G_ALT, gA_G_ALT2).make();
+        final Genotype gA_G_ALT3 = new GenotypeBuilder("A_G3").PL(new int[]{6, 5, 4, 3, 2, 1}).alleles(noCalls).make();
+        final VariantContext vcA_G_ALT_otherRecord = new VariantContextBuilder(VCbase2).alleles(A_G_ALT).genotypes(gA_G_ALT3).make();
+        tests.add(new Object[]{"test12",Arrays.asList(vcA_C_ALT, vcA_G_ALT_twoSamples, vcA_G_ALT_otherRecord),
+                loc, false, false,
+                new VariantContextBuilder(VCbase).alleles(A_C_G).genotypes(gA_C_ALT,
+                        new GenotypeBuilder("A_G").PL(reorderedSecondAllelePLs).alleles(noCalls).make(),
+                        new GenotypeBuilder("A_G2").PL(new int[]{1, 4, 6, 2, 5, 3}).alleles(noCalls).make(),
+                        new GenotypeBuilder("A_G3").PL(new int[]{6, 3, 1, 5, 2, 4}).alleles(noCalls).make()).make()});
+
+        // samples of different ploidies with the same allele mapping get different genotype index maps
+        final List<Allele> haploidNoCall = Collections.singletonList(Allele.NO_CALL);
+        final Genotype gA_G_ALT_haploid = new GenotypeBuilder("A_G_haploid").PL(new int[]{0, 50, 100}).alleles(haploidNoCall).make();
+        final VariantContext vcA_G_ALT_mixedPloidy = new VariantContextBuilder(VCbase).alleles(A_G_ALT).genotypes(gA_G_ALT_haploid, gA_G_ALT).make();
+        tests.add(new Object[]{"test13",Arrays.asList(vcA_C_ALT, vcA_G_ALT_mixedPloidy),
+                loc, false, false,
+                new VariantContextBuilder(VCbase).alleles(A_C_G).genotypes(gA_C_ALT,
+                        new GenotypeBuilder("A_G_haploid").PL(new int[]{0, 100, 50}).alleles(haploidNoCall).make(),
+                        new GenotypeBuilder("A_G").PL(reorderedSecondAllelePLs).alleles(noCalls).make()).make()});
+
+        // with more than one spanning deletion in a record, each sample maps the spanning deletion to its most likely one
+        final Allele AAAref = Allele.create("AAA", true);
+        final List<Allele> AAA_A_AA_ALT = Arrays.asList(AAAref, A, Allele.create("AA", false), Allele.NON_REF_ALLELE);
+        final Genotype gFirstDelBest = new GenotypeBuilder("firstDelBest").PL(new int[]{0, 10, 20, 30, 40, 50, 60, 70, 80, 90}).alleles(noCalls).make();
+        final Genotype gSecondDelBest = new GenotypeBuilder("secondDelBest").PL(new int[]{0, 10, 50, 30, 40, 20, 60, 70, 80, 90}).alleles(noCalls).make();
+        final VariantContext vcAAA_A_AA_ALT = new VariantContextBuilder(VCprevBase).alleles(AAA_A_AA_ALT).genotypes(gFirstDelBest, gSecondDelBest).make();
+        tests.add(new Object[]{"test14",Arrays.asList(vcA_C_ALT, vcAAA_A_AA_ALT),
+                loc, false, false,
+                new VariantContextBuilder(VCbase).alleles(A_C_del).genotypes(gA_C_ALT,
+                        new GenotypeBuilder("firstDelBest").PL(new int[]{0, 60, 90, 10, 70, 20}).alleles(noCalls).make(),
+                        new GenotypeBuilder("secondDelBest").PL(new int[]{0, 60, 90, 30, 80, 20}).alleles(noCalls).make()).make()});
+
         return tests.toArray(new Object[][]{});
     }
+
+    @DataProvider
+    public Object[][] getNonFiniteAnnotationValues() {
+        return new Object[][]{{Double.NaN}, {Double.POSITIVE_INFINITY}, {Double.NEGATIVE_INFINITY}};
+    }
+
+    @Test(dataProvider = "getNonFiniteAnnotationValues")
+    public void testNonFiniteAnnotationValuesAreIgnored(final double nonFiniteValue) {
+        final VariantContextBuilder builder = new VariantContextBuilder("test", "20", 10, 10, Arrays.asList(Aref, C, Allele.NON_REF_ALLELE))
+                .genotypes(new GenotypeBuilder("sample1").PL(new int[]{30, 20, 10, 71, 72, 73}).alleles(GATKVariantContextUtils.noCallAlleles(2)).make());
+        final VariantContext finite = builder.attribute("TEST_ANNOTATION", 2.5).make();
+        final VariantContext nonFinite = builder.genotypes(new GenotypeBuilder("sample2").PL(new int[]{30, 20, 10, 71, 72, 73}).alleles(GATKVariantContextUtils.noCallAlleles(2)).make())
+                .attribute("TEST_ANNOTATION", nonFiniteValue).make();
+
+        final ReferenceConfidenceVariantContextMerger merger = new ReferenceConfidenceVariantContextMerger(getAnnotationEngine());
+        final VariantContext result = merger.merge(Arrays.asList(finite, nonFinite), new SimpleInterval("20", 10, 10), null, true, false);
+
+        // the non-finite value is not a valid number, so it's left out of the median
+        Assert.assertEquals(result.getAttribute("TEST_ANNOTATION"), 2.5);
+    }
+
     @DataProvider(name = "getIndexesOfRelevantAllelesData")
     public Object[][] makeGetIndexesOfRelevantAllelesData() {
         final int totalAlleles = 5;
@@ -6,6 +6,7 @@ import htsjdk.variant.variantcontext.VariantContext;
 import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
+import org.broadinstitute.hellbender.engine.AssemblyRegionWalker;
 import org.broadinstitute.hellbender.engine.FeatureDataSource;
 import org.broadinstitute.hellbender.engine.ReadsDataSource;
 import org.broadinstitute.hellbender.exceptions.UserException;
@@ -19,6 +20,7 @@ import org.testng.annotations.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -499,6 +501,31 @@ public class HaplotypeCallerIntegrationTest extends CommandLineProgramTest {
         IntegrationTestSpec.assertEqualTextFiles(activityProfileOut, expectedActivityProfileOut);
     }
 
+    /*
+     * Test that processing assembly regions on several threads gives exactly the same output as a single thread
+     */
+    @Test
+    public void testMultiThreadedAssemblyRegionProcessingMatchesSingleThreaded() throws Exception {
+        final File singleThreadedOutput = createTempFile("testMultiThreadedAssemblyRegionProcessing_1thread", ".vcf");
+        final File multiThreadedOutput = createTempFile("testMultiThreadedAssemblyRegionProcessing_4threads", ".vcf");
+
+        for ( final File output : Arrays.asList(singleThreadedOutput, multiThreadedOutput) ) {
+            Utils.resetRandomGenerator();
+            final String[] args = {
+                    "-I", NA12878_20_21_WGS_bam,
+                    "-R", b37_reference_20_21,
+                    "-L", "20:10000000-10100000",
+                    "-O", output.getAbsolutePath(),
+                    "-pairHMM", "AVX_LOGLESS_CACHING",
+                    "--" + AssemblyRegionWalker.ASSEMBLY_REGION_THREADS_LONG_NAME, output == singleThreadedOutput ? "1" : "4",
+                    "--" + StandardArgumentDefinitions.ADD_OUTPUT_VCF_COMMANDLINE, "false"
+            };
+            runCommandLine(args);
+        }
+
+        IntegrationTestSpec.assertEqualTextFiles(multiThreadedOutput, singleThreadedOutput);
+    }
+
     /*
      * Calculate rough concordance between two vcfs, comparing only the positions, alleles, and the first genotype.
      */
@@ -0,0 +1,79 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.ReadUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public final class PairHMMLikelihoodCacheUnitTest extends GATKBaseTest {
+
+    private static PairHMMLikelihoodCache.ReadKey readKey(final String bases, final int qual, final int gcp) {
+        final GATKRead read = ArtificialReadUtils.createArtificialRead(bases.getBytes(), Utils.dupBytes((byte) qual, bases.length()), bases.length() + "M");
+        return new PairHMMLikelihoodCache.ReadKey(read, Utils.dupBytes((byte) gcp, bases.length()));
+    }
+
+    private static List<PairHMMLikelihoodCache.HaplotypeKey> haplotypeKeys(final String... haplotypes) {
+        return Arrays.asList(Arrays.stream(haplotypes).map(h -> new PairHMMLikelihoodCache.HaplotypeKey(new Haplotype(h.getBytes()))).toArray(PairHMMLikelihoodCache.HaplotypeKey[]::new));
+    }
+
+    @Test
+    public void testHitsAndMisses() {
+        final PairHMMLikelihoodCache cache = new PairHMMLikelihoodCache(100);
+        final List<PairHMMLikelihoodCache.HaplotypeKey> haplotypes = haplotypeKeys("ACGTACGT", "ACGAACGT");
+        final double[] likelihoods = new double[haplotypes.size()];
+
+        Assert.assertFalse(cache.getAll(readKey("ACGT", 30, 10), haplotypes, likelihoods));
+        cache.put(readKey("ACGT", 30, 10), haplotypes.get(0), -1.0);
+        Assert.assertFalse(cache.getAll(readKey("ACGT", 30, 10), haplotypes, likelihoods));
+        cache.put(readKey("ACGT", 30, 10), haplotypes.get(1), -2.0);
+
+        // keys are equal if the content is equal
+        Assert.assertTrue(cache.getAll(readKey("ACGT", 30, 10), haplotypeKeys("ACGTACGT", "ACGAACGT"), likelihoods));
+        Assert.assertEquals(likelihoods, new double[]{-1.0, -2.0});
+        Assert.assertTrue(cache.getAll(readKey("ACGT", 30, 10), haplotypeKeys("ACGAACGT", "ACGTACGT"), likelihoods));
+        Assert.assertEquals(likelihoods, new double[]{-2.0, -1.0});
+
+        // and different if any of the content differs
+        Assert.assertFalse(cache.getAll(readKey("ACGA", 30, 10), haplotypes, likelihoods));
+        Assert.assertFalse(cache.getAll(readKey("ACGT", 20, 10), haplotypes, likelihoods));
+        Assert.assertFalse(cache.getAll(readKey("ACGT", 30, 11), haplotypes, likelihoods));
+        final GATKRead read = ArtificialReadUtils.createArtificialRead("ACGT".getBytes(), Utils.dupBytes((byte) 30, 4), "4M");
+        ReadUtils.setInsertionBaseQualities(read, Utils.dupBytes((byte) 40, 4));
+        Assert.assertFalse(cache.getAll(new PairHMMLikelihoodCache.ReadKey(read, Utils.dupBytes((byte) 10, 4)), haplotypes, likelihoods));
+
+        Assert.assertEquals(cache.getHits(), 4);
+        Assert.assertEquals(cache.getMisses(), 12);
+        Assert.assertEquals(cache.getHitRate(), 0.25);
+    }
+
+    @Test
+    public void testEviction() {
+        final PairHMMLikelihoodCache cache = new PairHMMLikelihoodCache(2);
+        final List<PairHMMLikelihoodCache.HaplotypeKey> haplotypes = haplotypeKeys("ACGTACGT");
+        final double[] likelihoods = new double[1];
+
+        cache.put(readKey("AAAA", 30, 10), haplotypes.get(0), -1.0);
+        cache.put(readKey("CCCC", 30, 10), haplotypes.get(0), -2.0);
+        // use AAAA, so that CCCC is the least recently used
+        Assert.assertTrue(cache.getAll(readKey("AAAA", 30, 10), haplotypes, likelihoods));
+        cache.put(readKey("GGGG", 30, 10), haplotypes.get(0), -3.0);
+
+        Assert.assertEquals(cache.size(), 2);
+        Assert.assertTrue(cache.getAll(readKey("AAAA", 30, 10), haplotypes, likelihoods));
+        Assert.assertFalse(cache.getAll(readKey("CCCC", 30, 10), haplotypes, likelihoods));
+        Assert.assertTrue(cache.getAll(readKey("GGGG", 30, 10), haplotypes, likelihoods));
+        Assert.assertEquals(likelihoods[0], -3.0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidSize() {
+        new PairHMMLikelihoodCache(0);
+    }
+}
@@ -7,6 +7,8 @@ import htsjdk.variant.variantcontext.Allele;
 import org.broadinstitute.gatk.nativebindings.pairhmm.PairHMMNativeArguments;
 import org.broadinstitute.hellbender.utils.MathUtils;
 import org.broadinstitute.hellbender.utils.QualityUtils;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.genotyper.IndexedSampleList;
 import org.broadinstitute.hellbender.utils.genotyper.LikelihoodMatrix;
 import org.broadinstitute.hellbender.utils.genotyper.ReadLikelihoods;
@@ -204,4 +206,50 @@ public final class PairHMMLikelihoodCalculationEngineUnitTest extends GATKBaseTe
         lce.close();
         new File(PairHMMLikelihoodCalculationEngine.LIKELIHOODS_FILENAME).delete();
     }
+
+    @Test
+    public void testComputeLikelihoodsWithCache() {
+        final PairHMMLikelihoodCalculationEngine uncachedEngine = new PairHMMLikelihoodCalculationEngine((byte) 10, new PairHMMNativeArguments(),
+                PairHMM.Implementation.LOGLESS_CACHING, -4.5, PairHMMLikelihoodCalculationEngine.PCRErrorModel.CONSERVATIVE);
+        final PairHMMLikelihoodCalculationEngine cachedEngine = new PairHMMLikelihoodCalculationEngine((byte) 10, new PairHMMNativeArguments(),
+                PairHMM.Implementation.LOGLESS_CACHING, -4.5, PairHMMLikelihoodCalculationEngine.PCRErrorModel.CONSERVATIVE,
+                PairHMM.BASE_QUALITY_SCORE_THRESHOLD, 1000);
+
+        final AssemblyResultSet assemblyResultSet = new AssemblyResultSet();
+        for ( final String bases : Arrays.asList("ACGTACGTACGTTTTACGTAACC", "ACGTACGTACCTTTTACGTAACC", "ACGTACGTTTTACGTAACC") ) {
+            final Haplotype haplotype = new Haplotype(bases.getBytes(), assemblyResultSet.getHaplotypeCount() == 0);
+            haplotype.setGenomeLocation(new SimpleInterval("1", 1, bases.length()));
+            assemblyResultSet.add(haplotype);
+        }
+
+        // the same read content in two samples, and in the same sample twice
+        final Map<String, List<GATKRead>> perSampleReadList = new LinkedHashMap<>();
+        perSampleReadList.put("sample1", Arrays.asList(makeRead("read1", "GTACGTACGTTTT"), makeRead("read2", "ACCTTTTACG"), makeRead("read3", "GTACGTACGTTTT")));
+        perSampleReadList.put("sample2", Arrays.asList(makeRead("read4", "ACCTTTTACG"), makeRead("read5", "CGTTTTACGTAA")));
+        final SampleList samples = new IndexedSampleList(perSampleReadList.keySet());
+
+        final ReadLikelihoods<Haplotype> expected = uncachedEngine.computeReadLikelihoods(assemblyResultSet, samples, perSampleReadList);
+        for ( int i = 0; i < 2; i++ ) {
+            final ReadLikelihoods<Haplotype> actual = cachedEngine.computeReadLikelihoods(assemblyResultSet, samples, perSampleReadList);
+            for ( int s = 0; s < samples.numberOfSamples(); s++ ) {
+                final LikelihoodMatrix<Haplotype> expectedMatrix = expected.sampleMatrix(s);
+                final LikelihoodMatrix<Haplotype> actualMatrix = actual.sampleMatrix(s);
+                Assert.assertEquals(actualMatrix.reads(), expectedMatrix.reads());
+                for ( int h = 0; h < expectedMatrix.numberOfAlleles(); h++ ) {
+                    for ( int r = 0; r < expectedMatrix.numberOfReads(); r++ ) {
+                        Assert.assertEquals(actualMatrix.get(h, r), expectedMatrix.get(h, r));
+                    }
+                }
+            }
+        }
+        uncachedEngine.close();
+        cachedEngine.close();
+    }
+
+    private static GATKRead makeRead(final String name, final String bases) {
+        final GATKRead read = ArtificialReadUtils.createArtificialRead(bases.getBytes(), Utils.dupBytes((byte) 30, bases.length()), bases.length() + "M");
+        read.setName(name);
+        read.setMappingQuality(60);
+        return read;
+    }
 }
@@ -0,0 +1,88 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller.readthreading;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.Kmer;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public final class KmerIndexUnitTest extends GATKBaseTest {
+
+    @DataProvider(name = "sequences")
+    public Object[][] makeSequences() {
+        final List<Object[]> tests = new ArrayList<>();
+        for ( final String sequence : Arrays.asList("ACGTTGCA", "ACGTNGCATTACG", "NNNNACGTAC", "acgtACGT", "GATTACAGATTACAGATTACAGATTACAGATTACAGATTACA") ) {
+            for ( final int kmerSize : Arrays.asList(1, 3, 4, 8, 31, 32) ) {
+                if ( kmerSize <= sequence.length() ) {
+                    tests.add(new Object[]{sequence, kmerSize});
+                }
+            }
+        }
+        return tests.toArray(new Object[][]{});
+    }
+
+    @Test(dataProvider = "sequences")
+    public void testPackAllMatchesPack(final String sequence, final int kmerSize) {
+        final byte[] bases = sequence.getBytes();
+        for ( int start = 0; start <= 1 && start + kmerSize <= bases.length; start++ ) {
+            final long[] keys = KmerIndex.packAll(bases, start, bases.length, kmerSize);
+            Assert.assertEquals(keys.length, bases.length - start - kmerSize + 1);
+            for ( int i = 0; i < keys.length; i++ ) {
+                final long key = KmerIndex.pack(bases, start + i, kmerSize);
+                Assert.assertEquals(keys[i], key);
+
+                final String kmer = sequence.substring(start + i, start + i + kmerSize);
+                final boolean packable = kmerSize <= KmerIndex.MAX_PACKED_KMER_SIZE && kmer.matches("[ACGT]+");
+                Assert.assertEquals(key != KmerIndex.UNPACKABLE, packable, kmer);
+                if ( packable ) {
+                    Assert.assertEquals(new String(KmerIndex.unpack(key, kmerSize)), kmer);
+                }
+            }
+        }
+    }
+
+    @Test(dataProvider = "sequences")
+    public void testIndexAndSet(final String sequence, final int kmerSize) {
+        final byte[] bases = sequence.getBytes();
+        final KmerIndex<Integer> index = new KmerIndex<>(kmerSize);
+        final KmerSet set = new KmerSet(kmerSize);
+        final Set<String> expected = new HashSet<>();
+
+        final long[] keys = KmerIndex.packAll(bases, 0, bases.length, kmerSize);
+        for ( int i = 0; i < keys.length; i++ ) {
+            final String kmer = sequence.substring(i, i + kmerSize);
+            final boolean isNew = expected.add(kmer);
+            Assert.assertEquals(set.add(keys[i], bases, i), isNew);
+            Assert.assertTrue(set.contains(keys[i], bases, i));
+            if ( isNew ) {
+                Assert.assertFalse(index.containsKey(keys[i], bases, i));
+                index.put(keys[i], bases, i, i);
+            }
+            Assert.assertEquals(index.get(bases, i), Integer.valueOf(sequence.indexOf(kmer)));
+            Assert.assertEquals(index.get(new Kmer(kmer)), Integer.valueOf(sequence.indexOf(kmer)));
+        }
+
+        Assert.assertEquals(index.size(), expected.size());
+        Assert.assertEquals(set.size(), expected.size());
+        final Set<String> actual = new HashSet<>();
+        for ( final Kmer kmer : set.toKmers() ) {
+            actual.add(new String(kmer.bases()));
+        }
+        Assert.assertEquals(actual, expected);
+
+        // kmers of a different size are never found
+        Assert.assertNull(index.get(new Kmer(sequence.substring(0, kmerSize - 1))));
+
+        for ( final String kmer : expected ) {
+            index.remove(kmer.getBytes());
+            Assert.assertNull(index.get(kmer.getBytes(), 0));
+        }
+        Assert.assertEquals(index.size(), 0);
+    }
+}
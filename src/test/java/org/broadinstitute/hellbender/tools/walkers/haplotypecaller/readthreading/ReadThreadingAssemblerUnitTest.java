@@ -226,6 +226,45 @@ public final class ReadThreadingAssemblerUnitTest extends GATKBaseTest {
         Assert.assertEquals(haplotypes.get(1), altHaplotype);
     }
 
+    @Test
+    public void testMultiThreadedAssemblyMatchesSingleThreaded() {
+        final SimpleInterval loc = new SimpleInterval("1", 100000, 100200);
+        final byte[] refBases = seq.getSubsequenceAt(loc.getContig(), loc.getStart(), loc.getEnd()).getBases();
+
+        // reads carrying a SNP, a deletion, or both, so that several kmer sizes produce several haplotypes
+        final List<GATKRead> reads = new LinkedList<>();
+        for ( int i = 0; i < 30; i++ ) {
+            final StringBuilder alt = new StringBuilder(new String(refBases));
+            if ( i % 3 != 2 ) {
+                alt.setCharAt(60, alt.charAt(60) == 'A' ? 'C' : 'A');
+            }
+            if ( i % 3 != 0 ) {
+                alt.delete(120, 123);
+            }
+            final byte[] bases = alt.toString().getBytes();
+            reads.add(ArtificialReadUtils.createArtificialRead(header, "read" + i, loc.getContig(), loc.getStart(), bases, Utils.dupBytes((byte) 30, bases.length), bases.length + "M"));
+        }
+
+        final List<Integer> kmerSizes = Arrays.asList(10, 15, 20, 25, 30);
+        final List<Haplotype> expected = assemble(new ReadThreadingAssembler(128, kmerSizes), refBases, loc, reads);
+        Assert.assertTrue(expected.size() > 2);
+
+        final ReadThreadingAssembler multiThreadedAssembler = new ReadThreadingAssembler(128, kmerSizes);
+        multiThreadedAssembler.setNumThreads(4);
+        try {
+            for ( int i = 0; i < 3; i++ ) {
+                final List<Haplotype> actual = assemble(multiThreadedAssembler, refBases, loc, reads);
+                Assert.assertEquals(actual, expected);
+                for ( int j = 0; j < actual.size(); j++ ) {
+                    Assert.assertEquals(actual.get(j).getCigar(), expected.get(j).getCigar());
+                    Assert.assertEquals(actual.get(j).getScore(), expected.get(j).getScore());
+                }
+            }
+        } finally {
+            multiThreadedAssembler.shutdown();
+        }
+    }
+
     private static class TestAssembler {
         final ReadThreadingAssembler assembler;
         private final SAMFileHeader header;
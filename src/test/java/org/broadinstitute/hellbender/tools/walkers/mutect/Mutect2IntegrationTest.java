@@ -8,11 +8,13 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.Main;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
+import org.broadinstitute.hellbender.engine.AssemblyRegionWalker;
 import org.broadinstitute.hellbender.engine.FeatureDataSource;
 import org.broadinstitute.hellbender.tools.exome.orientationbiasvariantfilter.OrientationBiasUtils;
 import org.broadinstitute.hellbender.tools.walkers.validation.ConcordanceSummaryRecord;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.test.ArgumentsBuilder;
+import org.broadinstitute.hellbender.utils.test.IntegrationTestSpec;
 import org.broadinstitute.hellbender.GATKBaseTest;
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
@@ -213,6 +215,30 @@ public class Mutect2IntegrationTest extends CommandLineProgramTest {
         Assert.assertTrue(numVariantsPassingFilters < 2);
     }
 
+    // processing assembly regions on several threads should give exactly the same calls as a single thread
+    @Test
+    public void testMultiThreadedAssemblyRegionProcessingMatchesSingleThreaded() throws Exception {
+        final File singleThreadedOutput = createTempFile("testMultiThreadedAssemblyRegionProcessing_1thread", ".vcf");
+        final File multiThreadedOutput = createTempFile("testMultiThreadedAssemblyRegionProcessing_4threads", ".vcf");
+
+        for ( final File output : Arrays.asList(singleThreadedOutput, multiThreadedOutput) ) {
+            Utils.resetRandomGenerator();
+            final String[] args = {
+                    "-I", NA12878_20_21_WGS_bam,
+                    "-tumor", "NA12878",
+                    "-R", b37_reference_20_21,
+                    "-L", "20:10000000-10010000",
+                    "-germline-resource", GNOMAD.getAbsolutePath(),
+                    "-O", output.getAbsolutePath(),
+                    "--" + AssemblyRegionWalker.ASSEMBLY_REGION_THREADS_LONG_NAME, output == singleThreadedOutput ? "1" : "4",
+                    "--" + StandardArgumentDefinitions.ADD_OUTPUT_VCF_COMMANDLINE, "false"
+            };
+            runCommandLine(args);
+        }
+
+        IntegrationTestSpec.assertEqualTextFiles(multiThreadedOutput, singleThreadedOutput);
+    }
+
     // test that ReadFilterLibrary.NON_ZERO_REFERENCE_LENGTH_ALIGNMENT removes reads that consume zero reference bases
     // e.g. read name HAVCYADXX150109:1:2102:20528:2129 with cigar 23S53I
     @Test
@@ -0,0 +1,118 @@
+package org.broadinstitute.hellbender.tools.walkers.vqsr;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+
+public final class AnnotationMatrixUnitTest extends GATKBaseTest {
+
+    @DataProvider(name = "precisions")
+    public Object[][] precisions() {
+        return new Object[][]{{false}, {true}};
+    }
+
+    @Test(dataProvider = "precisions")
+    public void testAddRowsBeyondInitialCapacity(final boolean singlePrecision) {
+        final AnnotationMatrix matrix = AnnotationMatrix.create(3, singlePrecision);
+        Assert.assertEquals(matrix.isSinglePrecision(), singlePrecision);
+        Assert.assertEquals(matrix.numAnnotations(), 3);
+
+        final int numRows = 5000;
+        for (int row = 0; row < numRows; row++) {
+            Assert.assertEquals(matrix.addRow(), row);
+            for (int annotation = 0; annotation < 3; annotation++) {
+                matrix.set(annotation, row, row * 10 + annotation + 0.5);
+            }
+            matrix.setNull(row % 3, row, row % 2 == 0);
+        }
+        Assert.assertEquals(matrix.numRows(), numRows);
+
+        matrix.trimToSize();
+        Assert.assertEquals(matrix.valueBytes(), 3L * numRows * (singlePrecision ? Float.BYTES : Double.BYTES));
+
+        for (int row = 0; row < numRows; row++) {
+            for (int annotation = 0; annotation < 3; annotation++) {
+                Assert.assertEquals(matrix.get(annotation, row), row * 10 + annotation + 0.5);
+                Assert.assertEquals(matrix.isNull(annotation, row), annotation == row % 3 && row % 2 == 0);
+            }
+            Assert.assertEquals(matrix.hasNull(row), row % 2 == 0);
+        }
+    }
+
+    @Test
+    public void testSinglePrecisionRoundsValues() {
+        final AnnotationMatrix matrix = AnnotationMatrix.create(1, true);
+        matrix.addRow();
+        matrix.set(0, 0, 0.1);
+        Assert.assertEquals(matrix.get(0, 0), (double) 0.1f);
+        Assert.assertNotEquals(matrix.get(0, 0), 0.1);
+    }
+
+    @Test(dataProvider = "precisions")
+    public void testReorderAnnotations(final boolean singlePrecision) {
+        final AnnotationMatrix matrix = AnnotationMatrix.create(3, singlePrecision);
+        for (int row = 0; row < 2; row++) {
+            matrix.addRow();
+            for (int annotation = 0; annotation < 3; annotation++) {
+                matrix.set(annotation, row, annotation + row * 0.5);
+            }
+        }
+        matrix.setNull(0, 1, true);
+
+        matrix.reorderAnnotations(Arrays.asList(2, 0, 1));
+
+        for (int row = 0; row < 2; row++) {
+            Assert.assertEquals(matrix.get(0, row), 2 + row * 0.5);
+            Assert.assertEquals(matrix.get(1, row), 0 + row * 0.5);
+            Assert.assertEquals(matrix.get(2, row), 1 + row * 0.5);
+        }
+        Assert.assertFalse(matrix.isNull(0, 1));
+        Assert.assertTrue(matrix.isNull(1, 1));
+        Assert.assertFalse(matrix.isNull(1, 0));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testReorderAnnotationsRequiresPermutation() {
+        AnnotationMatrix.create(3, false).reorderAnnotations(Arrays.asList(0, 0, 1));
+    }
+
+    @Test
+    public void testSingleRowMatrix() {
+        final AnnotationMatrix matrix = AnnotationMatrix.of(new double[]{1.0, -2.0}, new boolean[]{false, true});
+        Assert.assertFalse(matrix.isSinglePrecision());
+        Assert.assertEquals(matrix.numRows(), 1);
+        Assert.assertEquals(matrix.get(0, 0), 1.0);
+        Assert.assertEquals(matrix.get(1, 0), -2.0);
+        Assert.assertFalse(matrix.isNull(0, 0));
+        Assert.assertTrue(matrix.isNull(1, 0));
+    }
+
+    @Test
+    public void testDatumAnnotations() {
+        final AnnotationMatrix matrix = AnnotationMatrix.create(2, false);
+        matrix.addRow();
+        final int row = matrix.addRow();
+        matrix.set(0, row, 3.0);
+        matrix.setNull(1, row, true);
+
+        final VariantDatum datum = new VariantDatum();
+        datum.setAnnotations(matrix, row);
+        Assert.assertEquals(datum.getNumAnnotations(), 2);
+        Assert.assertEquals(datum.getAnnotation(0), 3.0);
+        Assert.assertTrue(datum.isNull(1));
+        Assert.assertTrue(datum.hasNullAnnotation());
+        Assert.assertEquals(datum.copyAnnotations(new double[2]), new double[]{3.0, 0.0});
+
+        datum.setAnnotation(1, 4.0);
+        Assert.assertEquals(matrix.get(1, row), 4.0);
+        Assert.assertEquals(matrix.get(1, 0), 0.0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testDatumAnnotationsOutsideMatrix() {
+        new VariantDatum().setAnnotations(AnnotationMatrix.create(2, false), 0);
+    }
+}
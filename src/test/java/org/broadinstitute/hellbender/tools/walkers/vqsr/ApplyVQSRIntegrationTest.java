@@ -12,6 +12,7 @@ import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.test.ArgumentsBuilder;
 import org.broadinstitute.hellbender.utils.test.IntegrationTestSpec;
 import org.testng.Assert;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.io.File;
@@ -76,8 +77,13 @@ public class ApplyVQSRIntegrationTest extends CommandLineProgramTest {
         spec.executeTest("testApplyRecalibrationIndel", this);
     }
 
-    @Test
-    public void testApplyRecalibrationSnpAndIndelTogether() throws IOException {
+    @DataProvider(name = "mergeJoinRecal")
+    public Object[][] mergeJoinRecal() {
+        return new Object[][]{{false}, {true}};
+    }
+
+    @Test(dataProvider = "mergeJoinRecal")
+    public void testApplyRecalibrationSnpAndIndelTogether(final boolean mergeJoinRecal) throws IOException {
         final IntegrationTestSpec spec = new IntegrationTestSpec(
                     " -L 20:1000100-1000500" +
                     " -mode BOTH" +
@@ -85,6 +91,7 @@ public class ApplyVQSRIntegrationTest extends CommandLineProgramTest {
                     " --output %s" +
                     " --tranches-file " + getToolTestDataDir() + "VQSR.mixedTest.tranches" +
                     " --recal-file " + getToolTestDataDir() + "VQSR.mixedTest.recal.vcf" +
+                    " --merge-join-recal " + mergeJoinRecal +
                     " --" + StandardArgumentDefinitions.ADD_OUTPUT_VCF_COMMANDLINE +" false",
                 Arrays.asList(getToolTestDataDir() + "expected/applySNPAndIndelResult.vcf"));
         spec.executeTest("testApplyRecalibrationSnpAndIndelTogether", this);
@@ -120,8 +127,8 @@ public class ApplyVQSRIntegrationTest extends CommandLineProgramTest {
         }
     }
 
-    @Test
-    public void testApplyRecalibrationAlleleSpecificSNPmode() throws IOException {
+    @Test(dataProvider = "mergeJoinRecal")
+    public void testApplyRecalibrationAlleleSpecificSNPmode(final boolean mergeJoinRecal) throws IOException {
         final String base =
                 " -L 3:113005755-195507036" +
                 " -mode SNP -AS" +
@@ -130,6 +137,7 @@ public class ApplyVQSRIntegrationTest extends CommandLineProgramTest {
                 " --output %s" +
                 " --tranches-file " + getToolTestDataDir() + "VQSR.AStest.snps.tranches" +
                 " --recal-file " + getToolTestDataDir() + "VQSR.AStest.snps.recal.vcf" +
+                " --merge-join-recal " + mergeJoinRecal +
                 " --" + StandardArgumentDefinitions.ADD_OUTPUT_VCF_COMMANDLINE +" false";
 
         final IntegrationTestSpec spec = new IntegrationTestSpec(
@@ -138,8 +146,8 @@ public class ApplyVQSRIntegrationTest extends CommandLineProgramTest {
         spec.executeTest("testApplyRecalibrationAlleleSpecificSNPmode", this);
     }
 
-    @Test
-    public void testApplyRecalibrationAlleleSpecificINDELmode() throws IOException {
+    @Test(dataProvider = "mergeJoinRecal")
+    public void testApplyRecalibrationAlleleSpecificINDELmode(final boolean mergeJoinRecal) throws IOException {
         final String base =
                 " -L 3:113005755-195507036" +
                 " -mode INDEL -AS" +
@@ -148,6 +156,7 @@ public class ApplyVQSRIntegrationTest extends CommandLineProgramTest {
                 " --output %s" +
                 " --tranches-file " + getToolTestDataDir() + "VQSR.AStest.indels.tranches" +
                 " --recal-file " + getToolTestDataDir() + "VQSR.AStest.indels.recal.vcf" +
+                " --merge-join-recal " + mergeJoinRecal +
                 " --" + StandardArgumentDefinitions.ADD_OUTPUT_VCF_COMMANDLINE +" false";
 
         final IntegrationTestSpec spec = new IntegrationTestSpec(
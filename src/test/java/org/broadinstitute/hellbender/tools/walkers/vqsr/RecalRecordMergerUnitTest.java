@@ -0,0 +1,72 @@
+package org.broadinstitute.hellbender.tools.walkers.vqsr;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public final class RecalRecordMergerUnitTest extends GATKBaseTest {
+
+    private static final SAMSequenceDictionary DICTIONARY = new SAMSequenceDictionary(Arrays.asList(
+            new SAMSequenceRecord("20", 1000000),
+            new SAMSequenceRecord("3", 1000000)));
+
+    private static VariantContext makeRecord(final String contig, final int start, final String alt) {
+        return new VariantContextBuilder("recal", contig, start, start, Arrays.asList(Allele.create("A", true), Allele.create(alt))).make();
+    }
+
+    private static RecalRecordMerger makeMerger(final VariantContext... records) {
+        return new RecalRecordMerger(Arrays.asList(records).iterator(), DICTIONARY, "recal.vcf");
+    }
+
+    @Test
+    public void testGetRecordsStartingAt() {
+        final VariantContext first = makeRecord("20", 100, "C");
+        final VariantContext secondC = makeRecord("20", 200, "C");
+        final VariantContext secondG = makeRecord("20", 200, "G");
+        final VariantContext onOtherContig = makeRecord("3", 50, "T");
+        final RecalRecordMerger merger = makeMerger(first, secondC, secondG, onOtherContig);
+
+        Assert.assertEquals(merger.getRecordsStartingAt(new SimpleInterval("20", 50, 50)), Collections.emptyList());
+        Assert.assertEquals(merger.getRecordsStartingAt(new SimpleInterval("20", 100, 100)), Collections.singletonList(first));
+
+        // all the variants starting at the same position get the same records:
+        final List<VariantContext> expected = Arrays.asList(secondC, secondG);
+        Assert.assertEquals(merger.getRecordsStartingAt(new SimpleInterval("20", 200, 200)), expected);
+        Assert.assertEquals(merger.getRecordsStartingAt(new SimpleInterval("20", 200, 205)), expected);
+
+        // the record on contig 3 is skipped by a variant that comes after it in the dictionary order, although 20 > 3:
+        Assert.assertEquals(merger.getRecordsStartingAt(new SimpleInterval("3", 40, 40)), Collections.emptyList());
+        Assert.assertEquals(merger.getRecordsStartingAt(new SimpleInterval("3", 50, 50)), Collections.singletonList(onOtherContig));
+        Assert.assertEquals(merger.getRecordsStartingAt(new SimpleInterval("3", 60, 60)), Collections.emptyList());
+    }
+
+    @Test(expectedExceptions = UserException.BadInput.class)
+    public void testUnsortedVariants() {
+        final RecalRecordMerger merger = makeMerger(makeRecord("20", 100, "C"));
+        merger.getRecordsStartingAt(new SimpleInterval("20", 100, 100));
+        merger.getRecordsStartingAt(new SimpleInterval("20", 99, 99));
+    }
+
+    @Test(expectedExceptions = UserException.BadInput.class)
+    public void testUnsortedRecords() {
+        final RecalRecordMerger merger = makeMerger(makeRecord("3", 100, "C"), makeRecord("20", 100, "C"));
+        merger.getRecordsStartingAt(new SimpleInterval("3", 200, 200));
+    }
+
+    @Test(expectedExceptions = UserException.BadInput.class)
+    public void testRecordOnUnknownContig() {
+        final RecalRecordMerger merger = makeMerger(makeRecord("X", 100, "C"));
+        merger.getRecordsStartingAt(new SimpleInterval("20", 200, 200));
+    }
+}
@@ -24,32 +24,28 @@ public class VariantDataManagerUnitTest extends GATKBaseTest {
         datum1.atTrainingSite = true;
         datum1.failingSTDThreshold = false;
         datum1.originalQual = passingQual;
-        datum1.annotations = new double[]{0.0,-10.0,10.0};
-        datum1.isNull = new boolean[]{false, false, false};
+        datum1.setAnnotations(new double[]{0.0,-10.0,10.0}, new boolean[]{false, false, false});
         theData.add(datum1);
 
         final VariantDatum datum2 = new VariantDatum();
         datum2.atTrainingSite = true;
         datum2.failingSTDThreshold = false;
         datum2.originalQual = passingQual;
-        datum2.annotations = new double[]{0.0,-9.0,15.0};
-        datum2.isNull = new boolean[]{false, false, false};
+        datum2.setAnnotations(new double[]{0.0,-9.0,15.0}, new boolean[]{false, false, false});
         theData.add(datum2);
 
         final VariantDatum datum3 = new VariantDatum();
         datum3.atTrainingSite = false;
         datum3.failingSTDThreshold = false;
         datum3.originalQual = passingQual;
-        datum3.annotations = new double[]{0.0,1.0,999.0};
-        datum3.isNull = new boolean[]{false, false, false};
+        datum3.setAnnotations(new double[]{0.0,1.0,999.0}, new boolean[]{false, false, false});
         theData.add(datum3);
 
         final VariantDatum datum4 = new VariantDatum();
         datum4.atTrainingSite = false;
         datum4.failingSTDThreshold = false;
         datum4.originalQual = passingQual;
-        datum4.annotations = new double[]{0.015,2.0,1001.11};
-        datum4.isNull = new boolean[]{false, false, false};
+        datum4.setAnnotations(new double[]{0.015,2.0,1001.11}, new boolean[]{false, false, false});
         theData.add(datum4);
 
         vdm.setData(theData);
@@ -3,12 +3,14 @@ package org.broadinstitute.hellbender.tools.walkers.vqsr;
 import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.text.XReadLines;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 public final class VariantGaussianMixtureModelUnitTest extends GATKBaseTest {
     private static int N_VARIANTS = 100;
@@ -97,4 +99,77 @@ public final class VariantGaussianMixtureModelUnitTest extends GATKBaseTest {
         ArrayList<VariantDatum> vd = readData();
         findMyTranches(vd, new ArrayList<Double>(Arrays.asList(-1.0)));
     }
+
+    private static List<VariantDatum> makeClusteredData(final int numData) {
+        final Random random = new Random(13);
+        final double[][] centers = {{-2.0, 0.0, 1.0}, {1.5, 2.0, -1.0}, {0.0, -2.5, 0.5}};
+        final List<VariantDatum> data = new ArrayList<>(numData);
+        for ( int i = 0; i < numData; i++ ) {
+            final double[] center = centers[i % centers.length];
+            final VariantDatum datum = new VariantDatum();
+            final double[] annotations = new double[center.length];
+            for ( int j = 0; j < center.length; j++ ) {
+                annotations[j] = center[j] + 0.5 * random.nextGaussian();
+            }
+            datum.setAnnotations(annotations, new boolean[center.length]);
+            data.add(datum);
+        }
+        return data;
+    }
+
+    private static GaussianMixtureModel fitModel(final List<VariantDatum> data, final int numThreads, final int partitionSize) {
+        Utils.resetRandomGenerator();
+        final GaussianMixtureModel model = new GaussianMixtureModel(4, data.size(), data.get(0).getNumAnnotations(), 1.0, 0.001, 20.0);
+        final ForkJoinPool threadPool = numThreads > 1 ? new ForkJoinPool(numThreads) : null;
+        model.setThreadPool(threadPool);
+        model.setPartitionSize(partitionSize);
+        try {
+            model.initializeRandomModel(data, 10);
+            model.normalizePMixtureLog10();
+            model.expectationStep(data);
+            for ( int iteration = 0; iteration < 10; iteration++ ) {
+                model.maximizationStep(data);
+                model.normalizePMixtureLog10();
+                model.expectationStep(data);
+            }
+            model.evaluateFinalModelParameters(data);
+        } finally {
+            if ( threadPool != null ) {
+                threadPool.shutdown();
+            }
+        }
+        return model;
+    }
+
+    private static void assertModelsEqual(final GaussianMixtureModel actual, final GaussianMixtureModel expected, final double tolerance) {
+        Assert.assertEquals(actual.getModelGaussians().size(), expected.getModelGaussians().size());
+        for ( int i = 0; i < expected.getModelGaussians().size(); i++ ) {
+            final MultivariateGaussian actualGaussian = actual.getModelGaussians().get(i);
+            final MultivariateGaussian expectedGaussian = expected.getModelGaussians().get(i);
+            Assert.assertEquals(actualGaussian.pMixtureLog10, expectedGaussian.pMixtureLog10, tolerance);
+            for ( int j = 0; j < expectedGaussian.mu.length; j++ ) {
+                Assert.assertEquals(actualGaussian.mu[j], expectedGaussian.mu[j], tolerance);
+                for ( int k = 0; k < expectedGaussian.mu.length; k++ ) {
+                    Assert.assertEquals(actualGaussian.sigma.get(j, k), expectedGaussian.sigma.get(j, k), tolerance);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMultithreadedModelDoesNotDependOnThreadCount() {
+        final List<VariantDatum> data = makeClusteredData(3000);
+        final GaussianMixtureModel twoThreads = fitModel(data, 2, 128);
+        final GaussianMixtureModel fourThreads = fitModel(data, 4, 128);
+        assertModelsEqual(fourThreads, twoThreads, 0.0);
+
+        // Partial sums only change the rounding of the model fit on a single thread:
+        assertModelsEqual(fourThreads, fitModel(data, 1, 128), 1e-8);
+    }
+
+    @Test
+    public void testMultithreadedModelInSinglePartitionMatchesSingleThreaded() {
+        final List<VariantDatum> data = makeClusteredData(500);
+        assertModelsEqual(fitModel(data, 3, 500), fitModel(data, 1, 500), 0.0);
+    }
 }
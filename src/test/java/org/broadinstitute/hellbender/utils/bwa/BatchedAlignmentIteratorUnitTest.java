@@ -0,0 +1,147 @@
+package org.broadinstitute.hellbender.utils.bwa;
+
+import org.apache.spark.api.java.JavaSparkContext;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.engine.spark.SparkContextFactory;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+public final class BatchedAlignmentIteratorUnitTest extends GATKBaseTest {
+
+    private static List<GATKRead> makeReads(final int numReads) {
+        final List<GATKRead> reads = new ArrayList<>(numReads);
+        for (int i = 0; i < numReads; i++) {
+            reads.add(ArtificialReadUtils.createArtificialUnmappedRead(null, new byte[]{'A', 'C'}, new byte[]{30, 30}));
+            reads.get(i).setName("read" + i);
+        }
+        return reads;
+    }
+
+    @DataProvider(name = "batches")
+    public Object[][] batches() {
+        return new Object[][]{
+                {0, 0, 0}, {10, 0, 1}, {0, 4, 0}, {10, 4, 3}, {12, 4, 3}, {10, 100, 1}, {10, 1, 10}
+        };
+    }
+
+    @Test(dataProvider = "batches")
+    public void testBatches(final int numReads, final int batchSize, final int expectedNumBatches) {
+        final List<GATKRead> reads = makeReads(numReads);
+        final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        final Iterator<GATKRead> inputReads = reads.iterator();
+        final BatchedAlignmentIterator iterator = new BatchedAlignmentIterator(inputReads, batchSize,
+                batch -> {
+                    batchSizes.add(batch.size());
+                    return batch.stream().map(seq -> Collections.<BwaMemAlignment>emptyList()).collect(Collectors.toList());
+                },
+                (batch, alignments) -> {
+                    Assert.assertEquals(alignments.size(), batch.size());
+                    // two output reads for each input read
+                    final List<GATKRead> output = new ArrayList<>();
+                    for (final GATKRead read : batch) {
+                        output.add(read);
+                        output.add(read.copy());
+                    }
+                    return output;
+                });
+
+        final List<String> outputNames = new ArrayList<>();
+        iterator.forEachRemaining(read -> outputNames.add(read.getName()));
+        Assert.assertFalse(iterator.hasNext());
+
+        final List<String> expectedNames = new ArrayList<>();
+        reads.forEach(read -> expectedNames.addAll(Arrays.asList(read.getName(), read.getName())));
+        Assert.assertEquals(outputNames, expectedNames);
+        Assert.assertEquals(batchSizes.size(), expectedNumBatches);
+        Assert.assertTrue(batchSizes.stream().allMatch(size -> batchSize == 0 || size <= batchSize));
+        Assert.assertEquals(iterator.getStageTimes().getNumReads(), numReads);
+        Assert.assertEquals(iterator.getStageTimes().getNumBatches(), expectedNumBatches);
+    }
+
+    @Test
+    public void testReadsAreNotAllReadAtOnce() {
+        final List<GATKRead> reads = makeReads(100);
+        final Iterator<GATKRead> inputReads = reads.iterator();
+        final int[] numInputReadsRead = {0};
+        final Iterator<GATKRead> countingReads = new Iterator<GATKRead>() {
+            @Override public boolean hasNext() { return inputReads.hasNext(); }
+            @Override public GATKRead next() { numInputReadsRead[0]++; return inputReads.next(); }
+        };
+        final BatchedAlignmentIterator iterator = new BatchedAlignmentIterator(countingReads, 10,
+                batch -> batch.stream().map(seq -> Collections.<BwaMemAlignment>emptyList()).collect(Collectors.toList()),
+                (batch, alignments) -> batch);
+        Assert.assertEquals(numInputReadsRead[0], 0);
+        Assert.assertEquals(iterator.next(), reads.get(0));
+        // the first batch, and the next one being aligned
+        Assert.assertEquals(numInputReadsRead[0], 20);
+    }
+
+    @Test(expectedExceptions = UserException.BadInput.class)
+    public void testAlignmentExceptionIsRethrown() {
+        final AtomicInteger numBatches = new AtomicInteger();
+        final BatchedAlignmentIterator iterator = new BatchedAlignmentIterator(makeReads(30).iterator(), 10,
+                batch -> {
+                    if (numBatches.incrementAndGet() == 3) {
+                        throw new UserException.BadInput("bad batch");
+                    }
+                    return batch.stream().map(seq -> Collections.<BwaMemAlignment>emptyList()).collect(Collectors.toList());
+                },
+                (batch, alignments) -> batch);
+        iterator.forEachRemaining(read -> {});
+    }
+
+    // set by the aligner of testIteratorIsClosedWhenSparkTaskCompletes, which runs in a Spark task
+    private static final AtomicBoolean sparkTaskAlignmentInterrupted = new AtomicBoolean();
+
+    // aligns the first batch, and blocks on the others until interrupted
+    private static BatchedAlignmentIterator makeBlockingIterator(final int numReads, final AtomicBoolean interrupted) {
+        final AtomicInteger numBatches = new AtomicInteger();
+        return new BatchedAlignmentIterator(makeReads(numReads).iterator(), 10,
+                batch -> {
+                    if (numBatches.incrementAndGet() > 1) {
+                        try {
+                            new CountDownLatch(1).await(1, TimeUnit.MINUTES);
+                        } catch (final InterruptedException e) {
+                            interrupted.set(true);
+                        }
+                    }
+                    return batch.stream().map(seq -> Collections.<BwaMemAlignment>emptyList()).collect(Collectors.toList());
+                },
+                (batch, alignments) -> batch);
+    }
+
+    @Test
+    public void testCloseStopsAlignment() {
+        final AtomicBoolean interrupted = new AtomicBoolean();
+        final BatchedAlignmentIterator iterator = makeBlockingIterator(30, interrupted);
+        Assert.assertNotNull(iterator.next());
+        iterator.close();
+        // close waits for the batch being aligned to be done
+        Assert.assertTrue(interrupted.get());
+        Assert.assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void testIteratorIsClosedWhenSparkTaskCompletes() {
+        final JavaSparkContext ctx = SparkContextFactory.getTestSparkContext();
+        sparkTaskAlignmentInterrupted.set(false);
+        // the task completes with the iterator not drained, and the second batch still being aligned
+        final List<String> names = ctx.parallelize(Collections.singletonList(30), 1)
+                .mapPartitions(numReads -> makeBlockingIterator(numReads.next(), sparkTaskAlignmentInterrupted))
+                .map(GATKRead::getName)
+                .take(1);
+        Assert.assertEquals(names, Collections.singletonList("read0"));
+        Assert.assertTrue(sparkTaskAlignmentInterrupted.get());
+    }
+}
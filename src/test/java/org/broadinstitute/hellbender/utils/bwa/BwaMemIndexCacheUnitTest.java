@@ -0,0 +1,134 @@
+package org.broadinstitute.hellbender.utils.bwa;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class BwaMemIndexCacheUnitTest extends GATKBaseTest {
+
+    private static final File IMAGE = new File(toolsTestDir, "spark/bwa/BwaSpark/ref.fa.img");
+
+    private final List<String> images = new ArrayList<>();
+
+    // a distinct image file, so that it's cached separately
+    private File copyOfImage() throws IOException {
+        final File copy = createTempFile("ref", ".img");
+        Files.copy(IMAGE.toPath(), copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        images.add(copy.getAbsolutePath());
+        return copy;
+    }
+
+    @AfterMethod
+    public void resetCache() {
+        BwaMemIndexCache.setMemoryBudget(BwaMemIndexCache.UNLIMITED_MEMORY_BUDGET);
+        images.forEach(BwaMemIndexCache::closeInstance);
+        images.clear();
+    }
+
+    @Test
+    public void testReferencedInstancesAreShared() throws IOException {
+        final String image = copyOfImage().getAbsolutePath();
+        final BwaMemIndexCache.Metrics before = BwaMemIndexCache.getMetrics();
+        final BwaMemIndex first = BwaMemIndexCache.getInstance(image);
+        final BwaMemIndex second = BwaMemIndexCache.getInstance(image);
+        Assert.assertSame(second, first);
+        final BwaMemIndexCache.Metrics after = BwaMemIndexCache.getMetrics();
+        Assert.assertEquals(after.getNumLoads() - before.getNumLoads(), 1);
+        Assert.assertEquals(after.getNumHits() - before.getNumHits(), 1);
+        Assert.assertEquals(after.getResidentBytes() - before.getResidentBytes(), IMAGE.length());
+
+        // closing the unreferenced instances leaves the one in use open, until all its references are released
+        BwaMemIndexCache.releaseInstance(first);
+        BwaMemIndexCache.closeInstances();
+        Assert.assertSame(BwaMemIndexCache.getInstance(image), first);
+        BwaMemIndexCache.releaseInstance(first);
+        BwaMemIndexCache.releaseInstance(first);
+        BwaMemIndexCache.closeInstances();
+        Assert.assertNotSame(BwaMemIndexCache.getInstance(image), first);
+    }
+
+    @Test
+    public void testUnreferencedInstancesAreKeptOpen() throws IOException {
+        final String image = copyOfImage().getAbsolutePath();
+        final BwaMemIndex index = BwaMemIndexCache.getInstance(image);
+        BwaMemIndexCache.releaseInstance(index);
+        final long loads = BwaMemIndexCache.getMetrics().getNumLoads();
+        Assert.assertSame(BwaMemIndexCache.getInstance(image), index);
+        Assert.assertEquals(BwaMemIndexCache.getMetrics().getNumLoads(), loads);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() throws IOException {
+        final String image1 = copyOfImage().getAbsolutePath();
+        final String image2 = copyOfImage().getAbsolutePath();
+        final String image3 = copyOfImage().getAbsolutePath();
+        // room for two images
+        BwaMemIndexCache.setMemoryBudget(2 * IMAGE.length());
+
+        final BwaMemIndex index1 = BwaMemIndexCache.getInstance(image1);
+        final BwaMemIndex index2 = BwaMemIndexCache.getInstance(image2);
+        BwaMemIndexCache.releaseInstance(index2);
+        BwaMemIndexCache.releaseInstance(index1);
+        // image 1 is now the most recently used
+        BwaMemIndexCache.releaseInstance(BwaMemIndexCache.getInstance(image1));
+
+        final long evictions = BwaMemIndexCache.getMetrics().getNumEvictions();
+        final BwaMemIndex index3 = BwaMemIndexCache.getInstance(image3);
+        Assert.assertEquals(BwaMemIndexCache.getMetrics().getNumEvictions(), evictions + 1);
+        Assert.assertEquals(BwaMemIndexCache.getMetrics().getResidentBytes(), 2 * IMAGE.length());
+        Assert.assertSame(BwaMemIndexCache.getInstance(image1), index1);
+        Assert.assertNotSame(BwaMemIndexCache.getInstance(image2), index2);
+
+        // images in use are never evicted, even if that exceeds the budget
+        Assert.assertEquals(BwaMemIndexCache.getMetrics().getNumReferencedInstances(), 3);
+        Assert.assertEquals(BwaMemIndexCache.getMetrics().getResidentBytes(), 3 * IMAGE.length());
+        BwaMemIndexCache.releaseInstance(index3);
+        Assert.assertEquals(BwaMemIndexCache.getMetrics().getResidentBytes(), 2 * IMAGE.length());
+    }
+
+    @Test
+    public void testTrimKeepsInstancesWithinBudget() throws IOException {
+        final String image = copyOfImage().getAbsolutePath();
+        BwaMemIndexCache.setMemoryBudget(IMAGE.length());
+        final BwaMemIndex index = BwaMemIndexCache.getInstance(image);
+        BwaMemIndexCache.releaseInstance(index);
+        BwaMemIndexCache.trimInstances();
+        Assert.assertSame(BwaMemIndexCache.getInstance(image), index);
+    }
+
+    @Test
+    public void testBudgetOfCall() throws IOException {
+        final String image1 = copyOfImage().getAbsolutePath();
+        final String image2 = copyOfImage().getAbsolutePath();
+
+        // the budget given for the release closes the instance, whatever the budget of the VM
+        final BwaMemIndex index1 = BwaMemIndexCache.getInstance(image1, 0);
+        BwaMemIndexCache.releaseInstance(index1, 0);
+        Assert.assertNotSame(BwaMemIndexCache.getInstance(image1), index1);
+        BwaMemIndexCache.releaseInstance(BwaMemIndexCache.getInstance(image1));
+
+        // and the budget given for the load closes the unreferenced instance to make room for the new one
+        final long evictions = BwaMemIndexCache.getMetrics().getNumEvictions();
+        BwaMemIndexCache.releaseInstance(BwaMemIndexCache.getInstance(image2, IMAGE.length()), IMAGE.length());
+        Assert.assertEquals(BwaMemIndexCache.getMetrics().getNumEvictions(), evictions + 1);
+        Assert.assertEquals(BwaMemIndexCache.getMemoryBudget(), BwaMemIndexCache.UNLIMITED_MEMORY_BUDGET);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNegativeBudgetOfCall() throws IOException {
+        BwaMemIndexCache.getInstance(copyOfImage().getAbsolutePath(), -1);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNegativeBudget() {
+        BwaMemIndexCache.setMemoryBudget(-1);
+    }
+}
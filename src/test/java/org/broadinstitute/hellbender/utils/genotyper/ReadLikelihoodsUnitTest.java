@@ -247,6 +247,77 @@ public final class ReadLikelihoodsUnitTest {
         }
     }
 
+    @Test(dataProvider = "marginalizationDataSets")
+    public void testMarginalizationAndCopyAreIndependentOfLaterChanges(final String[] samples, final Allele[] alleles, final Map<String,List<GATKRead>> reads, final Map<Allele,List<Allele>> newToOldAlleleMapping) {
+        final ReadLikelihoods<Allele> original = new ReadLikelihoods<>(new IndexedSampleList(samples), new IndexedAlleleList<>(alleles), reads);
+        final double[][][] likelihoods = fillWithRandomLikelihoods(samples, alleles, original);
+        final ReadLikelihoods<Allele> marginalized = original.marginalize(newToOldAlleleMapping);
+        final ReadLikelihoods<Allele> copy = original.copy();
+        // marginalization and copies share the likelihoods of the original.
+        Assert.assertEquals(marginalized.likelihoodValueBytes(), 0);
+        final double[][][] marginalLikelihoods = new double[samples.length][marginalized.numberOfAlleles()][];
+        for (int s = 0; s < samples.length; s++) {
+            for (int a = 0; a < marginalized.numberOfAlleles(); a++) {
+                marginalLikelihoods[s][a] = new double[marginalized.sampleReadCount(s)];
+                marginalized.sampleMatrix(s).copyAlleleLikelihoods(a, marginalLikelihoods[s][a], 0);
+            }
+        }
+
+        // changing the original does not change the marginalization nor the copy...
+        for (int s = 0; s < samples.length; s++) {
+            for (int a = 0; a < alleles.length; a++) {
+                for (int r = 0; r < original.sampleReadCount(s); r++) {
+                    original.sampleMatrix(s).set(a, r, -100);
+                }
+            }
+        }
+        testLikelihoodMatrixQueries(samples, marginalized, marginalLikelihoods);
+        testLikelihoodMatrixQueries(samples, copy, likelihoods);
+
+        // ... and changing the marginalization does not change the original.
+        for (int s = 0; s < samples.length; s++) {
+            for (int a = 0; a < marginalized.numberOfAlleles(); a++) {
+                for (int r = 0; r < marginalized.sampleReadCount(s); r++) {
+                    marginalized.sampleMatrix(s).set(a, r, marginalLikelihoods[s][a][r] = -1);
+                }
+            }
+        }
+        testLikelihoodMatrixQueries(samples, marginalized, marginalLikelihoods);
+        for (int s = 0; s < samples.length; s++) {
+            for (int a = 0; a < alleles.length; a++) {
+                for (int r = 0; r < original.sampleReadCount(s); r++) {
+                    Assert.assertEquals(original.sampleMatrix(s).get(a, r), -100.0);
+                }
+            }
+        }
+    }
+
+    @Test(dataProvider = "marginalizationDataSets")
+    public void testSinglePrecision(final String[] samples, final Allele[] alleles, final Map<String,List<GATKRead>> reads, final Map<Allele,List<Allele>> newToOldAlleleMapping) {
+        final ReadLikelihoods<Allele> doublePrecision = new ReadLikelihoods<>(new IndexedSampleList(samples), new IndexedAlleleList<>(alleles), reads);
+        final ReadLikelihoods<Allele> singlePrecision = new ReadLikelihoods<>(new IndexedSampleList(samples), new IndexedAlleleList<>(alleles), reads, true);
+        Assert.assertFalse(doublePrecision.isSinglePrecision());
+        Assert.assertTrue(singlePrecision.isSinglePrecision());
+        Assert.assertEquals(2 * singlePrecision.likelihoodValueBytes(), doublePrecision.likelihoodValueBytes());
+
+        final double[][][] likelihoods = fillWithRandomLikelihoods(samples, alleles, singlePrecision);
+        for (int s = 0; s < samples.length; s++) {
+            for (int a = 0; a < alleles.length; a++) {
+                for (int r = 0; r < likelihoods[s][a].length; r++) {
+                    Assert.assertEquals(singlePrecision.sampleMatrix(s).get(a, r), (double) (float) likelihoods[s][a][r]);
+                }
+            }
+        }
+        testLikelihoodMatrixQueries(samples, singlePrecision, likelihoods);
+
+        Assert.assertTrue(singlePrecision.copy().isSinglePrecision());
+        final ReadLikelihoods<Allele> marginalized = singlePrecision.marginalize(newToOldAlleleMapping);
+        Assert.assertTrue(marginalized.isSinglePrecision());
+        marginalized.addNonReferenceAllele(Allele.NON_REF_ALLELE);
+        Assert.assertTrue(marginalized.isSinglePrecision());
+        Assert.assertTrue(marginalized.likelihoodValueBytes() > 0);
+    }
+
     @Test(dataProvider = "dataSets")
     public void testNormalizeBestToZero(final String[] samples, final Allele[] alleles, final Map<String,List<GATKRead>> reads) {
         final ReadLikelihoods<Allele> original = new ReadLikelihoods<>(new IndexedSampleList(samples), new IndexedAlleleList<>(alleles), reads);
@@ -5,7 +5,12 @@ import org.broadinstitute.hellbender.utils.BaseUtils;
 import org.broadinstitute.hellbender.utils.MathUtils;
 import org.broadinstitute.hellbender.utils.QualityUtils;
 import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.genotyper.AlleleList;
+import org.broadinstitute.hellbender.utils.genotyper.IndexedAlleleList;
+import org.broadinstitute.hellbender.utils.genotyper.IndexedSampleList;
 import org.broadinstitute.hellbender.utils.genotyper.LikelihoodMatrix;
+import org.broadinstitute.hellbender.utils.genotyper.ReadLikelihoods;
+import org.broadinstitute.hellbender.utils.genotyper.SampleList;
 import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
 import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
@@ -532,6 +537,58 @@ public final class PairHMMUnitTest extends GATKBaseTest {
 
     }
 
+    @DataProvider(name = "NewHMMProvider")
+    public Object[][] makeNewHMMProvider() {
+        // new instances, so that state left behind by these tests doesn't affect the tests that share getHMMs()
+        return new Object[][]{{new Log10PairHMM(true)}, {new Log10PairHMM(false)}, {new LoglessPairHMM()}};
+    }
+
+    @Test(dataProvider = "NewHMMProvider")
+    public void testBatchMatchesPerMatrixComputation(final PairHMM hmm) {
+        final List<Haplotype> haplotypes = Arrays.asList(new Haplotype("ACGTACGTACGTTTTACGTAACC".getBytes(), true),
+                new Haplotype("ACGTACGTACCTTTTACGTAACC".getBytes(), false),
+                new Haplotype("ACGTACGTTTTACGTAACC".getBytes(), false));
+        final Map<String, List<GATKRead>> perSampleReads = new LinkedHashMap<>();
+        perSampleReads.put("sample1", Arrays.asList(ArtificialReadUtils.createArtificialRead("GTACGTACGTTTT".getBytes(), Utils.dupBytes((byte) 30, 13), "13M"),
+                ArtificialReadUtils.createArtificialRead("ACCTTTTACG".getBytes(), Utils.dupBytes((byte) 25, 10), "10M")));
+        perSampleReads.put("sample2", Collections.emptyList());
+        perSampleReads.put("sample3", Arrays.asList(ArtificialReadUtils.createArtificialRead("CGTTTTACGTAA".getBytes(), Utils.dupBytes((byte) 20, 12), "12M")));
+        final List<GATKRead> allReads = new ArrayList<>();
+        perSampleReads.values().forEach(allReads::addAll);
+        final Map<GATKRead, byte[]> gcps = buildGapContinuationPenalties(allReads, (byte) 10);
+
+        final SampleList samples = new IndexedSampleList(perSampleReads.keySet());
+        final AlleleList<Haplotype> alleles = new IndexedAlleleList<>(haplotypes);
+        final ReadLikelihoods<Haplotype> expected = new ReadLikelihoods<>(samples, alleles, perSampleReads);
+        final ReadLikelihoods<Haplotype> actual = new ReadLikelihoods<>(samples, alleles, perSampleReads);
+        final List<LikelihoodMatrix<Haplotype>> matrices = new ArrayList<>();
+        final List<List<GATKRead>> reads = new ArrayList<>();
+        for ( int s = 0; s < samples.numberOfSamples(); s++ ) {
+            matrices.add(actual.sampleMatrix(s));
+            reads.add(perSampleReads.get(samples.getSample(s)));
+        }
+
+        hmm.initialize(haplotypes, perSampleReads, 13, 23);
+        for ( int s = 0; s < samples.numberOfSamples(); s++ ) {
+            hmm.computeLog10Likelihoods(expected.sampleMatrix(s), reads.get(s), gcps);
+        }
+        hmm.computeLog10Likelihoods(matrices, reads, gcps);
+
+        for ( int s = 0; s < samples.numberOfSamples(); s++ ) {
+            for ( int a = 0; a < haplotypes.size(); a++ ) {
+                for ( int r = 0; r < reads.get(s).size(); r++ ) {
+                    Assert.assertEquals(actual.sampleMatrix(s).get(a, r), expected.sampleMatrix(s).get(a, r));
+                }
+            }
+        }
+    }
+
+    @Test(dataProvider = "NewHMMProvider", expectedExceptions = IllegalArgumentException.class)
+    public void testBatchRequiresSameAlleles(final PairHMM hmm) {
+        final List<Haplotype> haplotypes = Arrays.asList(new Haplotype("ACGTACGTACGTTTTACGTAACC".getBytes(), true));
+        hmm.computeLog10Likelihoods(Arrays.asList(matrix(haplotypes), matrix(Collections.emptyList())), Arrays.asList(Collections.emptyList(), Collections.emptyList()), Collections.emptyMap());
+    }
+
     private LikelihoodMatrix<Haplotype> matrix(final List<Haplotype> haplotypes) {
         return new LikelihoodMatrix<Haplotype>() {
             @Override
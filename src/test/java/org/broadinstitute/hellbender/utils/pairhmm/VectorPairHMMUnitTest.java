@@ -2,7 +2,12 @@ package org.broadinstitute.hellbender.utils.pairhmm;
 
 import org.broadinstitute.gatk.nativebindings.pairhmm.PairHMMNativeArguments;
 import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.genotyper.IndexedAlleleList;
+import org.broadinstitute.hellbender.utils.genotyper.IndexedSampleList;
 import org.broadinstitute.hellbender.utils.genotyper.LikelihoodMatrix;
+import org.broadinstitute.hellbender.utils.genotyper.ReadLikelihoods;
+import org.broadinstitute.hellbender.utils.genotyper.SampleList;
 import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
 import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
@@ -112,6 +117,62 @@ public final class VectorPairHMMUnitTest extends GATKBaseTest {
         hmm.close();
     }
 
+    @DataProvider(name = "ImplementationProvider")
+    public Object[][] makeImplementationProvider() {
+        return Arrays.stream(VectorLoglessPairHMM.Implementation.values()).map(imp -> new Object[]{imp}).toArray(Object[][]::new);
+    }
+
+    @Test(dataProvider = "ImplementationProvider")
+    public void testBatchMatchesPerMatrixComputation(final VectorLoglessPairHMM.Implementation implementation) {
+        // the native implementations share state, so make a new one here rather than using one made by another provider
+        final PairHMMNativeArguments args = new PairHMMNativeArguments();
+        args.useDoublePrecision = false;
+        args.maxNumberOfThreads = 1;
+        final PairHMM hmm;
+        try {
+            hmm = new VectorLoglessPairHMM(implementation, args);
+        } catch (UserException.HardwareFeatureException e) {
+            throw new SkipException("AVX PairHMM is not supported on this system or the library is not available");
+        }
+
+        final List<Haplotype> haplotypes = Arrays.asList(new Haplotype("ACGTACGTACGTTTTACGTAACC".getBytes(), true),
+                new Haplotype("ACGTACGTACCTTTTACGTAACC".getBytes(), false),
+                new Haplotype("ACGTACGTTTTACGTAACC".getBytes(), false));
+        final Map<String, List<GATKRead>> perSampleReads = new LinkedHashMap<>();
+        perSampleReads.put("sample1", Arrays.asList(ArtificialReadUtils.createArtificialRead("GTACGTACGTTTT".getBytes(), Utils.dupBytes((byte) 30, 13), "13M"),
+                ArtificialReadUtils.createArtificialRead("ACCTTTTACG".getBytes(), Utils.dupBytes((byte) 25, 10), "10M")));
+        perSampleReads.put("sample2", Collections.emptyList());
+        perSampleReads.put("sample3", Arrays.asList(ArtificialReadUtils.createArtificialRead("CGTTTTACGTAA".getBytes(), Utils.dupBytes((byte) 20, 12), "12M")));
+        final Map<GATKRead, byte[]> gcps = new LinkedHashMap<>();
+        perSampleReads.values().forEach(reads -> reads.forEach(read -> gcps.put(read, Utils.dupBytes((byte) 10, read.getLength()))));
+
+        final SampleList samples = new IndexedSampleList(perSampleReads.keySet());
+        final ReadLikelihoods<Haplotype> expected = new ReadLikelihoods<>(samples, new IndexedAlleleList<>(haplotypes), perSampleReads);
+        final ReadLikelihoods<Haplotype> actual = new ReadLikelihoods<>(samples, new IndexedAlleleList<>(haplotypes), perSampleReads);
+        final List<LikelihoodMatrix<Haplotype>> matrices = new ArrayList<>();
+        final List<List<GATKRead>> reads = new ArrayList<>();
+        for ( int s = 0; s < samples.numberOfSamples(); s++ ) {
+            matrices.add(actual.sampleMatrix(s));
+            reads.add(perSampleReads.get(samples.getSample(s)));
+        }
+
+        hmm.initialize(haplotypes, perSampleReads, 0, 0);
+        for ( int s = 0; s < samples.numberOfSamples(); s++ ) {
+            hmm.computeLog10Likelihoods(expected.sampleMatrix(s), reads.get(s), gcps);
+        }
+        hmm.computeLog10Likelihoods(matrices, reads, gcps);
+
+        for ( int s = 0; s < samples.numberOfSamples(); s++ ) {
+            for ( int a = 0; a < haplotypes.size(); a++ ) {
+                for ( int r = 0; r < reads.get(s).size(); r++ ) {
+                    Assert.assertEquals(actual.sampleMatrix(s).get(a, r), expected.sampleMatrix(s).get(a, r));
+                }
+            }
+        }
+
+        hmm.close();
+    }
+
     private static byte[] normalize(byte[] scores) {
         return normalize(scores, 0);
     }
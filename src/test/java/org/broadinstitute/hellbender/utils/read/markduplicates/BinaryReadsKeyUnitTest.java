@@ -0,0 +1,109 @@
+package org.broadinstitute.hellbender.utils.read.markduplicates;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMReadGroupRecord;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+
+public final class BinaryReadsKeyUnitTest extends GATKBaseTest {
+
+    private static SAMFileHeader createHeader() {
+        // read groups 0 and 1 share library A, read group 2 is library B, read group 3 has no library
+        final SAMFileHeader header = ArtificialReadUtils.createArtificialSamHeaderWithGroups(2, 1, 1000, 4);
+        header.getReadGroups().get(0).setLibrary("A");
+        header.getReadGroups().get(1).setLibrary("A");
+        header.getReadGroups().get(2).setLibrary("B");
+        return header;
+    }
+
+    private static GATKRead createRead(final SAMFileHeader header, final int readGroup, final int refIndex, final int start, final boolean reverse) {
+        final GATKRead read = ArtificialReadUtils.createArtificialRead(header, "read", refIndex, start, 20);
+        read.setReadGroup(header.getReadGroups().get(readGroup).getReadGroupId());
+        read.setIsReverseStrand(reverse);
+        return read;
+    }
+
+    @Test
+    public void testLibraryIdsByReadGroup() {
+        final SAMFileHeader header = createHeader();
+        final Map<String, Short> libraryIds = LibraryIdGenerator.getLibraryIdsByReadGroup(header);
+        final String[] ids = header.getReadGroups().stream().map(SAMReadGroupRecord::getReadGroupId).toArray(String[]::new);
+
+        Assert.assertEquals(libraryIds.size(), 3);
+        Assert.assertEquals((short) libraryIds.get(ids[0]), 1);
+        Assert.assertEquals((short) libraryIds.get(ids[1]), 1);
+        Assert.assertEquals((short) libraryIds.get(ids[2]), 2);
+        Assert.assertFalse(libraryIds.containsKey(ids[3]));
+    }
+
+    @Test
+    public void testFragmentKeys() {
+        final SAMFileHeader header = createHeader();
+        final Map<String, Short> libraryIds = LibraryIdGenerator.getLibraryIdsByReadGroup(header);
+
+        final BinaryReadsKey key = BinaryReadsKey.keyForFragment(header, libraryIds, createRead(header, 0, 0, 100, false));
+        Assert.assertTrue(key.isFragment());
+
+        // same library through a different read group
+        Assert.assertEquals(BinaryReadsKey.keyForFragment(header, libraryIds, createRead(header, 1, 0, 100, false)), key);
+        Assert.assertEquals(BinaryReadsKey.keyForFragment(header, libraryIds, createRead(header, 1, 0, 100, false)).hashCode(), key.hashCode());
+
+        Assert.assertNotEquals(BinaryReadsKey.keyForFragment(header, libraryIds, createRead(header, 2, 0, 100, false)), key);
+        Assert.assertNotEquals(BinaryReadsKey.keyForFragment(header, libraryIds, createRead(header, 0, 1, 100, false)), key);
+        Assert.assertNotEquals(BinaryReadsKey.keyForFragment(header, libraryIds, createRead(header, 0, 0, 101, false)), key);
+        Assert.assertNotEquals(BinaryReadsKey.keyForFragment(header, libraryIds, createRead(header, 0, 0, 100, true)), key);
+
+        // a fragment key never equals the paired-ends key for the same read
+        Assert.assertNotEquals(BinaryReadsKey.keyForPairedEnds(header, libraryIds, createRead(header, 0, 0, 100, false), null), key);
+    }
+
+    @Test
+    public void testPairedEndsKeys() {
+        final SAMFileHeader header = createHeader();
+        final Map<String, Short> libraryIds = LibraryIdGenerator.getLibraryIdsByReadGroup(header);
+
+        final BinaryReadsKey key = BinaryReadsKey.keyForPairedEnds(header, libraryIds,
+                createRead(header, 0, 0, 100, false), createRead(header, 0, 1, 300, true));
+        Assert.assertFalse(key.isFragment());
+        Assert.assertEquals(BinaryReadsKey.keyForPairedEnds(header, libraryIds,
+                createRead(header, 0, 0, 100, false), createRead(header, 0, 1, 300, true)), key);
+        Assert.assertNotEquals(BinaryReadsKey.keyForPairedEnds(header, libraryIds,
+                createRead(header, 0, 0, 100, false), createRead(header, 0, 1, 300, false)), key);
+        Assert.assertNotEquals(BinaryReadsKey.keyForPairedEnds(header, libraryIds,
+                createRead(header, 0, 0, 100, false), createRead(header, 0, 0, 300, true)), key);
+        Assert.assertNotEquals(BinaryReadsKey.keyForPairedEnds(header, libraryIds,
+                createRead(header, 0, 0, 100, false), null), key);
+    }
+
+    @Test
+    public void testSerialization() {
+        final SAMFileHeader header = createHeader();
+        final Map<String, Short> libraryIds = LibraryIdGenerator.getLibraryIdsByReadGroup(header);
+        final BinaryReadsKey key = BinaryReadsKey.keyForPairedEnds(header, libraryIds,
+                createRead(header, 2, 1, 100, true), createRead(header, 2, 0, 300, false));
+
+        final Kryo kryo = new Kryo();
+        kryo.register(BinaryReadsKey.class, new BinaryReadsKey.Serializer());
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final Output output = new Output(bytes);
+        kryo.writeObject(output, key);
+        output.close();
+
+        final Input input = new Input(new ByteArrayInputStream(bytes.toByteArray()));
+        final BinaryReadsKey roundTrip = kryo.readObject(input, BinaryReadsKey.class);
+        input.close();
+
+        Assert.assertEquals(roundTrip, key);
+        Assert.assertEquals(roundTrip.toString(), key.toString());
+    }
+}
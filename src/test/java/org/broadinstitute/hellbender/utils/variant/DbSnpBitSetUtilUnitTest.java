@@ -0,0 +1,84 @@
+package org.broadinstitute.hellbender.utils.variant;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+
+public final class DbSnpBitSetUtilUnitTest extends GATKBaseTest {
+
+    private static final File VCF = new File(publicTestDir + "org/broadinstitute/hellbender/engine/feature_data_source_test.vcf");
+
+    private static SAMSequenceDictionary makeDictionary(final int length) {
+        return new SAMSequenceDictionary(Arrays.asList(
+                new SAMSequenceRecord("1", length), new SAMSequenceRecord("2", length),
+                new SAMSequenceRecord("3", length), new SAMSequenceRecord("4", length)));
+    }
+
+    @DataProvider(name = "indexArguments")
+    public Object[][] indexArguments() {
+        return new Object[][]{
+                {makeDictionary(2000), EnumSet.noneOf(DbSnpVariantType.class)},
+                {null, EnumSet.noneOf(DbSnpVariantType.class)},
+                {makeDictionary(2000), EnumSet.of(DbSnpVariantType.SNP)},
+                {null, EnumSet.of(DbSnpVariantType.insertion, DbSnpVariantType.deletion)},
+        };
+    }
+
+    @Test(dataProvider = "indexArguments")
+    public void testIndexMatchesVcf(final SAMSequenceDictionary dictionary, final Collection<DbSnpVariantType> variantTypes) {
+        final DbSnpBitSetUtil fromVcf = DbSnpBitSetUtil.load(VCF, dictionary, variantTypes);
+        final File indexFile = createTempFile("dbsnp", DbSnpBitSetUtil.INDEX_EXTENSION);
+        fromVcf.writeIndex(indexFile);
+        final DbSnpBitSetUtil fromIndex = DbSnpBitSetUtil.load(indexFile, dictionary, variantTypes);
+
+        int numSites = 0;
+        for (final String contig : Arrays.asList("1", "2", "3", "4", "5")) {
+            for (int pos = 0; pos <= 2100; pos++) {
+                Assert.assertEquals(fromIndex.isDbSnpSite(contig, pos), fromVcf.isDbSnpSite(contig, pos), contig + ":" + pos);
+                numSites += fromVcf.isDbSnpSite(contig, pos) ? 1 : 0;
+            }
+        }
+        Assert.assertTrue(numSites > 0);
+        Assert.assertEquals(fromIndex.isDbSnpSite("1", 100), !variantTypes.equals(EnumSet.of(DbSnpVariantType.insertion, DbSnpVariantType.deletion)));
+        Assert.assertEquals(fromIndex.isDbSnpSite("1", 204), !variantTypes.equals(EnumSet.of(DbSnpVariantType.SNP)));
+    }
+
+    @Test(expectedExceptions = UserException.BadInput.class)
+    public void testIndexWithDifferentSequenceLengths() {
+        final File indexFile = createTempFile("dbsnp", DbSnpBitSetUtil.INDEX_EXTENSION);
+        new DbSnpBitSetUtil(VCF, makeDictionary(2000)).writeIndex(indexFile);
+        DbSnpBitSetUtil.load(indexFile, makeDictionary(3000), EnumSet.noneOf(DbSnpVariantType.class));
+    }
+
+    @Test(expectedExceptions = UserException.BadInput.class)
+    public void testIndexWithMissingSequence() {
+        final File indexFile = createTempFile("dbsnp", DbSnpBitSetUtil.INDEX_EXTENSION);
+        new DbSnpBitSetUtil(VCF, null).writeIndex(indexFile);
+        DbSnpBitSetUtil.load(indexFile, new SAMSequenceDictionary(Arrays.asList(new SAMSequenceRecord("1", 2000))), EnumSet.noneOf(DbSnpVariantType.class));
+    }
+
+    @Test(expectedExceptions = UserException.BadInput.class)
+    public void testIndexWithDifferentVariantTypes() {
+        final File indexFile = createTempFile("dbsnp", DbSnpBitSetUtil.INDEX_EXTENSION);
+        new DbSnpBitSetUtil(VCF, null).writeIndex(indexFile);
+        DbSnpBitSetUtil.load(indexFile, null, EnumSet.of(DbSnpVariantType.SNP));
+    }
+
+    @Test(expectedExceptions = UserException.MalformedFile.class)
+    public void testNotAnIndex() throws IOException {
+        final File notAnIndex = createTempFile("notAnIndex", DbSnpBitSetUtil.INDEX_EXTENSION);
+        Files.write(notAnIndex.toPath(), "not an index at all".getBytes());
+        DbSnpBitSetUtil.load(notAnIndex, null, EnumSet.noneOf(DbSnpVariantType.class));
+    }
+}